@@ -1,6 +1,5 @@
 package com.uptc.queenscorner;
 
-import com.uptc.queenscorner.utils.FileUtils;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
@@ -24,12 +23,10 @@ public class QueenscornerApplication {
     
     /**
      * Método principal que inicia la aplicación
-     * Crea directorios necesarios antes de iniciar Spring
+     * El directorio de documentos lo crea el almacén al arrancar (AlmacenConfig)
      * @param args Argumentos de línea de comandos
      */
     public static void main(String[] args) {
-        FileUtils.inicializarDirectorios();
-        
         SpringApplication.run(QueenscornerApplication.class, args);
     }
 }
\ No newline at end of file
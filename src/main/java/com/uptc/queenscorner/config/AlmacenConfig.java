@@ -0,0 +1,48 @@
+package com.uptc.queenscorner.config;
+
+import com.uptc.queenscorner.services.almacen.AlmacenDocumentosEmpaquetado;
+import com.uptc.queenscorner.services.almacen.AlmacenDocumentosLocal;
+import com.uptc.queenscorner.services.almacen.AlmacenDocumentosMemoria;
+import com.uptc.queenscorner.services.almacen.IAlmacenDocumentos;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.nio.file.Paths;
+
+/**
+ * Configuración del almacén de documentos generados (PDFs)
+ *
+ * - almacen.documentos.tipo:
+ *   - local: archivos sueltos en el sistema de archivos
+ *   - empaquetado: como local, y los PDFs antiguos se empaquetan en segmentos
+ *     (CompactacionDocumentosJob)
+ *   - memoria: pruebas
+ * - almacen.documentos.raiz: directorio raíz del almacén local/empaquetado
+ * - almacen.compactacion.tamano-segmento: bytes por segmento (máximo 2 GB, por mmap)
+ *
+ * El directorio raíz se crea al arrancar: si no puede crearse, el error
+ * aparece en el arranque y no en el primer PDF generado.
+ */
+@Configuration
+public class AlmacenConfig {
+
+    /**
+     * Crea el almacén de documentos según la configuración
+     * @param tipo local, empaquetado o memoria
+     * @param raiz Directorio raíz (almacén local o empaquetado)
+     * @param tamanoSegmento Bytes por segmento (solo empaquetado)
+     * @return Almacén compartido por generación, descargas y exportación
+     */
+    @Bean
+    public IAlmacenDocumentos almacenDocumentos(
+            @Value("${almacen.documentos.tipo:local}") String tipo,
+            @Value("${almacen.documentos.raiz:${user.home}/queenscorner/queenscornerarchives}") String raiz,
+            @Value("${almacen.compactacion.tamano-segmento:268435456}") long tamanoSegmento) {
+        return switch (tipo.toLowerCase()) {
+            case "local" -> new AlmacenDocumentosLocal(Paths.get(raiz));
+            case "empaquetado" -> new AlmacenDocumentosEmpaquetado(Paths.get(raiz), tamanoSegmento);
+            case "memoria" -> new AlmacenDocumentosMemoria();
+            default -> throw new IllegalStateException("Tipo de almacén de documentos no soportado: " + tipo);
+        };
+    }
+}
@@ -1,27 +1,42 @@
 package com.uptc.queenscorner.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * Configuración del procesamiento asincrónico
  * Define un pool de threads para tareas de larga duración
- * 
+ *
  * Utilizado para:
- * - Generación de PDFs en background
  * - Envío de notificaciones
  * - Procesamiento de reportes
- * 
+ *
  * Pool de threads:
  * - Threads principales: 5
  * - Máximo de threads: 10
  * - Cola de espera: 100 tareas
+ *
+ * La generación de PDFs usa un pool dedicado (pdfExecutor) con cola acotada
+ * para que una ráfaga de documentos no cree threads sin límite ni compita
+ * con el resto de tareas asincrónicas.
+ *
+ * @EnableScheduling activa el sondeo periódico de la cola persistente de
+ * documentos (TrabajoDocumentoWorker) y la compactación del almacén
+ * (CompactacionDocumentosJob). El scheduler tiene un thread por tarea
+ * (spring.task.scheduling.pool.size) para que una no retrase a la otra.
  */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
     /**
@@ -39,4 +54,58 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Crea el ejecutor dedicado a la generación de PDFs
+     *
+     * Política de saturación:
+     * - Cola acotada (pdf.executor.queue-capacity)
+     * - Si la cola está llena se rechaza la tarea (RejectedExecutionException)
+     *   y se contabiliza el rechazo
+     * - Cada punto de envío decide qué hacer con el rechazo: la cola persistente
+     *   devuelve el trabajo a EN_COLA, las descargas, exportaciones y dossiers
+     *   renderizan en el thread que llama, y el lote UBL (que no puede correr en la
+     *   petición) lo propaga: el cliente recibe 503 con Retry-After para reintentar
+     *
+     * Métricas publicadas:
+     * - queenscorner.pdf.executor.queue: tareas en espera
+     * - queenscorner.pdf.executor.active: workers renderizando
+     * - queenscorner.pdf.executor.rejected: tareas rechazadas por saturación
+     *
+     * @param meterRegistry Registro de métricas de Micrometer
+     * @return Executor con ThreadPool acotado para PDFs
+     */
+    @Bean(name = "pdfExecutor")
+    public ThreadPoolTaskExecutor pdfExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${pdf.executor.core-size:2}") int coreSize,
+            @Value("${pdf.executor.max-size:4}") int maxSize,
+            @Value("${pdf.executor.queue-capacity:50}") int queueCapacity) {
+        Counter rechazos = Counter.builder("queenscorner.pdf.executor.rejected")
+                .description("Tareas de PDF rechazadas por cola llena")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("queens-pdf-");
+        executor.setRejectedExecutionHandler((tarea, pool) -> {
+            rechazos.increment();
+            throw new RejectedExecutionException("Cola de generación de PDF llena ("
+                    + pool.getQueue().size() + " tareas en espera)");
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        Gauge.builder("queenscorner.pdf.executor.queue", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("PDFs en espera de un worker")
+                .register(meterRegistry);
+        Gauge.builder("queenscorner.pdf.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Workers de PDF renderizando")
+                .register(meterRegistry);
+        return executor;
+    }
+}
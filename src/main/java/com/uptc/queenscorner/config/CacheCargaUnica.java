@@ -0,0 +1,47 @@
+package com.uptc.queenscorner.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.caffeine.CaffeineCache;
+import java.util.concurrent.Callable;
+
+/**
+ * Caché de Caffeine con carga única por clave (single-flight)
+ *
+ * Los @Cacheable(sync = true) cargan con get(clave, cargador): Caffeine ejecuta
+ * un solo cargador por clave y las demás peticiones que llegan con la clave
+ * vacía esperan ese resultado en lugar de consultar la base de datos a la vez
+ * (ej: 'all' de cotizaciones al expirar).
+ *
+ * Esta clase solo lleva la cuenta: una petición que no encuentra su clave al
+ * entrar y aun así no ejecuta el cargador (otra petición lo hizo por ella)
+ * suma en queenscorner.cache.cargas.coalescidas{cache}. La consulta de
+ * entrada usa asMap().get(), que no espera ni dispara cargas.
+ */
+public class CacheCargaUnica extends CaffeineCache {
+
+    private final Counter coalescidas;
+
+    public CacheCargaUnica(String nombre, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                           boolean permitirNulos, MeterRegistry meterRegistry) {
+        super(nombre, cache, permitirNulos);
+        this.coalescidas = Counter.builder("queenscorner.cache.cargas.coalescidas")
+                .description("Peticiones que esperaron la carga en curso de la misma clave")
+                .tag("cache", nombre)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean ausente = getNativeCache().asMap().get(key) == null;
+        boolean[] cargo = {false};
+        T valor = super.get(key, () -> {
+            cargo[0] = true;
+            return valueLoader.call();
+        });
+        if (ausente && !cargo[0]) {
+            coalescidas.increment();
+        }
+        return valor;
+    }
+}
@@ -1,56 +1,153 @@
 package com.uptc.queenscorner.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uptc.queenscorner.utils.EstimadorTamano;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import java.util.concurrent.TimeUnit;
+import org.springframework.core.env.Environment;
+import org.springframework.util.function.SingletonSupplier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Configuración del sistema de caché de la aplicación
  * Utiliza Caffeine para caché en memoria
- * 
- * Cachés configurados:
+ *
+ * Cachés configurados (spring.cache.cache-names):
  * - clientes: Almacena listados y búsquedas de clientes
  * - cotizaciones: Almacena listados de cotizaciones
  * - negocios: Almacena listados de negocios
  * - facturas: Almacena listados de facturas
  * - facturas_negocio: Almacena facturas por negocio
- * 
- * Política:
- * - Tamaño máximo: 500 elementos
- * - Expiración: 10 minutos desde escritura
- * - Capacidad inicial: 100
+ * - catalogos: Datos de referencia que cambian poco
+ * - fragmentos: Partes de respuesta embebidas en otras (FragmentosCacheService)
+ * - respuestas: JSON ya serializado de los listados (RespuestasCacheService)
+ * Un nombre que no esté en la lista no crea una caché nueva.
+ *
+ * Política de cada caché, con la sintaxis de Caffeine:
+ * - cache.politica.<nombre>: política propia (ej: maximumWeight=33554432,expireAfterWrite=10m)
+ * - spring.cache.caffeine.spec: política de las cachés sin política propia
+ *
+ * Límite por memoria: con maximumWeight el peso de cada entrada son los bytes
+ * estimados de clave y valor (EstimadorTamano). Así la lista 'all' de
+ * cotizaciones cuenta lo que ocupa, no lo mismo que un cliente. El peso se
+ * calcula al guardar la entrada.
+ *
+ * Estadísticas: cada caché registra aciertos, fallos, cargas y desalojos
+ * (ContadorEstadisticasCache, con los desalojos por causa). Actuator publica
+ * las métricas cache.* y EstadisticasCacheService las propias (peso, tiempo de
+ * carga, tasa de aciertos).
+ *
+ * Carga única: cada caché es un CacheCargaUnica. Con @Cacheable(sync = true)
+ * las peticiones simultáneas que no encuentran una clave esperan una sola
+ * carga, y Caffeine registra su tiempo (estadística de cargas).
+ *
+ * Recarga anticipada (refreshAfterWrite): pasado ese tiempo, la siguiente
+ * lectura de una entrada dispara su recarga en segundo plano (taskExecutor) y
+ * recibe el valor anterior; nadie espera el findAll(). La recarga la aporta el
+ * bean RecargaCache de la caché, que se busca al primer uso (los servicios que
+ * la implementan dependen a su vez del CacheManager). Sin RecargaCache la
+ * recarga no devuelve nada y la entrada se descarta. Conviene que
+ * refreshAfterWrite sea menor que expireAfterWrite: una entrada que expira ya
+ * no se recarga, se vuelve a calcular al leerla.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    private static final String PREFIJO_POLITICA = "cache.politica.";
+
     /**
      * Crea el gestor de caché con Caffeine
-     * Configura cachés reutilizables en toda la aplicación
+     * Registra cada caché con su propia política
+     * @param nombres Cachés de la aplicación
+     * @param especPorDefecto Política de las cachés sin política propia
+     * @param entorno Para leer cache.politica.<nombre>
+     * @param recargas Recargas disponibles (refreshAfterWrite)
+     * @param executor Ejecutor de las recargas en segundo plano
+     * @param meterRegistry Registro de métricas (desalojos por causa)
      * @return CacheManager con Caffeine
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-            "clientes", "cotizaciones", "negocios", "facturas", "facturas_negocio"
-        );
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+    public CacheManager cacheManager(
+            @Value("${spring.cache.cache-names:clientes,cotizaciones,negocios,facturas,facturas_negocio,catalogos,fragmentos,respuestas}") String[] nombres,
+            @Value("${spring.cache.caffeine.spec:maximumSize=500,expireAfterWrite=10m}") String especPorDefecto,
+            Environment entorno,
+            ObjectProvider<RecargaCache> recargas,
+            @Qualifier("taskExecutor") Executor executor,
+            MeterRegistry meterRegistry) {
+        // Se resuelven al primer uso, no al crear el CacheManager (dependencia circular)
+        Supplier<Map<String, RecargaCache>> recargaPorCache = SingletonSupplier.of(() -> recargas.orderedStream()
+                .collect(Collectors.toMap(RecargaCache::getNombreCache, Function.identity())));
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String nombre, Cache<Object, Object> cache) {
+                return new CacheCargaUnica(nombre, cache, isAllowNullValues(), meterRegistry);
+            }
+        };
+        // Sin nombres dinámicos: solo existen las cachés registradas aquí
+        cacheManager.setCacheNames(List.of());
+        for (String nombre : nombres) {
+            String nombreCache = nombre.trim();
+            String espec = entorno.getProperty(PREFIJO_POLITICA + nombreCache, especPorDefecto);
+            cacheManager.registerCustomCache(nombreCache,
+                    crearCache(nombreCache, espec, clave -> recargar(recargaPorCache.get(), nombreCache, clave),
+                            executor, meterRegistry));
+        }
         return cacheManager;
     }
 
     /**
-     * Configura las políticas de caché (expiración, tamaño máximo, etc)
-     * @return Configuración de Caffeine para todas las cachés
+     * Construye una caché a partir de su política
+     * @param nombre Nombre de la caché
+     * @param espec Política con la sintaxis de Caffeine
+     * @param recarga Recarga de la caché (refreshAfterWrite)
+     * @param executor Ejecutor de las recargas
+     * @param meterRegistry Registro de métricas
+     * @return Caché de Caffeine con estadísticas
+     */
+    private Cache<Object, Object> crearCache(String nombre, String espec, CacheLoader<Object, Object> recarga,
+                                             Executor executor, MeterRegistry meterRegistry) {
+        List<String> opciones = Arrays.stream(espec.split(","))
+                .map(String::trim)
+                .filter(opcion -> !opcion.isEmpty() && !opcion.equals("recordStats"))
+                .collect(Collectors.toList());
+        boolean refresco = opciones.stream().anyMatch(opcion -> opcion.startsWith("refreshAfterWrite"));
+
+        Caffeine<Object, Object> builder = Caffeine.from(String.join(",", opciones))
+                .executor(executor)
+                .recordStats(() -> new ContadorEstadisticasCache(nombre, meterRegistry));
+        if (opciones.stream().anyMatch(opcion -> opcion.startsWith("maximumWeight"))) {
+            builder.weigher(EstimadorTamano::peso);
+        }
+        System.out.println("🗃️ Caché '" + nombre + "': " + String.join(",", opciones));
+        return refresco ? builder.build(recarga) : builder.build();
+    }
+
+    /**
+     * Recarga una clave con el RecargaCache de la caché, o null si no tiene
      */
-    private Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .initialCapacity(100)
-                .maximumSize(500)
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .recordStats();
+    private static Object recargar(Map<String, RecargaCache> recargas, String nombre, Object clave) {
+        RecargaCache recarga = recargas.get(nombre);
+        if (recarga == null) {
+            System.out.println("⚠️ Caché '" + nombre + "': refreshAfterWrite sin RecargaCache, se descarta " + clave);
+            return null;
+        }
+        return recarga.recargar(clave);
     }
-} 
\ No newline at end of file
+}
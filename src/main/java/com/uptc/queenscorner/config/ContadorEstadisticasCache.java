@@ -0,0 +1,72 @@
+package com.uptc.queenscorner.config;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Estadísticas de una caché de Caffeine con los desalojos separados por causa
+ *
+ * Lleva las mismas estadísticas que recordStats() (aciertos, fallos, cargas,
+ * desalojos) y además cuenta cada desalojo en
+ * queenscorner.cache.desalojos{cache, causa}:
+ * - SIZE: por tamaño o peso máximo
+ * - EXPIRED: por expiración
+ * - COLLECTED: referencias débiles o suaves recolectadas
+ */
+public class ContadorEstadisticasCache implements StatsCounter {
+
+    private final ConcurrentStatsCounter estadisticas = new ConcurrentStatsCounter();
+    private final Map<RemovalCause, Counter> desalojos = new EnumMap<>(RemovalCause.class);
+
+    public ContadorEstadisticasCache(String cache, MeterRegistry meterRegistry) {
+        for (RemovalCause causa : RemovalCause.values()) {
+            if (causa.wasEvicted()) {
+                desalojos.put(causa, Counter.builder("queenscorner.cache.desalojos")
+                        .description("Entradas desalojadas de la caché por causa")
+                        .tag("cache", cache)
+                        .tag("causa", causa.name())
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    @Override
+    public void recordHits(int count) {
+        estadisticas.recordHits(count);
+    }
+
+    @Override
+    public void recordMisses(int count) {
+        estadisticas.recordMisses(count);
+    }
+
+    @Override
+    public void recordLoadSuccess(long loadTime) {
+        estadisticas.recordLoadSuccess(loadTime);
+    }
+
+    @Override
+    public void recordLoadFailure(long loadTime) {
+        estadisticas.recordLoadFailure(loadTime);
+    }
+
+    @Override
+    public void recordEviction(int weight, RemovalCause cause) {
+        estadisticas.recordEviction(weight, cause);
+        Counter contador = desalojos.get(cause);
+        if (contador != null) {
+            contador.increment();
+        }
+    }
+
+    @Override
+    public CacheStats snapshot() {
+        return estadisticas.snapshot();
+    }
+}
@@ -0,0 +1,125 @@
+package com.uptc.queenscorner.config;
+
+import com.uptc.queenscorner.services.pdf.PerfilSalidaPdf;
+import com.uptc.queenscorner.services.pdf.RecursosMarcaPdf;
+import com.uptc.queenscorner.services.pdf.RenderizadorPdf;
+import com.uptc.queenscorner.services.pdf.externo.RenderizadorPdfExterno;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Configuración de la generación de PDFs
+ * Expone como beans los componentes de renderizado (que no dependen de Spring)
+ *
+ * Los recursos de marca se cargan al arrancar la aplicación:
+ * si el logo o las fuentes fallan, el error aparece en el arranque
+ * y no en el primer documento generado.
+ *
+ * Con pdf.render.modo=externo el render corre en un pool de JVMs aparte
+ * (RenderizadorPdfExterno): la API solo envía el modelo y recibe el PDF.
+ * Los procesos también se lanzan al arrancar, por el mismo motivo.
+ * Los procesos no pueden cargar clases desde el jar ejecutable de Spring Boot
+ * (BOOT-INF/), así que desde ese jar se usa el jar renderizador que genera
+ * mvn package a su lado, o el arranque falla con un mensaje claro.
+ */
+@Configuration
+public class PdfConfig {
+
+    /**
+     * Carga logo, fuentes y encabezado una sola vez desde el classpath
+     * @return Recursos de marca compartidos entre renders
+     */
+    @Bean
+    public RecursosMarcaPdf recursosMarcaPdf() {
+        return RecursosMarcaPdf.cargarDesdeClasspath();
+    }
+
+    /**
+     * Motor único de renderizado de cotizaciones y facturas
+     * @param recursosMarcaPdf Recursos de marca compartidos
+     * @param perfil Perfil de salida (pdf.salida.perfil: ESTANDAR por defecto, COMPACTO opcional)
+     * @param modo interno (en esta JVM) o externo (pool de procesos)
+     * @param procesos Procesos del pool externo
+     * @param classpath Classpath de los procesos (vacío = ver classpathRenderizador)
+     * @param opcionesJvm Opciones de la JVM de cada proceso, separadas por espacios
+     * @param timeoutMs Tiempo máximo de espera y de render en el pool externo
+     * @return Renderizador sin estado, compartido entre threads
+     */
+    @Bean
+    public RenderizadorPdf renderizadorPdf(RecursosMarcaPdf recursosMarcaPdf,
+                                           @Value("${pdf.salida.perfil:ESTANDAR}") PerfilSalidaPdf perfil,
+                                           @Value("${pdf.render.modo:interno}") String modo,
+                                           @Value("${pdf.render.externo.procesos:2}") int procesos,
+                                           @Value("${pdf.render.externo.classpath:}") String classpath,
+                                           @Value("${pdf.render.externo.opciones-jvm:-Xmx384m -XX:+UseSerialGC}") String opcionesJvm,
+                                           @Value("${pdf.render.externo.timeout-ms:120000}") long timeoutMs) {
+        System.out.println("📄 Perfil de salida de PDFs: " + perfil);
+        return switch (modo.toLowerCase()) {
+            case "interno" -> new RenderizadorPdf(recursosMarcaPdf, perfil);
+            case "externo" -> new RenderizadorPdfExterno(recursosMarcaPdf, perfil, procesos,
+                    classpathRenderizador(classpath, System.getProperty("java.class.path")),
+                    separarOpciones(opcionesJvm), timeoutMs);
+            default -> throw new IllegalStateException("Modo de render de PDFs no soportado: " + modo);
+        };
+    }
+
+    /**
+     * Classpath de los procesos renderizadores
+     * - Configurado: se usa tal cual
+     * - Vacío, corriendo desde el jar ejecutable de Spring Boot: el jar renderizador
+     *   junto a él (queenscorner-<versión>-renderizador.jar)
+     * - Vacío en otro caso (IDE, mvn spring-boot:run, pruebas): el classpath de esta JVM
+     * @param configurado pdf.render.externo.classpath
+     * @param classpathActual java.class.path de esta JVM
+     * @return Classpath para el comando java de los procesos
+     * @throws IllegalStateException si se corre desde el jar ejecutable y no hay jar renderizador
+     */
+    static String classpathRenderizador(String configurado, String classpathActual) {
+        if (!configurado.isBlank()) {
+            return configurado;
+        }
+        if (classpathActual.contains(File.pathSeparator) || !classpathActual.endsWith(".jar")
+                || !esJarSpringBoot(Path.of(classpathActual))) {
+            return classpathActual;
+        }
+        Path jarAplicacion = Path.of(classpathActual).toAbsolutePath();
+        String nombre = jarAplicacion.getFileName().toString();
+        Path renderizador = jarAplicacion.resolveSibling(
+                nombre.substring(0, nombre.length() - ".jar".length()) + "-renderizador.jar");
+        if (!Files.isRegularFile(renderizador)) {
+            throw new IllegalStateException("pdf.render.modo=externo: la aplicación corre desde el jar ejecutable "
+                    + jarAplicacion + ", que no sirve como classpath de los procesos, y no existe "
+                    + renderizador + ". Copie el jar renderizador (mvn package lo genera en target/) o "
+                    + "configure pdf.render.externo.classpath");
+        }
+        System.out.println("📄 Classpath del renderizador externo: " + renderizador);
+        return renderizador.toString();
+    }
+
+    /**
+     * true si el jar es un jar ejecutable de Spring Boot (clases bajo BOOT-INF/)
+     */
+    private static boolean esJarSpringBoot(Path jar) {
+        try (JarFile archivo = new JarFile(jar.toFile())) {
+            Manifest manifiesto = archivo.getManifest();
+            return manifiesto != null && manifiesto.getMainAttributes().getValue("Start-Class") != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static List<String> separarOpciones(String opciones) {
+        return Arrays.stream(opciones.trim().split("\\s+"))
+                .filter(opcion -> !opcion.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,40 @@
+package com.uptc.queenscorner.config;
+
+import java.util.List;
+
+/**
+ * Recarga de las entradas de una caché (refreshAfterWrite)
+ *
+ * Una política con refreshAfterWrite necesita saber cómo recalcular sus
+ * entradas: cada bean que implemente esta interfaz aporta la recarga de una
+ * caché y CacheConfig la asocia por nombre. Mientras se recarga se sigue
+ * sirviendo el valor anterior.
+ *
+ * Las claves de getClavesPrecarga() se cargan al arrancar, antes de que la
+ * aplicación se reporte lista (PrecargaCacheService).
+ *
+ * La recarga corre en otro hilo, sin la transacción ni la sesión de la petición.
+ */
+public interface RecargaCache {
+
+    /**
+     * @return Nombre de la caché que recarga (ej: "cotizaciones")
+     */
+    String getNombreCache();
+
+    /**
+     * Recalcula el valor de una clave
+     * Debe cubrir todas las claves de la caché (listas y entradas por ID):
+     * devolver null descarta la entrada
+     * @param clave Clave de la entrada (ej: "all" o el ID)
+     * @return Valor actualizado, o null si ya no existe
+     */
+    Object recargar(Object clave);
+
+    /**
+     * @return Claves a cargar al arrancar (ej: "all"); ninguna por defecto
+     */
+    default List<Object> getClavesPrecarga() {
+        return List.of();
+    }
+}
@@ -0,0 +1,36 @@
+package com.uptc.queenscorner.config;
+
+import java.util.List;
+
+/**
+ * Regiones de la caché de segundo nivel de Hibernate (Caffeine JCache)
+ *
+ * Cada región tiene su política en hibernate-cache.conf, con el mismo nombre.
+ * Una región sin política hace fallar el arranque
+ * (hibernate.javax.cache.missing_cache_strategy=fail).
+ *
+ * - Entidades y colecciones: filas de lectura frecuente que los servicios,
+ *   validaciones y mappers vuelven a buscar por ID (READ_WRITE)
+ * - Consultas: resultados de findByCodigo/findByEstado (solo los IDs; las
+ *   entidades salen de su región). Hibernate las invalida al escribir en la tabla
+ */
+public final class RegionesCache {
+
+    public static final String CLIENTES = "entidad-clientes";
+    public static final String COTIZACIONES = "entidad-cotizaciones";
+    public static final String ITEMS_COTIZACION = "entidad-items-cotizacion";
+    public static final String COTIZACION_ITEMS = "coleccion-cotizacion-items";
+    public static final String NEGOCIOS = "entidad-negocios";
+
+    public static final String CONSULTA_COTIZACION_CODIGO = "consulta-cotizacion-codigo";
+    public static final String CONSULTA_COTIZACIONES_ESTADO = "consulta-cotizaciones-estado";
+    public static final String CONSULTA_NEGOCIO_CODIGO = "consulta-negocio-codigo";
+    public static final String CONSULTA_NEGOCIOS_ESTADO = "consulta-negocios-estado";
+
+    /** Regiones de consultas (Hibernate las crea al primer uso) */
+    public static final List<String> CONSULTAS = List.of(CONSULTA_COTIZACION_CODIGO,
+            CONSULTA_COTIZACIONES_ESTADO, CONSULTA_NEGOCIO_CODIGO, CONSULTA_NEGOCIOS_ESTADO);
+
+    private RegionesCache() {
+    }
+}
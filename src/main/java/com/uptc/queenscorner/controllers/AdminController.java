@@ -1,6 +1,7 @@
 package com.uptc.queenscorner.controllers;
 
 import com.uptc.queenscorner.models.dtos.responses.ApiResponse;
+import com.uptc.queenscorner.models.dtos.responses.EstadisticasCacheResponse;
 import com.uptc.queenscorner.models.dtos.responses.SystemStats;
 import com.uptc.queenscorner.services.IAdminService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 
 /**
  * Controlador de administración del sistema
@@ -77,4 +79,65 @@ public class AdminController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Obtiene estadísticas de todas las cachés con sus claves más usadas
+     */
+    @GetMapping("/caches")
+    @Operation(summary = "Estadísticas de cachés", description = "Aciertos, fallos, cargas, desalojos por causa, peso estimado y claves más usadas de cada caché")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente")
+    })
+    public ResponseEntity<ApiResponse<List<EstadisticasCacheResponse>>> getCacheStats(
+            @RequestParam(defaultValue = "10") int claves) {
+        ApiResponse<List<EstadisticasCacheResponse>> response = new ApiResponse<>();
+        response.setSuccess(true);
+        response.setMessage("Estadísticas de cachés obtenidas exitosamente");
+        response.setData(adminService.getCacheStats(claves));
+        response.setStatus(HttpStatus.OK.value());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Obtiene estadísticas de una caché
+     */
+    @GetMapping("/caches/{cache}")
+    @Operation(summary = "Estadísticas de una caché", description = "Estadísticas y claves más usadas de una caché")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Caché no encontrada")
+    })
+    public ResponseEntity<ApiResponse<EstadisticasCacheResponse>> getCacheStats(
+            @PathVariable String cache,
+            @RequestParam(defaultValue = "20") int claves) {
+        ApiResponse<EstadisticasCacheResponse> response = new ApiResponse<>();
+        response.setSuccess(true);
+        response.setMessage("Estadísticas de la caché obtenidas exitosamente");
+        response.setData(adminService.getCacheStats(cache, claves));
+        response.setStatus(HttpStatus.OK.value());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Desaloja una sola clave de una caché (ej: /caches/cotizaciones/claves/all)
+     */
+    @DeleteMapping("/caches/{cache}/claves/{clave}")
+    @Operation(summary = "Desalojar clave de caché", description = "Elimina una sola entrada de una caché; la próxima lectura la carga de nuevo")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Clave desalojada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Caché o clave no encontrada")
+    })
+    public ResponseEntity<ApiResponse<String>> evictCacheKey(@PathVariable String cache, @PathVariable String clave) {
+        adminService.evictCacheKey(cache, clave);
+
+        ApiResponse<String> response = new ApiResponse<>();
+        response.setSuccess(true);
+        response.setMessage("Clave desalojada de la caché " + cache);
+        response.setData(clave);
+        response.setStatus(HttpStatus.OK.value());
+
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
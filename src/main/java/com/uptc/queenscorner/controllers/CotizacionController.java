@@ -1,21 +1,38 @@
 package com.uptc.queenscorner.controllers;
 
+import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
 import com.uptc.queenscorner.models.dtos.requests.CotizacionRequest;
 import com.uptc.queenscorner.models.dtos.requests.EstadoUpdateRequest;
 import com.uptc.queenscorner.models.dtos.responses.ApiResponse;
 import com.uptc.queenscorner.models.dtos.responses.CotizacionResponse;
+import com.uptc.queenscorner.models.dtos.responses.EstadoDocumentoResponse;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
 import com.uptc.queenscorner.services.ICotizacionService;
+import com.uptc.queenscorner.services.almacen.DocumentoAlmacenado;
+import com.uptc.queenscorner.services.async.CachePdfService;
 import com.uptc.queenscorner.services.async.PdfAsyncService;
+import com.uptc.queenscorner.services.async.PdfAsyncService.PdfAlmacenado;
 import com.uptc.queenscorner.repositories.ICotizacionRepository;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import com.uptc.queenscorner.services.cache.RespuestaSerializada;
+import com.uptc.queenscorner.services.cache.RespuestasCacheService;
+import com.uptc.queenscorner.utils.DescargaUtils;
+import com.uptc.queenscorner.utils.RespuestaJsonUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controlador REST para gestionar cotizaciones (presupuestos)
@@ -34,12 +51,24 @@ public class CotizacionController {
     @Autowired
     private PdfAsyncService pdfAsyncService;
 
+    @Autowired
+    private CachePdfService cachePdfService;
+
     @Autowired
     private ICotizacionRepository cotizacionRepository;
 
+    @Autowired
+    private RespuestasCacheService respuestasCache;
+
+    /** Si un PDF no se ha generado, la descarga lo renderiza directo en vez de responder 404 */
+    @Value("${pdf.descarga.render-bajo-demanda:true}")
+    private boolean renderBajoDemanda;
+
     /**
      * Obtiene todas las cotizaciones
      * Los resultados incluyen cliente, items y cálculos de totales
+     * El JSON se sirve ya serializado (RespuestasCacheService), con ETag y gzip
+     * @param request Petición (endpoint de la respuesta y Accept-Encoding)
      * @return Lista completa de cotizaciones del sistema
      */
     @GetMapping
@@ -47,14 +76,17 @@ public class CotizacionController {
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Listado de cotizaciones obtenido exitosamente")
     })
-    public ResponseEntity<ApiResponse<List<CotizacionResponse>>> getAll() {
+    public ResponseEntity<byte[]> getAll(HttpServletRequest request) {
         List<CotizacionResponse> cotizaciones = cotizacionService.findAll();
-        ApiResponse<List<CotizacionResponse>> response = new ApiResponse<>();
-        response.setSuccess(true);
-        response.setMessage("Cotizaciones obtenidas exitosamente");
-        response.setData(cotizaciones);
-        response.setStatus(HttpStatus.OK.value());
-        return ResponseEntity.ok(response);
+        RespuestaSerializada respuesta = respuestasCache.obtener(request, "cotizaciones", cotizaciones, () -> {
+            ApiResponse<List<CotizacionResponse>> response = new ApiResponse<>();
+            response.setSuccess(true);
+            response.setMessage("Cotizaciones obtenidas exitosamente");
+            response.setData(cotizaciones);
+            response.setStatus(HttpStatus.OK.value());
+            return response;
+        });
+        return RespuestaJsonUtils.respuesta(respuesta, request);
     }
 
     /**
@@ -155,8 +187,16 @@ public class CotizacionController {
             var cotizacion = cotizacionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Cotización no encontrada"));
             
-            // Generar PDF de forma asíncrona usando hilos
-            pdfAsyncService.generarPdfCotizacion(cotizacion);
+            // Encolar el PDF; el worker lo genera en background (ver /{id}/pdf/status)
+            // Si los datos no cambiaron desde el último PDF, se conserva el actual
+            if (!pdfAsyncService.generarPdfCotizacion(cotizacion)) {
+                ApiResponse<String> response = new ApiResponse<>();
+                response.setSuccess(true);
+                response.setMessage("El PDF de la cotización ya está actualizado");
+                response.setData("Sin cambios desde el último PDF de la cotización: " + cotizacion.getCodigo());
+                response.setStatus(HttpStatus.OK.value());
+                return ResponseEntity.ok(response);
+            }
             
             ApiResponse<String> response = new ApiResponse<>();
             response.setSuccess(true);
@@ -173,4 +213,64 @@ public class CotizacionController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
+
+    /**
+     * Descarga el PDF de una cotización
+     * Si ya está generado se sirve desde la cache de PDFs en memoria y soporta
+     * Range (206) y ETag / Last-Modified (304)
+     * Si aún no existe se renderiza directo en la respuesta y se guarda para las siguientes descargas
+     * @param id ID de la cotización
+     * @param request Petición HTTP (If-None-Match / If-Modified-Since)
+     * @param response Respuesta HTTP, usada en el 304 y en el render bajo demanda
+     * @return Archivo PDF para descargar (null si ya se respondió 304 o se escribió directo en la respuesta)
+     * @throws IOException si el archivo no puede leerse
+     */
+    @GetMapping("/{id}/pdf")
+    @Operation(summary = "Descargar PDF de cotización")
+    public ResponseEntity<Resource> descargarPdf(
+            @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<PdfAlmacenado> almacenado = pdfAsyncService.buscarPdfAlmacenado(TipoDocumento.COTIZACION, id);
+        if (almacenado.isPresent()) {
+            DocumentoAlmacenado pdf = almacenado.get().getDocumento();
+            // 304 antes de tocar la cache: el cliente ya tiene esta versión
+            if (DescargaUtils.noModificado(pdf, request, response)) {
+                return null;
+            }
+            // Descargas repetidas se sirven desde memoria (cache de PDFs por documento y huella)
+            byte[] contenido = cachePdfService.obtener(TipoDocumento.COTIZACION, id, almacenado.get().getHuella(), pdf);
+            return DescargaUtils.respuestaPdf(pdf, contenido);
+        }
+        if (!renderBajoDemanda) {
+            throw new ResourceNotFoundException("El PDF de la cotización aún no está disponible");
+        }
+        // Sin copia almacenada: se renderiza directo en la respuesta y se guarda para la próxima vez
+        DocumentoPdf documento = pdfAsyncService.construirDocumento(TipoDocumento.COTIZACION, id);
+        DescargaUtils.prepararPdfDirecto(response, documento.getNombreArchivo());
+        pdfAsyncService.renderizarEnRespuesta(TipoDocumento.COTIZACION, id, documento, response.getOutputStream());
+        // La respuesta ya se escribió; null indica a Spring que no hay cuerpo que serializar
+        return null;
+    }
+
+    /**
+     * Consulta el estado de generación del PDF de la cotización
+     * Estados: EN_COLA, RENDERIZANDO, COMPLETADO, FALLIDO
+     * @param id ID de la cotización
+     * @return Estado de la generación e indicador de disponibilidad
+     */
+    @GetMapping("/{id}/pdf/status")
+    @Operation(summary = "Consultar estado del PDF de cotización", description = "Estado de la generación en background (EN_COLA, RENDERIZANDO, COMPLETADO, FALLIDO) y si el PDF ya puede descargarse")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Estado del PDF obtenido exitosamente")
+    })
+    public ResponseEntity<ApiResponse<EstadoDocumentoResponse>> estadoPdf(@PathVariable Long id) {
+        EstadoDocumentoResponse estado = pdfAsyncService.consultarEstado(TipoDocumento.COTIZACION, id);
+        ApiResponse<EstadoDocumentoResponse> response = new ApiResponse<>();
+        response.setSuccess(true);
+        response.setMessage("Estado del PDF obtenido exitosamente");
+        response.setData(estado);
+        response.setStatus(HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -1,31 +1,48 @@
 package com.uptc.queenscorner.controllers;
 
+import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
 import com.uptc.queenscorner.models.dtos.requests.AgregarLineaRequest;
 import com.uptc.queenscorner.models.dtos.requests.CrearFacturaRequest;
+import com.uptc.queenscorner.models.dtos.responses.EstadoDocumentoResponse;
 import com.uptc.queenscorner.models.dtos.responses.FacturaResponse;
+import com.uptc.queenscorner.models.dtos.responses.LoteUblResponse;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
 import com.uptc.queenscorner.services.IFacturaService;
+import com.uptc.queenscorner.services.almacen.DocumentoAlmacenado;
+import com.uptc.queenscorner.services.async.CachePdfService;
+import com.uptc.queenscorner.services.async.ExportacionPdfService;
+import com.uptc.queenscorner.services.async.FacturaUblService;
+import com.uptc.queenscorner.services.async.LoteUblService;
 import com.uptc.queenscorner.services.async.PdfAsyncService;
+import com.uptc.queenscorner.services.async.PdfAsyncService.PdfAlmacenado;
 import com.uptc.queenscorner.repositories.IFacturaRepository;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import com.uptc.queenscorner.utils.DescargaUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.time.LocalDate;
 import java.util.List;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Optional;
 import java.io.IOException;
 
 /**
  * Controlador REST para gestionar facturas (invoices)
- * Maneja creación, líneas, envío y generación de PDF de facturas
+ * Maneja creación, líneas, envío y generación de PDF y XML (factura electrónica) de facturas
  * Las facturas se crean a partir de negocios finalizados
  * Incluye cálculo automático de totales, IVA y saldo pendiente
  */
@@ -40,9 +57,25 @@ public class FacturaController {
     @Autowired
     private PdfAsyncService pdfAsyncService;
 
+    @Autowired
+    private CachePdfService cachePdfService;
+
     @Autowired
     private IFacturaRepository facturaRepository;
 
+    @Autowired
+    private ExportacionPdfService exportacionPdfService;
+
+    @Autowired
+    private FacturaUblService facturaUblService;
+
+    @Autowired
+    private LoteUblService loteUblService;
+
+    /** Si un PDF no se ha generado, la descarga lo renderiza directo en vez de responder 404 */
+    @Value("${pdf.descarga.render-bajo-demanda:true}")
+    private boolean renderBajoDemanda;
+
     /**
      * Crea una nueva factura para un negocio
      * Valida que el negocio exista y tenga cotización asociada
@@ -148,6 +181,31 @@ public class FacturaController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Exporta en un ZIP los PDFs de las facturas creadas en un periodo
+     * El ZIP se transmite mientras se arma: las facturas con PDF se copian del almacén
+     * y las que no lo tienen se renderizan en paralelo (pdf.export.paralelismo)
+     * y se agregan en cuanto están listas. La memoria no depende del número de facturas.
+     * @param desde Primer día del periodo (yyyy-MM-dd, inclusive)
+     * @param hasta Último día del periodo (yyyy-MM-dd, inclusive)
+     * @param response Respuesta HTTP donde se escribe el ZIP
+     * @throws IOException si falla la escritura (ej: el cliente cancela la descarga)
+     */
+    @GetMapping("/export.zip")
+    @Operation(summary = "Exportar PDFs de facturas de un periodo en ZIP")
+    public void exportarZip(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            HttpServletResponse response) throws IOException {
+        List<Long> facturaIds = exportacionPdfService.listarFacturas(desde, hasta);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("facturas_" + desde + "_" + hasta + ".zip")
+                .build()
+                .toString());
+        exportacionPdfService.exportarFacturasZip(facturaIds, response.getOutputStream());
+    }
+
     /**
      * Obtiene un resumen de la factura con cálculos totales
      * Incluye: subtotal, IVA (19%), total, saldo pendiente
@@ -164,10 +222,12 @@ public class FacturaController {
 
     /**
      * Inicia generación asincrónica de PDF para la factura
-     * El PDF se genera en background sin bloquear la respuesta HTTP
-     * Se almacena en: queenscornerarchives/facturas/
+     * El PDF se encola de forma persistente y se genera en background sin bloquear la respuesta HTTP
+     * El avance se consulta en GET /api/facturas/{id}/pdf/status
+     * Se almacena en el almacén de documentos (facturas/<año>/<mes>/...)
+     * Si los datos de la factura no cambiaron desde el último PDF no se regenera
      * @param id ID de la factura
-     * @return Factura con indicador de generación en progreso
+     * @return Factura (202 si se encoló la generación, 200 si el PDF ya está actualizado)
      */
     @PostMapping("/{id}/generar-pdf")
     @Operation(summary = "Generar PDF de factura")
@@ -177,30 +237,157 @@ public class FacturaController {
         // Obtener la entidad para pasar al servicio de PDF
         var factura = facturaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada"));
-        // Generar PDF en background
-        pdfAsyncService.generarPdfFacturaAsync(factura);
-        return ResponseEntity.accepted().body(response);
+        // Generar PDF en background; si los datos no cambiaron se conserva el PDF actual (200)
+        boolean encolado = pdfAsyncService.generarPdfFacturaAsync(factura);
+        return ResponseEntity.status(encolado ? HttpStatus.ACCEPTED : HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Consulta el estado de generación del PDF de la factura
+     * Estados: EN_COLA, RENDERIZANDO, COMPLETADO, FALLIDO
+     * @param id ID de la factura
+     * @return Estado de la generación e indicador de disponibilidad
+     */
+    @GetMapping("/{id}/pdf/status")
+    @Operation(summary = "Consultar estado del PDF de factura")
+    public ResponseEntity<EstadoDocumentoResponse> estadoPdf(
+            @PathVariable Long id) {
+        return ResponseEntity.ok(pdfAsyncService.consultarEstado(TipoDocumento.FACTURA, id));
     }
 
     /**
-     * Descarga el PDF generado de una factura
-     * El PDF debe haber sido generado previamente
+     * Descarga el PDF de una factura
+     * Si ya está generado se sirve desde la cache de PDFs en memoria (o se transmite
+     * por bloques desde el almacén si es muy grande) y soporta:
+     * - Range: descargas parciales o reanudadas (206)
+     * - ETag / Last-Modified: 304 si el cliente ya tiene la versión actual
+     * Si aún no existe (y pdf.descarga.render-bajo-demanda está activo) se renderiza
+     * directo en la respuesta y la copia se guarda en background para las siguientes descargas
      * @param id ID de la factura
-     * @return Archivo PDF para descargar
-     * @throws IOException si el archivo no existe o no puede leerse
+     * @param request Petición HTTP (If-None-Match / If-Modified-Since)
+     * @param response Respuesta HTTP, usada en el 304 y en el render bajo demanda
+     * @return Archivo PDF para descargar (null si ya se respondió 304 o se escribió directo en la respuesta)
+     * @throws ResourceNotFoundException si la factura no existe, o el PDF no se ha generado y el render bajo demanda está desactivado (404)
+     * @throws IOException si el archivo no puede leerse
      */
     @GetMapping("/{id}/pdf")
     @Operation(summary = "Descargar PDF de factura")
-    public ResponseEntity<byte[]> descargarPdf(
+    public ResponseEntity<Resource> descargarPdf(
+            @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<PdfAlmacenado> almacenado = pdfAsyncService.buscarPdfAlmacenado(TipoDocumento.FACTURA, id);
+        if (almacenado.isPresent()) {
+            DocumentoAlmacenado pdf = almacenado.get().getDocumento();
+            // 304 antes de tocar la cache: el cliente ya tiene esta versión
+            if (DescargaUtils.noModificado(pdf, request, response)) {
+                return null;
+            }
+            // Descargas repetidas se sirven desde memoria (cache de PDFs por documento y huella)
+            byte[] contenido = cachePdfService.obtener(TipoDocumento.FACTURA, id, almacenado.get().getHuella(), pdf);
+            return DescargaUtils.respuestaPdf(pdf, contenido);
+        }
+        if (!renderBajoDemanda) {
+            throw new ResourceNotFoundException("El PDF de la factura aún no está disponible");
+        }
+        // Sin copia almacenada: se renderiza directo en la respuesta y se guarda para la próxima vez
+        DocumentoPdf documento = pdfAsyncService.construirDocumento(TipoDocumento.FACTURA, id);
+        DescargaUtils.prepararPdfDirecto(response, documento.getNombreArchivo());
+        pdfAsyncService.renderizarEnRespuesta(TipoDocumento.FACTURA, id, documento, response.getOutputStream());
+        // La respuesta ya se escribió; null indica a Spring que no hay cuerpo que serializar
+        return null;
+    }
+
+    /**
+     * Inicia la generación asincrónica del XML de factura electrónica (UBL 2.1)
+     * Usa la misma cola persistente que los PDFs; el avance se consulta en
+     * GET /api/facturas/{id}/ubl/status
+     * Si los datos de la factura no cambiaron desde el último XML no se regenera
+     * @param id ID de la factura
+     * @return Factura (202 si se encoló la generación, 200 si el XML ya está actualizado)
+     */
+    @PostMapping("/{id}/generar-ubl")
+    @Operation(summary = "Generar XML de factura electrónica")
+    public ResponseEntity<FacturaResponse> generarUbl(
+            @PathVariable Long id) {
+        FacturaResponse response = facturaService.obtenerFactura(id);
+        boolean encolado = facturaUblService.generarUblAsync(id);
+        return ResponseEntity.status(encolado ? HttpStatus.ACCEPTED : HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Consulta el estado de generación del XML de factura electrónica
+     * Estados: EN_COLA, RENDERIZANDO, COMPLETADO, FALLIDO
+     * @param id ID de la factura
+     * @return Estado de la generación e indicador de disponibilidad
+     */
+    @GetMapping("/{id}/ubl/status")
+    @Operation(summary = "Consultar estado del XML de factura electrónica")
+    public ResponseEntity<EstadoDocumentoResponse> estadoUbl(
+            @PathVariable Long id) {
+        return ResponseEntity.ok(pdfAsyncService.consultarEstado(TipoDocumento.FACTURA_UBL, id));
+    }
+
+    /**
+     * Descarga el XML de factura electrónica (sin firma: la firma y el envío a la
+     * DIAN los hace el proveedor tecnológico)
+     * Si aún no existe (y pdf.descarga.render-bajo-demanda está activo) se genera
+     * en el momento y queda guardado para las siguientes descargas
+     * @param id ID de la factura
+     * @return Archivo XML para descargar (soporta Range, ETag y Last-Modified)
+     * @throws ResourceNotFoundException si la factura no existe, o el XML no se ha generado y la generación bajo demanda está desactivada (404)
+     * @throws IOException si el XML no puede escribirse o leerse
+     */
+    @GetMapping("/{id}/ubl.xml")
+    @Operation(summary = "Descargar XML de factura electrónica")
+    public ResponseEntity<Resource> descargarUbl(
             @PathVariable Long id) throws IOException {
-        FacturaResponse factura = facturaService.obtenerFactura(id);
-        Path pdfPath = Paths.get(factura.getPathPdf());
-        byte[] pdfContent = Files.readAllBytes(pdfPath);
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", pdfPath.getFileName().toString());
-        
-        return ResponseEntity.ok().headers(headers).body(pdfContent);
-    }
-}
\ No newline at end of file
+        Optional<DocumentoAlmacenado> almacenado = facturaUblService.buscarXml(id);
+        if (almacenado.isPresent()) {
+            return DescargaUtils.respuestaXml(almacenado.get());
+        }
+        if (!renderBajoDemanda) {
+            throw new ResourceNotFoundException("El XML de la factura aún no está disponible");
+        }
+        return DescargaUtils.respuestaXml(
+                facturaUblService.generarYPublicar(id, facturaUblService.construirFactura(id)));
+    }
+
+    /**
+     * Genera el XML de factura electrónica de todas las facturas creadas en un periodo
+     * El lote corre en background: se escriben directo al almacén por páginas y las que no cambiaron se omiten
+     * El avance se consulta en GET /api/facturas/ubl/lote/{loteId}
+     * @param desde Primer día del periodo (yyyy-MM-dd, inclusive)
+     * @param hasta Último día del periodo (yyyy-MM-dd, inclusive)
+     * @return Resumen del lote iniciado (202, estado EN_CURSO)
+     */
+    @PostMapping("/ubl/lote")
+    @Operation(summary = "Generar XML de facturas electrónicas de un periodo")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Lote iniciado; avance en GET /api/facturas/ubl/lote/{loteId}"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Periodo no válido"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "503", description = "Pool de documentos saturado; reintentar tras Retry-After")
+    })
+    public ResponseEntity<LoteUblResponse> generarUblLote(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.accepted().body(loteUblService.iniciarLote(desde, hasta));
+    }
+
+    /**
+     * Consulta el avance de un lote de facturas electrónicas
+     * @param loteId Id devuelto al iniciar el lote
+     * @return Resumen: estado, generadas, omitidas, errores y duración
+     * @throws ResourceNotFoundException si el lote no existe o ya expiró (404)
+     */
+    @GetMapping("/ubl/lote/{loteId}")
+    @Operation(summary = "Consultar lote de facturas electrónicas")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Estado del lote (EN_CURSO, COMPLETADO o FALLIDO)"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Lote no encontrado o expirado")
+    })
+    public ResponseEntity<LoteUblResponse> consultarUblLote(
+            @PathVariable String loteId) {
+        return ResponseEntity.ok(loteUblService.consultar(loteId));
+    }
+}
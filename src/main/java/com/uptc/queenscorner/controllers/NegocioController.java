@@ -5,14 +5,22 @@ import com.uptc.queenscorner.models.dtos.requests.EstadoUpdateRequest;
 import com.uptc.queenscorner.models.dtos.responses.ApiResponse;
 import com.uptc.queenscorner.models.dtos.responses.NegocioResponse;
 import com.uptc.queenscorner.services.INegocioService;
+import com.uptc.queenscorner.services.async.DossierPdfService;
+import com.uptc.queenscorner.services.cache.RespuestaSerializada;
+import com.uptc.queenscorner.services.cache.RespuestasCacheService;
+import com.uptc.queenscorner.utils.DescargaUtils;
+import com.uptc.queenscorner.utils.RespuestaJsonUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -29,19 +37,28 @@ public class NegocioController {
     @Autowired
     private INegocioService negocioService;
 
+    @Autowired
+    private DossierPdfService dossierPdfService;
+
+    @Autowired
+    private RespuestasCacheService respuestasCache;
+
     @GetMapping
     @Operation(summary = "Listar todos los negocios", description = "Obtiene el listado completo de negocios del sistema")
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Listado de negocios obtenido exitosamente")
     })
-    public ResponseEntity<ApiResponse<List<NegocioResponse>>> getAll() {
+    public ResponseEntity<byte[]> getAll(HttpServletRequest request) {
         List<NegocioResponse> negocios = negocioService.findAll();
-        ApiResponse<List<NegocioResponse>> response = new ApiResponse<>();
-        response.setSuccess(true);
-        response.setMessage("Negocios obtenidos exitosamente");
-        response.setData(negocios);
-        response.setStatus(HttpStatus.OK.value());
-        return ResponseEntity.ok(response);
+        RespuestaSerializada respuesta = respuestasCache.obtener(request, "negocios", negocios, () -> {
+            ApiResponse<List<NegocioResponse>> response = new ApiResponse<>();
+            response.setSuccess(true);
+            response.setMessage("Negocios obtenidos exitosamente");
+            response.setData(negocios);
+            response.setStatus(HttpStatus.OK.value());
+            return response;
+        });
+        return RespuestaJsonUtils.respuesta(respuesta, request);
     }
 
     @GetMapping("/{id}")
@@ -78,6 +95,25 @@ public class NegocioController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Descarga el dossier del negocio: cotización y todas sus facturas en un solo PDF
+     * Los PDFs que faltan se generan en paralelo; si ninguna parte cambió desde
+     * el último dossier se sirve el guardado. Soporta Range (206) y ETag (304)
+     * @param id ID del negocio
+     * @return Dossier PDF para descargar
+     * @throws IOException si alguna parte no puede generarse o leerse
+     */
+    @GetMapping("/{id}/dossier.pdf")
+    @Operation(summary = "Descargar dossier PDF del negocio", description = "Une el PDF de la cotización y de todas las facturas del negocio")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Dossier generado o reutilizado"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Negocio no encontrado")
+    })
+    public ResponseEntity<Resource> descargarDossier(
+            @PathVariable @Parameter(description = "ID del negocio") Long id) throws IOException {
+        return DescargaUtils.respuestaPdf(dossierPdfService.obtenerDossier(id));
+    }
+
     @GetMapping("/estado/{estado}")
     public ResponseEntity<ApiResponse<List<NegocioResponse>>> getByEstado(@PathVariable String estado) {
         List<NegocioResponse> negocios = negocioService.findByEstado(estado);
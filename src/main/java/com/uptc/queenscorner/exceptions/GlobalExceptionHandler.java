@@ -1,11 +1,13 @@
 package com.uptc.queenscorner.exceptions;
 
 import com.uptc.queenscorner.models.dtos.responses.ApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Manejador global de excepciones para toda la aplicación
@@ -61,6 +63,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    /**
+     * Maneja el rechazo de tareas por saturación del pool de PDFs (503)
+     * Llega aquí cuando la cola de pdfExecutor está llena y el servicio no tiene
+     * alternativa en el thread de la petición (ej: lote UBL); el cliente debe reintentar
+     * @param ex Excepción de tarea rechazada
+     * @return Respuesta 503 con cabecera Retry-After
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRejectedExecution(RejectedExecutionException ex) {
+        ApiResponse<Void> response = new ApiResponse<>();
+        response.setSuccess(false);
+        response.setMessage("Servicio saturado, intente nuevamente: " + ex.getMessage());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(response);
+    }
+
     /**
      * Maneja cualquier RuntimeException no capturada por otros manejadores (500)
      * Es el manejador por defecto para errores inesperados
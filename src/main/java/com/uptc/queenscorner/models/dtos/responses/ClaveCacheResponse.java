@@ -0,0 +1,37 @@
+package com.uptc.queenscorner.models.dtos.responses;
+
+/**
+ * DTO con una entrada de caché (sin su valor)
+ */
+public class ClaveCacheResponse {
+
+    private String clave;
+    /** Tipo del valor (ej: ArrayList, CotizacionResponse) */
+    private String tipo;
+    /** Bytes estimados (null si la caché no se limita por peso) */
+    private Integer pesoEstimado;
+    /** Segundos desde que se guardó (null si la caché no expira por escritura) */
+    private Long edadSegundos;
+
+    public ClaveCacheResponse() {}
+
+    public ClaveCacheResponse(String clave, String tipo, Integer pesoEstimado, Long edadSegundos) {
+        this.clave = clave;
+        this.tipo = tipo;
+        this.pesoEstimado = pesoEstimado;
+        this.edadSegundos = edadSegundos;
+    }
+
+    // Getters y Setters
+    public String getClave() { return clave; }
+    public void setClave(String clave) { this.clave = clave; }
+
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+
+    public Integer getPesoEstimado() { return pesoEstimado; }
+    public void setPesoEstimado(Integer pesoEstimado) { this.pesoEstimado = pesoEstimado; }
+
+    public Long getEdadSegundos() { return edadSegundos; }
+    public void setEdadSegundos(Long edadSegundos) { this.edadSegundos = edadSegundos; }
+}
@@ -0,0 +1,65 @@
+package com.uptc.queenscorner.models.dtos.responses;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con las estadísticas de una caché
+ * Los contadores son acumulados desde el arranque; los pesos son bytes estimados
+ */
+public class EstadisticasCacheResponse {
+
+    private String nombre;
+    private long entradas;
+    /** Bytes estimados ocupados (null si la caché se limita por número de entradas) */
+    private Long pesoEstimado;
+    /** Límite: bytes estimados (maximumWeight) o número de entradas (maximumSize) */
+    private Long limite;
+    private long aciertos;
+    private long fallos;
+    private double tasaAciertos;
+    private long cargas;
+    private double tiempoPromedioCargaMs;
+    private long desalojos;
+    private Map<String, Long> desalojosPorCausa = new LinkedHashMap<>();
+    private List<ClaveCacheResponse> clavesMasUsadas = new ArrayList<>();
+
+    // Getters y Setters
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public long getEntradas() { return entradas; }
+    public void setEntradas(long entradas) { this.entradas = entradas; }
+
+    public Long getPesoEstimado() { return pesoEstimado; }
+    public void setPesoEstimado(Long pesoEstimado) { this.pesoEstimado = pesoEstimado; }
+
+    public Long getLimite() { return limite; }
+    public void setLimite(Long limite) { this.limite = limite; }
+
+    public long getAciertos() { return aciertos; }
+    public void setAciertos(long aciertos) { this.aciertos = aciertos; }
+
+    public long getFallos() { return fallos; }
+    public void setFallos(long fallos) { this.fallos = fallos; }
+
+    public double getTasaAciertos() { return tasaAciertos; }
+    public void setTasaAciertos(double tasaAciertos) { this.tasaAciertos = tasaAciertos; }
+
+    public long getCargas() { return cargas; }
+    public void setCargas(long cargas) { this.cargas = cargas; }
+
+    public double getTiempoPromedioCargaMs() { return tiempoPromedioCargaMs; }
+    public void setTiempoPromedioCargaMs(double tiempoPromedioCargaMs) { this.tiempoPromedioCargaMs = tiempoPromedioCargaMs; }
+
+    public long getDesalojos() { return desalojos; }
+    public void setDesalojos(long desalojos) { this.desalojos = desalojos; }
+
+    public Map<String, Long> getDesalojosPorCausa() { return desalojosPorCausa; }
+    public void setDesalojosPorCausa(Map<String, Long> desalojosPorCausa) { this.desalojosPorCausa = desalojosPorCausa; }
+
+    public List<ClaveCacheResponse> getClavesMasUsadas() { return clavesMasUsadas; }
+    public void setClavesMasUsadas(List<ClaveCacheResponse> clavesMasUsadas) { this.clavesMasUsadas = clavesMasUsadas; }
+}
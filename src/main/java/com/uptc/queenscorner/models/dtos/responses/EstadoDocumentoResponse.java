@@ -0,0 +1,43 @@
+package com.uptc.queenscorner.models.dtos.responses;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el estado de generación del PDF de un documento.
+ *
+ * Permite al cliente consultar si el PDF ya está disponible en lugar de
+ * intentar descargarlo repetidamente.
+ *
+ * Estados: EN_COLA, RENDERIZANDO, COMPLETADO, FALLIDO
+ */
+public class EstadoDocumentoResponse {
+    /** Tipo de documento (COTIZACION, FACTURA) */
+    private String tipoDocumento;
+    /** ID de la cotización o factura */
+    private Long documentoId;
+    /** Estado de la generación */
+    private String estado;
+    /** Intentos fallidos acumulados */
+    private Integer intentos;
+    /** Último error (solo si hubo fallos) */
+    private String ultimoError;
+    /** true si el PDF ya puede descargarse */
+    private boolean disponible;
+    /** Fecha del último cambio de estado */
+    private LocalDateTime fechaActualizacion;
+
+    public String getTipoDocumento() { return tipoDocumento; }
+    public void setTipoDocumento(String tipoDocumento) { this.tipoDocumento = tipoDocumento; }
+    public Long getDocumentoId() { return documentoId; }
+    public void setDocumentoId(Long documentoId) { this.documentoId = documentoId; }
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+    public Integer getIntentos() { return intentos; }
+    public void setIntentos(Integer intentos) { this.intentos = intentos; }
+    public String getUltimoError() { return ultimoError; }
+    public void setUltimoError(String ultimoError) { this.ultimoError = ultimoError; }
+    public boolean isDisponible() { return disponible; }
+    public void setDisponible(boolean disponible) { this.disponible = disponible; }
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+}
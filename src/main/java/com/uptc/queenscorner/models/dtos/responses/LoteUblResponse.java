@@ -0,0 +1,51 @@
+package com.uptc.queenscorner.models.dtos.responses;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el estado y el resultado de una generación en lote de facturas electrónicas (XML UBL).
+ *
+ * El lote corre en segundo plano: los contadores avanzan mientras está EN_CURSO
+ * y quedan fijos al pasar a COMPLETADO o FALLIDO.
+ * Las facturas cuyo XML sigue vigente (misma huella) se cuentan como omitidas;
+ * las que fallan no detienen el lote y se detallan en errores.
+ */
+public class LoteUblResponse {
+    /** Identificador del lote (GET /api/facturas/ubl/lote/{id}) */
+    private String id;
+    /** EN_CURSO, COMPLETADO o FALLIDO (no se pudo listar el periodo) */
+    private String estado;
+    private LocalDate desde;
+    private LocalDate hasta;
+    /** Facturas del periodo */
+    private int facturas;
+    /** XML escritos y publicados en el almacén */
+    private int generados;
+    /** XML vigentes que no se regeneraron */
+    private int omitidos;
+    /** Detalle de las facturas que fallaron ("Factura <id>: <mensaje>") */
+    private List<String> errores = new ArrayList<>();
+    /** Duración en milisegundos (hasta el momento si sigue EN_CURSO) */
+    private long duracionMs;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+    public LocalDate getDesde() { return desde; }
+    public void setDesde(LocalDate desde) { this.desde = desde; }
+    public LocalDate getHasta() { return hasta; }
+    public void setHasta(LocalDate hasta) { this.hasta = hasta; }
+    public int getFacturas() { return facturas; }
+    public void setFacturas(int facturas) { this.facturas = facturas; }
+    public int getGenerados() { return generados; }
+    public void setGenerados(int generados) { this.generados = generados; }
+    public int getOmitidos() { return omitidos; }
+    public void setOmitidos(int omitidos) { this.omitidos = omitidos; }
+    public List<String> getErrores() { return errores; }
+    public void setErrores(List<String> errores) { this.errores = errores; }
+    public long getDuracionMs() { return duracionMs; }
+    public void setDuracionMs(long duracionMs) { this.duracionMs = duracionMs; }
+}
@@ -1,6 +1,9 @@
 package com.uptc.queenscorner.models.entities;
 
+import com.uptc.queenscorner.config.RegionesCache;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 /**
@@ -10,8 +13,12 @@ import java.time.LocalDateTime;
  * 
  * Tabla: clientes
  * Estado: Los clientes se marcan como inactivos en lugar de eliminarse (soft delete)
+ *
+ * Caché de segundo nivel: RegionesCache.CLIENTES
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RegionesCache.CLIENTES)
 @Table(name = "clientes")
 public class ClienteEntity {
     
@@ -1,6 +1,9 @@
 package com.uptc.queenscorner.models.entities;
 
+import com.uptc.queenscorner.config.RegionesCache;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
 import java.math.BigDecimal;
@@ -23,8 +26,12 @@ import java.util.ArrayList;
  * - Vigencia configurable
  * - Cálculo automático de totales e IVA
  * - Relación con items (líneas de presupuesto)
+ *
+ * Caché de segundo nivel: RegionesCache.COTIZACIONES (items: COTIZACION_ITEMS)
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RegionesCache.COTIZACIONES)
 @Table(name = "cotizaciones")
 public class CotizacionEntity {
     
@@ -75,6 +82,7 @@ public class CotizacionEntity {
     private String observaciones;
 
     /** Items/líneas que componen la cotización */
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RegionesCache.COTIZACION_ITEMS)
     @OneToMany(mappedBy = "cotizacion", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
     private List<ItemCotizacionEntity> items;
 
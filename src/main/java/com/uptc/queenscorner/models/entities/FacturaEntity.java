@@ -1,6 +1,7 @@
 package com.uptc.queenscorner.models.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -31,8 +32,12 @@ import java.util.List;
  * - idx_facturas_numero: buscar factura por número único
  * - idx_facturas_estado: filtrar por estado
  * - idx_facturas_fecha_creacion: ordenar y filtrar por fecha
+ *
+ * @DynamicUpdate: los UPDATE solo escriben las columnas modificadas
+ * (ej: registrar el PDF generado no reescribe el resto de la factura)
  */
 @Entity
+@DynamicUpdate
 @Table(name = "facturas", indexes = {
     @Index(name = "idx_facturas_negocio_id", columnList = "negocio_id"),
     @Index(name = "idx_facturas_numero", columnList = "numero_factura"),
@@ -191,7 +196,8 @@ public class FacturaEntity {
     private String usuarioEnvio;
 
     /**
-     * Ruta o ubicación del archivo PDF generado de la factura.
+     * Clave del PDF generado de la factura en el almacén de documentos
+     * (ej: facturas/2025/11/3f/FAC-2025-000001.pdf).
      * Se guarda después de generar el PDF para envío por correo
      */
     @Column(name = "path_pdf", length = 500)
@@ -1,6 +1,9 @@
 package com.uptc.queenscorner.models.entities;
 
+import com.uptc.queenscorner.config.RegionesCache;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -21,8 +24,12 @@ import java.time.LocalDateTime;
  * - El subtotal se calcula como: cantidad * precio unitario
  * - Registra fecha de creación para auditoría
  * - Valor inicial: cantidad 1, precios en cero
+ *
+ * Caché de segundo nivel: RegionesCache.ITEMS_COTIZACION
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RegionesCache.ITEMS_COTIZACION)
 @Table(name = "items_cotizacion")
 public class ItemCotizacionEntity {
     
@@ -1,6 +1,10 @@
 package com.uptc.queenscorner.models.entities;
 
+import com.uptc.queenscorner.config.RegionesCache;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
 import java.math.BigDecimal;
@@ -21,8 +25,15 @@ import java.time.LocalDateTime;
  * - Datos desnormalizados de cotización (para consultas rápidas)
  * - Seguimiento de presupuesto y anticipo
  * - Información de ejecución del proyecto
+ *
+ * Caché de segundo nivel: RegionesCache.NEGOCIOS
+ * @DynamicUpdate: los UPDATE solo escriben las columnas modificadas
+ * (ej: registrar el dossier no reescribe el resto del negocio)
  */
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RegionesCache.NEGOCIOS)
 @Table(name = "negocios")
 public class NegocioEntity {
     
@@ -122,6 +133,19 @@ public class NegocioEntity {
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion;
 
+    // ===== DOSSIER (PDF COMBINADO) =====
+
+    /**
+     * Clave del último dossier PDF en el almacén de documentos
+     * (ej: dossiers/2025/11/3f/NEG-20251102-00001.pdf)
+     */
+    @Column(name = "path_dossier", length = 500)
+    private String pathDossier;
+
+    /** Huella combinada de los PDFs que forman el dossier guardado (SHA-256) */
+    @Column(name = "huella_dossier", length = 64)
+    private String huellaDossier;
+
     /**
      * Enum para los estados del negocio
      * EN_REVISION: En ejecución o evaluación
@@ -215,4 +239,12 @@ public class NegocioEntity {
 
     public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
     public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+
+    // ===== GETTERS Y SETTERS DEL DOSSIER =====
+
+    public String getPathDossier() { return pathDossier; }
+    public void setPathDossier(String pathDossier) { this.pathDossier = pathDossier; }
+
+    public String getHuellaDossier() { return huellaDossier; }
+    public void setHuellaDossier(String huellaDossier) { this.huellaDossier = huellaDossier; }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.uptc.queenscorner.models.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad Trabajo de Documento
+ * Representa la solicitud persistente de generar el PDF de una cotización o factura
+ * (o el XML de la factura electrónica)
+ * Sobrevive a reinicios de la JVM: un worker reclama los trabajos pendientes por lotes
+ *
+ * Tabla: trabajos_documento
+ * Estados: EN_COLA → RENDERIZANDO → COMPLETADO
+ *                               ↘ EN_COLA (reintento con backoff) → FALLIDO
+ *
+ * Hay un único registro por documento (tipo + id): volver a solicitar el PDF
+ * reutiliza el registro y lo devuelve a EN_COLA
+ */
+@Entity
+@Table(name = "trabajos_documento",
+    uniqueConstraints = @UniqueConstraint(name = "uk_trabajos_documento", columnNames = {"tipo_documento", "documento_id"}),
+    indexes = @Index(name = "idx_trabajos_documento_estado", columnList = "estado, proximo_intento"))
+public class TrabajoDocumentoEntity {
+
+    /** Identificador único en la BD */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Tipo de documento a generar */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_documento", nullable = false, length = 30)
+    private TipoDocumento tipoDocumento;
+
+    /** ID de la cotización o factura */
+    @Column(name = "documento_id", nullable = false)
+    private Long documentoId;
+
+    /** Estado actual del trabajo */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoTrabajo estado;
+
+    /** Número de intentos fallidos consecutivos */
+    @Column(nullable = false)
+    private Integer intentos;
+
+    /** Momento a partir del cual el trabajo puede reclamarse (backoff) */
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    /** Último error registrado (si hubo) */
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+
+    /** Clave del PDF en el almacén de documentos cuando el trabajo se completa */
+    @Column(name = "ruta_archivo", length = 500)
+    private String rutaArchivo;
+
+    /** Huella de contenido del PDF en rutaArchivo (ver HuellaPdf) */
+    @Column(length = 64)
+    private String huella;
+
+    /** Fecha de la primera solicitud */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /** Fecha del último cambio de estado */
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+
+    /** Versión para control de concurrencia optimista */
+    @Version
+    private Long version;
+
+    /**
+     * Tipos de documento que genera el pipeline
+     * FACTURA_UBL: XML de la factura electrónica (UBL 2.1), aparte del PDF de la factura
+     */
+    public enum TipoDocumento {
+        COTIZACION, FACTURA, FACTURA_UBL
+    }
+
+    /**
+     * Estados del trabajo
+     * EN_COLA: pendiente de ser reclamado por un worker
+     * RENDERIZANDO: un worker lo está generando
+     * COMPLETADO: archivo disponible en rutaArchivo
+     * FALLIDO: agotó los reintentos
+     */
+    public enum EstadoTrabajo {
+        EN_COLA, RENDERIZANDO, COMPLETADO, FALLIDO
+    }
+
+    /**
+     * Constructor por defecto
+     * Inicializa el trabajo en cola, listo para ejecutarse
+     */
+    public TrabajoDocumentoEntity() {
+        this.estado = EstadoTrabajo.EN_COLA;
+        this.intentos = 0;
+        this.fechaCreacion = LocalDateTime.now();
+        this.fechaActualizacion = this.fechaCreacion;
+        this.proximoIntento = this.fechaCreacion;
+    }
+
+    // ===== GETTERS Y SETTERS =====
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public TipoDocumento getTipoDocumento() { return tipoDocumento; }
+    public void setTipoDocumento(TipoDocumento tipoDocumento) { this.tipoDocumento = tipoDocumento; }
+
+    public Long getDocumentoId() { return documentoId; }
+    public void setDocumentoId(Long documentoId) { this.documentoId = documentoId; }
+
+    public EstadoTrabajo getEstado() { return estado; }
+    public void setEstado(EstadoTrabajo estado) { this.estado = estado; }
+
+    public Integer getIntentos() { return intentos; }
+    public void setIntentos(Integer intentos) { this.intentos = intentos; }
+
+    public LocalDateTime getProximoIntento() { return proximoIntento; }
+    public void setProximoIntento(LocalDateTime proximoIntento) { this.proximoIntento = proximoIntento; }
+
+    public String getUltimoError() { return ultimoError; }
+    public void setUltimoError(String ultimoError) { this.ultimoError = ultimoError; }
+
+    public String getRutaArchivo() { return rutaArchivo; }
+    public void setRutaArchivo(String rutaArchivo) { this.rutaArchivo = rutaArchivo; }
+
+    public String getHuella() { return huella; }
+    public void setHuella(String huella) { this.huella = huella; }
+
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public void setFechaCreacion(LocalDateTime fechaCreacion) { this.fechaCreacion = fechaCreacion; }
+
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
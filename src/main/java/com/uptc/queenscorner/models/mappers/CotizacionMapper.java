@@ -4,6 +4,8 @@ import com.uptc.queenscorner.models.dtos.requests.CotizacionRequest;
 import com.uptc.queenscorner.models.dtos.responses.CotizacionResponse;
 import com.uptc.queenscorner.models.entities.CotizacionEntity;
 import com.uptc.queenscorner.repositories.IItemCotizacionRepository;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService.Entidad;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import java.util.stream.Collectors;
@@ -32,10 +34,13 @@ public class CotizacionMapper {
     @Autowired
     private IItemCotizacionRepository itemCotizacionRepository;
 
+    @Autowired
+    private FragmentosCacheService fragmentos;
+
     /**
      * Convierte una CotizacionEntity en CotizacionResponse.
      * Incluye:
-     * - Información del cliente
+     * - Información del cliente (fragmento cacheado, compartido con otras respuestas)
      * - Todos los items asociados (consultados directamente desde BD)
      * - Totales y cálculos
      * 
@@ -49,7 +54,8 @@ public class CotizacionMapper {
         
         // Mapear cliente embebido
         if (entity.getCliente() != null) {
-            response.setCliente(clienteMapper.toResponse(entity.getCliente()));
+            response.setCliente(fragmentos.componer(Entidad.COTIZACION, entity.getId(), Entidad.CLIENTE,
+                    entity.getCliente().getId(), "cliente", () -> clienteMapper.toResponse(entity.getCliente())));
         }
         
         response.setFechaCreacion(entity.getFechaCreacion());
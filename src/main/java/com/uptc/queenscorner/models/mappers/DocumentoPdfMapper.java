@@ -0,0 +1,138 @@
+package com.uptc.queenscorner.models.mappers;
+
+import com.uptc.queenscorner.models.entities.ClienteEntity;
+import com.uptc.queenscorner.models.entities.CotizacionEntity;
+import com.uptc.queenscorner.models.entities.FacturaEntity;
+import com.uptc.queenscorner.models.entities.ItemCotizacionEntity;
+import com.uptc.queenscorner.models.entities.LineaFacturaEntity;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf.Seccion;
+import com.uptc.queenscorner.services.pdf.FormatoPdf;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+
+/**
+ * Mapper para convertir cotizaciones y facturas al modelo de renderizado DocumentoPdf.
+ *
+ * Responsabilidades:
+ * - Decidir qué datos, secciones, líneas y totales lleva cada tipo de documento
+ * - Formatear fechas y valores una sola vez
+ *
+ * El diseño (orden de bloques, estilos, tabla) lo define la plantilla del
+ * renderizador, así que ambos documentos comparten el mismo motor.
+ */
+@Component
+public class DocumentoPdfMapper {
+
+    /**
+     * Convierte una CotizacionEntity en el modelo del PDF de cotización.
+     * Requiere cliente e items cargados.
+     *
+     * @param cotizacion Entidad de cotización
+     * @return Modelo listo para renderizar
+     */
+    public DocumentoPdf toDocumentoPdf(CotizacionEntity cotizacion) {
+        DocumentoPdf documento = new DocumentoPdf("COTIZACIÓN")
+                .agregarDato("Código", cotizacion.getCodigo())
+                .agregarDato("Número", cotizacion.getNumeroCotizacion())
+                .agregarDato("Fecha", FormatoPdf.fechaHora(cotizacion.getFechaCreacion()))
+                .agregarDato("Estado", cotizacion.getEstado())
+                .agregarDato("Válida hasta", cotizacion.getFechaValidez());
+        documento.setNombreArchivo(cotizacion.getCodigo() + ".pdf");
+        if (cotizacion.getFechaCreacion() != null) {
+            documento.setFechaDocumento(cotizacion.getFechaCreacion().toLocalDate());
+        }
+
+        if (cotizacion.getCliente() != null) {
+            documento.agregarSeccion(toSeccionCliente(cotizacion.getCliente()));
+        }
+        documento.agregarSeccion(new Seccion("DESCRIPCIÓN").conTexto(FormatoPdf.texto(cotizacion.getDescripcion())));
+
+        documento.setTituloLineas("ITEMS");
+        if (cotizacion.getItems() != null) {
+            int numero = 1;
+            for (ItemCotizacionEntity item : cotizacion.getItems()) {
+                documento.agregarLinea(numero++, item.getDescripcion(), item.getCantidad(),
+                        item.getPrecioUnitario(), item.getSubtotal());
+            }
+        }
+
+        documento.agregarTotal("Subtotal", cotizacion.getSubtotal(), false)
+                .agregarTotal("Impuestos (19%)", cotizacion.getImpuestos(), false)
+                .agregarTotal("TOTAL", cotizacion.getTotal(), true);
+        documento.setObservaciones(cotizacion.getObservaciones());
+        return documento;
+    }
+
+    /**
+     * Convierte una FacturaEntity en el modelo del PDF de factura.
+     * Requiere líneas y negocio (con cotización y cliente) cargados.
+     * Calcula el saldo pendiente: total - anticipo.
+     *
+     * @param factura Entidad de factura
+     * @return Modelo listo para renderizar
+     */
+    public DocumentoPdf toDocumentoPdf(FacturaEntity factura) {
+        DocumentoPdf documento = new DocumentoPdf("FACTURA DE VENTA")
+                .agregarDato("Número", factura.getNumeroFactura())
+                .agregarDato("Fecha Emisión", FormatoPdf.fechaHora(factura.getFechaCreacion()));
+        if (factura.getFechaEnvio() != null) {
+            documento.agregarDato("Fecha Envío", FormatoPdf.fechaHora(factura.getFechaEnvio()));
+        }
+        documento.agregarDato("Estado", factura.getEstado());
+        documento.setNombreArchivo(factura.getNumeroFactura() + ".pdf");
+        if (factura.getFechaCreacion() != null) {
+            documento.setFechaDocumento(factura.getFechaCreacion().toLocalDate());
+        }
+
+        if (factura.getNegocio() != null) {
+            if (factura.getNegocio().getCotizacion() != null
+                    && factura.getNegocio().getCotizacion().getCliente() != null) {
+                documento.agregarSeccion(toSeccionCliente(factura.getNegocio().getCotizacion().getCliente()));
+            }
+            documento.agregarSeccion(new Seccion("NEGOCIO")
+                    .agregarCampo("Código", factura.getNegocio().getCodigo())
+                    .agregarCampo("Descripción", factura.getNegocio().getDescripcion()));
+        }
+
+        documento.setTituloLineas("DETALLE DE LÍNEAS");
+        if (factura.getLineas() != null) {
+            for (LineaFacturaEntity linea : factura.getLineas()) {
+                // El total lo calcula la BD; si la línea aún no se ha recargado se calcula aquí
+                BigDecimal total = linea.getTotal() != null || linea.getCantidad() == null
+                        || linea.getValorUnitario() == null ? linea.getTotal() : linea.calcularTotal();
+                documento.agregarLinea(linea.getNumeroLinea(), linea.getDescripcion(), linea.getCantidad(),
+                        linea.getValorUnitario(), total);
+            }
+        }
+
+        documento.agregarTotal("Subtotal", factura.getSubtotal(), false)
+                .agregarTotal("IVA (19%)", factura.getIva(), false)
+                .agregarTotal("TOTAL A PAGAR", factura.getTotal(), true);
+        BigDecimal saldoPendiente = factura.getTotal() != null ? factura.getTotal() : BigDecimal.ZERO;
+        if (factura.getAnticipo() != null && factura.getAnticipo().compareTo(BigDecimal.ZERO) > 0) {
+            documento.agregarTotal("Anticipo", factura.getAnticipo(), false);
+            saldoPendiente = saldoPendiente.subtract(factura.getAnticipo());
+        }
+        documento.agregarTotal("Saldo Pendiente", saldoPendiente, true);
+        documento.setObservaciones(factura.getObservaciones());
+
+        documento.agregarPie("Creado por: " + FormatoPdf.texto(factura.getUsuarioCreacion()));
+        if (factura.getUsuarioEnvio() != null) {
+            documento.agregarPie("Enviado por: " + factura.getUsuarioEnvio());
+        }
+        return documento;
+    }
+
+    /**
+     * Bloque de datos del cliente, común a cotizaciones y facturas
+     */
+    private Seccion toSeccionCliente(ClienteEntity cliente) {
+        return new Seccion("CLIENTE")
+                .agregarCampo("Nombre", cliente.getNombre())
+                .agregarCampo("Documento", cliente.getDocumento())
+                .agregarCampo("Email", cliente.getEmail())
+                .agregarCampo("Teléfono", cliente.getTelefono())
+                .agregarCampo("Dirección", cliente.getDireccion());
+    }
+}
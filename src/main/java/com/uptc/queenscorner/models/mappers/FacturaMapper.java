@@ -5,6 +5,9 @@ import com.uptc.queenscorner.models.dtos.responses.LineaFacturaResponse;
 import com.uptc.queenscorner.models.dtos.responses.NegocioInfoResponse;
 import com.uptc.queenscorner.models.dtos.responses.ClienteInfoResponse;
 import com.uptc.queenscorner.models.entities.*;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService.Entidad;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 
@@ -22,6 +25,9 @@ import java.math.BigDecimal;
  */
 @Component
 public class FacturaMapper {
+
+    @Autowired
+    private FragmentosCacheService fragmentos;
     
     /**
      * Convierte una FacturaEntity en FacturaResponse.
@@ -54,7 +60,9 @@ public class FacturaMapper {
         response.setUsuarioCreacion(entity.getUsuarioCreacion());
         response.setUsuarioEnvio(entity.getUsuarioEnvio());
         response.setPathPdf(entity.getPathPdf());
-        response.setNegocio(toNegocioInfo(entity.getNegocio()));
+        NegocioEntity negocio = entity.getNegocio();
+        response.setNegocio(fragmentos.componer(Entidad.FACTURA, entity.getId(), Entidad.NEGOCIO,
+                negocio != null ? negocio.getId() : null, "negocioInfo", () -> toNegocioInfo(negocio)));
         
         // Calcular saldo pendiente: total - anticipo
         // Representa lo que aún debe pagar el cliente
@@ -92,7 +100,9 @@ public class FacturaMapper {
         response.setDescripcion(entity.getDescripcion());
         response.setCantidad(BigDecimal.valueOf(entity.getCantidad().doubleValue()));
         response.setValorUnitario(entity.getValorUnitario());
-        response.setTotal(entity.getTotal());
+        // El total lo calcula la BD; si la línea aún no se ha recargado se calcula aquí
+        response.setTotal(entity.getTotal() != null || entity.getCantidad() == null
+                || entity.getValorUnitario() == null ? entity.getTotal() : entity.calcularTotal());
         return response;
     }
     
@@ -101,6 +111,7 @@ public class FacturaMapper {
      * 
      * Se utiliza cuando la información del negocio se embebe en la respuesta de factura.
      * Solo incluye datos financieros y de identificación esenciales.
+     * En toResponse se cachea como fragmento, dependiente de la cotización y del cliente.
      * 
      * Información incluida:
      * - ID, código, descripción, fecha
@@ -122,6 +133,7 @@ public class FacturaMapper {
         // Obtener totales desde la cotización asociada
         if (entity.getCotizacion() != null) {
             CotizacionEntity cot = entity.getCotizacion();
+            fragmentos.registrar(Entidad.NEGOCIO, entity.getId(), Entidad.COTIZACION, cot.getId());
             response.setTotalCotizacion(cot.getTotal());
             response.setAnticipo(entity.getAnticipo());
             
@@ -134,6 +146,7 @@ public class FacturaMapper {
             // Incluir información resumida del cliente desde la cotización
             if (cot.getCliente() != null) {
                 ClienteEntity cliente = cot.getCliente();
+                fragmentos.registrar(Entidad.NEGOCIO, entity.getId(), Entidad.CLIENTE, cliente.getId());
                 response.setCliente(new ClienteInfoResponse(
                     cliente.getId(),
                     cliente.getNombre(),
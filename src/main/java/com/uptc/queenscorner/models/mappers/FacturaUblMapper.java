@@ -0,0 +1,110 @@
+package com.uptc.queenscorner.models.mappers;
+
+import com.uptc.queenscorner.models.entities.ClienteEntity;
+import com.uptc.queenscorner.models.entities.FacturaEntity;
+import com.uptc.queenscorner.models.entities.LineaFacturaEntity;
+import com.uptc.queenscorner.services.ubl.FacturaUbl;
+import com.uptc.queenscorner.services.ubl.FacturaUbl.Participante;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+
+/**
+ * Mapper para convertir facturas al modelo de la factura electrónica (FacturaUbl).
+ *
+ * Responsabilidades:
+ * - Tomar los datos del emisor de la configuración (ubl.emisor.*)
+ * - Resolver el documento del adquiriente: NIT con dígito de verificación
+ *   (ej: 900123456-7) o cédula
+ * - Copiar líneas y totales con el mismo criterio que el PDF (DocumentoPdfMapper)
+ */
+@Component
+public class FacturaUblMapper {
+
+    /** Tipos de documento DIAN */
+    private static final String NIT = "31";
+    private static final String CEDULA = "13";
+
+    /** Adquiriente genérico de la DIAN cuando la factura no tiene cliente */
+    private static final String CONSUMIDOR_FINAL = "222222222222";
+
+    @Value("${ubl.emisor.razon-social:QUEEN'S CORNER GALLERY}")
+    private String razonSocial;
+
+    @Value("${ubl.emisor.nit:56789056}")
+    private String nit;
+
+    @Value("${ubl.emisor.dv:6}")
+    private String digitoVerificacion;
+
+    @Value("${ubl.emisor.direccion:Carrera 10 # 16 - 95}")
+    private String direccion;
+
+    @Value("${ubl.emisor.ciudad:Sogamoso}")
+    private String ciudad;
+
+    /** 1 = producción, 2 = pruebas (habilitación) */
+    @Value("${ubl.ambiente:2}")
+    private String ambiente;
+
+    /**
+     * Convierte una FacturaEntity en el modelo de la factura electrónica.
+     * Requiere líneas y negocio (con cotización y cliente) cargados.
+     *
+     * @param factura Entidad de factura
+     * @return Modelo listo para escribir con EscritorUbl
+     */
+    public FacturaUbl toFacturaUbl(FacturaEntity factura) {
+        FacturaUbl ubl = new FacturaUbl();
+        ubl.setNumero(factura.getNumeroFactura());
+        ubl.setFechaEmision(factura.getFechaEmision() != null ? factura.getFechaEmision() : factura.getFechaCreacion());
+        ubl.setNombreArchivo(factura.getNumeroFactura() + ".xml");
+        if (factura.getFechaCreacion() != null) {
+            ubl.setFechaDocumento(factura.getFechaCreacion().toLocalDate());
+        }
+        ubl.setAmbiente(ambiente);
+        ubl.setEmisor(new Participante(razonSocial, NIT, nit, digitoVerificacion)
+                .conUbicacion(direccion, ciudad));
+
+        ClienteEntity cliente = factura.getNegocio() != null && factura.getNegocio().getCotizacion() != null
+                ? factura.getNegocio().getCotizacion().getCliente()
+                : null;
+        ubl.setAdquiriente(toAdquiriente(cliente));
+
+        if (factura.getLineas() != null) {
+            for (LineaFacturaEntity linea : factura.getLineas()) {
+                // El total lo calcula la BD; si la línea aún no se ha recargado se calcula aquí
+                BigDecimal total = linea.getTotal() != null || linea.getCantidad() == null
+                        || linea.getValorUnitario() == null ? linea.getTotal() : linea.calcularTotal();
+                ubl.agregarLinea(linea.getNumeroLinea(), linea.getDescripcion(), linea.getCantidad(),
+                        linea.getValorUnitario(), total);
+            }
+        }
+
+        ubl.setSubtotal(factura.getSubtotal());
+        ubl.setIva(factura.getIva());
+        ubl.setTotal(factura.getTotal());
+        ubl.setAnticipo(factura.getAnticipo());
+        ubl.setObservaciones(factura.getObservaciones());
+        return ubl;
+    }
+
+    /**
+     * Adquiriente a partir del cliente
+     * Un documento con guion se toma como NIT-DV; cualquier otro como cédula
+     */
+    private Participante toAdquiriente(ClienteEntity cliente) {
+        if (cliente == null) {
+            return new Participante("CONSUMIDOR FINAL", CEDULA, CONSUMIDOR_FINAL, null);
+        }
+        String documento = cliente.getDocumento() != null ? cliente.getDocumento().replace(".", "").trim() : "";
+        int guion = documento.lastIndexOf('-');
+        Participante adquiriente = guion > 0
+                ? new Participante(cliente.getNombre(), NIT, documento.substring(0, guion).trim(),
+                        documento.substring(guion + 1).trim())
+                : new Participante(cliente.getNombre(), CEDULA, documento, null);
+        return adquiriente
+                .conUbicacion(cliente.getDireccion(), cliente.getCiudad())
+                .conContacto(cliente.getTelefono(), cliente.getEmail());
+    }
+}
@@ -5,6 +5,8 @@ import com.uptc.queenscorner.models.dtos.responses.ClienteResponse;
 import com.uptc.queenscorner.models.dtos.responses.NegocioResponse;
 import com.uptc.queenscorner.models.entities.NegocioEntity;
 import com.uptc.queenscorner.models.entities.CotizacionEntity;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService.Entidad;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -29,6 +31,9 @@ public class NegocioMapper {
     @Autowired
     private CotizacionMapper cotizacionMapper;
 
+    @Autowired
+    private FragmentosCacheService fragmentos;
+
     /**
      * Convierte una NegocioEntity en NegocioResponse.
      * 
@@ -90,12 +95,14 @@ public class NegocioMapper {
         if (entity.getCotizacion() != null) {
             CotizacionEntity cotizacion = entity.getCotizacion();
             response.setCotizacionId(cotizacion.getId());
-            // Mapear la cotización completa con sus items
-            response.setCotizacion(cotizacionMapper.toResponse(cotizacion));
+            // Mapear la cotización completa con sus items (fragmento cacheado)
+            response.setCotizacion(fragmentos.componer(Entidad.NEGOCIO, entity.getId(), Entidad.COTIZACION,
+                    cotizacion.getId(), "cotizacion", () -> cotizacionMapper.toResponse(cotizacion)));
             
             // Extraer cliente de la cotización (el cliente es mandatorio)
             if (cotizacion.getCliente() != null) {
-                ClienteResponse cliente = clienteMapper.toResponse(cotizacion.getCliente());
+                ClienteResponse cliente = fragmentos.componer(Entidad.NEGOCIO, entity.getId(), Entidad.CLIENTE,
+                        cotizacion.getCliente().getId(), "cliente", () -> clienteMapper.toResponse(cotizacion.getCliente()));
                 response.setCliente(cliente);
             }
         }
@@ -1,7 +1,11 @@
 package com.uptc.queenscorner.repositories;
 
+import com.uptc.queenscorner.config.RegionesCache;
 import com.uptc.queenscorner.models.entities.CotizacionEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +20,9 @@ import java.util.Optional;
  * - findByEstado(): Obtiene todas las cotizaciones con un estado específico
  * - findByClienteId(): Obtiene todas las cotizaciones de un cliente
  * - existsByCodigo(): Verifica si un código de cotización ya existe
+ * 
+ * findByCodigo() y findByEstado() usan la caché de consultas de Hibernate
+ * (RegionesCache), invalidada por cualquier escritura en la tabla.
  */
 @Repository
 public interface ICotizacionRepository extends JpaRepository<CotizacionEntity, Long> {
@@ -25,6 +32,10 @@ public interface ICotizacionRepository extends JpaRepository<CotizacionEntity, L
      * @param codigo Código único de la cotización
      * @return Optional con la cotización si existe
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = RegionesCache.CONSULTA_COTIZACION_CODIGO)
+    })
     Optional<CotizacionEntity> findByCodigo(String codigo);
     
     /**
@@ -33,6 +44,10 @@ public interface ICotizacionRepository extends JpaRepository<CotizacionEntity, L
      * @param estado Estado de la cotización a filtrar
      * @return Lista de cotizaciones con ese estado
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = RegionesCache.CONSULTA_COTIZACIONES_ESTADO)
+    })
     List<CotizacionEntity> findByEstado(CotizacionEntity.EstadoCotizacion estado);
     
     /**
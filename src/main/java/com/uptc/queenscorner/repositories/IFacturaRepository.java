@@ -1,9 +1,14 @@
 package com.uptc.queenscorner.repositories;
 
 import com.uptc.queenscorner.models.entities.FacturaEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +20,10 @@ import java.util.Optional;
  * Métodos personalizados:
  * - findByNumeroFactura(): Busca factura por su número único
  * - findByNegocioId(): Obtiene todas las facturas de un negocio
+ * - findIdsByFechaCreacionEntre(): IDs de facturas de un periodo (exportación)
+ * - findIdsByNegocioId(): IDs de las facturas de un negocio (dossier)
+ * - findConLineasByIdIn(): facturas completas por lotes (factura electrónica)
+ * - findUbicacionesPdfByIdIn(): claves de los PDFs por lotes, sin cargar entidades (exportación)
  */
 @Repository
 public interface IFacturaRepository extends JpaRepository<FacturaEntity, Long> {
@@ -33,5 +42,57 @@ public interface IFacturaRepository extends JpaRepository<FacturaEntity, Long> {
      * @return Lista de facturas del negocio
      */
     List<FacturaEntity> findByNegocioId(Long negocioId);
-} 
 
+    /**
+     * Obtiene los IDs de las facturas creadas en un periodo, en orden cronológico.
+     * Solo trae los IDs para no cargar todas las entidades a la vez.
+     * @param desde Inicio del periodo (inclusive)
+     * @param hasta Fin del periodo (exclusivo)
+     * @return IDs de las facturas del periodo
+     */
+    @Query("SELECT f.id FROM FacturaEntity f WHERE f.fechaCreacion >= :desde AND f.fechaCreacion < :hasta " +
+           "ORDER BY f.fechaCreacion, f.id")
+    List<Long> findIdsByFechaCreacionEntre(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtiene los IDs de las facturas de un negocio, en orden cronológico.
+     * @param negocioId ID del negocio
+     * @return IDs de las facturas del negocio
+     */
+    @Query("SELECT f.id FROM FacturaEntity f WHERE f.negocio.id = :negocioId ORDER BY f.fechaCreacion, f.id")
+    List<Long> findIdsByNegocioId(@Param("negocioId") Long negocioId);
+
+    /**
+     * Carga un lote de facturas con sus líneas, negocio, cotización y cliente en una consulta.
+     * Evita una consulta por factura al generar documentos en lote.
+     * @param ids IDs de las facturas
+     * @return Facturas encontradas, por ID y con las líneas en orden
+     */
+    @Query("SELECT f FROM FacturaEntity f LEFT JOIN FETCH f.lineas l " +
+           "JOIN FETCH f.negocio n JOIN FETCH n.cotizacion c JOIN FETCH c.cliente " +
+           "WHERE f.id IN :ids ORDER BY f.id, l.numeroLinea")
+    List<FacturaEntity> findConLineasByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene dónde está guardado el PDF de un lote de facturas: pathPdf de la
+     * factura y rutaArchivo de su trabajo de PDF (si lo hay).
+     * Es una proyección: no deja entidades en el contexto de persistencia,
+     * así una exportación larga no acumula facturas (ni su negocio EAGER) en memoria.
+     * @param ids IDs de las facturas
+     * @param tipo Tipo del trabajo de documento (FACTURA)
+     * @return Una fila por factura existente
+     */
+    @Query("SELECT f.id AS id, f.pathPdf AS pathPdf, t.rutaArchivo AS rutaArchivo FROM FacturaEntity f " +
+           "LEFT JOIN TrabajoDocumentoEntity t ON t.tipoDocumento = :tipo AND t.documentoId = f.id " +
+           "WHERE f.id IN :ids")
+    List<UbicacionPdf> findUbicacionesPdfByIdIn(@Param("ids") Collection<Long> ids, @Param("tipo") TipoDocumento tipo);
+
+    /**
+     * Claves de almacenamiento del PDF de una factura (proyección)
+     */
+    interface UbicacionPdf {
+        Long getId();
+        String getPathPdf();
+        String getRutaArchivo();
+    }
+}
@@ -1,8 +1,12 @@
 package com.uptc.queenscorner.repositories;
 
+import com.uptc.queenscorner.config.RegionesCache;
 import com.uptc.queenscorner.models.entities.CotizacionEntity;
 import com.uptc.queenscorner.models.entities.NegocioEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +22,9 @@ import java.util.Optional;
  * - findByCotizacion(): Busca negocio por entidad de cotización
  * - findByEstado(): Obtiene negocios por estado
  * - existsByCodigo(): Verifica si un código de negocio existe
+ * 
+ * findByCodigo() y findByEstado() usan la caché de consultas de Hibernate
+ * (RegionesCache), invalidada por cualquier escritura en la tabla.
  */
 @Repository
 public interface INegocioRepository extends JpaRepository<NegocioEntity, Long> {
@@ -27,6 +34,10 @@ public interface INegocioRepository extends JpaRepository<NegocioEntity, Long> {
      * @param codigo Código único del negocio
      * @return Optional con el negocio si existe
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = RegionesCache.CONSULTA_NEGOCIO_CODIGO)
+    })
     Optional<NegocioEntity> findByCodigo(String codigo);
     
     /**
@@ -51,6 +62,10 @@ public interface INegocioRepository extends JpaRepository<NegocioEntity, Long> {
      * @param estado Estado del negocio a filtrar
      * @return Lista de negocios con ese estado
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = RegionesCache.CONSULTA_NEGOCIOS_ESTADO)
+    })
     List<NegocioEntity> findByEstado(NegocioEntity.EstadoNegocio estado);
     
     /**
@@ -0,0 +1,142 @@
+package com.uptc.queenscorner.repositories;
+
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.EstadoTrabajo;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository (Acceso a Datos) para la entidad TrabajoDocumentoEntity.
+ *
+ * Cola persistente de generación de documentos.
+ * Las transiciones de estado se hacen con UPDATE condicionales para que
+ * dos workers (o dos instancias) nunca reclamen el mismo trabajo.
+ */
+@Repository
+public interface ITrabajoDocumentoRepository extends JpaRepository<TrabajoDocumentoEntity, Long> {
+
+    /**
+     * Busca el trabajo asociado a un documento.
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @return Optional con el trabajo si alguna vez se solicitó
+     */
+    Optional<TrabajoDocumentoEntity> findByTipoDocumentoAndDocumentoId(TipoDocumento tipoDocumento, Long documentoId);
+
+    /**
+     * Busca los trabajos de un lote de documentos del mismo tipo (generación en lote).
+     * @param tipoDocumento Tipo de documento
+     * @param documentoIds IDs de los documentos
+     * @return Trabajos existentes (los documentos nunca solicitados no aparecen)
+     */
+    List<TrabajoDocumentoEntity> findByTipoDocumentoAndDocumentoIdIn(TipoDocumento tipoDocumento,
+                                                                     Collection<Long> documentoIds);
+
+    /**
+     * Obtiene trabajos listos para ejecutarse, los más antiguos primero.
+     * @param estado Normalmente EN_COLA
+     * @param ahora Solo trabajos cuyo backoff ya venció
+     * @param pageable Tamaño del lote
+     * @return Lote de trabajos candidatos
+     */
+    List<TrabajoDocumentoEntity> findByEstadoAndProximoIntentoLessThanEqualOrderByProximoIntentoAsc(
+            EstadoTrabajo estado, LocalDateTime ahora, Pageable pageable);
+
+    /**
+     * Devuelve a EN_COLA el trabajo de un documento, reiniciando intentos y backoff.
+     * @return 1 si el trabajo existía, 0 si hay que crearlo
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoDocumentoEntity t SET t.estado = :enCola, t.intentos = 0, t.ultimoError = null, " +
+           "t.proximoIntento = :ahora, t.fechaActualizacion = :ahora, t.version = t.version + 1 " +
+           "WHERE t.tipoDocumento = :tipo AND t.documentoId = :documentoId")
+    int reencolar(@Param("tipo") TipoDocumento tipoDocumento, @Param("documentoId") Long documentoId,
+                  @Param("enCola") EstadoTrabajo enCola, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Reclama un trabajo: EN_COLA → RENDERIZANDO.
+     * @return 1 si este worker lo reclamó, 0 si otro se adelantó
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoDocumentoEntity t SET t.estado = :renderizando, t.fechaActualizacion = :ahora, " +
+           "t.version = t.version + 1 WHERE t.id = :id AND t.estado = :enCola")
+    int reclamar(@Param("id") Long id, @Param("enCola") EstadoTrabajo enCola,
+                 @Param("renderizando") EstadoTrabajo renderizando, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Marca un trabajo como completado con la ruta y la huella del archivo generado.
+     * No tiene efecto si el trabajo fue re-encolado mientras se renderizaba.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoDocumentoEntity t SET t.estado = :completado, t.rutaArchivo = :ruta, t.huella = :huella, " +
+           "t.intentos = 0, t.ultimoError = null, t.fechaActualizacion = :ahora, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.estado = :renderizando")
+    int marcarCompletado(@Param("id") Long id, @Param("ruta") String ruta, @Param("huella") String huella,
+                         @Param("renderizando") EstadoTrabajo renderizando,
+                         @Param("completado") EstadoTrabajo completado, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Registra un PDF renderizado fuera de la cola (descarga bajo demanda) como COMPLETADO.
+     * No toca un trabajo que se esté renderizando; su resultado prevalece.
+     * @return 1 si el trabajo existía y se actualizó, 0 si no existe o está RENDERIZANDO
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoDocumentoEntity t SET t.estado = :completado, t.rutaArchivo = :ruta, t.huella = :huella, " +
+           "t.intentos = 0, t.ultimoError = null, t.fechaActualizacion = :ahora, t.version = t.version + 1 " +
+           "WHERE t.tipoDocumento = :tipo AND t.documentoId = :documentoId AND t.estado <> :renderizando")
+    int registrarRenderDirecto(@Param("tipo") TipoDocumento tipoDocumento, @Param("documentoId") Long documentoId,
+                               @Param("ruta") String ruta, @Param("huella") String huella,
+                               @Param("renderizando") EstadoTrabajo renderizando,
+                               @Param("completado") EstadoTrabajo completado, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Registra un intento fallido: vuelve a EN_COLA con backoff o pasa a FALLIDO.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoDocumentoEntity t SET t.estado = :estado, t.intentos = :intentos, t.ultimoError = :error, " +
+           "t.proximoIntento = :proximoIntento, t.fechaActualizacion = :ahora, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.estado = :renderizando")
+    int registrarFallo(@Param("id") Long id, @Param("renderizando") EstadoTrabajo renderizando,
+                       @Param("estado") EstadoTrabajo estado, @Param("intentos") int intentos,
+                       @Param("error") String error, @Param("proximoIntento") LocalDateTime proximoIntento,
+                       @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Devuelve a la cola un trabajo que no pudo entregarse al pool de PDFs.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoDocumentoEntity t SET t.estado = :enCola, t.proximoIntento = :proximoIntento, " +
+           "t.fechaActualizacion = :ahora, t.version = t.version + 1 WHERE t.id = :id AND t.estado = :renderizando")
+    int devolverACola(@Param("id") Long id, @Param("renderizando") EstadoTrabajo renderizando,
+                      @Param("enCola") EstadoTrabajo enCola, @Param("proximoIntento") LocalDateTime proximoIntento,
+                      @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Rescata trabajos huérfanos (JVM reiniciada a mitad de render):
+     * RENDERIZANDO sin actividad desde antes del límite → EN_COLA.
+     * @return Número de trabajos rescatados
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoDocumentoEntity t SET t.estado = :enCola, t.proximoIntento = :ahora, " +
+           "t.fechaActualizacion = :ahora, t.version = t.version + 1 " +
+           "WHERE t.estado = :renderizando AND t.fechaActualizacion < :limite")
+    int rescatarHuerfanos(@Param("renderizando") EstadoTrabajo renderizando, @Param("enCola") EstadoTrabajo enCola,
+                          @Param("limite") LocalDateTime limite, @Param("ahora") LocalDateTime ahora);
+}
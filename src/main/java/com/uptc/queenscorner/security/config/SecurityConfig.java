@@ -157,6 +157,9 @@ public class SecurityConfig {
                 
                 // Swagger UI permitido sin autenticación (documentación)
                 .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/api-docs", "/api-docs/**").permitAll()
+
+                // Sondas de liveness/readiness (orquestador, sin token)
+                .requestMatchers("/actuator/health/liveness", "/actuator/health/readiness").permitAll()
                 
                 // Resto de requests requiere autenticación
                 .anyRequest().authenticated()
@@ -1,6 +1,8 @@
 package com.uptc.queenscorner.services;
 
+import com.uptc.queenscorner.models.dtos.responses.EstadisticasCacheResponse;
 import com.uptc.queenscorner.models.dtos.responses.SystemStats;
+import java.util.List;
 
 /**
  * Servicio de administración del sistema
@@ -21,4 +23,28 @@ public interface IAdminService {
      * @return Información sobre cantidad de registros en cada tabla
      */
     SystemStats getSystemStats();
+
+    /**
+     * Obtiene estadísticas de las cachés de servicios
+     * @param claves Número de claves más usadas a incluir por caché
+     * @return Aciertos, fallos, cargas, desalojos, peso estimado y claves más usadas
+     */
+    List<EstadisticasCacheResponse> getCacheStats(int claves);
+
+    /**
+     * Obtiene estadísticas de una caché
+     * @param cache Nombre de la caché
+     * @param claves Número de claves más usadas a incluir
+     * @return Estadísticas de la caché
+     * @throws ResourceNotFoundException si la caché no existe
+     */
+    EstadisticasCacheResponse getCacheStats(String cache, int claves);
+
+    /**
+     * Desaloja una sola clave de una caché
+     * @param cache Nombre de la caché
+     * @param clave Clave en texto (ej: "all", "15")
+     * @throws ResourceNotFoundException si la caché o la clave no existen
+     */
+    void evictCacheKey(String cache, String clave);
 }
\ No newline at end of file
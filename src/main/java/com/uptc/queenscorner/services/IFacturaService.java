@@ -82,4 +82,11 @@ public interface IFacturaService {
      * @return Factura con resumen de totales
      */
     FacturaResponse obtenerResumen(Long facturaId);
+
+    /**
+     * Registra la clave del PDF generado (worker de PDFs y descargas bajo demanda)
+     * @param facturaId ID de la factura
+     * @param pathPdf Clave del PDF en el almacén de documentos
+     */
+    void registrarPdf(Long facturaId, String pathPdf);
 } 
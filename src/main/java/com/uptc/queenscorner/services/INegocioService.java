@@ -74,4 +74,12 @@ public interface INegocioService {
      * @return Lista de negocios con el estado especificado
      */
     List<NegocioResponse> findByEstado(String estado);
+
+    /**
+     * Registra el dossier PDF generado de un negocio
+     * @param id ID del negocio
+     * @param pathDossier Clave del dossier en el almacén de documentos
+     * @param huellaDossier Huella combinada de los PDFs que lo forman
+     */
+    void registrarDossier(Long id, String pathDossier, String huellaDossier);
 } 
\ No newline at end of file
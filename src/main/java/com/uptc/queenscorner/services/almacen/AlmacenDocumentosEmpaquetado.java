@@ -0,0 +1,529 @@
+package com.uptc.queenscorner.services.almacen;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Almacén local con empaquetado de documentos antiguos en segmentos
+ *
+ * Millones de PDFs sueltos agotan inodos y hacen lentos los respaldos. Este
+ * almacén escribe igual que AlmacenDocumentosLocal (archivos sueltos con rename
+ * atómico), pero compactar() mueve los PDFs más antiguos que un límite a
+ * archivos de segmento grandes y de solo-agregar:
+ *
+ *   <raiz>/segmentos/segmento-000001.dat  registros: cabecera + contenido del PDF
+ *   <raiz>/segmentos/segmento-000001.idx  índice: clave → offset, longitud, fecha
+ *
+ * Lectura:
+ * - Primero se busca el archivo suelto (una versión regenerada siempre es suelta
+ *   y más nueva que la empaquetada)
+ * - Si no existe, se busca en el índice en memoria y el contenido se lee del
+ *   segmento mapeado en memoria (mmap), sin copiarlo al heap
+ * - Las claves no cambian al empaquetar: descargas, cache y exportación no
+ *   distinguen un documento suelto de uno empaquetado
+ *
+ * Durabilidad: un documento se agrega al segmento, se fuerza a disco, se
+ * registra en el índice (también forzado) y solo entonces se elimina el
+ * archivo suelto. Si la JVM cae a mitad, al arrancar se descarta la cola
+ * del segmento que no alcanzó a indexarse y el archivo suelto sigue ahí.
+ *
+ * Un segmento nunca supera tamanoSegmento: antes de agregar un registro se
+ * abre un segmento nuevo si no cabe, así los offsets siempre caben en un int
+ * (mmap y slice). Un documento cuyo registro no cabe ni en un segmento vacío
+ * se queda suelto.
+ *
+ * El espacio de versiones reemplazadas o eliminadas dentro de un segmento
+ * no se recupera (los segmentos son de solo-agregar).
+ */
+public class AlmacenDocumentosEmpaquetado implements IAlmacenDocumentos {
+
+    /** Marca de inicio de cada registro del segmento ("QCDP") */
+    private static final int MAGIA_REGISTRO = 0x51434450;
+    /** Longitud de índice que marca un documento eliminado */
+    private static final long ELIMINADO = -1;
+    private static final String DIRECTORIO_SEGMENTOS = "segmentos";
+    /** Sufijo de un archivo suelto que se está retirando tras empaquetarlo */
+    private static final String SUFIJO_RETIRADO = ".empaquetado";
+
+    private final AlmacenDocumentosLocal sueltos;
+    private final Path directorioSegmentos;
+    private final long tamanoSegmento;
+
+    /** Ubicación empaquetada de cada clave */
+    private final Map<String, Ubicacion> indice = new ConcurrentHashMap<>();
+    /** Segmentos mapeados en memoria, por número de segmento */
+    private final Map<Integer, MappedByteBuffer> mapeos = new ConcurrentHashMap<>();
+    /** Bloqueo de los mapeos (independiente del empaquetado para no frenar las lecturas) */
+    private final Object bloqueoMapeos = new Object();
+    /** Segmento que recibe los próximos documentos */
+    private int segmentoActivo;
+
+    /**
+     * @param raiz Directorio raíz del almacén; se crea si no existe
+     * @param tamanoSegmento Tamaño máximo de un segmento (bytes, hasta Integer.MAX_VALUE)
+     */
+    public AlmacenDocumentosEmpaquetado(Path raiz, long tamanoSegmento) {
+        if (tamanoSegmento <= 0 || tamanoSegmento > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamaño de segmento no válido: " + tamanoSegmento);
+        }
+        this.sueltos = new AlmacenDocumentosLocal(raiz);
+        this.directorioSegmentos = sueltos.getRaiz().resolve(DIRECTORIO_SEGMENTOS);
+        this.tamanoSegmento = tamanoSegmento;
+        try {
+            Files.createDirectories(directorioSegmentos);
+            cargarIndices();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al cargar los segmentos de " + directorioSegmentos, e);
+        }
+        System.out.println("📦 Segmentos de documentos: " + segmentoActivo + " (" + indice.size()
+                + " documentos empaquetados)");
+    }
+
+    @Override
+    public EscrituraDocumento crear(String clave) throws IOException {
+        // La versión nueva queda suelta y tiene prioridad sobre la empaquetada
+        return sueltos.crear(clave);
+    }
+
+    @Override
+    public Optional<DocumentoAlmacenado> buscar(String clave) {
+        Optional<DocumentoAlmacenado> suelto = sueltos.buscar(clave);
+        if (suelto.isPresent() || clave == null) {
+            return suelto;
+        }
+        Ubicacion ubicacion = indice.get(clave);
+        if (ubicacion == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new DocumentoAlmacenado(clave, ubicacion.longitud, ubicacion.modificado, null,
+                () -> new LectorBuffer(contenido(ubicacion))));
+    }
+
+    @Override
+    public boolean existe(String clave) {
+        return sueltos.existe(clave) || (clave != null && indice.containsKey(clave));
+    }
+
+    @Override
+    public synchronized boolean eliminar(String clave) throws IOException {
+        boolean suelto = sueltos.eliminar(clave);
+        boolean empaquetado = indice.remove(clave) != null;
+        if (empaquetado) {
+            // Sin la marca, el documento volvería a aparecer al recargar el índice
+            try (FileChannel idx = FileChannel.open(rutaIndice(segmentoActivo),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                idx.write(entradaIndice(clave, 0, ELIMINADO, 0));
+                idx.force(true);
+            }
+        }
+        return suelto || empaquetado;
+    }
+
+    /**
+     * Empaqueta en segmentos los documentos sueltos modificados antes de un límite
+     *
+     * Lo invoca CompactacionDocumentosJob. Solo un empaquetado a la vez; las
+     * lecturas y escrituras de documentos siguen funcionando mientras tanto.
+     *
+     * @param limite Solo se empaquetan documentos sin cambios desde antes de este momento
+     * @param maximo Máximo de documentos a empaquetar en esta ejecución
+     * @return Número de documentos empaquetados
+     * @throws IOException si falla la escritura del segmento o del índice
+     */
+    public synchronized int compactar(Instant limite, int maximo) throws IOException {
+        List<Path> candidatos = buscarCandidatos(limite, maximo);
+        if (candidatos.isEmpty()) {
+            return 0;
+        }
+
+        int total = 0;
+        List<Empaquetado> empaquetados = new ArrayList<>();
+        FileChannel segmento = abrirSegmentoActivo();
+        try {
+            for (Path archivo : candidatos) {
+                long registro;
+                try {
+                    registro = tamanoRegistro(clave(archivo), Files.size(archivo));
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (segmento.size() > 0 && segmento.size() + registro > tamanoSegmento) {
+                    total += cerrarSegmento(segmento, empaquetados);
+                    empaquetados.clear();
+                    segmento.close();
+                    segmentoActivo++;
+                    segmento = abrirSegmentoActivo();
+                }
+                Empaquetado empaquetado = agregar(segmento, archivo);
+                if (empaquetado != null) {
+                    empaquetados.add(empaquetado);
+                }
+            }
+            total += cerrarSegmento(segmento, empaquetados);
+        } finally {
+            segmento.close();
+        }
+        return total;
+    }
+
+    /**
+     * Documentos sueltos del almacén más antiguos que el límite
+     * (excluye los segmentos, las escrituras en curso .tmp y los retiros a medias)
+     */
+    private List<Path> buscarCandidatos(Instant limite, int maximo) throws IOException {
+        Path raiz = sueltos.getRaiz();
+        try (Stream<Path> archivos = Files.walk(raiz)) {
+            return archivos
+                    .filter(p -> !p.startsWith(directorioSegmentos))
+                    .filter(p -> !p.getFileName().toString().endsWith(".tmp")
+                            && !p.getFileName().toString().endsWith(SUFIJO_RETIRADO))
+                    .filter(p -> {
+                        try {
+                            BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+                            return a.isRegularFile() && a.lastModifiedTime().toInstant().isBefore(limite)
+                                    && tamanoRegistro(clave(p), a.size()) <= tamanoSegmento;
+                        } catch (IOException e) {
+                            // Eliminado o reemplazado mientras se recorría
+                            return false;
+                        }
+                    })
+                    .limit(maximo)
+                    .toList();
+        }
+    }
+
+    /**
+     * Agrega un documento suelto al final del segmento (aún sin forzar a disco)
+     * @return Datos para indexarlo, o null si el archivo desapareció o su versión
+     *         actual ya no cabe en el segmento (sigue suelto hasta la próxima compactación)
+     */
+    private Empaquetado agregar(FileChannel segmento, Path archivo) throws IOException {
+        String clave = clave(archivo);
+        try (FileChannel origen = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+            long longitud = origen.size();
+            long modificado = atributos.lastModifiedTime().toMillis();
+            if (segmento.size() + tamanoRegistro(clave, longitud) > tamanoSegmento) {
+                // Se regeneró más grande después de medirlo
+                return null;
+            }
+
+            byte[] bytesClave = clave.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer cabecera = ByteBuffer.allocate(4 + 4 + bytesClave.length + 8 + 8);
+            cabecera.putInt(MAGIA_REGISTRO).putInt(bytesClave.length).put(bytesClave)
+                    .putLong(modificado).putLong(longitud).flip();
+            escribirCompleto(segmento, cabecera);
+
+            long offset = segmento.position();
+            long copiados = 0;
+            while (copiados < longitud) {
+                long n = segmento.transferFrom(origen, offset + copiados, longitud - copiados);
+                if (n <= 0) {
+                    throw new EOFException("El archivo " + archivo.getFileName() + " se truncó al empaquetarlo");
+                }
+                copiados += n;
+            }
+            segmento.position(offset + longitud);
+            return new Empaquetado(clave, archivo, new Ubicacion(segmentoActivo, offset, longitud, modificado),
+                    atributos);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Clave de almacén de un archivo suelto (ruta relativa a la raíz con '/')
+     */
+    private String clave(Path archivo) {
+        return sueltos.getRaiz().relativize(archivo).toString().replace('\\', '/');
+    }
+
+    /**
+     * Bytes que ocupa un documento en el segmento: cabecera (magia, longitud de
+     * la clave, clave, fecha, longitud) más el contenido
+     */
+    private static long tamanoRegistro(String clave, long longitud) {
+        return 4 + 4 + clave.getBytes(StandardCharsets.UTF_8).length + 8 + 8 + longitud;
+    }
+
+    /**
+     * Fuerza el segmento a disco, registra sus documentos en el índice y
+     * elimina los archivos sueltos ya empaquetados
+     * @return Número de documentos registrados
+     */
+    private int cerrarSegmento(FileChannel segmento, List<Empaquetado> empaquetados) throws IOException {
+        if (empaquetados.isEmpty()) {
+            return 0;
+        }
+        segmento.force(true);
+        try (FileChannel idx = FileChannel.open(rutaIndice(segmentoActivo),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (Empaquetado e : empaquetados) {
+                idx.write(entradaIndice(e.clave, e.ubicacion.offset, e.ubicacion.longitud, e.ubicacion.modificado));
+            }
+            idx.force(true);
+        }
+        // El segmento creció: el próximo acceso lo vuelve a mapear completo
+        mapeos.remove(segmentoActivo);
+
+        for (Empaquetado e : empaquetados) {
+            indice.put(e.clave, e.ubicacion);
+            retirarSuelto(e);
+        }
+        return empaquetados.size();
+    }
+
+    /**
+     * Elimina el archivo suelto de un documento ya empaquetado
+     * Si el documento se regeneró mientras se empaquetaba, la versión nueva se conserva
+     */
+    private void retirarSuelto(Empaquetado e) {
+        Path retirado = e.archivo.resolveSibling(e.archivo.getFileName() + SUFIJO_RETIRADO);
+        try {
+            Files.move(e.archivo, retirado, StandardCopyOption.ATOMIC_MOVE);
+            BasicFileAttributes actual = Files.readAttributes(retirado, BasicFileAttributes.class);
+            if (actual.size() != e.atributos.size()
+                    || !actual.lastModifiedTime().equals(e.atributos.lastModifiedTime())) {
+                // Otra versión llegó entre la copia y el retiro: vuelve a su lugar
+                // (si ya hay una aún más nueva, esa prevalece)
+                try {
+                    Files.move(retirado, e.archivo, StandardCopyOption.ATOMIC_MOVE);
+                    return;
+                } catch (IOException ocupado) {
+                    // Hay una versión más nueva en la ruta; la recuperada sobra
+                }
+            }
+            Files.delete(retirado);
+        } catch (IOException ex) {
+            // El suelto sigue disponible y tiene prioridad; se reintentará en la próxima compactación
+            System.err.println("⚠️ No se pudo retirar " + e.clave + " tras empaquetarlo: " + ex.getMessage());
+        }
+    }
+
+    private FileChannel abrirSegmentoActivo() throws IOException {
+        FileChannel canal = FileChannel.open(rutaSegmento(segmentoActivo),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return canal.position(canal.size());
+    }
+
+    /**
+     * Contenido de un documento empaquetado, como vista del segmento mapeado
+     */
+    private ByteBuffer contenido(Ubicacion ubicacion) throws IOException {
+        MappedByteBuffer mapeo = mapeos.get(ubicacion.segmento);
+        long fin = ubicacion.offset + ubicacion.longitud;
+        if (mapeo == null || mapeo.capacity() < fin) {
+            mapeo = mapear(ubicacion.segmento);
+        }
+        return mapeo.slice((int) ubicacion.offset, (int) ubicacion.longitud).asReadOnlyBuffer();
+    }
+
+    private MappedByteBuffer mapear(int segmento) throws IOException {
+        synchronized (bloqueoMapeos) {
+            try (FileChannel canal = FileChannel.open(rutaSegmento(segmento), StandardOpenOption.READ)) {
+                // El mapeo sigue válido después de cerrar el canal
+                MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                mapeos.put(segmento, mapeo);
+                return mapeo;
+            }
+        }
+    }
+
+    /**
+     * Carga los índices de todos los segmentos en orden
+     * Un índice cortado a mitad de entrada, o un segmento con datos después del
+     * último documento indexado (caída durante un empaquetado), se recortan:
+     * esos documentos siguen sueltos y se empaquetarán de nuevo
+     */
+    private void cargarIndices() throws IOException {
+        List<Integer> numeros = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(directorioSegmentos)) {
+            archivos.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith("segmento-") && n.endsWith(".dat"))
+                    .map(n -> Integer.parseInt(n.substring("segmento-".length(), n.length() - ".dat".length())))
+                    .sorted()
+                    .forEach(numeros::add);
+        }
+        for (int numero : numeros) {
+            long finIndexado = cargarIndice(numero);
+            Path segmento = rutaSegmento(numero);
+            if (Files.size(segmento) > finIndexado) {
+                try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+                    canal.truncate(finIndexado);
+                }
+            }
+        }
+        segmentoActivo = numeros.isEmpty() ? 1 : numeros.get(numeros.size() - 1);
+    }
+
+    /**
+     * Carga el índice de un segmento
+     * @return Offset donde termina el último documento indexado del segmento
+     */
+    private long cargarIndice(int segmento) throws IOException {
+        Path ruta = rutaIndice(segmento);
+        if (!Files.exists(ruta)) {
+            return 0;
+        }
+        long fin = 0;
+        long leidos = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta)))) {
+            while (true) {
+                String clave;
+                long offset;
+                long longitud;
+                long modificado;
+                try {
+                    byte[] bytesClave = new byte[in.readInt()];
+                    in.readFully(bytesClave);
+                    clave = new String(bytesClave, StandardCharsets.UTF_8);
+                    offset = in.readLong();
+                    longitud = in.readLong();
+                    modificado = in.readLong();
+                } catch (EOFException finArchivo) {
+                    break;
+                }
+                leidos += 4 + clave.getBytes(StandardCharsets.UTF_8).length + 24;
+                if (longitud == ELIMINADO) {
+                    indice.remove(clave);
+                } else {
+                    indice.put(clave, new Ubicacion(segmento, offset, longitud, modificado));
+                    fin = Math.max(fin, offset + longitud);
+                }
+            }
+        }
+        if (Files.size(ruta) > leidos) {
+            try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.WRITE)) {
+                canal.truncate(leidos);
+            }
+        }
+        return fin;
+    }
+
+    private ByteBuffer entradaIndice(String clave, long offset, long longitud, long modificado) {
+        byte[] bytesClave = clave.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(4 + bytesClave.length + 24)
+                .putInt(bytesClave.length).put(bytesClave)
+                .putLong(offset).putLong(longitud).putLong(modificado)
+                .flip();
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    private Path rutaSegmento(int numero) {
+        return directorioSegmentos.resolve(String.format("segmento-%06d.dat", numero));
+    }
+
+    private Path rutaIndice(int numero) {
+        return directorioSegmentos.resolve(String.format("segmento-%06d.idx", numero));
+    }
+
+    /** Número de documentos empaquetados (para métricas) */
+    public int getDocumentosEmpaquetados() {
+        return indice.size();
+    }
+
+    /** Número de segmentos en disco (para métricas) */
+    public int getSegmentos() {
+        return Files.exists(rutaSegmento(segmentoActivo)) ? segmentoActivo : segmentoActivo - 1;
+    }
+
+    public Path getRaiz() { return sueltos.getRaiz(); }
+
+    /**
+     * Posición de un documento empaquetado
+     */
+    private static final class Ubicacion {
+        private final int segmento;
+        private final long offset;
+        private final long longitud;
+        private final long modificado;
+
+        private Ubicacion(int segmento, long offset, long longitud, long modificado) {
+            this.segmento = segmento;
+            this.offset = offset;
+            this.longitud = longitud;
+            this.modificado = modificado;
+        }
+    }
+
+    /**
+     * Documento copiado al segmento, pendiente de indexar y retirar
+     */
+    private static final class Empaquetado {
+        private final String clave;
+        private final Path archivo;
+        private final Ubicacion ubicacion;
+        private final BasicFileAttributes atributos;
+
+        private Empaquetado(String clave, Path archivo, Ubicacion ubicacion, BasicFileAttributes atributos) {
+            this.clave = clave;
+            this.archivo = archivo;
+            this.ubicacion = ubicacion;
+            this.atributos = atributos;
+        }
+    }
+
+    /**
+     * InputStream sobre una vista de un segmento mapeado
+     */
+    private static final class LectorBuffer extends InputStream {
+        private final ByteBuffer buffer;
+
+        private LectorBuffer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int cantidad) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(cantidad, buffer.remaining());
+            buffer.get(destino, desde, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int saltados = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + saltados);
+            return saltados;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
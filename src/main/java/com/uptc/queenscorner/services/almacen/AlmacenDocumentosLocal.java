@@ -0,0 +1,149 @@
+package com.uptc.queenscorner.services.almacen;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * Almacén de documentos en el sistema de archivos local
+ *
+ * Cada clave es una ruta relativa al directorio raíz (almacen.documentos.raiz).
+ * Las escrituras van a un temporal (.tmp) en el mismo directorio del destino y
+ * se publican con un rename atómico, así nunca se lee un PDF a medio escribir.
+ *
+ * Claves absolutas (rutas guardadas en BD antes de existir el almacén) se
+ * leen tal cual, para no perder los PDFs ya generados.
+ */
+public class AlmacenDocumentosLocal implements IAlmacenDocumentos {
+
+    private final Path raiz;
+
+    /**
+     * @param raiz Directorio raíz del almacén; se crea si no existe
+     */
+    public AlmacenDocumentosLocal(Path raiz) {
+        this.raiz = raiz.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.raiz);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al crear el directorio del almacén: " + this.raiz, e);
+        }
+        System.out.println("📁 Almacén de documentos: " + this.raiz);
+    }
+
+    @Override
+    public EscrituraDocumento crear(String clave) throws IOException {
+        Path destino = resolver(clave);
+        Files.createDirectories(destino.getParent());
+        Path temporal = Files.createTempFile(destino.getParent(), destino.getFileName().toString(), ".tmp");
+        return new EscrituraLocal(clave, temporal, destino);
+    }
+
+    @Override
+    public Optional<DocumentoAlmacenado> buscar(String clave) {
+        if (clave == null) {
+            return Optional.empty();
+        }
+        Path archivo = resolver(clave);
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+            if (!atributos.isRegularFile()) {
+                return Optional.empty();
+            }
+            return Optional.of(new DocumentoAlmacenado(clave, atributos.size(),
+                    atributos.lastModifiedTime().toMillis(), archivo, () -> Files.newInputStream(archivo)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el documento " + clave, e);
+        }
+    }
+
+    @Override
+    public boolean existe(String clave) {
+        return clave != null && Files.isRegularFile(resolver(clave));
+    }
+
+    @Override
+    public boolean eliminar(String clave) throws IOException {
+        return Files.deleteIfExists(resolver(clave));
+    }
+
+    /**
+     * Ruta en disco de una clave
+     * @throws IllegalArgumentException si la clave relativa sale del directorio raíz
+     */
+    private Path resolver(String clave) {
+        Path ruta = Paths.get(clave);
+        if (ruta.isAbsolute()) {
+            return ruta;
+        }
+        Path archivo = raiz.resolve(ruta).normalize();
+        if (!archivo.startsWith(raiz)) {
+            throw new IllegalArgumentException("Clave de documento no válida: " + clave);
+        }
+        return archivo;
+    }
+
+    public Path getRaiz() { return raiz; }
+
+    /**
+     * Escritura a un temporal junto al destino, publicada con rename atómico
+     */
+    private static final class EscrituraLocal extends EscrituraDocumento {
+        private final Path temporal;
+        private final Path destino;
+        private final OutputStream salida;
+
+        private EscrituraLocal(String clave, Path temporal, Path destino) throws IOException {
+            super(clave);
+            this.temporal = temporal;
+            this.destino = destino;
+            this.salida = new BufferedOutputStream(Files.newOutputStream(temporal));
+        }
+
+        @Override
+        public OutputStream getSalida() {
+            return salida;
+        }
+
+        @Override
+        public void confirmar() throws IOException {
+            try {
+                salida.close();
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    // Mismo directorio: solo ocurre en sistemas de archivos sin rename atómico
+                    Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                descartar();
+                throw e;
+            }
+        }
+
+        @Override
+        public void descartar() {
+            try {
+                salida.close();
+            } catch (IOException ignorada) {
+                // Se elimina igual
+            }
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException ignorada) {
+                // El temporal queda huérfano; no afecta las descargas
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.uptc.queenscorner.services.almacen;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Almacén de documentos en memoria
+ *
+ * Pensado para pruebas y entornos sin disco persistente: los documentos se
+ * pierden al reiniciar. Cada documento confirmado se guarda como un arreglo de
+ * bytes inmutable; reemplazarlo cambia la referencia del mapa de una vez, así
+ * que las lecturas siempre ven una versión completa.
+ */
+public class AlmacenDocumentosMemoria implements IAlmacenDocumentos {
+
+    private final ConcurrentMap<String, Contenido> documentos = new ConcurrentHashMap<>();
+    /** Fecha de la última publicación; estrictamente creciente para que cada versión tenga otro ETag */
+    private final AtomicLong ultimaPublicacion = new AtomicLong();
+
+    public AlmacenDocumentosMemoria() {
+        System.out.println("🧪 Almacén de documentos en memoria (los PDFs no se conservan al reiniciar)");
+    }
+
+    @Override
+    public EscrituraDocumento crear(String clave) {
+        return new EscrituraMemoria(clave);
+    }
+
+    @Override
+    public Optional<DocumentoAlmacenado> buscar(String clave) {
+        if (clave == null) {
+            return Optional.empty();
+        }
+        Contenido contenido = documentos.get(clave);
+        if (contenido == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new DocumentoAlmacenado(clave, contenido.bytes.length, contenido.modificado, null,
+                () -> new ByteArrayInputStream(contenido.bytes)));
+    }
+
+    @Override
+    public boolean eliminar(String clave) {
+        return documentos.remove(clave) != null;
+    }
+
+    /**
+     * Número de documentos guardados
+     */
+    public int tamano() {
+        return documentos.size();
+    }
+
+    /**
+     * Bytes de un documento confirmado con su fecha de publicación
+     */
+    private static final class Contenido {
+        private final byte[] bytes;
+        private final long modificado;
+
+        private Contenido(byte[] bytes, long modificado) {
+            this.bytes = bytes;
+            this.modificado = modificado;
+        }
+    }
+
+    /**
+     * Escritura en un buffer que se publica en el mapa al confirmar
+     */
+    private final class EscrituraMemoria extends EscrituraDocumento {
+        private final ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        private EscrituraMemoria(String clave) {
+            super(clave);
+        }
+
+        @Override
+        public OutputStream getSalida() {
+            return salida;
+        }
+
+        @Override
+        public void confirmar() {
+            long ahora = ultimaPublicacion.updateAndGet(anterior -> Math.max(anterior + 1, System.currentTimeMillis()));
+            documentos.put(getClave(), new Contenido(salida.toByteArray(), ahora));
+        }
+
+        @Override
+        public void descartar() {
+            salida.reset();
+        }
+    }
+}
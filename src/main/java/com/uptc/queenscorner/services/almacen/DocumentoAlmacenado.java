@@ -0,0 +1,66 @@
+package com.uptc.queenscorner.services.almacen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Documento guardado en un IAlmacenDocumentos
+ *
+ * Describe la versión encontrada al buscarlo (tamaño y fecha de modificación)
+ * y permite leerla sin saber dónde está guardada. Si el almacén es un
+ * sistema de archivos, getArchivoLocal() expone la ruta para que las descargas
+ * se transmitan directo desde el disco.
+ */
+public final class DocumentoAlmacenado {
+
+    /**
+     * Abre el contenido del documento para lectura
+     */
+    @FunctionalInterface
+    public interface Lector {
+        InputStream abrir() throws IOException;
+    }
+
+    private final String clave;
+    private final long tamano;
+    private final long modificado;
+    private final Path archivoLocal;
+    private final Lector lector;
+
+    /**
+     * @param clave Clave del documento en el almacén
+     * @param tamano Tamaño en bytes
+     * @param modificado Fecha de modificación en milisegundos (epoch)
+     * @param archivoLocal Ruta en disco, o null si el almacén no usa archivos
+     * @param lector Abre el contenido; cada llamada devuelve un stream nuevo
+     */
+    public DocumentoAlmacenado(String clave, long tamano, long modificado, Path archivoLocal, Lector lector) {
+        this.clave = clave;
+        this.tamano = tamano;
+        this.modificado = modificado;
+        this.archivoLocal = archivoLocal;
+        this.lector = lector;
+    }
+
+    /**
+     * Abre el contenido del documento (el llamador debe cerrar el stream)
+     * @throws IOException si el documento ya no puede leerse
+     */
+    public InputStream abrir() throws IOException {
+        return lector.abrir();
+    }
+
+    /**
+     * Nombre de archivo del documento (último segmento de la clave)
+     */
+    public String getNombreArchivo() {
+        int separador = Math.max(clave.lastIndexOf('/'), clave.lastIndexOf('\\'));
+        return clave.substring(separador + 1);
+    }
+
+    public String getClave() { return clave; }
+    public long getTamano() { return tamano; }
+    public long getModificado() { return modificado; }
+    public Path getArchivoLocal() { return archivoLocal; }
+}
@@ -0,0 +1,42 @@
+package com.uptc.queenscorner.services.almacen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Escritura en curso de un documento (escribir y luego publicar)
+ *
+ * El contenido se escribe en getSalida() y no es visible en el almacén hasta
+ * confirmar(). Si el render falla, descartar() libera lo escrito y la versión
+ * anterior del documento (si había) queda intacta.
+ *
+ * La escritura puede confirmarse desde otro thread (ej: publicación de una
+ * descarga bajo demanda en pdfExecutor), pero no concurrentemente.
+ */
+public abstract class EscrituraDocumento {
+
+    private final String clave;
+
+    protected EscrituraDocumento(String clave) {
+        this.clave = clave;
+    }
+
+    /**
+     * Stream donde se escribe el contenido
+     * No hace falta cerrarlo: confirmar() y descartar() lo cierran
+     */
+    public abstract OutputStream getSalida();
+
+    /**
+     * Publica el contenido con su clave, reemplazando la versión anterior de forma atómica
+     * @throws IOException si no se puede publicar (lo escrito se descarta)
+     */
+    public abstract void confirmar() throws IOException;
+
+    /**
+     * Descarta el contenido escrito; no lanza excepción
+     */
+    public abstract void descartar();
+
+    public String getClave() { return clave; }
+}
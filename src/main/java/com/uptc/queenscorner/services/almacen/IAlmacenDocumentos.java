@@ -0,0 +1,119 @@
+package com.uptc.queenscorner.services.almacen;
+
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén de documentos generados (PDFs de cotizaciones y facturas)
+ *
+ * Los documentos se identifican por una clave relativa, independiente de dónde
+ * se guarden; es lo que se persiste en BD (FacturaEntity.pathPdf y
+ * TrabajoDocumentoEntity.rutaArchivo). Formato de la clave:
+ *
+ *   facturas/2025/11/3f/FAC-2025-000001.pdf
+ *   └ tipo   └ año/mes de creación del documento
+ *                    └ prefijo de hash del nombre (256 subdirectorios por mes)
+ *
+ * Así ningún directorio acumula cientos de miles de archivos y los respaldos
+ * pueden hacerse por mes. La clave de un documento no cambia al regenerarlo:
+ * la nueva versión reemplaza a la anterior.
+ *
+ * Las escrituras son atómicas (escribir y luego publicar): hasta confirmar(),
+ * una descarga concurrente sigue viendo la versión anterior completa.
+ *
+ * Implementaciones:
+ * - AlmacenDocumentosLocal: sistema de archivos bajo un directorio raíz configurable
+ * - AlmacenDocumentosEmpaquetado: local, con los documentos antiguos en segmentos (mmap)
+ * - AlmacenDocumentosMemoria: mapa en memoria, para pruebas y entornos sin disco
+ */
+public interface IAlmacenDocumentos {
+
+    /**
+     * Genera la clave de almacenamiento de un documento
+     * @param tipoDocumento COTIZACION, FACTURA o FACTURA_UBL (define la carpeta raíz)
+     * @param nombreArchivo Nombre del archivo (ej: FAC-2025-000001.pdf)
+     * @param fecha Fecha de creación del documento (null = hoy)
+     * @return Clave relativa con separadores '/'
+     */
+    default String generarClave(TipoDocumento tipoDocumento, String nombreArchivo, LocalDate fecha) {
+        return generarClave(carpeta(tipoDocumento), nombreArchivo, fecha);
+    }
+
+    /**
+     * Genera la clave de almacenamiento de un documento en una carpeta propia
+     * (documentos derivados que no son cotizaciones ni facturas, ej: dossiers)
+     * @param carpeta Carpeta raíz (sin separadores)
+     * @param nombreArchivo Nombre del archivo
+     * @param fecha Fecha de creación del documento (null = hoy)
+     * @return Clave relativa con separadores '/'
+     */
+    default String generarClave(String carpeta, String nombreArchivo, LocalDate fecha) {
+        LocalDate dia = fecha != null ? fecha : LocalDate.now();
+        // Sin separadores ni "..": el nombre nunca sale de su carpeta
+        String nombre = nombreArchivo.replaceAll("[/\\\\:]", "_").replace("..", "_");
+        CRC32 crc = new CRC32();
+        crc.update(nombre.getBytes(StandardCharsets.UTF_8));
+        return carpeta
+                + "/" + dia.getYear()
+                + "/" + String.format("%02d", dia.getMonthValue())
+                + "/" + String.format("%02x", crc.getValue() & 0xFF)
+                + "/" + nombre;
+    }
+
+    /**
+     * Clave con la que se guardaban las cotizaciones antes del almacén
+     * (directorio plano por tipo); se sigue consultando para no perderlas
+     * @param codigo Código de la cotización
+     * @return Clave heredada
+     */
+    default String claveHeredadaCotizacion(String codigo) {
+        return carpeta(TipoDocumento.COTIZACION) + "/" + codigo + ".pdf";
+    }
+
+    /**
+     * Inicia la escritura de un documento
+     * El contenido no es visible hasta llamar a confirmar() en la escritura
+     * @param clave Clave del documento (generarClave)
+     * @return Escritura abierta
+     * @throws IOException si no se puede reservar el espacio de escritura
+     */
+    EscrituraDocumento crear(String clave) throws IOException;
+
+    /**
+     * Busca un documento almacenado
+     * @param clave Clave del documento (null devuelve vacío)
+     * @return Documento con su tamaño y fecha, o vacío si no existe
+     */
+    Optional<DocumentoAlmacenado> buscar(String clave);
+
+    /**
+     * Indica si existe un documento con la clave dada
+     * @param clave Clave del documento (null devuelve false)
+     */
+    default boolean existe(String clave) {
+        return buscar(clave).isPresent();
+    }
+
+    /**
+     * Elimina un documento
+     * @param clave Clave del documento
+     * @return true si existía
+     * @throws IOException si no se puede eliminar
+     */
+    boolean eliminar(String clave) throws IOException;
+
+    /**
+     * Carpeta raíz de cada tipo de documento
+     */
+    private static String carpeta(TipoDocumento tipoDocumento) {
+        return switch (tipoDocumento) {
+            case COTIZACION -> "cotizaciones";
+            case FACTURA -> "facturas";
+            case FACTURA_UBL -> "facturas-ubl";
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.uptc.queenscorner.services.async;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import com.uptc.queenscorner.services.almacen.DocumentoAlmacenado;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Cache en memoria de los bytes de PDFs ya generados
+ *
+ * Los mismos documentos se descargan una y otra vez mientras el cliente decide;
+ * con esta cache esas descargas se sirven desde el heap en lugar de leer el almacén.
+ *
+ * - Clave: tipo de documento + ID + huella de contenido (HuellaPdf), así un
+ *   documento regenerado con otros datos nunca se confunde con la versión anterior
+ * - Límite por bytes (pdf.cache.max-bytes), no por número de entradas: cada
+ *   entrada pesa lo que mide el PDF
+ * - PDFs más grandes que pdf.cache.max-bytes-entrada no se cachean (se sirven del almacén)
+ * - Cada entrada recuerda tamaño y fecha del documento; si el documento cambió
+ *   (regeneración), se vuelve a leer aunque la clave coincida
+ *
+ * Métricas:
+ * - queenscorner.pdf.cache.bytes: bytes residentes
+ * - queenscorner.pdf.cache.hit.ratio: proporción de aciertos
+ * - cache.gets / cache.evictions... con tag cache=pdf (binder de Caffeine)
+ */
+@Service
+public class CachePdfService {
+
+    private final Cache<String, PdfEnCache> cache;
+    private final long maxBytesEntrada;
+
+    public CachePdfService(MeterRegistry meterRegistry,
+                           @Value("${pdf.cache.max-bytes:67108864}") long maxBytes,
+                           @Value("${pdf.cache.max-bytes-entrada:4194304}") long maxBytesEntrada) {
+        this.maxBytesEntrada = maxBytesEntrada;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String clave, PdfEnCache pdf) -> pdf.contenido.length)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pdf");
+        Gauge.builder("queenscorner.pdf.cache.bytes", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .description("Bytes de PDF residentes en memoria")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("queenscorner.pdf.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Proporción de descargas de PDF servidas desde memoria")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene el contenido de un PDF almacenado, desde memoria si está en cache
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @param huella Huella de contenido del documento (null si no se conoce)
+     * @param documento PDF en el almacén
+     * @return Contenido del PDF, o null si es demasiado grande para la cache
+     * @throws IOException si el documento no puede leerse
+     */
+    public byte[] obtener(TipoDocumento tipoDocumento, Long documentoId, String huella, DocumentoAlmacenado documento)
+            throws IOException {
+        if (documento.getTamano() > maxBytesEntrada) {
+            return null;
+        }
+
+        String clave = tipoDocumento + ":" + documentoId + ":" + (huella != null ? huella : "-");
+        try {
+            PdfEnCache pdf = cache.get(clave, k -> leer(documento));
+            if (!pdf.coincide(documento)) {
+                // El documento se regeneró después de cachearse
+                pdf = leer(documento);
+                cache.put(clave, pdf);
+            }
+            return pdf.contenido;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private PdfEnCache leer(DocumentoAlmacenado documento) {
+        try (InputStream in = documento.abrir()) {
+            return new PdfEnCache(in.readAllBytes(), documento);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Contenido de un PDF y la versión del documento de la que se leyó
+     */
+    private static final class PdfEnCache {
+        private final byte[] contenido;
+        private final long tamano;
+        private final long modificado;
+
+        private PdfEnCache(byte[] contenido, DocumentoAlmacenado documento) {
+            this.contenido = contenido;
+            this.tamano = documento.getTamano();
+            this.modificado = documento.getModificado();
+        }
+
+        private boolean coincide(DocumentoAlmacenado documento) {
+            return tamano == documento.getTamano() && modificado == documento.getModificado();
+        }
+    }
+}
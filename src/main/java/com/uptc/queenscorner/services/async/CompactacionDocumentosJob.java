@@ -0,0 +1,80 @@
+package com.uptc.queenscorner.services.async;
+
+import com.uptc.queenscorner.services.almacen.AlmacenDocumentosEmpaquetado;
+import com.uptc.queenscorner.services.almacen.IAlmacenDocumentos;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Job de compactación del almacén de documentos
+ *
+ * Solo existe con almacen.documentos.tipo=empaquetado. Cada
+ * almacen.compactacion.intervalo-ms empaqueta en segmentos los PDFs sueltos
+ * que no cambian desde hace almacen.compactacion.antiguedad-dias, como máximo
+ * almacen.compactacion.lote por ejecución (ver AlmacenDocumentosEmpaquetado).
+ * Una ejecución puede tardar minutos; corre en su propio thread del scheduler
+ * (spring.task.scheduling.pool.size=2) y no frena TrabajoDocumentoWorker.
+ *
+ * Métricas:
+ * - queenscorner.almacen.compactacion.documentos: documentos empaquetados
+ * - queenscorner.almacen.empaquetados: documentos dentro de segmentos
+ * - queenscorner.almacen.segmentos: archivos de segmento en disco
+ */
+@Component
+@ConditionalOnProperty(name = "almacen.documentos.tipo", havingValue = "empaquetado")
+public class CompactacionDocumentosJob {
+
+    @Autowired
+    private IAlmacenDocumentos almacenDocumentos;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${almacen.compactacion.antiguedad-dias:90}")
+    private long antiguedadDias;
+
+    @Value("${almacen.compactacion.lote:5000}")
+    private int lote;
+
+    private AlmacenDocumentosEmpaquetado almacen;
+
+    @PostConstruct
+    void registrarMetricas() {
+        almacen = (AlmacenDocumentosEmpaquetado) almacenDocumentos;
+        Gauge.builder("queenscorner.almacen.empaquetados", almacen, AlmacenDocumentosEmpaquetado::getDocumentosEmpaquetados)
+                .description("Documentos guardados dentro de segmentos")
+                .register(meterRegistry);
+        Gauge.builder("queenscorner.almacen.segmentos", almacen, AlmacenDocumentosEmpaquetado::getSegmentos)
+                .description("Archivos de segmento del almacén")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Empaqueta un lote de documentos antiguos
+     * Un fallo se registra y se reintenta en la próxima ejecución: los documentos
+     * que no alcanzaron a indexarse siguen sueltos
+     */
+    @Scheduled(fixedDelayString = "${almacen.compactacion.intervalo-ms:3600000}",
+            initialDelayString = "${almacen.compactacion.intervalo-ms:3600000}")
+    public void compactar() {
+        long inicio = System.currentTimeMillis();
+        try {
+            int empaquetados = almacen.compactar(Instant.now().minus(Duration.ofDays(antiguedadDias)), lote);
+            if (empaquetados > 0) {
+                meterRegistry.counter("queenscorner.almacen.compactacion.documentos").increment(empaquetados);
+                System.out.println("📦 Compactación: " + empaquetados + " documentos empaquetados en "
+                        + (System.currentTimeMillis() - inicio) + " ms");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Error en la compactación de documentos: " + e.getMessage());
+        }
+    }
+}
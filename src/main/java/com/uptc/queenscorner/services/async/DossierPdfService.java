@@ -0,0 +1,282 @@
+package com.uptc.queenscorner.services.async;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
+import com.uptc.queenscorner.models.entities.NegocioEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import com.uptc.queenscorner.repositories.IFacturaRepository;
+import com.uptc.queenscorner.repositories.INegocioRepository;
+import com.uptc.queenscorner.services.INegocioService;
+import com.uptc.queenscorner.services.almacen.DocumentoAlmacenado;
+import com.uptc.queenscorner.services.almacen.EscrituraDocumento;
+import com.uptc.queenscorner.services.almacen.IAlmacenDocumentos;
+import com.uptc.queenscorner.services.async.PdfAsyncService.PdfAlmacenado;
+import com.uptc.queenscorner.services.pdf.RenderizadorPdf;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Servicio del dossier de un negocio: un solo PDF con la cotización y todas
+ * las facturas del negocio (en orden cronológico)
+ *
+ * Las partes se toman del almacén de documentos, las mismas que sirven las
+ * descargas individuales. Las que aún no tienen PDF se renderizan en paralelo
+ * en pdfExecutor y quedan publicadas como si se hubieran descargado.
+ *
+ * La unión se escribe directo en el almacén (dossiers/<año>/<mes>/<hash>/<codigo>.pdf)
+ * abriendo una parte a la vez: cada página copiada se vuelca al archivo antes
+ * de pasar a la siguiente, así el heap no crece con el número de facturas.
+ * Los recursos repetidos en todas las partes (logo, fuentes) se escriben una sola vez.
+ *
+ * Cache: la huella combinada de las partes se guarda en el negocio
+ * (huella_dossier). Mientras ninguna parte cambie, el dossier guardado se
+ * sirve sin volver a unir; si alguna se regenera, la huella cambia y el
+ * siguiente pedido lo vuelve a armar.
+ *
+ * Métricas: queenscorner.pdf.dossier (resultado=reutilizado|combinado)
+ */
+@Service
+public class DossierPdfService {
+
+    /** Carpeta de los dossiers en el almacén */
+    private static final String CARPETA_DOSSIERS = "dossiers";
+
+    /** Versión del formato del dossier; cambiarla invalida las huellas guardadas */
+    private static final int VERSION_DOSSIER = 1;
+
+    @Autowired
+    private INegocioRepository negocioRepository;
+
+    @Autowired
+    private IFacturaRepository facturaRepository;
+
+    @Autowired
+    private INegocioService negocioService;
+
+    @Autowired
+    private PdfAsyncService pdfAsyncService;
+
+    @Autowired
+    private IAlmacenDocumentos almacenDocumentos;
+
+    @Autowired
+    private RenderizadorPdf renderizadorPdf;
+
+    @Autowired
+    @Qualifier("pdfExecutor")
+    private ThreadPoolTaskExecutor pdfExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Obtiene el dossier PDF de un negocio, armándolo si alguna parte cambió
+     * @param negocioId ID del negocio
+     * @return Dossier en el almacén
+     * @throws ResourceNotFoundException si el negocio no existe
+     * @throws IOException si una parte no puede renderizarse o leerse
+     */
+    public DocumentoAlmacenado obtenerDossier(Long negocioId) throws IOException {
+        NegocioEntity negocio = negocioRepository.findById(negocioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Negocio no encontrado"));
+
+        List<Parte> partes = new ArrayList<>();
+        partes.add(new Parte(TipoDocumento.COTIZACION, negocio.getCotizacion().getId()));
+        for (Long facturaId : facturaRepository.findIdsByNegocioId(negocioId)) {
+            partes.add(new Parte(TipoDocumento.FACTURA, facturaId));
+        }
+        completarPartes(partes);
+
+        String huella = huellaCombinada(partes);
+        if (huella.equals(negocio.getHuellaDossier())) {
+            Optional<DocumentoAlmacenado> guardado = almacenDocumentos.buscar(negocio.getPathDossier());
+            if (guardado.isPresent()) {
+                contar("reutilizado");
+                return guardado.get();
+            }
+        }
+
+        long inicio = System.currentTimeMillis();
+        String clave = almacenDocumentos.generarClave(CARPETA_DOSSIERS, negocio.getCodigo() + ".pdf",
+                negocio.getFechaCreacion() != null ? negocio.getFechaCreacion().toLocalDate() : null);
+        EscrituraDocumento escritura = almacenDocumentos.crear(clave);
+        try {
+            unir(partes, escritura);
+            escritura.confirmar();
+        } catch (IOException | RuntimeException e) {
+            escritura.descartar();
+            throw e;
+        }
+        negocioService.registrarDossier(negocioId, clave, huella);
+        contar("combinado");
+        System.out.println("📚 Dossier generado: " + clave + " (" + partes.size() + " documentos en "
+                + (System.currentTimeMillis() - inicio) + " ms)");
+
+        return almacenDocumentos.buscar(clave)
+                .orElseThrow(() -> new IOException("No se pudo guardar el dossier " + negocio.getCodigo()));
+    }
+
+    /**
+     * Localiza el PDF almacenado de cada parte y renderiza en paralelo las que no tienen
+     * Si el pool está saturado, la parte se renderiza en este thread
+     */
+    private void completarPartes(List<Parte> partes) throws IOException {
+        List<Parte> faltantes = new ArrayList<>();
+        for (Parte parte : partes) {
+            parte.pdf = pdfAsyncService.buscarPdfAlmacenado(parte.tipo, parte.id).orElse(null);
+            if (parte.pdf == null) {
+                faltantes.add(parte);
+            }
+        }
+
+        List<Future<?>> renders = new ArrayList<>();
+        for (Parte parte : faltantes) {
+            try {
+                renders.add(pdfExecutor.submit(() -> renderizar(parte)));
+            } catch (RejectedExecutionException e) {
+                renderizar(parte);
+            }
+        }
+        for (Future<?> render : renders) {
+            esperar(render);
+        }
+
+        for (Parte parte : faltantes) {
+            parte.pdf = pdfAsyncService.buscarPdfAlmacenado(parte.tipo, parte.id)
+                    .orElseThrow(() -> new IOException("No se pudo generar el PDF de " + parte));
+        }
+    }
+
+    /**
+     * Renderiza y publica el PDF de una parte (pathPdf y trabajo COMPLETADO)
+     */
+    private Void renderizar(Parte parte) throws IOException {
+        pdfAsyncService.renderizarYPublicar(parte.tipo, parte.id,
+                pdfAsyncService.construirDocumento(parte.tipo, parte.id));
+        return null;
+    }
+
+    private void esperar(Future<?> render) throws IOException {
+        try {
+            render.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generación del dossier interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException io) {
+                throw io;
+            }
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Error inesperado generando el dossier", causa);
+        }
+    }
+
+    /**
+     * Une las partes en la escritura, una a la vez
+     * Tras copiar cada parte se vuelcan sus objetos al archivo y se cierra su lector
+     */
+    private void unir(List<Parte> partes, EscrituraDocumento escritura) throws IOException {
+        PdfWriter writer = new PdfWriter(escritura.getSalida(),
+                renderizadorPdf.getPerfil().crearPropiedadesEscritura().useSmartMode());
+        PdfDocument destino = new PdfDocument(writer);
+        // El stream de la escritura lo cierra confirmar()/descartar()
+        destino.setCloseWriter(false);
+        PdfMerger merger = new PdfMerger(destino).setCloseSourceDocuments(false);
+
+        for (Parte parte : partes) {
+            PdfDocument origen = abrir(parte.pdf.getDocumento());
+            try {
+                merger.merge(origen, 1, origen.getNumberOfPages());
+                destino.flushCopiedObjects(origen);
+            } finally {
+                origen.close();
+            }
+        }
+        // Solo si todas las partes se copiaron: un error deja la escritura para descartar
+        merger.close();
+    }
+
+    /**
+     * Abre una parte para lectura
+     * En disco se lee por acceso aleatorio al archivo; en otros almacenes se lee
+     * el documento (una sola parte en memoria a la vez)
+     */
+    private PdfDocument abrir(DocumentoAlmacenado documento) throws IOException {
+        if (documento.getArchivoLocal() != null) {
+            return new PdfDocument(new PdfReader(documento.getArchivoLocal().toFile()));
+        }
+        try (InputStream in = documento.abrir()) {
+            return new PdfDocument(new PdfReader(in));
+        }
+    }
+
+    /**
+     * Huella combinada de las partes (SHA-256 en hexadecimal)
+     * De cada parte cuenta su huella de contenido; si no se conoce (PDFs anteriores
+     * a las huellas) se usa la versión del archivo: clave, tamaño y fecha
+     */
+    private String huellaCombinada(List<Parte> partes) {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+        StringBuilder texto = new StringBuilder("dossier-v").append(VERSION_DOSSIER);
+        for (Parte parte : partes) {
+            DocumentoAlmacenado documento = parte.pdf.getDocumento();
+            texto.append('\n').append(parte.tipo).append(':').append(parte.id).append(':');
+            if (parte.pdf.getHuella() != null) {
+                texto.append(parte.pdf.getHuella());
+            } else {
+                texto.append(documento.getClave()).append('@').append(documento.getTamano())
+                        .append('-').append(documento.getModificado());
+            }
+        }
+        return HexFormat.of().formatHex(sha.digest(texto.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void contar(String resultado) {
+        meterRegistry.counter("queenscorner.pdf.dossier", "resultado", resultado).increment();
+    }
+
+    /**
+     * Documento que forma parte del dossier y su PDF almacenado
+     */
+    private static final class Parte {
+        private final TipoDocumento tipo;
+        private final Long id;
+        private PdfAlmacenado pdf;
+
+        private Parte(TipoDocumento tipo, Long id) {
+            this.tipo = tipo;
+            this.id = id;
+        }
+
+        @Override
+        public String toString() {
+            return tipo + " " + id;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.uptc.queenscorner.services.async;
+
+import com.uptc.queenscorner.exceptions.BusinessException;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import com.uptc.queenscorner.repositories.IFacturaRepository;
+import com.uptc.queenscorner.repositories.IFacturaRepository.UbicacionPdf;
+import com.uptc.queenscorner.services.almacen.DocumentoAlmacenado;
+import com.uptc.queenscorner.services.almacen.IAlmacenDocumentos;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Servicio de exportación masiva de PDFs de facturas en un ZIP
+ *
+ * El ZIP se escribe directo en el stream de la respuesta, una entrada a la vez:
+ * - Facturas con PDF almacenado: se copian del almacén al ZIP por bloques
+ * - Facturas sin PDF: se renderizan en pdfExecutor, como máximo
+ *   pdf.export.paralelismo a la vez, y cada una se agrega al ZIP en cuanto termina
+ *   (orden de finalización, no de fecha)
+ *
+ * Los renders van a archivo y quedan publicados como si se hubieran descargado
+ * (pathPdf y trabajo COMPLETADO), así que el heap no crece con el número de
+ * facturas: solo hay a lo sumo "paralelismo" documentos en vuelo.
+ *
+ * La exportación corre en el thread de la petición, cuyo EntityManager sigue
+ * abierto hasta el final (open-in-view). Para que no acumule entidades, las
+ * claves de los PDFs se resuelven por páginas de pdf.export.tamano-pagina
+ * facturas con una proyección (id, pathPdf, rutaArchivo), y el contexto de
+ * persistencia se limpia después de cada página (por si un render tuvo que
+ * hacerse en este thread).
+ *
+ * Si una factura no puede renderizarse, la exportación continúa y el detalle
+ * se agrega al final en ERRORES.txt.
+ */
+@Service
+public class ExportacionPdfService {
+
+    @Autowired
+    private IFacturaRepository facturaRepository;
+
+    @Autowired
+    private PdfAsyncService pdfAsyncService;
+
+    @Autowired
+    private IAlmacenDocumentos almacenDocumentos;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    @Qualifier("pdfExecutor")
+    private ThreadPoolTaskExecutor pdfExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pdf.export.paralelismo:3}")
+    private int paralelismo;
+
+    /** Facturas cuyas claves de PDF se resuelven en una consulta */
+    @Value("${pdf.export.tamano-pagina:200}")
+    private int tamanoPagina;
+
+    /**
+     * Obtiene los IDs de las facturas creadas en un periodo
+     * @param desde Primer día del periodo (inclusive)
+     * @param hasta Último día del periodo (inclusive)
+     * @return IDs en orden cronológico
+     * @throws BusinessException si el periodo no es válido
+     */
+    public List<Long> listarFacturas(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new BusinessException("La fecha 'desde' no puede ser posterior a 'hasta'");
+        }
+        return facturaRepository.findIdsByFechaCreacionEntre(desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Escribe el ZIP con los PDFs de las facturas indicadas
+     * No cierra el stream destino (solo escribe el índice final del ZIP)
+     * @param facturaIds IDs de las facturas a exportar
+     * @param destino Stream de salida (normalmente la respuesta HTTP)
+     * @throws IOException si falla la escritura (ej: el cliente cancela la descarga)
+     */
+    public void exportarFacturasZip(List<Long> facturaIds, OutputStream destino) throws IOException {
+        long inicio = System.currentTimeMillis();
+        CompletionService<Resultado> completados = new ExecutorCompletionService<>(pdfExecutor);
+        List<String> errores = new ArrayList<>();
+        int pendientes = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(destino, StandardCharsets.UTF_8);
+        // Los PDF ya vienen comprimidos; comprimir más solo gasta CPU
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        for (int i = 0; i < facturaIds.size(); i += tamanoPagina) {
+            List<Long> pagina = facturaIds.subList(i, Math.min(i + tamanoPagina, facturaIds.size()));
+            Map<Long, UbicacionPdf> ubicaciones = facturaRepository
+                    .findUbicacionesPdfByIdIn(pagina, TipoDocumento.FACTURA).stream()
+                    .collect(Collectors.toMap(UbicacionPdf::getId, Function.identity()));
+            for (Long id : pagina) {
+                UbicacionPdf ubicacion = ubicaciones.get(id);
+                if (ubicacion == null) {
+                    // Eliminada entre el listado y la exportación
+                    continue;
+                }
+                pendientes = exportar(zip, id, buscar(ubicacion), completados, pendientes, errores);
+            }
+            // Nada de la página debe seguir en el EntityManager de la petición
+            entityManager.clear();
+        }
+        while (pendientes > 0) {
+            escribirResultado(zip, esperar(completados), errores);
+            pendientes--;
+        }
+
+        if (!errores.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("ERRORES.txt"));
+            zip.write(String.join(System.lineSeparator(), errores).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+
+        System.out.println("📦 Exportación ZIP: " + facturaIds.size() + " facturas, " + errores.size()
+                + " errores en " + (System.currentTimeMillis() - inicio) + " ms");
+    }
+
+    /**
+     * Agrega una factura al ZIP: copia su PDF almacenado o lanza su render
+     * @return Renders en vuelo después de agregarla
+     */
+    private int exportar(ZipOutputStream zip, Long id, Optional<DocumentoAlmacenado> almacenado,
+                         CompletionService<Resultado> completados, int pendientes,
+                         List<String> errores) throws IOException {
+        if (almacenado.isPresent()) {
+            escribirEntrada(zip, almacenado.get());
+            contarEntrada("almacenado");
+        } else {
+            // Con el cupo lleno, se espera a que termine algún render antes de lanzar otro
+            while (pendientes >= paralelismo) {
+                escribirResultado(zip, esperar(completados), errores);
+                pendientes--;
+            }
+            try {
+                completados.submit(() -> renderizar(id));
+                pendientes++;
+            } catch (RejectedExecutionException e) {
+                // Pool saturado: se renderiza en este thread
+                escribirResultado(zip, renderizar(id), errores);
+            }
+        }
+
+        // Los renders que ya terminaron se agregan sin esperar al final
+        Future<Resultado> listo;
+        while ((listo = completados.poll()) != null) {
+            escribirResultado(zip, obtener(listo), errores);
+            pendientes--;
+        }
+        return pendientes;
+    }
+
+    /**
+     * PDF almacenado de una factura, en el mismo orden que PdfAsyncService.buscarPdfAlmacenado:
+     * primero pathPdf de la factura, luego la ruta de su trabajo
+     */
+    private Optional<DocumentoAlmacenado> buscar(UbicacionPdf ubicacion) {
+        Optional<DocumentoAlmacenado> documento = almacenDocumentos.buscar(ubicacion.getPathPdf());
+        return documento.isPresent() ? documento : almacenDocumentos.buscar(ubicacion.getRutaArchivo());
+    }
+
+    /**
+     * Renderiza y publica el PDF de una factura sin copia almacenada
+     * Nunca lanza excepción: el error se devuelve en el resultado
+     */
+    private Resultado renderizar(Long facturaId) {
+        try {
+            DocumentoAlmacenado pdf = pdfAsyncService.renderizarYPublicar(TipoDocumento.FACTURA, facturaId,
+                    pdfAsyncService.construirDocumento(TipoDocumento.FACTURA, facturaId));
+            return new Resultado(facturaId, pdf, null);
+        } catch (Exception e) {
+            String mensaje = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new Resultado(facturaId, null, mensaje);
+        }
+    }
+
+    private void escribirResultado(ZipOutputStream zip, Resultado resultado, List<String> errores) throws IOException {
+        if (resultado.pdf == null) {
+            errores.add("Factura " + resultado.facturaId + ": " + resultado.error);
+            contarEntrada("error");
+            return;
+        }
+        escribirEntrada(zip, resultado.pdf);
+        contarEntrada("renderizado");
+    }
+
+    /**
+     * Copia un documento del almacén al ZIP como una entrada, por bloques
+     */
+    private void escribirEntrada(ZipOutputStream zip, DocumentoAlmacenado pdf) throws IOException {
+        ZipEntry entrada = new ZipEntry(pdf.getNombreArchivo());
+        entrada.setLastModifiedTime(FileTime.fromMillis(pdf.getModificado()));
+        zip.putNextEntry(entrada);
+        try (InputStream in = pdf.abrir()) {
+            in.transferTo(zip);
+        }
+        zip.closeEntry();
+    }
+
+    private Resultado esperar(CompletionService<Resultado> completados) throws IOException {
+        try {
+            return obtener(completados.take());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportación interrumpida", e);
+        }
+    }
+
+    private Resultado obtener(Future<Resultado> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportación interrumpida", e);
+        } catch (ExecutionException e) {
+            // renderizar() captura sus errores; solo llega aquí un Error de la JVM
+            throw new IOException("Error inesperado en la exportación", e.getCause());
+        }
+    }
+
+    private void contarEntrada(String origen) {
+        meterRegistry.counter("queenscorner.pdf.export.entradas", "origen", origen).increment();
+    }
+
+    /**
+     * Resultado del render de una factura: PDF publicado o mensaje de error
+     */
+    private static final class Resultado {
+        private final Long facturaId;
+        private final DocumentoAlmacenado pdf;
+        private final String error;
+
+        private Resultado(Long facturaId, DocumentoAlmacenado pdf, String error) {
+            this.facturaId = facturaId;
+            this.pdf = pdf;
+            this.error = error;
+        }
+    }
+}
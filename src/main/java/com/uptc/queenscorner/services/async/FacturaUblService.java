@@ -0,0 +1,211 @@
+package com.uptc.queenscorner.services.async;
+
+import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
+import com.uptc.queenscorner.models.entities.FacturaEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import com.uptc.queenscorner.models.mappers.FacturaUblMapper;
+import com.uptc.queenscorner.repositories.IFacturaRepository;
+import com.uptc.queenscorner.repositories.ITrabajoDocumentoRepository;
+import com.uptc.queenscorner.services.almacen.DocumentoAlmacenado;
+import com.uptc.queenscorner.services.almacen.EscrituraDocumento;
+import com.uptc.queenscorner.services.almacen.IAlmacenDocumentos;
+import com.uptc.queenscorner.services.ubl.EscritorUbl;
+import com.uptc.queenscorner.services.ubl.FacturaUbl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio de la factura electrónica (XML UBL 2.1) de las facturas
+ *
+ * Usa el mismo pipeline que los PDFs:
+ * - La solicitud se encola en trabajos_documento con tipo FACTURA_UBL y la
+ *   atiende TrabajoDocumentoWorker en pdfExecutor
+ * - El XML se guarda en el almacén (facturas-ubl/<año>/<mes>/<hash>/<numero>.xml)
+ *   con escritura y confirmación, igual que un PDF
+ * - La huella es el SHA-256 del XML: si los datos no cambiaron no se regenera
+ *
+ * El XML se escribe en streaming (EscritorUbl) directo a la escritura del
+ * almacén, calculando la huella en la misma pasada: ni el documento ni un
+ * árbol DOM se mantienen en memoria.
+ */
+@Service
+public class FacturaUblService {
+
+    @Autowired
+    private IFacturaRepository facturaRepository;
+
+    @Autowired
+    private ITrabajoDocumentoRepository trabajoRepository;
+
+    @Autowired
+    private PdfAsyncService pdfAsyncService;
+
+    @Autowired
+    private FacturaUblMapper facturaUblMapper;
+
+    @Autowired
+    private IAlmacenDocumentos almacenDocumentos;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Solicita la generación del XML de una factura
+     * Registra el trabajo y retorna de inmediato sin bloquear la respuesta HTTP
+     * Si el XML actual ya corresponde a los mismos datos (misma huella) no se encola
+     * @param facturaId ID de la factura
+     * @return true si se encoló, false si el XML existente sigue vigente
+     * @throws ResourceNotFoundException si la factura no existe
+     */
+    @Transactional
+    public boolean generarUblAsync(Long facturaId) {
+        FacturaEntity factura = facturaRepository.findById(facturaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Factura no encontrada"));
+        if (!pdfAsyncService.encolar(TipoDocumento.FACTURA_UBL, facturaId,
+                () -> EscritorUbl.huella(facturaUblMapper.toFacturaUbl(factura)))) {
+            System.out.println("♻️ XML de factura sin cambios: " + factura.getNumeroFactura());
+            return false;
+        }
+        System.out.println("📥 XML de factura en cola: " + factura.getNumeroFactura());
+        return true;
+    }
+
+    /**
+     * Carga una factura y la convierte al modelo UBL
+     * Las líneas (LAZY) se recorren dentro de la transacción
+     * @param facturaId ID de la factura
+     * @return Modelo listo para escribir
+     * @throws ResourceNotFoundException si la factura no existe
+     */
+    @Transactional(readOnly = true)
+    public FacturaUbl construirFactura(Long facturaId) {
+        return facturaUblMapper.toFacturaUbl(facturaRepository.findById(facturaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Factura no encontrada")));
+    }
+
+    /**
+     * Carga un lote de facturas en una consulta y las convierte al modelo UBL
+     * @param facturaIds IDs de las facturas
+     * @return Modelos por ID de factura (las facturas que ya no existen no aparecen)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, FacturaUbl> construirFacturas(Collection<Long> facturaIds) {
+        Map<Long, FacturaUbl> facturas = new LinkedHashMap<>();
+        for (FacturaEntity factura : facturaRepository.findConLineasByIdIn(facturaIds)) {
+            facturas.put(factura.getId(), facturaUblMapper.toFacturaUbl(factura));
+        }
+        return facturas;
+    }
+
+    /**
+     * Localiza el XML almacenado de una factura (último generado)
+     * @param facturaId ID de la factura
+     * @return Documento almacenado, o vacío si aún no se ha generado
+     * @throws ResourceNotFoundException si la factura no existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<DocumentoAlmacenado> buscarXml(Long facturaId) {
+        if (!facturaRepository.existsById(facturaId)) {
+            throw new ResourceNotFoundException("Factura no encontrada");
+        }
+        return trabajoRepository.findByTipoDocumentoAndDocumentoId(TipoDocumento.FACTURA_UBL, facturaId)
+                .map(TrabajoDocumentoEntity::getRutaArchivo)
+                .flatMap(almacenDocumentos::buscar);
+    }
+
+    /**
+     * Escribe el XML en el almacén y lo confirma, sin registrar el trabajo
+     * Lo invoca TrabajoDocumentoWorker, que marca el trabajo COMPLETADO
+     * @param factura Modelo de la factura
+     * @return Clave y huella del XML guardado
+     * @throws IOException si no se puede escribir el documento
+     */
+    public XmlGenerado generarYGuardar(FacturaUbl factura) throws IOException {
+        XmlEscrito xml = escribir(factura);
+        xml.escritura.confirmar();
+        System.out.println("✅ XML generado: " + xml.escritura.getClave());
+        return new XmlGenerado(xml.escritura.getClave(), xml.huella);
+    }
+
+    /**
+     * Escribe el XML de una factura y lo publica (confirmar + trabajo COMPLETADO),
+     * como una descarga bajo demanda. Lo usan la descarga y la generación en lote.
+     * @param facturaId ID de la factura
+     * @param factura Modelo ya construido
+     * @return Documento publicado en el almacén
+     * @throws IOException si no se puede escribir o publicar el documento
+     */
+    public DocumentoAlmacenado generarYPublicar(Long facturaId, FacturaUbl factura) throws IOException {
+        XmlEscrito xml = escribir(factura);
+        if (!pdfAsyncService.publicarRenderDirecto(TipoDocumento.FACTURA_UBL, facturaId, xml.huella, xml.escritura)) {
+            throw new IOException("No se pudo publicar el XML " + factura.getNombreArchivo());
+        }
+        return almacenDocumentos.buscar(xml.escritura.getClave())
+                .orElseThrow(() -> new IOException("No se pudo guardar el XML " + factura.getNombreArchivo()));
+    }
+
+    /**
+     * Escribe el XML en una escritura del almacén (aún sin confirmar) calculando su huella
+     * @return Escritura con el XML completo y su huella
+     * @throws IOException si no se puede escribir en el almacén
+     */
+    private XmlEscrito escribir(FacturaUbl factura) throws IOException {
+        long inicio = System.nanoTime();
+        EscrituraDocumento escritura = almacenDocumentos.crear(almacenDocumentos.generarClave(
+                TipoDocumento.FACTURA_UBL, factura.getNombreArchivo(), factura.getFechaDocumento()));
+        MessageDigest sha = EscritorUbl.nuevoSha256();
+        try {
+            EscritorUbl.escribir(factura, new DigestOutputStream(escritura.getSalida(), sha));
+        } catch (IOException | RuntimeException e) {
+            escritura.descartar();
+            throw e;
+        }
+        Timer.builder("queenscorner.ubl.escritura")
+                .description("Tiempo de escritura del XML de la factura electrónica")
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return new XmlEscrito(escritura, HexFormat.of().formatHex(sha.digest()));
+    }
+
+    /**
+     * XML escrito pendiente de confirmar, con su huella
+     */
+    private static final class XmlEscrito {
+        private final EscrituraDocumento escritura;
+        private final String huella;
+
+        private XmlEscrito(EscrituraDocumento escritura, String huella) {
+            this.escritura = escritura;
+            this.huella = huella;
+        }
+    }
+
+    /**
+     * XML guardado en el almacén: clave y huella de contenido
+     */
+    public static final class XmlGenerado {
+        private final String clave;
+        private final String huella;
+
+        public XmlGenerado(String clave, String huella) {
+            this.clave = clave;
+            this.huella = huella;
+        }
+
+        public String getClave() { return clave; }
+        public String getHuella() { return huella; }
+    }
+}
@@ -0,0 +1,230 @@
+package com.uptc.queenscorner.services.async;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uptc.queenscorner.exceptions.BusinessException;
+import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
+import com.uptc.queenscorner.models.dtos.responses.LoteUblResponse;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.EstadoTrabajo;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import com.uptc.queenscorner.repositories.IFacturaRepository;
+import com.uptc.queenscorner.repositories.ITrabajoDocumentoRepository;
+import com.uptc.queenscorner.services.almacen.IAlmacenDocumentos;
+import com.uptc.queenscorner.services.ubl.EscritorUbl;
+import com.uptc.queenscorner.services.ubl.FacturaUbl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de generación en lote de facturas electrónicas (XML UBL)
+ *
+ * Emite el XML de todas las facturas de un periodo directo al almacén, por páginas
+ * de ubl.lote.tamano-pagina facturas:
+ * - Una consulta carga la página completa (líneas, negocio y cliente) y otra
+ *   los trabajos FACTURA_UBL existentes, en lugar de consultas por factura
+ * - Si el XML almacenado tiene la misma huella que los datos actuales se omite
+ * - Si no, se escribe en streaming y se publica como un render bajo demanda
+ *   (trabajo COMPLETADO con su huella)
+ *
+ * El lote corre en pdfExecutor, fuera del hilo de la petición: la petición recibe
+ * un id y el avance se consulta con consultar(id). Sin open-in-view en ese hilo,
+ * cada página se carga en su propia transacción y su EntityManager se cierra al
+ * terminarla, así que solo hay una página de modelos en memoria a la vez.
+ * Una factura que falla no detiene el lote: el error queda en el resumen.
+ *
+ * Los resúmenes se conservan en memoria (los últimos 100, durante un día);
+ * se pierden si la aplicación se reinicia.
+ */
+@Service
+public class LoteUblService {
+
+    @Autowired
+    private IFacturaRepository facturaRepository;
+
+    @Autowired
+    private ITrabajoDocumentoRepository trabajoRepository;
+
+    @Autowired
+    private FacturaUblService facturaUblService;
+
+    @Autowired
+    private IAlmacenDocumentos almacenDocumentos;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("pdfExecutor")
+    private ThreadPoolTaskExecutor pdfExecutor;
+
+    @Value("${ubl.lote.tamano-pagina:200}")
+    private int tamanoPagina;
+
+    static final String EN_CURSO = "EN_CURSO";
+    static final String COMPLETADO = "COMPLETADO";
+    static final String FALLIDO = "FALLIDO";
+
+    /** Resúmenes de los lotes por id (se actualizan bajo su propio monitor) */
+    private final Cache<String, LoteUblResponse> lotes = Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    /**
+     * Inicia en segundo plano la generación del XML de las facturas creadas en un periodo
+     * @param desde Primer día del periodo (inclusive)
+     * @param hasta Último día del periodo (inclusive)
+     * @return Resumen del lote recién iniciado (estado EN_CURSO)
+     * @throws BusinessException si el periodo no es válido
+     * @throws RejectedExecutionException si pdfExecutor está saturado (503)
+     */
+    public LoteUblResponse iniciarLote(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new BusinessException("La fecha 'desde' no puede ser posterior a 'hasta'");
+        }
+        LoteUblResponse resumen = new LoteUblResponse();
+        resumen.setId(UUID.randomUUID().toString());
+        resumen.setEstado(EN_CURSO);
+        resumen.setDesde(desde);
+        resumen.setHasta(hasta);
+        lotes.put(resumen.getId(), resumen);
+        try {
+            pdfExecutor.execute(() -> ejecutar(resumen));
+        } catch (RejectedExecutionException e) {
+            lotes.invalidate(resumen.getId());
+            throw e;
+        }
+        return copia(resumen);
+    }
+
+    /**
+     * Estado actual de un lote
+     * @param id Id devuelto por iniciarLote
+     * @return Copia del resumen (los contadores avanzan mientras está EN_CURSO)
+     * @throws ResourceNotFoundException si el lote no existe o ya expiró
+     */
+    public LoteUblResponse consultar(String id) {
+        LoteUblResponse resumen = lotes.getIfPresent(id);
+        if (resumen == null) {
+            throw new ResourceNotFoundException("Lote de facturas electrónicas no encontrado: " + id);
+        }
+        return copia(resumen);
+    }
+
+    /**
+     * Recorre el periodo por páginas (en pdfExecutor)
+     */
+    private void ejecutar(LoteUblResponse resumen) {
+        long inicio = System.currentTimeMillis();
+        try {
+            List<Long> facturaIds = facturaRepository.findIdsByFechaCreacionEntre(
+                    resumen.getDesde().atStartOfDay(), resumen.getHasta().plusDays(1).atStartOfDay());
+            synchronized (resumen) {
+                resumen.setFacturas(facturaIds.size());
+            }
+            for (int i = 0; i < facturaIds.size(); i += tamanoPagina) {
+                procesarPagina(facturaIds.subList(i, Math.min(i + tamanoPagina, facturaIds.size())), resumen);
+                synchronized (resumen) {
+                    resumen.setDuracionMs(System.currentTimeMillis() - inicio);
+                }
+            }
+            synchronized (resumen) {
+                resumen.setEstado(COMPLETADO);
+            }
+        } catch (RuntimeException e) {
+            synchronized (resumen) {
+                resumen.getErrores().add("Lote: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+                resumen.setEstado(FALLIDO);
+            }
+        }
+        synchronized (resumen) {
+            resumen.setDuracionMs(System.currentTimeMillis() - inicio);
+            System.out.println("🧾 Lote de facturas electrónicas " + resumen.getDesde() + " a " + resumen.getHasta()
+                    + " (" + resumen.getEstado() + "): " + resumen.getGenerados() + " generadas, "
+                    + resumen.getOmitidos() + " sin cambios, " + resumen.getErrores().size() + " errores en "
+                    + resumen.getDuracionMs() + " ms");
+        }
+    }
+
+    /**
+     * Genera (u omite) el XML de una página de facturas
+     */
+    private void procesarPagina(List<Long> ids, LoteUblResponse resumen) {
+        Map<Long, FacturaUbl> facturas = facturaUblService.construirFacturas(ids);
+        Map<Long, TrabajoDocumentoEntity> trabajos = trabajoRepository
+                .findByTipoDocumentoAndDocumentoIdIn(TipoDocumento.FACTURA_UBL, ids).stream()
+                .collect(Collectors.toMap(TrabajoDocumentoEntity::getDocumentoId, Function.identity()));
+
+        for (Map.Entry<Long, FacturaUbl> entrada : facturas.entrySet()) {
+            Long id = entrada.getKey();
+            FacturaUbl factura = entrada.getValue();
+            try {
+                if (vigente(trabajos.get(id), factura)) {
+                    synchronized (resumen) {
+                        resumen.setOmitidos(resumen.getOmitidos() + 1);
+                    }
+                    contar("omitido");
+                    continue;
+                }
+                facturaUblService.generarYPublicar(id, factura);
+                synchronized (resumen) {
+                    resumen.setGenerados(resumen.getGenerados() + 1);
+                }
+                contar("generado");
+            } catch (Exception e) {
+                String mensaje = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                synchronized (resumen) {
+                    resumen.getErrores().add("Factura " + id + ": " + mensaje);
+                }
+                contar("error");
+            }
+        }
+    }
+
+    /**
+     * true si el XML completado del trabajo corresponde a los datos actuales y sigue en el almacén
+     */
+    private boolean vigente(TrabajoDocumentoEntity trabajo, FacturaUbl factura) {
+        return trabajo != null && trabajo.getEstado() == EstadoTrabajo.COMPLETADO
+                && trabajo.getHuella() != null
+                && trabajo.getHuella().equals(EscritorUbl.huella(factura))
+                && almacenDocumentos.existe(trabajo.getRutaArchivo());
+    }
+
+    /**
+     * Copia del resumen tomada bajo su monitor (el lote puede seguir avanzando)
+     */
+    private static LoteUblResponse copia(LoteUblResponse resumen) {
+        synchronized (resumen) {
+            LoteUblResponse copia = new LoteUblResponse();
+            copia.setId(resumen.getId());
+            copia.setEstado(resumen.getEstado());
+            copia.setDesde(resumen.getDesde());
+            copia.setHasta(resumen.getHasta());
+            copia.setFacturas(resumen.getFacturas());
+            copia.setGenerados(resumen.getGenerados());
+            copia.setOmitidos(resumen.getOmitidos());
+            copia.setErrores(new ArrayList<>(resumen.getErrores()));
+            copia.setDuracionMs(resumen.getDuracionMs());
+            return copia;
+        }
+    }
+
+    private void contar(String resultado) {
+        meterRegistry.counter("queenscorner.ubl.lote", "resultado", resultado).increment();
+    }
+}
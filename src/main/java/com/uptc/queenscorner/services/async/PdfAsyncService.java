@@ -1,261 +1,131 @@
 package com.uptc.queenscorner.services.async;
 
+import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
+import com.uptc.queenscorner.models.dtos.responses.EstadoDocumentoResponse;
 import com.uptc.queenscorner.models.entities.CotizacionEntity;
 import com.uptc.queenscorner.models.entities.FacturaEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.EstadoTrabajo;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import com.uptc.queenscorner.models.mappers.DocumentoPdfMapper;
+import com.uptc.queenscorner.repositories.ICotizacionRepository;
 import com.uptc.queenscorner.repositories.IFacturaRepository;
-import com.uptc.queenscorner.utils.FileUtils;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Image;
+import com.uptc.queenscorner.repositories.ITrabajoDocumentoRepository;
+import com.uptc.queenscorner.services.almacen.DocumentoAlmacenado;
+import com.uptc.queenscorner.services.almacen.EscrituraDocumento;
+import com.uptc.queenscorner.services.almacen.IAlmacenDocumentos;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import com.uptc.queenscorner.services.pdf.HuellaPdf;
+import com.uptc.queenscorner.services.pdf.RenderizadorPdf;
+import com.uptc.queenscorner.utils.TeeOutputStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.uptc.queenscorner.services.IFacturaService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import java.nio.file.Paths;
-import java.time.format.DateTimeFormatter;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Servicio de generación de PDF asincrónico
- * Genera PDFs de cotizaciones y facturas en hilos separados
+ * Encola la generación de PDFs de cotizaciones y facturas en la tabla
+ * trabajos_documento; TrabajoDocumentoWorker los reclama por lotes y los
+ * renderiza en el pool dedicado pdfExecutor
  * No bloquea la respuesta HTTP mientras se genera el PDF
- * Los PDFs se guardan en directorios configurados en el servidor
+ * Los PDFs se guardan en el almacén de documentos (IAlmacenDocumentos); en BD
+ * se registra su clave (pathPdf, rutaArchivo), no una ruta del servidor
+ *
+ * Al ser una cola persistente, una solicitud no se pierde si la JVM se
+ * reinicia a mitad de render; el tiempo de render se publica como
+ * queenscorner.pdf.render por tipo de documento
+ *
+ * El diseño lo define el motor compartido RenderizadorPdf: cada documento
+ * se convierte a DocumentoPdf (DocumentoPdfMapper) y se renderiza con la
+ * plantilla estándar y los recursos de marca precargados
+ *
+ * Descarga bajo demanda: si un documento aún no tiene PDF almacenado, el
+ * controlador puede renderizarlo directo en la respuesta (renderizarEnRespuesta)
+ * y la copia queda guardada para las siguientes descargas
+ *
+ * La misma cola atiende el XML de la factura electrónica (FACTURA_UBL), que
+ * genera FacturaUblService con su propia huella (ver encolar con huellaActual)
  */
 @Service
 public class PdfAsyncService {
     
     @Autowired
     private IFacturaRepository facturaRepository;
-    
-    private static final DateTimeFormatter FECHA_FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    /** Registra pathPdf; se obtiene al usarlo porque FacturaServiceImpl depende de este servicio */
+    @Autowired
+    private ObjectProvider<IFacturaService> facturaService;
+
+    @Autowired
+    private ICotizacionRepository cotizacionRepository;
+
+    @Autowired
+    private ITrabajoDocumentoRepository trabajoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RenderizadorPdf renderizadorPdf;
+
+    @Autowired
+    private DocumentoPdfMapper documentoPdfMapper;
+
+    @Autowired
+    private IAlmacenDocumentos almacenDocumentos;
+
+    @Autowired
+    @Qualifier("pdfExecutor")
+    private ThreadPoolTaskExecutor pdfExecutor;
     
     /**
-     * Genera PDF de cotización en hilo separado
-     * Se ejecuta de forma asincrónica sin bloquear la respuesta HTTP
-     * El PDF se guarda en: queenscornerarchives/cotizaciones/
+     * Solicita la generación del PDF de una cotización
+     * Registra el trabajo y retorna de inmediato sin bloquear la respuesta HTTP
+     * Si el PDF actual ya corresponde a los mismos datos (misma huella) no se encola
+     * El PDF se guarda en el almacén con clave cotizaciones/<año>/<mes>/<hash>/<codigo>.pdf
      * @param cotizacion Entidad de cotización con datos a incluir en PDF
+     * @return true si se encoló, false si el PDF existente sigue vigente
      */
-    public void generarPdfCotizacion(CotizacionEntity cotizacion) {
-        new Thread(() -> {
-            try {
-                System.out.println("⏳ Iniciando generación de PDF para cotización: " + cotizacion.getCodigo());
-                Thread.sleep(2000);
-                
-                FileUtils.inicializarDirectorios();
-                
-                String nombreArchivo = cotizacion.getCodigo() + ".pdf";
-                String rutaCompleta = Paths.get(FileUtils.getRutaCotizaciones(), nombreArchivo).toString();
-                
-                try (PdfWriter writer = new PdfWriter(rutaCompleta)) {
-                    PdfDocument pdfDoc = new PdfDocument(writer);
-                    Document doc = new Document(pdfDoc);
-                    
-                    // LOGO
-                    try {
-                        String logoPath = "src/main/resources/imagenes/logo.png";
-                        Image logo = new Image(com.itextpdf.io.image.ImageDataFactory.create(logoPath));
-                        logo.setWidth(80);
-                        logo.setHeight(80);
-                        doc.add(logo);
-                    } catch (Exception e) {
-                        System.out.println("⚠️ Logo no encontrado, continuando sin él");
-                    }
-                    
-                    // ENCABEZADO EMPRESA
-                    doc.add(new Paragraph("QUEEN'S CORNER GALLERY"));
-                    doc.add(new Paragraph("Carrera 10 # 16 - 95, Sogamoso"));
-                    doc.add(new Paragraph("NIT: 56789056-6"));
-                    doc.add(new Paragraph("\"Diseño y confort a su servicio\""));
-                    doc.add(new Paragraph(""));
-                    doc.add(new Paragraph("═══════════════════════════════════════════════════════"));
-                    doc.add(new Paragraph("COTIZACIÓN"));
-                    doc.add(new Paragraph("═══════════════════════════════════════════════════════"));
-                    doc.add(new Paragraph(""));
-                    
-                    // INFORMACIÓN COTIZACIÓN
-                    doc.add(new Paragraph("Código: " + cotizacion.getCodigo()));
-                    doc.add(new Paragraph("Número: " + cotizacion.getNumeroCotizacion()));
-                    doc.add(new Paragraph("Fecha: " + cotizacion.getFechaCreacion().format(FECHA_FORMATO)));
-                    doc.add(new Paragraph("Estado: " + cotizacion.getEstado()));
-                    doc.add(new Paragraph("Válida hasta: " + cotizacion.getFechaValidez()));
-                    doc.add(new Paragraph(""));
-                    
-                    // CLIENTE
-                    doc.add(new Paragraph("CLIENTE:"));
-                    doc.add(new Paragraph("Nombre: " + cotizacion.getCliente().getNombre()));
-                    doc.add(new Paragraph("Documento: " + cotizacion.getCliente().getDocumento()));
-                    doc.add(new Paragraph("Email: " + cotizacion.getCliente().getEmail()));
-                    doc.add(new Paragraph("Teléfono: " + cotizacion.getCliente().getTelefono()));
-                    doc.add(new Paragraph("Dirección: " + cotizacion.getCliente().getDireccion()));
-                    doc.add(new Paragraph(""));
-                    
-                    // DESCRIPCIÓN
-                    doc.add(new Paragraph("DESCRIPCIÓN:"));
-                    doc.add(new Paragraph(cotizacion.getDescripcion()));
-                    doc.add(new Paragraph(""));
-                    
-                    // ITEMS
-                    doc.add(new Paragraph("ITEMS:"));
-                    if (cotizacion.getItems() != null && !cotizacion.getItems().isEmpty()) {
-                        int num = 1;
-                        for (var item : cotizacion.getItems()) {
-                            doc.add(new Paragraph(num + ". " + item.getDescripcion()));
-                            doc.add(new Paragraph("   Cantidad: " + item.getCantidad() + " | Valor: $" + item.getPrecioUnitario() + " | Subtotal: $" + item.getSubtotal()));
-                            num++;
-                        }
-                    }
-                    doc.add(new Paragraph(""));
-                    
-                    // TOTALES
-                    doc.add(new Paragraph("───────────────────────────────────────────────────────"));
-                    doc.add(new Paragraph("Subtotal: $" + cotizacion.getSubtotal()));
-                    doc.add(new Paragraph("Impuestos (19%): $" + cotizacion.getImpuestos()));
-                    doc.add(new Paragraph("TOTAL: $" + cotizacion.getTotal()));
-                    doc.add(new Paragraph("───────────────────────────────────────────────────────"));
-                    doc.add(new Paragraph(""));
-                    
-                    if (cotizacion.getObservaciones() != null && !cotizacion.getObservaciones().isEmpty()) {
-                        doc.add(new Paragraph("OBSERVACIONES:"));
-                        doc.add(new Paragraph(cotizacion.getObservaciones()));
-                    }
-                    
-                    doc.close();
-                }
-                
-                System.out.println("✅ PDF generado: " + rutaCompleta);
-                
-            } catch (Exception e) {
-                System.err.println("❌ Error: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }).start();
+    @Transactional
+    public boolean generarPdfCotizacion(CotizacionEntity cotizacion) {
+        if (!encolar(TipoDocumento.COTIZACION, cotizacion.getId())) {
+            System.out.println("♻️ PDF de cotización sin cambios: " + cotizacion.getCodigo());
+            return false;
+        }
+        System.out.println("📥 PDF de cotización en cola: " + cotizacion.getCodigo());
+        return true;
     }
 
     /**
-     * Genera PDF de factura en hilo separado
-     * Se ejecuta de forma asincrónica sin bloquear la respuesta HTTP
+     * Solicita la generación del PDF de una factura
+     * Registra el trabajo y retorna de inmediato sin bloquear la respuesta HTTP
      * Incluye datos de: factura, cliente, negocio, líneas detalladas
-     * El PDF se guarda en: queenscornerarchives/facturas/
-     * La ruta se almacena en el objeto FacturaEntity para descargas posteriores
+     * El PDF se guarda en el almacén con clave facturas/<año>/<mes>/<hash>/<numero>.pdf
+     * Al completarse, la clave se almacena en FacturaEntity.pathPdf para descargas posteriores
+     * Si el PDF actual ya corresponde a los mismos datos (misma huella) no se encola
      * @param factura Entidad de factura con datos a incluir en PDF
+     * @return true si se encoló, false si el PDF existente sigue vigente
      */
-    public void generarPdfFacturaAsync(FacturaEntity factura) {
-        new Thread(() -> {
-            try {
-                System.out.println("⏳ Iniciando generación de PDF para factura: " + factura.getNumeroFactura());
-                Thread.sleep(2000);
-                
-                FileUtils.inicializarDirectorios();
-                
-                String nombreArchivo = factura.getNumeroFactura() + ".pdf";
-                String rutaCompleta = Paths.get(FileUtils.getRutaFacturas(), nombreArchivo).toString();
-                
-                try (PdfWriter writer = new PdfWriter(rutaCompleta)) {
-                    PdfDocument pdfDoc = new PdfDocument(writer);
-                    Document doc = new Document(pdfDoc);
-                    
-                    // LOGO
-                    try {
-                        String logoPath = "src/main/resources/imagenes/logo.png";
-                        Image logo = new Image(com.itextpdf.io.image.ImageDataFactory.create(logoPath));
-                        logo.setWidth(80);
-                        logo.setHeight(80);
-                        doc.add(logo);
-                    } catch (Exception e) {
-                        System.out.println("⚠️ Logo no encontrado, continuando sin él");
-                    }
-                    
-                    // ENCABEZADO EMPRESA
-                    doc.add(new Paragraph("QUEEN'S CORNER GALLERY"));
-                    doc.add(new Paragraph("Carrera 10 # 16 - 95, Sogamoso"));
-                    doc.add(new Paragraph("NIT: 56789056-6"));
-                    doc.add(new Paragraph("\"Diseño y confort a su servicio\""));
-                    doc.add(new Paragraph(""));
-                    doc.add(new Paragraph("═══════════════════════════════════════════════════════"));
-                    doc.add(new Paragraph("FACTURA DE VENTA"));
-                    doc.add(new Paragraph("═══════════════════════════════════════════════════════"));
-                    doc.add(new Paragraph(""));
-                    
-                    // INFORMACIÓN FACTURA
-                    doc.add(new Paragraph("Número: " + factura.getNumeroFactura()));
-                    doc.add(new Paragraph("Fecha Emisión: " + factura.getFechaCreacion().format(FECHA_FORMATO)));
-                    if (factura.getFechaEnvio() != null) {
-                        doc.add(new Paragraph("Fecha Envío: " + factura.getFechaEnvio().format(FECHA_FORMATO)));
-                    }
-                    doc.add(new Paragraph("Estado: " + factura.getEstado()));
-                    doc.add(new Paragraph(""));
-                    
-                    // CLIENTE
-                    if (factura.getNegocio() != null && factura.getNegocio().getCotizacion() != null && 
-                        factura.getNegocio().getCotizacion().getCliente() != null) {
-                        doc.add(new Paragraph("CLIENTE:"));
-                        doc.add(new Paragraph("Nombre: " + factura.getNegocio().getCotizacion().getCliente().getNombre()));
-                        doc.add(new Paragraph("Documento: " + factura.getNegocio().getCotizacion().getCliente().getDocumento()));
-                        doc.add(new Paragraph("Email: " + factura.getNegocio().getCotizacion().getCliente().getEmail()));
-                        doc.add(new Paragraph("Teléfono: " + factura.getNegocio().getCotizacion().getCliente().getTelefono()));
-                        doc.add(new Paragraph("Dirección: " + factura.getNegocio().getCotizacion().getCliente().getDireccion()));
-                        doc.add(new Paragraph(""));
-                    }
-                    
-                    // NEGOCIO
-                    if (factura.getNegocio() != null) {
-                        doc.add(new Paragraph("NEGOCIO:"));
-                        doc.add(new Paragraph("Código: " + factura.getNegocio().getCodigo()));
-                        doc.add(new Paragraph("Descripción: " + factura.getNegocio().getDescripcion()));
-                        doc.add(new Paragraph(""));
-                    }
-                    
-                    // DETALLE DE LÍNEAS
-                    doc.add(new Paragraph("DETALLE DE LÍNEAS:"));
-                    if (factura.getLineas() != null && !factura.getLineas().isEmpty()) {
-                        for (var linea : factura.getLineas()) {
-                            doc.add(new Paragraph(linea.getNumeroLinea() + ". " + linea.getDescripcion()));
-                            doc.add(new Paragraph("   Cantidad: " + linea.getCantidad() + " | Valor: $" + linea.getValorUnitario() + " | Subtotal: $" + linea.getTotal()));
-                        }
-                    }
-                    doc.add(new Paragraph(""));
-                    
-                    // TOTALES
-                    doc.add(new Paragraph("───────────────────────────────────────────────────────"));
-                    doc.add(new Paragraph("Subtotal: $" + factura.getSubtotal()));
-                    doc.add(new Paragraph("IVA (19%): $" + factura.getIva()));
-                    doc.add(new Paragraph("TOTAL A PAGAR: $" + factura.getTotal()));
-                    if (factura.getAnticipo() != null && factura.getAnticipo().compareTo(java.math.BigDecimal.ZERO) > 0) {
-                        doc.add(new Paragraph("Anticipo: $" + factura.getAnticipo()));
-                    }
-                    
-                    // Calcular saldo pendiente
-                    java.math.BigDecimal saldoPendiente = factura.getTotal();
-                    if (factura.getAnticipo() != null) {
-                        saldoPendiente = saldoPendiente.subtract(factura.getAnticipo());
-                    }
-                    doc.add(new Paragraph("Saldo Pendiente: $" + saldoPendiente));
-                    doc.add(new Paragraph("───────────────────────────────────────────────────────"));
-                    doc.add(new Paragraph(""));
-                    
-                    if (factura.getObservaciones() != null && !factura.getObservaciones().isEmpty()) {
-                        doc.add(new Paragraph("OBSERVACIONES:"));
-                        doc.add(new Paragraph(factura.getObservaciones()));
-                        doc.add(new Paragraph(""));
-                    }
-                    
-                    doc.add(new Paragraph("Creado por: " + factura.getUsuarioCreacion()));
-                    if (factura.getUsuarioEnvio() != null) {
-                        doc.add(new Paragraph("Enviado por: " + factura.getUsuarioEnvio()));
-                    }
-                    
-                    doc.close();
-                }
-                
-                factura.setPathPdf(rutaCompleta);
-                facturaRepository.save(factura);
-                
-                System.out.println("✅ PDF generado: " + rutaCompleta);
-                
-            } catch (Exception e) {
-                System.err.println("❌ Error: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }).start();
+    @Transactional
+    public boolean generarPdfFacturaAsync(FacturaEntity factura) {
+        if (!encolar(TipoDocumento.FACTURA, factura.getId())) {
+            System.out.println("♻️ PDF de factura sin cambios: " + factura.getNumeroFactura());
+            return false;
+        }
+        System.out.println("📥 PDF de factura en cola: " + factura.getNumeroFactura());
+        return true;
     }
 
     /**
@@ -264,8 +134,389 @@ public class PdfAsyncService {
      * Proporciona interfaz alternativa para conveniencia
      * @param factura Entidad de factura
      */
-    public void generarPdfFacturaCompleto(FacturaEntity factura) {
-        generarPdfFacturaAsync(factura);
+    @Transactional
+    public boolean generarPdfFacturaCompleto(FacturaEntity factura) {
+        return generarPdfFacturaAsync(factura);
+    }
+
+    /**
+     * Consulta el estado de generación del PDF de un documento
+     * Facturas generadas antes de la cola persistente (pathPdf sin trabajo) se reportan COMPLETADO
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @return Estado actual de la generación
+     * @throws ResourceNotFoundException si nunca se solicitó el PDF
+     */
+    @Transactional(readOnly = true)
+    public EstadoDocumentoResponse consultarEstado(TipoDocumento tipoDocumento, Long documentoId) {
+        EstadoDocumentoResponse response = new EstadoDocumentoResponse();
+        response.setTipoDocumento(tipoDocumento.name());
+        response.setDocumentoId(documentoId);
+
+        TrabajoDocumentoEntity trabajo = trabajoRepository
+                .findByTipoDocumentoAndDocumentoId(tipoDocumento, documentoId)
+                .orElse(null);
+        if (trabajo != null) {
+            response.setEstado(trabajo.getEstado().name());
+            response.setIntentos(trabajo.getIntentos());
+            response.setUltimoError(trabajo.getUltimoError());
+            response.setFechaActualizacion(trabajo.getFechaActualizacion());
+            response.setDisponible(trabajo.getEstado() == EstadoTrabajo.COMPLETADO
+                    && almacenDocumentos.existe(trabajo.getRutaArchivo()));
+            return response;
+        }
+
+        if (tipoDocumento == TipoDocumento.FACTURA) {
+            String pathPdf = facturaRepository.findById(documentoId)
+                    .map(FacturaEntity::getPathPdf)
+                    .orElse(null);
+            if (pathPdf != null) {
+                response.setEstado(EstadoTrabajo.COMPLETADO.name());
+                response.setIntentos(0);
+                response.setDisponible(almacenDocumentos.existe(pathPdf));
+                return response;
+            }
+        }
+        throw new ResourceNotFoundException(tipoDocumento == TipoDocumento.FACTURA_UBL
+                ? "No se ha solicitado el XML de esta factura"
+                : "No se ha solicitado el PDF de este documento");
+    }
+
+    /**
+     * Localiza el PDF almacenado de un documento para descargarlo
+     *
+     * Orden de búsqueda:
+     * - Factura: FacturaEntity.pathPdf
+     * - Ruta del último render completado (trabajos_documento); se sigue sirviendo
+     *   mientras el documento se regenera
+     * - Cotización generada antes de la cola persistente: cotizaciones/<codigo>.pdf
+     *
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @return Documento almacenado
+     * @throws ResourceNotFoundException si el documento no existe o su PDF aún no se ha generado
+     */
+    @Transactional(readOnly = true)
+    public DocumentoAlmacenado obtenerArchivoPdf(TipoDocumento tipoDocumento, Long documentoId) {
+        return buscarArchivoPdf(tipoDocumento, documentoId)
+                .orElseThrow(() -> new ResourceNotFoundException(tipoDocumento == TipoDocumento.FACTURA
+                        ? "El PDF de la factura aún no está disponible"
+                        : "El PDF de la cotización aún no está disponible"));
+    }
+
+    /**
+     * Igual que obtenerArchivoPdf, pero sin fallar cuando el PDF aún no existe
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @return Documento almacenado, o vacío si no hay copia
+     * @throws ResourceNotFoundException si el documento no existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<DocumentoAlmacenado> buscarArchivoPdf(TipoDocumento tipoDocumento, Long documentoId) {
+        return buscarPdfAlmacenado(tipoDocumento, documentoId).map(PdfAlmacenado::getDocumento);
+    }
+
+    /**
+     * Localiza el PDF almacenado de un documento junto con su huella de contenido
+     * (ver obtenerArchivoPdf para el orden de búsqueda)
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @return PDF almacenado, o vacío si no hay copia
+     * @throws ResourceNotFoundException si el documento no existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<PdfAlmacenado> buscarPdfAlmacenado(TipoDocumento tipoDocumento, Long documentoId) {
+        Optional<DocumentoAlmacenado> documento = Optional.empty();
+        if (tipoDocumento == TipoDocumento.FACTURA) {
+            FacturaEntity factura = facturaRepository.findById(documentoId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Factura no encontrada"));
+            documento = almacenDocumentos.buscar(factura.getPathPdf());
+        }
+        TrabajoDocumentoEntity trabajo = trabajoRepository
+                .findByTipoDocumentoAndDocumentoId(tipoDocumento, documentoId)
+                .orElse(null);
+        if (documento.isEmpty() && trabajo != null) {
+            documento = almacenDocumentos.buscar(trabajo.getRutaArchivo());
+        }
+        if (documento.isEmpty() && tipoDocumento == TipoDocumento.COTIZACION) {
+            CotizacionEntity cotizacion = cotizacionRepository.findById(documentoId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cotización no encontrada"));
+            documento = almacenDocumentos.buscar(almacenDocumentos.claveHeredadaCotizacion(cotizacion.getCodigo()));
+        }
+        if (documento.isEmpty()) {
+            return Optional.empty();
+        }
+        // La huella solo es válida si describe este mismo archivo
+        String clave = documento.get().getClave();
+        String huella = trabajo != null && clave.equals(trabajo.getRutaArchivo()) ? trabajo.getHuella() : null;
+        return Optional.of(new PdfAlmacenado(documento.get(), huella));
+    }
+
+    /**
+     * Carga un documento y lo convierte al modelo de renderizado
+     * Las relaciones LAZY (ej: líneas de factura) se recorren dentro de la
+     * transacción, así el render puede hacerse después fuera de ella
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @return Modelo listo para renderizar
+     * @throws ResourceNotFoundException si el documento no existe
+     */
+    @Transactional(readOnly = true)
+    public DocumentoPdf construirDocumento(TipoDocumento tipoDocumento, Long documentoId) {
+        return cargarDocumento(tipoDocumento, documentoId);
+    }
+
+    /**
+     * Carga y convierte un documento dentro de la transacción en curso
+     * (construirDocumento sin pasar por el proxy, para uso interno)
+     */
+    private DocumentoPdf cargarDocumento(TipoDocumento tipoDocumento, Long documentoId) {
+        return switch (tipoDocumento) {
+            case COTIZACION -> documentoPdfMapper.toDocumentoPdf(cotizacionRepository.findById(documentoId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cotización no encontrada")));
+            case FACTURA -> documentoPdfMapper.toDocumentoPdf(facturaRepository.findById(documentoId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Factura no encontrada")));
+            case FACTURA_UBL -> throw new IllegalArgumentException("El XML de la factura no es un PDF (ver FacturaUblService)");
+        };
+    }
+
+    /**
+     * Renderiza un documento en el thread actual y lo guarda en el almacén
+     * Lo invoca TrabajoDocumentoWorker desde el pool de PDFs
+     * @param tipoDocumento COTIZACION o FACTURA (define la carpeta del almacén)
+     * @param documento Modelo del documento
+     * @return Clave del documento en el almacén
+     * @throws IOException si no se puede escribir el documento
+     */
+    public String renderizarYGuardar(TipoDocumento tipoDocumento, DocumentoPdf documento) throws IOException {
+        System.out.println("⏳ Iniciando generación de PDF: " + documento.getNombreArchivo());
+
+        // La escritura se publica al confirmar: una descarga concurrente (o la
+        // cache de PDFs) nunca ve un archivo a medio escribir
+        EscrituraDocumento escritura = renderizarEnEscritura(tipoDocumento, documento, null);
+        escritura.confirmar();
+
+        System.out.println("✅ PDF generado: " + escritura.getClave());
+        return escritura.getClave();
+    }
+
+    /**
+     * Renderiza un documento directo en el stream de la respuesta HTTP (descarga bajo demanda)
+     *
+     * Los mismos bytes se escriben en el almacén mientras se envían, sin
+     * acumular el PDF en memoria. Al terminar, la publicación de la copia (confirmar
+     * la escritura, pathPdf y trabajo COMPLETADO) se entrega a pdfExecutor,
+     * así la primera vista cuesta un render y las siguientes son lecturas de archivo.
+     * Si el cliente se desconecta a mitad de descarga el render se completa y se guarda igual.
+     *
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @param documento Modelo ya construido (construirDocumento)
+     * @param respuesta Stream de la respuesta HTTP (no se cierra)
+     * @throws IOException si no se puede escribir la copia en el almacén
+     */
+    public void renderizarEnRespuesta(TipoDocumento tipoDocumento, Long documentoId, DocumentoPdf documento,
+                                      OutputStream respuesta) throws IOException {
+        EscrituraDocumento escritura = renderizarEnEscritura(tipoDocumento, documento, respuesta);
+
+        String huella = HuellaPdf.calcular(documento);
+        Runnable publicar = () -> publicarRenderDirecto(tipoDocumento, documentoId, huella, escritura);
+        try {
+            pdfExecutor.execute(publicar);
+        } catch (RejectedExecutionException e) {
+            // Pool saturado: publicar es barato (confirmar + dos UPDATE), se hace en este thread
+            publicar.run();
+        }
+    }
+
+    /**
+     * Renderiza un documento que no tiene copia almacenada y la publica en el thread actual
+     * (confirmar la escritura, pathPdf y trabajo COMPLETADO), igual que una descarga
+     * bajo demanda pero sin respuesta HTTP. Lo usa la exportación masiva.
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @param documento Modelo ya construido (construirDocumento)
+     * @return Documento publicado en el almacén
+     * @throws IOException si no se puede escribir o publicar el documento
+     */
+    public DocumentoAlmacenado renderizarYPublicar(TipoDocumento tipoDocumento, Long documentoId,
+                                                   DocumentoPdf documento) throws IOException {
+        EscrituraDocumento escritura = renderizarEnEscritura(tipoDocumento, documento, null);
+        publicarRenderDirecto(tipoDocumento, documentoId, HuellaPdf.calcular(documento), escritura);
+        return almacenDocumentos.buscar(escritura.getClave())
+                .orElseThrow(() -> new IOException("No se pudo guardar el PDF " + documento.getNombreArchivo()));
+    }
+
+    /**
+     * Renderiza a una escritura del almacén (aún sin confirmar), copiando opcionalmente
+     * los bytes a otro stream mientras se escriben (ver TeeOutputStream)
+     * @param tipoDocumento Tipo de documento (carpeta del almacén y timer de render)
+     * @param documento Modelo del documento
+     * @param copia Stream que recibe los mismos bytes (ej: respuesta HTTP), o null
+     * @return Escritura con el PDF completo, pendiente de confirmar
+     * @throws IOException si no se puede escribir en el almacén
+     */
+    private EscrituraDocumento renderizarEnEscritura(TipoDocumento tipoDocumento, DocumentoPdf documento,
+                                                     OutputStream copia) throws IOException {
+        long inicio = System.nanoTime();
+        EscrituraDocumento escritura = almacenDocumentos.crear(claveDestino(tipoDocumento, documento));
+
+        TeeOutputStream tee = null;
+        try {
+            OutputStream salida = escritura.getSalida();
+            if (copia != null) {
+                tee = new TeeOutputStream(salida, copia);
+                renderizadorPdf.renderizar(documento, tee);
+            } else {
+                renderizadorPdf.renderizar(documento, salida);
+            }
+        } catch (IOException | RuntimeException e) {
+            escritura.descartar();
+            throw e;
+        }
+        registrarTiempo(tipoDocumento, inicio);
+        if (tee != null && tee.getErrorSecundario() != null) {
+            System.out.println("⚠️ Cliente desconectado durante la descarga de " + documento.getNombreArchivo()
+                    + "; el PDF se guarda igual");
+        }
+        return escritura;
+    }
+
+    /**
+     * Publica la copia de un render bajo demanda
+     * Si falla, se descarta y la próxima descarga vuelve a renderizar
+     * (si la escritura ya se confirmó, el documento queda en el almacén)
+     * También publica documentos generados fuera de la cola por otros servicios
+     * (ej: el XML de la factura electrónica, FacturaUblService)
+     * @param tipoDocumento COTIZACION, FACTURA o FACTURA_UBL
+     * @param documentoId ID del documento
+     * @param huella Huella de contenido del documento (HuellaPdf del PDF o EscritorUbl.huella del XML)
+     * @param escritura Escritura con el documento completo, pendiente de confirmar
+     * @return true si el documento quedó publicado
+     */
+    public boolean publicarRenderDirecto(TipoDocumento tipoDocumento, Long documentoId, String huella,
+                                         EscrituraDocumento escritura) {
+        try {
+            escritura.confirmar();
+            String ruta = escritura.getClave();
+            if (tipoDocumento == TipoDocumento.FACTURA) {
+                facturaService.getObject().registrarPdf(documentoId, ruta);
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            if (trabajoRepository.registrarRenderDirecto(tipoDocumento, documentoId, ruta, huella,
+                    EstadoTrabajo.RENDERIZANDO, EstadoTrabajo.COMPLETADO, ahora) == 0
+                    && trabajoRepository.findByTipoDocumentoAndDocumentoId(tipoDocumento, documentoId).isEmpty()) {
+                TrabajoDocumentoEntity trabajo = new TrabajoDocumentoEntity();
+                trabajo.setTipoDocumento(tipoDocumento);
+                trabajo.setDocumentoId(documentoId);
+                trabajo.setEstado(EstadoTrabajo.COMPLETADO);
+                trabajo.setRutaArchivo(ruta);
+                trabajo.setHuella(huella);
+                trabajoRepository.save(trabajo);
+            }
+            System.out.println("💾 Documento bajo demanda guardado: " + ruta);
+            return true;
+        } catch (Exception e) {
+            escritura.descartar();
+            System.err.println("❌ Error guardando documento bajo demanda " + escritura.getClave() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Clave del PDF de un documento en el almacén (año/mes de creación + prefijo de hash)
+     */
+    private String claveDestino(TipoDocumento tipoDocumento, DocumentoPdf documento) {
+        return almacenDocumentos.generarClave(tipoDocumento, documento.getNombreArchivo(),
+                documento.getFechaDocumento());
+    }
+
+    /**
+     * Registra (o reactiva) el trabajo de generación de un documento
+     * Si ya existía, vuelve a EN_COLA con intentos en cero, sin importar su estado
+     *
+     * Antes de encolar compara la huella de los datos actuales con la del último
+     * PDF completado: si coinciden y el PDF sigue en el almacén, la solicitud se omite.
+     * Ambos casos se cuentan en queenscorner.pdf.huella (resultado=omitido|encolado)
+     *
+     * @param tipoDocumento COTIZACION o FACTURA
+     * @param documentoId ID del documento
+     * @return true si se encoló, false si se omitió por huella sin cambios
+     */
+    private boolean encolar(TipoDocumento tipoDocumento, Long documentoId) {
+        return encolar(tipoDocumento, documentoId,
+                () -> HuellaPdf.calcular(cargarDocumento(tipoDocumento, documentoId)));
+    }
+
+    /**
+     * Registra (o reactiva) el trabajo de un documento con su propia huella de contenido
+     * Lo usan los documentos que no son PDF (ej: FACTURA_UBL) para compartir la cola;
+     * debe llamarse dentro de una transacción
+     * @param tipoDocumento Tipo de documento
+     * @param documentoId ID del documento
+     * @param huellaActual Calcula la huella de los datos actuales (solo si hay un archivo completado)
+     * @return true si se encoló, false si se omitió por huella sin cambios
+     */
+    public boolean encolar(TipoDocumento tipoDocumento, Long documentoId, Supplier<String> huellaActual) {
+        TrabajoDocumentoEntity existente = trabajoRepository
+                .findByTipoDocumentoAndDocumentoId(tipoDocumento, documentoId)
+                .orElse(null);
+        if (existente != null && existente.getEstado() == EstadoTrabajo.COMPLETADO
+                && existente.getHuella() != null
+                && almacenDocumentos.existe(existente.getRutaArchivo())
+                && existente.getHuella().equals(huellaActual.get())) {
+            contarHuella("omitido");
+            return false;
+        }
+        contarHuella("encolado");
+
+        LocalDateTime ahora = LocalDateTime.now();
+        if (existente != null
+                && trabajoRepository.reencolar(tipoDocumento, documentoId, EstadoTrabajo.EN_COLA, ahora) > 0) {
+            return true;
+        }
+        TrabajoDocumentoEntity trabajo = new TrabajoDocumentoEntity();
+        trabajo.setTipoDocumento(tipoDocumento);
+        trabajo.setDocumentoId(documentoId);
+        trabajoRepository.save(trabajo);
+        return true;
+    }
+
+    /**
+     * Cuenta una solicitud de PDF según la comparación de huellas
+     * @param resultado omitido (PDF vigente) o encolado (se renderiza)
+     */
+    private void contarHuella(String resultado) {
+        meterRegistry.counter("queenscorner.pdf.huella", "resultado", resultado).increment();
+    }
+
+    /**
+     * Publica el tiempo de render en el timer queenscorner.pdf.render
+     * @param tipoDocumento Tipo de documento renderizado
+     * @param inicio Marca de System.nanoTime() al iniciar
+     */
+    private void registrarTiempo(TipoDocumento tipoDocumento, long inicio) {
+        Timer.builder("queenscorner.pdf.render")
+                .description("Tiempo de generación de PDF")
+                .tag("tipo", tipoDocumento.name())
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, java.util.concurrent.TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * PDF almacenado de un documento: documento del almacén y huella de contenido
+     * (null para PDFs generados antes de registrar huellas)
+     */
+    public static final class PdfAlmacenado {
+        private final DocumentoAlmacenado documento;
+        private final String huella;
+
+        public PdfAlmacenado(DocumentoAlmacenado documento, String huella) {
+            this.documento = documento;
+            this.huella = huella;
+        }
+
+        public DocumentoAlmacenado getDocumento() { return documento; }
+        public String getHuella() { return huella; }
     }
 }
-  
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.uptc.queenscorner.services.async;
+
+import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.EstadoTrabajo;
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import com.uptc.queenscorner.repositories.ITrabajoDocumentoRepository;
+import com.uptc.queenscorner.services.IFacturaService;
+import com.uptc.queenscorner.services.async.FacturaUblService.XmlGenerado;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import com.uptc.queenscorner.services.pdf.HuellaPdf;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Worker de la cola persistente de documentos (trabajos_documento)
+ *
+ * Ciclo (cada pdf.jobs.intervalo-ms):
+ * 1. Rescata trabajos RENDERIZANDO huérfanos (JVM reiniciada a mitad de render)
+ * 2. Toma un lote de trabajos EN_COLA cuyo backoff ya venció, sin exceder
+ *    la capacidad libre de pdfExecutor
+ * 3. Reclama cada uno con un UPDATE condicional y lo entrega al pool
+ *
+ * Reintentos:
+ * - Backoff exponencial: base * 2^(intentos-1), máximo 1 hora
+ * - Tras pdf.jobs.max-intentos fallos el trabajo queda FALLIDO
+ * - Si el documento ya no existe se marca FALLIDO sin reintentar
+ *
+ * Los trabajos FACTURA_UBL (XML de la factura electrónica) pasan por la misma
+ * cola y el mismo pool; los genera FacturaUblService
+ */
+@Component
+public class TrabajoDocumentoWorker {
+
+    private static final long BACKOFF_MAXIMO_SEGUNDOS = 3600;
+
+    @Autowired
+    private ITrabajoDocumentoRepository trabajoRepository;
+
+    @Autowired
+    private IFacturaService facturaService;
+
+    @Autowired
+    private PdfAsyncService pdfAsyncService;
+
+    @Autowired
+    private FacturaUblService facturaUblService;
+
+    @Autowired
+    @Qualifier("pdfExecutor")
+    private ThreadPoolTaskExecutor pdfExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pdf.jobs.lote:10}")
+    private int tamanoLote;
+
+    @Value("${pdf.jobs.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${pdf.jobs.backoff-base-segundos:10}")
+    private long backoffBaseSegundos;
+
+    @Value("${pdf.jobs.timeout-minutos:10}")
+    private long timeoutMinutos;
+
+    /**
+     * Reclama un lote de trabajos pendientes y los entrega al pool de PDFs
+     */
+    @Scheduled(fixedDelayString = "${pdf.jobs.intervalo-ms:2000}")
+    public void procesarPendientes() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int rescatados = trabajoRepository.rescatarHuerfanos(EstadoTrabajo.RENDERIZANDO, EstadoTrabajo.EN_COLA,
+                ahora.minusMinutes(timeoutMinutos), ahora);
+        if (rescatados > 0) {
+            System.out.println("♻️ Trabajos de PDF rescatados tras reinicio: " + rescatados);
+        }
+
+        int capacidadLibre = pdfExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        int lote = Math.min(tamanoLote, capacidadLibre);
+        if (lote <= 0) {
+            return;
+        }
+
+        List<TrabajoDocumentoEntity> candidatos = trabajoRepository
+                .findByEstadoAndProximoIntentoLessThanEqualOrderByProximoIntentoAsc(
+                        EstadoTrabajo.EN_COLA, ahora, PageRequest.of(0, lote));
+
+        for (TrabajoDocumentoEntity trabajo : candidatos) {
+            if (trabajoRepository.reclamar(trabajo.getId(), EstadoTrabajo.EN_COLA,
+                    EstadoTrabajo.RENDERIZANDO, LocalDateTime.now()) == 0) {
+                continue;
+            }
+            try {
+                pdfExecutor.execute(() -> ejecutar(trabajo));
+            } catch (RejectedExecutionException e) {
+                // Pool saturado: el trabajo vuelve a la cola y se intenta en el próximo ciclo
+                LocalDateTime momento = LocalDateTime.now();
+                trabajoRepository.devolverACola(trabajo.getId(), EstadoTrabajo.RENDERIZANDO,
+                        EstadoTrabajo.EN_COLA, momento, momento);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Genera el documento de un trabajo reclamado y registra el resultado
+     * @param trabajo Trabajo en estado RENDERIZANDO
+     */
+    private void ejecutar(TrabajoDocumentoEntity trabajo) {
+        if (trabajo.getTipoDocumento() == TipoDocumento.FACTURA_UBL) {
+            ejecutarUbl(trabajo);
+            return;
+        }
+        try {
+            DocumentoPdf documento = pdfAsyncService.construirDocumento(trabajo.getTipoDocumento(),
+                    trabajo.getDocumentoId());
+            String ruta = pdfAsyncService.renderizarYGuardar(trabajo.getTipoDocumento(), documento);
+            if (trabajo.getTipoDocumento() == TipoDocumento.FACTURA) {
+                facturaService.registrarPdf(trabajo.getDocumentoId(), ruta);
+            }
+            // La huella guardada permite omitir la próxima solicitud si los datos no cambian
+            trabajoRepository.marcarCompletado(trabajo.getId(), ruta, HuellaPdf.calcular(documento),
+                    EstadoTrabajo.RENDERIZANDO, EstadoTrabajo.COMPLETADO, LocalDateTime.now());
+            contarResultado("completado");
+        } catch (Exception e) {
+            registrarFallo(trabajo, e);
+        }
+    }
+
+    /**
+     * Genera el XML de la factura electrónica de un trabajo reclamado
+     * Mismos reintentos que un PDF; la huella es la del XML escrito
+     * @param trabajo Trabajo FACTURA_UBL en estado RENDERIZANDO
+     */
+    private void ejecutarUbl(TrabajoDocumentoEntity trabajo) {
+        try {
+            XmlGenerado xml = facturaUblService.generarYGuardar(
+                    facturaUblService.construirFactura(trabajo.getDocumentoId()));
+            trabajoRepository.marcarCompletado(trabajo.getId(), xml.getClave(), xml.getHuella(),
+                    EstadoTrabajo.RENDERIZANDO, EstadoTrabajo.COMPLETADO, LocalDateTime.now());
+            contarResultado("completado");
+        } catch (Exception e) {
+            registrarFallo(trabajo, e);
+        }
+    }
+
+    /**
+     * Registra un intento fallido con backoff exponencial o lo marca FALLIDO
+     * @param trabajo Trabajo que falló
+     * @param error Causa del fallo
+     */
+    private void registrarFallo(TrabajoDocumentoEntity trabajo, Exception error) {
+        int intentos = trabajo.getIntentos() + 1;
+        boolean definitivo = intentos >= maxIntentos || error instanceof ResourceNotFoundException;
+        LocalDateTime ahora = LocalDateTime.now();
+        long espera = Math.min(BACKOFF_MAXIMO_SEGUNDOS,
+                backoffBaseSegundos * (1L << Math.min(intentos - 1, 20)));
+        String mensaje = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (mensaje.length() > 1000) {
+            mensaje = mensaje.substring(0, 1000);
+        }
+
+        trabajoRepository.registrarFallo(trabajo.getId(), EstadoTrabajo.RENDERIZANDO,
+                definitivo ? EstadoTrabajo.FALLIDO : EstadoTrabajo.EN_COLA, intentos, mensaje,
+                definitivo ? ahora : ahora.plusSeconds(espera), ahora);
+        contarResultado(definitivo ? "fallido" : "reintento");
+        System.err.println("❌ Error generando " + trabajo.getTipoDocumento() + " " + trabajo.getDocumentoId()
+                + " (intento " + intentos + "): " + mensaje);
+    }
+
+    private void contarResultado(String resultado) {
+        meterRegistry.counter("queenscorner.pdf.jobs", "resultado", resultado).increment();
+    }
+}
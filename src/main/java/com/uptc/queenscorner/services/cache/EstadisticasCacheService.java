@@ -0,0 +1,169 @@
+package com.uptc.queenscorner.services.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
+import com.uptc.queenscorner.models.dtos.responses.ClaveCacheResponse;
+import com.uptc.queenscorner.models.dtos.responses.EstadisticasCacheResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estadísticas y diagnóstico de las cachés de servicios
+ *
+ * Actuator ya publica por caché las métricas cache.gets (hit/miss), cache.puts,
+ * cache.evictions y cache.size. Este servicio registra además:
+ * - queenscorner.cache.tasa_aciertos{cache}: aciertos / lecturas
+ * - queenscorner.cache.cargas{cache}: cargas hechas por la propia caché y su duración
+ * - queenscorner.cache.peso{cache}: bytes estimados ocupados (cachés con maximumWeight)
+ * - queenscorner.cache.limite{cache}: maximumWeight o maximumSize
+ * Los desalojos por causa los cuenta ContadorEstadisticasCache
+ * (queenscorner.cache.desalojos{cache, causa}).
+ *
+ * Para /api/admin/caches arma una foto de cada caché con sus claves más usadas
+ * (según la política de desalojo de Caffeine) y permite desalojar una clave.
+ */
+@Service
+public class EstadisticasCacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void registrarMetricas() {
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache<Object, Object> cache = cache(nombre);
+            Gauge.builder("queenscorner.cache.tasa_aciertos", cache, c -> c.stats().hitRate())
+                    .description("Fracción de lecturas de la caché resueltas sin ir a la base de datos")
+                    .tag("cache", nombre)
+                    .register(meterRegistry);
+            FunctionTimer.builder("queenscorner.cache.cargas", cache,
+                            c -> c.stats().loadCount(), c -> c.stats().totalLoadTime(), TimeUnit.NANOSECONDS)
+                    .description("Cargas de valores hechas por la caché")
+                    .tag("cache", nombre)
+                    .register(meterRegistry);
+            cache.policy().eviction().ifPresent(desalojo -> {
+                if (desalojo.isWeighted()) {
+                    Gauge.builder("queenscorner.cache.peso", desalojo, d -> d.weightedSize().orElse(0))
+                            .description("Bytes estimados ocupados por la caché")
+                            .baseUnit("bytes")
+                            .tag("cache", nombre)
+                            .register(meterRegistry);
+                }
+                Gauge.builder("queenscorner.cache.limite", desalojo, Policy.Eviction::getMaximum)
+                        .description("Límite de la caché: bytes estimados (maximumWeight) o entradas (maximumSize)")
+                        .tag("cache", nombre)
+                        .register(meterRegistry);
+            });
+        }
+    }
+
+    /**
+     * Foto de todas las cachés
+     * @param claves Número de claves más usadas a incluir por caché
+     * @return Estadísticas por caché, en orden alfabético
+     */
+    public List<EstadisticasCacheResponse> obtenerEstadisticas(int claves) {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(nombre -> obtenerEstadisticas(nombre, claves))
+                .toList();
+    }
+
+    /**
+     * Foto de una caché
+     * @param nombre Nombre de la caché
+     * @param claves Número de claves más usadas a incluir
+     * @return Estadísticas de la caché
+     * @throws ResourceNotFoundException si la caché no existe
+     */
+    public EstadisticasCacheResponse obtenerEstadisticas(String nombre, int claves) {
+        Cache<Object, Object> cache = cache(nombre);
+        CacheStats stats = cache.stats();
+
+        EstadisticasCacheResponse respuesta = new EstadisticasCacheResponse();
+        respuesta.setNombre(nombre);
+        respuesta.setEntradas(cache.estimatedSize());
+        respuesta.setAciertos(stats.hitCount());
+        respuesta.setFallos(stats.missCount());
+        respuesta.setTasaAciertos(stats.hitRate());
+        respuesta.setCargas(stats.loadCount());
+        respuesta.setTiempoPromedioCargaMs(stats.averageLoadPenalty() / 1_000_000.0);
+        respuesta.setDesalojos(stats.evictionCount());
+        for (Counter contador : meterRegistry.find("queenscorner.cache.desalojos").tag("cache", nombre).counters()) {
+            respuesta.getDesalojosPorCausa().put(contador.getId().getTag("causa"), (long) contador.count());
+        }
+
+        Optional<Policy.Eviction<Object, Object>> desalojo = cache.policy().eviction();
+        desalojo.ifPresent(d -> {
+            respuesta.setLimite(d.getMaximum());
+            if (d.isWeighted()) {
+                respuesta.setPesoEstimado(d.weightedSize().orElse(0));
+            }
+        });
+        if (claves > 0) {
+            Map<Object, Object> masUsadas = desalojo.map(d -> d.hottest(claves)).orElse(Map.of());
+            List<ClaveCacheResponse> entradas = new ArrayList<>();
+            masUsadas.forEach((clave, valor) -> entradas.add(describir(cache, desalojo, clave, valor)));
+            respuesta.setClavesMasUsadas(entradas);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Desaloja una sola clave de una caché
+     * La clave se compara por su texto: "all", "allActive", "15", "CLIENTE:3:cliente"
+     * @param nombre Nombre de la caché
+     * @param clave Clave en texto
+     * @throws ResourceNotFoundException si la caché o la clave no existen
+     */
+    public void desalojar(String nombre, String clave) {
+        Cache<Object, Object> cache = cache(nombre);
+        Object encontrada = cache.asMap().keySet().stream()
+                .filter(k -> String.valueOf(k).equals(clave))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Clave no encontrada en la caché " + nombre + ": " + clave));
+        cache.invalidate(encontrada);
+        System.out.println("🧹 Clave desalojada de la caché " + nombre + ": " + clave);
+    }
+
+    private ClaveCacheResponse describir(Cache<Object, Object> cache, Optional<Policy.Eviction<Object, Object>> desalojo,
+                                         Object clave, Object valor) {
+        Integer peso = desalojo.filter(Policy.Eviction::isWeighted)
+                .flatMap(d -> {
+                    var pesoClave = d.weightOf(clave);
+                    return pesoClave.isPresent() ? Optional.of(pesoClave.getAsInt()) : Optional.empty();
+                })
+                .orElse(null);
+        Long edad = cache.policy().expireAfterWrite()
+                .flatMap(expiracion -> expiracion.ageOf(clave))
+                .map(Duration::toSeconds)
+                .orElse(null);
+        return new ClaveCacheResponse(String.valueOf(clave), valor.getClass().getSimpleName(), peso, edad);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> cache(String nombre) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(nombre);
+        if (cache == null) {
+            throw new ResourceNotFoundException("Caché no encontrada: " + nombre);
+        }
+        return (Cache<Object, Object>) cache.getNativeCache();
+    }
+}
@@ -0,0 +1,91 @@
+package com.uptc.queenscorner.services.cache;
+
+import com.uptc.queenscorner.config.RegionesCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.function.ToLongFunction;
+
+/**
+ * Métricas por región de la caché de segundo nivel de Hibernate
+ *
+ * Con hibernate.generate_statistics=true publica, para cada región de
+ * entidades, colecciones y consultas (RegionesCache):
+ * - queenscorner.hibernate.cache.solicitudes{region, resultado=acierto|fallo}
+ * - queenscorner.hibernate.cache.escrituras{region}
+ * - queenscorner.hibernate.cache.tasa_aciertos{region}
+ *
+ * Hibernate crea las regiones de consultas al primer uso; aquí se crean al
+ * arrancar para que sus métricas existan desde el principio.
+ */
+@Service
+public class EstadisticasSegundoNivelService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void registrarMetricas() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics estadisticas = sessionFactory.getStatistics();
+        if (!estadisticas.isStatisticsEnabled()) {
+            System.out.println("⚠️ Caché de segundo nivel sin métricas: hibernate.generate_statistics=false");
+            return;
+        }
+        if (sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()) {
+            RegionesCache.CONSULTAS.forEach(region -> sessionFactory.getCache().getQueryResultsCache(region));
+        }
+
+        for (String region : estadisticas.getSecondLevelCacheRegionNames()) {
+            if (estadisticas.getCacheRegionStatistics(region) == null) {
+                continue;
+            }
+            FunctionCounter.builder("queenscorner.hibernate.cache.solicitudes", estadisticas,
+                            e -> valor(e, region, CacheRegionStatistics::getHitCount))
+                    .description("Lecturas de la región resueltas en memoria o en la base de datos")
+                    .tag("region", region)
+                    .tag("resultado", "acierto")
+                    .register(meterRegistry);
+            FunctionCounter.builder("queenscorner.hibernate.cache.solicitudes", estadisticas,
+                            e -> valor(e, region, CacheRegionStatistics::getMissCount))
+                    .description("Lecturas de la región resueltas en memoria o en la base de datos")
+                    .tag("region", region)
+                    .tag("resultado", "fallo")
+                    .register(meterRegistry);
+            FunctionCounter.builder("queenscorner.hibernate.cache.escrituras", estadisticas,
+                            e -> valor(e, region, CacheRegionStatistics::getPutCount))
+                    .description("Entradas guardadas en la región")
+                    .tag("region", region)
+                    .register(meterRegistry);
+            Gauge.builder("queenscorner.hibernate.cache.tasa_aciertos", estadisticas, e -> tasaAciertos(e, region))
+                    .description("Fracción de lecturas de la región resueltas sin ir a la base de datos")
+                    .tag("region", region)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Valor de una estadística de la región; se busca en cada lectura porque
+     * Statistics.clear() reemplaza las estadísticas de cada región
+     */
+    private static double valor(Statistics estadisticas, String region, ToLongFunction<CacheRegionStatistics> campo) {
+        CacheRegionStatistics estadisticasRegion = estadisticas.getCacheRegionStatistics(region);
+        return estadisticasRegion == null ? 0 : campo.applyAsLong(estadisticasRegion);
+    }
+
+    private static double tasaAciertos(Statistics estadisticas, String region) {
+        double aciertos = valor(estadisticas, region, CacheRegionStatistics::getHitCount);
+        double lecturas = aciertos + valor(estadisticas, region, CacheRegionStatistics::getMissCount);
+        return lecturas == 0 ? 0.0 : aciertos / lecturas;
+    }
+}
@@ -0,0 +1,239 @@
+package com.uptc.queenscorner.services.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de fragmentos de respuesta con índice de dependencias
+ *
+ * Las respuestas embeben otras: un negocio incluye su cotización completa
+ * (con items) y su cliente; una factura, el resumen de su negocio con el
+ * cliente. Cada fragmento se arma una sola vez, se guarda en la caché
+ * 'fragmentos' (clave "<entidad>:<id>:<vista>") y se reutiliza en todas las
+ * respuestas que lo contienen.
+ *
+ * Al componer, los mappers registran quién embebe a quién (ej: NEGOCIO 3 →
+ * COTIZACION 7, NEGOCIO 3 → CLIENTE 2). Cuando un servicio informa un cambio
+ * (cambio(CLIENTE, 2)):
+ * 1. Se recorren los dependientes de forma transitiva (cotizaciones y negocios
+ *    del cliente, y las facturas de esos negocios)
+ * 2. Se descartan los fragmentos del registro cambiado y de sus dependientes
+ * 3. Cada dependiente se recompone con su RecomposicionCache: solo esas
+ *    respuestas se reemplazan en las cachés de servicio
+ *
+ * Dentro de una transacción el cambio se propaga después del commit.
+ *
+ * Cada registro lleva un número de generación que sube al descartar sus
+ * fragmentos. componer() lo lee antes de armar el fragmento y no lo guarda si
+ * cambió mientras tanto: así un fragmento armado con datos anteriores al
+ * cambio no vuelve a la caché después de que propagar() lo descartó.
+ *
+ * Métrica: queenscorner.cache.fragmentos.recompuestos{entidad}
+ */
+@Service
+public class FragmentosCacheService {
+
+    public static final String CACHE = "fragmentos";
+
+    /**
+     * Entidades que participan en respuestas compuestas
+     */
+    public enum Entidad {
+        CLIENTE, COTIZACION, NEGOCIO, FACTURA
+    }
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectProvider<RecomposicionCache> recomposiciones;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Dependientes de cada registro: CLIENTE 2 → {COTIZACION 7, NEGOCIO 3} */
+    private final Map<Nodo, Set<Nodo>> dependientes = new ConcurrentHashMap<>();
+
+    /** Generación de los fragmentos de cada registro (sube en cada descarte) */
+    private final Map<Nodo, AtomicLong> generaciones = new ConcurrentHashMap<>();
+
+    /** Vistas cacheadas de cada entidad (ej: CLIENTE → cliente) */
+    private final Map<Entidad, Set<String>> vistas = new ConcurrentHashMap<>();
+
+    private Cache<Object, Object> fragmentos;
+
+    @PostConstruct
+    public void inicializar() {
+        org.springframework.cache.Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            throw new IllegalStateException("Caché no configurada: " + CACHE + " (spring.cache.cache-names)");
+        }
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> nativa = (Cache<Object, Object>) cache.getNativeCache();
+        fragmentos = nativa;
+    }
+
+    /**
+     * Obtiene el fragmento de un registro para embeberlo en otra respuesta,
+     * armándolo si no está en caché, y registra la dependencia
+     * @param padre Entidad de la respuesta que embebe el fragmento
+     * @param padreId ID de esa respuesta (null si aún no se ha guardado)
+     * @param entidad Entidad del fragmento
+     * @param id ID del registro del fragmento (null: se arma sin caché)
+     * @param vista Nombre de la vista (una entidad puede tener varias, ej: "cliente")
+     * @param construir Cómo armar el fragmento
+     * @return Fragmento
+     */
+    public <T> T componer(Entidad padre, Long padreId, Entidad entidad, Long id, String vista, Supplier<T> construir) {
+        if (id == null) {
+            return construir.get();
+        }
+        registrar(padre, padreId, entidad, id);
+        vistas.computeIfAbsent(entidad, e -> ConcurrentHashMap.newKeySet()).add(vista);
+
+        String clave = clave(entidad, id, vista);
+        @SuppressWarnings("unchecked")
+        T fragmento = (T) fragmentos.getIfPresent(clave);
+        if (fragmento == null) {
+            AtomicLong generacion = generacion(new Nodo(entidad, id));
+            long leida = generacion.get();
+            // Sin cómputo atómico: el armado puede pedir a su vez otros fragmentos
+            fragmento = construir.get();
+            if (fragmento != null && generacion.get() == leida) {
+                fragmentos.put(clave, fragmento);
+                // Un descarte entre la comprobación y el put pudo llegar antes que el put
+                if (generacion.get() != leida) {
+                    fragmentos.asMap().remove(clave, fragmento);
+                }
+            }
+        }
+        return fragmento;
+    }
+
+    /**
+     * Registra que la respuesta de un registro embebe datos de otro
+     * (para datos que se copian sin pasar por un fragmento cacheado)
+     */
+    public void registrar(Entidad padre, Long padreId, Entidad entidad, Long id) {
+        if (padreId == null || id == null) {
+            return;
+        }
+        dependientes.computeIfAbsent(new Nodo(entidad, id), n -> ConcurrentHashMap.newKeySet())
+                .add(new Nodo(padre, padreId));
+    }
+
+    /**
+     * Informa que un registro cambió: descarta sus fragmentos y recompone
+     * las respuestas cacheadas que lo embeben
+     * @param entidad Entidad del registro
+     * @param id ID del registro
+     */
+    public void cambio(Entidad entidad, Long id) {
+        MantenimientoCacheService.alConfirmar(() -> propagar(new Nodo(entidad, id)));
+    }
+
+    /**
+     * Informa que un registro se eliminó: como cambio(), y además lo saca del índice
+     */
+    public void eliminado(Entidad entidad, Long id) {
+        MantenimientoCacheService.alConfirmar(() -> {
+            propagar(new Nodo(entidad, id));
+            dependientes.remove(new Nodo(entidad, id));
+        });
+    }
+
+    private void propagar(Nodo origen) {
+        Set<Nodo> afectados = new LinkedHashSet<>();
+        Deque<Nodo> pendientes = new ArrayDeque<>();
+        pendientes.add(origen);
+        while (!pendientes.isEmpty()) {
+            for (Nodo dependiente : dependientes.getOrDefault(pendientes.poll(), Set.of())) {
+                if (!dependiente.equals(origen) && afectados.add(dependiente)) {
+                    pendientes.add(dependiente);
+                }
+            }
+        }
+
+        // Primero se descartan todos los fragmentos: al recomponer se arman de nuevo desde la BD
+        descartarFragmentos(origen);
+        afectados.forEach(this::descartarFragmentos);
+
+        Map<Entidad, RecomposicionCache> porEntidad = new EnumMap<>(Entidad.class);
+        recomposiciones.orderedStream().forEach(r -> porEntidad.put(r.getEntidad(), r));
+        for (Nodo afectado : afectados) {
+            RecomposicionCache recomposicion = porEntidad.get(afectado.entidad);
+            if (recomposicion == null) {
+                continue;
+            }
+            try {
+                recomposicion.recomponer(afectado.id);
+                meterRegistry.counter("queenscorner.cache.fragmentos.recompuestos",
+                        "entidad", afectado.entidad.name()).increment();
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ No se pudo recomponer " + afectado + " en caché: " + e.getMessage());
+            }
+        }
+        if (!afectados.isEmpty()) {
+            System.out.println("🧩 Cambio en " + origen + ": " + afectados.size() + " respuestas recompuestas");
+        }
+    }
+
+    private void descartarFragmentos(Nodo nodo) {
+        // Antes de invalidar: un componer() en curso ya no guardará lo que armó
+        generacion(nodo).incrementAndGet();
+        for (String vista : vistas.getOrDefault(nodo.entidad, Set.of())) {
+            fragmentos.invalidate(clave(nodo.entidad, nodo.id, vista));
+        }
+    }
+
+    private AtomicLong generacion(Nodo nodo) {
+        return generaciones.computeIfAbsent(nodo, n -> new AtomicLong());
+    }
+
+    private static String clave(Entidad entidad, Long id, String vista) {
+        return entidad.name() + ":" + id + ":" + vista;
+    }
+
+    /**
+     * Registro en el índice de dependencias
+     */
+    private static final class Nodo {
+        private final Entidad entidad;
+        private final Long id;
+
+        private Nodo(Entidad entidad, Long id) {
+            this.entidad = entidad;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof Nodo nodo && entidad == nodo.entidad && id.equals(nodo.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entidad, id);
+        }
+
+        @Override
+        public String toString() {
+            return entidad + " " + id;
+        }
+    }
+}
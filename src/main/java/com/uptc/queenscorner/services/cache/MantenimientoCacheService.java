@@ -0,0 +1,168 @@
+package com.uptc.queenscorner.services.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Mantenimiento puntual de las cachés de servicios
+ *
+ * Las escrituras de los servicios ya no vacían la caché completa; solo tocan
+ * lo que cambió:
+ * - La entrada por ID se reemplaza (o se elimina)
+ * - Las listas cacheadas ('all', 'allActive') se corrigen en su lugar:
+ *   se reemplaza, agrega o quita un elemento
+ *
+ * Una lista se corrige sobre una copia que reemplaza a la anterior de forma
+ * atómica (computeIfPresent): quien ya leyó la lista no la ve cambiar y el peso
+ * de la entrada se recalcula. Si la lista no está en caché no se hace nada; la
+ * próxima lectura la carga completa.
+ *
+ * Dentro de una transacción los cambios se aplican después del commit: si la
+ * transacción se revierte, la caché no refleja datos que nunca se guardaron.
+ *
+ * Cada cambio descarta también las respuestas serializadas que dependen de esa
+ * caché (RespuestasCacheService).
+ *
+ * Métrica: queenscorner.cache.listas{cache, operacion} (listas corregidas)
+ */
+@Service
+public class MantenimientoCacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RespuestasCacheService respuestas;
+
+    /**
+     * Guarda el valor actual de una clave (ej: el DTO recién actualizado por ID)
+     * @param cache Nombre de la caché
+     * @param clave Clave de la entrada
+     * @param valor Valor actualizado
+     */
+    public void guardar(String cache, Object clave, Object valor) {
+        alConfirmar(() -> {
+            cache(cache).put(clave, valor);
+            respuestas.invalidar(cache);
+        });
+    }
+
+    /**
+     * Elimina una sola clave
+     * @param cache Nombre de la caché
+     * @param clave Clave de la entrada
+     */
+    public void invalidar(String cache, Object clave) {
+        alConfirmar(() -> {
+            cache(cache).invalidate(clave);
+            respuestas.invalidar(cache);
+        });
+    }
+
+    /**
+     * Reemplaza en una lista cacheada el elemento con el mismo ID, o lo agrega al final
+     * @param cache Nombre de la caché
+     * @param claveLista Clave de la lista (ej: "all")
+     * @param elemento Elemento nuevo o actualizado
+     * @param id Cómo obtener el ID de un elemento
+     */
+    public <T> void reemplazarEnLista(String cache, Object claveLista, T elemento, Function<T, Long> id) {
+        Long idElemento = id.apply(elemento);
+        this.<T>corregirLista(cache, claveLista, "reemplazar", lista -> {
+            for (int i = 0; i < lista.size(); i++) {
+                if (Objects.equals(id.apply(lista.get(i)), idElemento)) {
+                    lista.set(i, elemento);
+                    return;
+                }
+            }
+            lista.add(elemento);
+        });
+    }
+
+    /**
+     * true si la caché tiene alguna de las claves (ej: el ID o la lista 'all')
+     * @param cache Nombre de la caché
+     * @param claves Claves a consultar
+     */
+    public boolean contieneAlguna(String cache, Object... claves) {
+        Cache<Object, Object> nativa = cache(cache);
+        for (Object clave : claves) {
+            if (nativa.asMap().containsKey(clave)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Quita de una lista cacheada el elemento con un ID
+     * @param cache Nombre de la caché
+     * @param claveLista Clave de la lista (ej: "allActive")
+     * @param idElemento ID del elemento a quitar
+     * @param id Cómo obtener el ID de un elemento
+     */
+    public <T> void removerDeLista(String cache, Object claveLista, Long idElemento, Function<T, Long> id) {
+        this.<T>corregirLista(cache, claveLista, "remover",
+                lista -> lista.removeIf(elemento -> Objects.equals(id.apply(elemento), idElemento)));
+    }
+
+    /**
+     * Aplica un cambio a una copia de la lista y la deja en lugar de la anterior
+     */
+    @SuppressWarnings("unchecked")
+    private <T> void corregirLista(String cache, Object claveLista, String operacion,
+                                   Consumer<List<T>> cambio) {
+        alConfirmar(() -> {
+            Object resultado = cache(cache).asMap().computeIfPresent(claveLista, (clave, actual) -> {
+                if (!(actual instanceof List<?>)) {
+                    return actual;
+                }
+                List<T> copia = new ArrayList<>((List<T>) actual);
+                cambio.accept(copia);
+                return copia;
+            });
+            if (resultado != null) {
+                respuestas.invalidar(cache);
+                meterRegistry.counter("queenscorner.cache.listas", "cache", cache, "operacion", operacion).increment();
+            }
+        });
+    }
+
+    /**
+     * Ejecuta el cambio tras el commit de la transacción actual, o de inmediato si no hay
+     */
+    static void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> cache(String nombre) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(nombre);
+        if (cache == null) {
+            throw new IllegalArgumentException("Caché no configurada: " + nombre);
+        }
+        return (Cache<Object, Object>) cache.getNativeCache();
+    }
+}
@@ -0,0 +1,84 @@
+package com.uptc.queenscorner.services.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.uptc.queenscorner.config.RecargaCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Precarga de las cachés de listas al arrancar
+ *
+ * Carga las claves de cada RecargaCache (getClavesPrecarga, ej: 'all') antes
+ * de atender tráfico: Spring Boot ejecuta los ApplicationRunner antes de
+ * publicar ReadinessState.ACCEPTING_TRAFFIC, así /actuator/health/readiness
+ * sigue en OUT_OF_SERVICE hasta que las listas están en memoria y la primera
+ * petición no paga el findAll().
+ *
+ * Las listas se cargan una tras otra: las de negocios reutilizan los
+ * fragmentos que dejan las de cotizaciones. Si una falla se registra y se
+ * sigue con las demás; esa lista se cargará en la primera lectura.
+ *
+ * Se desactiva con cache.precarga.habilitada=false.
+ */
+@Service
+public class PrecargaCacheService implements ApplicationRunner {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectProvider<RecargaCache> recargas;
+
+    @Value("${cache.precarga.habilitada:true}")
+    private boolean habilitada;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!habilitada) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        int cargadas = 0;
+        for (RecargaCache recarga : recargas.orderedStream().toList()) {
+            Cache cache = cacheManager.getCache(recarga.getNombreCache());
+            if (cache == null) {
+                continue;
+            }
+            for (Object clave : recarga.getClavesPrecarga()) {
+                try {
+                    if (precargar(cache, recarga, clave)) {
+                        cargadas++;
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("⚠️ Precarga de '" + recarga.getNombreCache() + "'/" + clave
+                            + " fallida: " + e.getMessage());
+                }
+            }
+        }
+        System.out.println("🔥 Cachés precargadas: " + cargadas + " listas en "
+                + (System.currentTimeMillis() - inicio) + " ms");
+    }
+
+    /**
+     * Carga una clave; con refreshAfterWrite a través de la propia caché (cuenta como carga)
+     */
+    private boolean precargar(Cache cache, RecargaCache recarga, Object clave) {
+        if (cache.getNativeCache() instanceof LoadingCache<?, ?> cargable) {
+            @SuppressWarnings("unchecked")
+            LoadingCache<Object, Object> nativa = (LoadingCache<Object, Object>) cargable;
+            return nativa.get(clave) != null;
+        }
+        Object valor = recarga.recargar(clave);
+        if (valor == null) {
+            return false;
+        }
+        cache.put(clave, valor);
+        return true;
+    }
+}
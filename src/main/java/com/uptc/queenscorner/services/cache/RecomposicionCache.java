@@ -0,0 +1,26 @@
+package com.uptc.queenscorner.services.cache;
+
+import com.uptc.queenscorner.services.cache.FragmentosCacheService.Entidad;
+
+/**
+ * Recomposición de las respuestas cacheadas de una entidad
+ *
+ * La implementa el servicio dueño de la caché de esa entidad. FragmentosCacheService
+ * la invoca cuando cambia un fragmento que la respuesta embebe (ej: el cliente
+ * de una cotización): la respuesta se vuelve a armar desde la BD y reemplaza a la
+ * cacheada (por ID y dentro de la lista), sin tocar las demás.
+ */
+public interface RecomposicionCache {
+
+    /**
+     * @return Entidad cuyas respuestas recompone
+     */
+    Entidad getEntidad();
+
+    /**
+     * Recompone las respuestas cacheadas de un registro
+     * Si no hay nada en caché no hace nada; si el registro ya no existe lo quita
+     * @param id ID del registro
+     */
+    void recomponer(Long id);
+}
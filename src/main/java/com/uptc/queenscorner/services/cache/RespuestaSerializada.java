@@ -0,0 +1,41 @@
+package com.uptc.queenscorner.services.cache;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Respuesta JSON ya codificada, lista para escribirse tal cual en el socket
+ *
+ * Guarda los bytes del envelope (ApiResponse) y, si vale la pena, su versión
+ * gzip. Recuerda de qué lista se serializó (referencia débil): si el servicio
+ * devuelve otra instancia, los bytes ya no corresponden y se vuelven a generar.
+ */
+public final class RespuestaSerializada {
+
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String etag;
+    private final WeakReference<Object> origen;
+
+    RespuestaSerializada(byte[] json, byte[] gzip, String etag, Object origen) {
+        this.json = json;
+        this.gzip = gzip;
+        this.etag = etag;
+        this.origen = new WeakReference<>(origen);
+    }
+
+    /** @return Bytes del JSON sin comprimir */
+    public byte[] getJson() { return json; }
+
+    /** @return Bytes del JSON comprimido con gzip, o null si es muy pequeño para comprimirlo */
+    public byte[] getGzip() { return gzip; }
+
+    /** @return ETag derivado de los bytes (entre comillas), sin sufijo de codificación */
+    public String getEtag() { return etag; }
+
+    /**
+     * true si los bytes se serializaron a partir de esta misma instancia de datos
+     */
+    boolean serializadaDe(Object datos) {
+        return origen.get() == datos;
+    }
+}
@@ -0,0 +1,147 @@
+package com.uptc.queenscorner.services.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de respuestas JSON ya serializadas para los listados más consultados
+ *
+ * En un acierto de la caché de servicio, GET /api/cotizaciones y
+ * GET /api/negocios igual serializaban toda la lista con Jackson en cada
+ * petición. Aquí se guardan los bytes finales del envelope (ApiResponse),
+ * y su versión gzip, en la caché 'respuestas' con clave
+ * "<caché de servicio>:GET <ruta>" (los listados no usan la query, así que no
+ * forma parte de la clave: ?x=1 no crea otra entrada):
+ * - Acierto: los bytes se escriben directo en la respuesta, sin Jackson
+ * - ETag: SHA-256 de los bytes; If-None-Match responde 304 sin cuerpo
+ * - gzip: se comprime una sola vez al serializar (respuestas.gzip.*)
+ *
+ * Invalidación:
+ * - MantenimientoCacheService informa cada escritura en una caché de servicio
+ *   (las mismas que corrigen las listas) y se descartan las respuestas cuya
+ *   clave empieza por el nombre de esa caché; no hay índice aparte que crezca
+ * - Además cada respuesta recuerda la lista de la que salió: si la caché de
+ *   servicio entrega otra instancia (se corrigió, expiró o se desalojó) los
+ *   bytes se regeneran aunque no haya llegado el aviso
+ *
+ * El timestamp del envelope es el de la serialización, no el de cada petición.
+ *
+ * Métrica: queenscorner.respuestas.cache{resultado=acierto|fallo}
+ */
+@Service
+public class RespuestasCacheService {
+
+    public static final String CACHE = "respuestas";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${respuestas.gzip.habilitado:true}")
+    private boolean gzipHabilitado;
+
+    /** Tamaño mínimo (bytes) para guardar además la versión gzip */
+    @Value("${respuestas.gzip.umbral:1024}")
+    private int umbralGzip;
+
+    private Cache<Object, Object> respuestas;
+
+    @PostConstruct
+    public void inicializar() {
+        org.springframework.cache.Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            throw new IllegalStateException("Caché no configurada: " + CACHE + " (spring.cache.cache-names)");
+        }
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> nativa = (Cache<Object, Object>) cache.getNativeCache();
+        respuestas = nativa;
+    }
+
+    /**
+     * Obtiene la respuesta serializada de un listado, serializándola si no está
+     * en caché o si los datos ya no son los mismos
+     * @param request Petición (de ella sale el endpoint de la clave)
+     * @param cacheServicio Caché de servicio de la que salen los datos (ej: "cotizaciones")
+     * @param datos Datos actuales, tal como los entrega el servicio (cacheados)
+     * @param envelope Cómo armar el ApiResponse con esos datos (solo en un fallo)
+     * @return Bytes listos para escribir
+     */
+    public RespuestaSerializada obtener(HttpServletRequest request, String cacheServicio, Object datos, Supplier<Object> envelope) {
+        String clave = clave(cacheServicio, request);
+        RespuestaSerializada actual = (RespuestaSerializada) respuestas.getIfPresent(clave);
+        if (actual != null && actual.serializadaDe(datos)) {
+            contar("acierto");
+            return actual;
+        }
+        contar("fallo");
+        RespuestaSerializada nueva = serializar(envelope.get(), datos);
+        respuestas.put(clave, nueva);
+        return nueva;
+    }
+
+    /**
+     * Descarta las respuestas que dependen de una caché de servicio
+     * Lo invoca MantenimientoCacheService en cada escritura (ya confirmada)
+     * @param cacheServicio Caché de servicio modificada
+     */
+    public void invalidar(String cacheServicio) {
+        String prefijo = cacheServicio + ":";
+        respuestas.asMap().keySet().removeIf(clave -> clave.toString().startsWith(prefijo));
+    }
+
+    /**
+     * Clave de la respuesta: caché de servicio + endpoint, sin la query
+     * (ej: "cotizaciones:GET /api/cotizaciones")
+     */
+    private static String clave(String cacheServicio, HttpServletRequest request) {
+        return cacheServicio + ":GET " + request.getRequestURI();
+    }
+
+    private RespuestaSerializada serializar(Object envelope, Object datos) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(envelope);
+            byte[] gzip = gzipHabilitado && json.length >= umbralGzip ? comprimir(json) : null;
+            String etag = "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16) + "\"";
+            return new RespuestaSerializada(json, gzip, etag, datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private void contar(String resultado) {
+        meterRegistry.counter("queenscorner.respuestas.cache", "resultado", resultado).increment();
+    }
+}
@@ -1,11 +1,14 @@
 package com.uptc.queenscorner.services.impl;
 
+import com.uptc.queenscorner.models.dtos.responses.EstadisticasCacheResponse;
 import com.uptc.queenscorner.models.dtos.responses.SystemStats;
 import com.uptc.queenscorner.repositories.*;
 import com.uptc.queenscorner.services.IAdminService;
+import com.uptc.queenscorner.services.cache.EstadisticasCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 
 /**
  * Implementación del servicio de administración
@@ -32,6 +35,9 @@ public class AdminServiceImpl implements IAdminService {
     @Autowired
     private ILineaFacturaRepository lineaFacturaRepository;
 
+    @Autowired
+    private EstadisticasCacheService estadisticasCache;
+
     @Override
     @Transactional
     public void cleanAllData() {
@@ -61,4 +67,19 @@ public class AdminServiceImpl implements IAdminService {
             1 // Siempre hay al menos 1 usuario (admin)
         );
     }
+
+    @Override
+    public List<EstadisticasCacheResponse> getCacheStats(int claves) {
+        return estadisticasCache.obtenerEstadisticas(claves);
+    }
+
+    @Override
+    public EstadisticasCacheResponse getCacheStats(String cache, int claves) {
+        return estadisticasCache.obtenerEstadisticas(cache, claves);
+    }
+
+    @Override
+    public void evictCacheKey(String cache, String clave) {
+        estadisticasCache.desalojar(cache, clave);
+    }
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 package com.uptc.queenscorner.services.impl;
 
+import com.uptc.queenscorner.config.RecargaCache;
 import com.uptc.queenscorner.models.dtos.requests.ClienteRequest;
 import com.uptc.queenscorner.models.dtos.responses.ClienteResponse;
 import com.uptc.queenscorner.models.entities.ClienteEntity;
 import com.uptc.queenscorner.models.mappers.ClienteMapper;
 import com.uptc.queenscorner.repositories.IClienteRepository;
 import com.uptc.queenscorner.services.IClienteService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService.Entidad;
+import com.uptc.queenscorner.services.cache.MantenimientoCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,16 +27,21 @@ import java.util.stream.Collectors;
  * - Coordinar con repository y mapper
  * 
  * Estrategia de Caché:
- * - findAllActive(): Caché compartida bajo clave 'allActive' (cache invalidation: ALWAYS)
- * - findById(): Caché individual por ID (cache invalidation: ON CREATE/UPDATE/DELETE)
- * - create/update/delete: Invalidan TODO el cache de clientes al modificar
+ * - findAllActive(): Caché compartida bajo clave 'allActive'
+ * - findById(): Caché individual por ID
+ * - create/update/delete: Solo tocan el cliente modificado (MantenimientoCacheService):
+ *   reemplazan o eliminan su entrada por ID y lo agregan, reemplazan o quitan
+ *   de la lista 'allActive' sin descartarla
+ * - update/delete: además recomponen las cotizaciones, negocios y facturas
+ *   cacheados que embeben al cliente (FragmentosCacheService)
+ * - 'allActive' se recarga en segundo plano y se precarga al arrancar (RecargaCache)
  * 
  * Patrón de Eliminación:
  * - Eliminación LÓGICA: setActivo(false) en lugar de eliminar registros
  * - Preserva historial y referencias de negocio
  */
 @Service
-public class ClienteServiceImpl implements IClienteService {
+public class ClienteServiceImpl implements IClienteService, RecargaCache {
 
     @Autowired
     private IClienteRepository clienteRepository;
@@ -40,6 +49,12 @@ public class ClienteServiceImpl implements IClienteService {
     @Autowired
     private ClienteMapper clienteMapper;
 
+    @Autowired
+    private MantenimientoCacheService mantenimientoCache;
+
+    @Autowired
+    private FragmentosCacheService fragmentos;
+
     /**
      * Obtiene todos los clientes activos del sistema.
      * 
@@ -50,12 +65,14 @@ public class ClienteServiceImpl implements IClienteService {
      * 
      * Caché:
      * - Clave: 'allActive' (estática para esta operación)
-     * - Se invalida cuando se crea/actualiza/elimina cualquier cliente
+     * - Se corrige en su lugar cuando se crea/actualiza/elimina un cliente
+     * - Se recarga en segundo plano antes de expirar y se precarga al arrancar (recargar)
+     * - sync: con la caché vacía, las peticiones simultáneas esperan una sola consulta
      * 
      * @return Lista de DTOs de clientes activos, nunca null (puede ser vacía)
      */
     @Override
-    @Cacheable(value = "clientes", key = "'allActive'")
+    @Cacheable(value = "clientes", key = "'allActive'", sync = true)
     public List<ClienteResponse> findAllActive() {
         return clienteRepository.findByActivoTrue().stream()
                 .map(clienteMapper::toResponse)
@@ -71,14 +88,14 @@ public class ClienteServiceImpl implements IClienteService {
      * 
      * Caché:
      * - Clave: ID del cliente (cada cliente cachea independientemente)
-     * - Se invalida cuando se actualiza ese cliente específicamente
+     * - Se reemplaza cuando se actualiza ese cliente y se elimina al desactivarlo
      * 
      * @param id Identificador único del cliente
      * @return DTO con datos del cliente
      * @throws RuntimeException si el cliente no existe o está inactivo
      */
     @Override
-    @Cacheable(value = "clientes", key = "#id")
+    @Cacheable(value = "clientes", key = "#id", sync = true)
     public ClienteResponse findById(Long id) {
         ClienteEntity cliente = clienteRepository.findByIdAndActivoTrue(id)
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
@@ -92,7 +109,7 @@ public class ClienteServiceImpl implements IClienteService {
      * 1. Mapea ClienteRequest → ClienteEntity
      * 2. Persiste en BD (ID generado automáticamente)
      * 3. Mapea ClienteEntity → ClienteResponse
-     * 4. Invalida TODO el caché (porque afecta findAllActive())
+     * 4. Guarda el cliente en caché por ID y lo agrega a 'allActive'
      * 
      * Estado Inicial:
      * - Activo: true (por defecto en ClienteMapper)
@@ -102,11 +119,10 @@ public class ClienteServiceImpl implements IClienteService {
      * @return DTO del cliente creado incluyendo ID asignado
      */
     @Override
-    @CacheEvict(value = "clientes", allEntries = true)
     public ClienteResponse create(ClienteRequest request) {
         ClienteEntity cliente = clienteMapper.toEntity(request);
         ClienteEntity saved = clienteRepository.save(cliente);
-        return clienteMapper.toResponse(saved);
+        return actualizarCache(clienteMapper.toResponse(saved));
     }
 
     /**
@@ -121,7 +137,7 @@ public class ClienteServiceImpl implements IClienteService {
      * 2. Mapea request → actualiza fields de la entidad
      * 3. Persiste cambios en BD
      * 4. Retorna ClienteResponse con datos actualizados
-     * 5. Invalida TODO el caché
+     * 5. Reemplaza el cliente en caché (por ID y dentro de 'allActive')
      * 
      * Patrón de Actualización:
      * - Usa mapper.updateEntityFromRequest() que hace null-checking
@@ -134,14 +150,15 @@ public class ClienteServiceImpl implements IClienteService {
      * @throws RuntimeException si el cliente no existe o está inactivo
      */
     @Override
-    @CacheEvict(value = "clientes", allEntries = true)
     public ClienteResponse update(Long id, ClienteRequest request) {
         ClienteEntity cliente = clienteRepository.findByIdAndActivoTrue(id)
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
         
         clienteMapper.updateEntityFromRequest(request, cliente);
         ClienteEntity updated = clienteRepository.save(cliente);
-        return clienteMapper.toResponse(updated);
+        ClienteResponse response = actualizarCache(clienteMapper.toResponse(updated));
+        fragmentos.cambio(Entidad.CLIENTE, id);
+        return response;
     }
 
     /**
@@ -157,7 +174,7 @@ public class ClienteServiceImpl implements IClienteService {
      * 1. Busca ClienteEntity por ID (debe estar activo)
      * 2. Marca activo = false
      * 3. Persiste cambio en BD
-     * 4. Invalida caché completa
+     * 4. Elimina el cliente de la caché (por ID y de 'allActive')
      * 
      * Efecto:
      * - Cliente ya no aparece en findAllActive()
@@ -168,12 +185,52 @@ public class ClienteServiceImpl implements IClienteService {
      * @throws RuntimeException si el cliente no existe o ya está inactivo
      */
     @Override
-    @CacheEvict(value = "clientes", allEntries = true)
     public void delete(Long id) {
         ClienteEntity cliente = clienteRepository.findByIdAndActivoTrue(id)
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
         
         cliente.setActivo(false);
         clienteRepository.save(cliente);
+        mantenimientoCache.invalidar("clientes", id);
+        mantenimientoCache.removerDeLista("clientes", "allActive", id, ClienteResponse::getId);
+        fragmentos.cambio(Entidad.CLIENTE, id);
+    }
+
+    /**
+     * Deja un cliente activo al día en caché: su entrada por ID y su posición en 'allActive'
+     */
+    private ClienteResponse actualizarCache(ClienteResponse cliente) {
+        mantenimientoCache.guardar("clientes", cliente.getId(), cliente);
+        mantenimientoCache.reemplazarEnLista("clientes", "allActive", cliente, ClienteResponse::getId);
+        return cliente;
+    }
+
+    @Override
+    public String getNombreCache() {
+        return "clientes";
+    }
+
+    @Override
+    public List<Object> getClavesPrecarga() {
+        return List.of("allActive");
+    }
+
+    /**
+     * Recalcula una entrada en segundo plano (refreshAfterWrite) o al arrancar
+     * - 'allActive': la lista; la llamada interna a findAllActive() no pasa por @Cacheable
+     * - ID: la entrada de findById, consultada de nuevo en la base de datos
+     * @param clave Clave de la entrada
+     * @return Valor actualizado, o null si ya no existe el cliente (o está inactivo)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Object recargar(Object clave) {
+        if ("allActive".equals(clave)) {
+            return findAllActive();
+        }
+        if (clave instanceof Long id) {
+            return clienteRepository.findByIdAndActivoTrue(id).map(clienteMapper::toResponse).orElse(null);
+        }
+        return null;
     }
-} 
\ No newline at end of file
+}
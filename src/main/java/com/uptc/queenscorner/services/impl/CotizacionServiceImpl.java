@@ -1,5 +1,6 @@
 package com.uptc.queenscorner.services.impl;
 
+import com.uptc.queenscorner.config.RecargaCache;
 import com.uptc.queenscorner.exceptions.ResourceNotFoundException;
 import com.uptc.queenscorner.models.dtos.requests.CotizacionRequest;
 import com.uptc.queenscorner.models.dtos.responses.CotizacionResponse;
@@ -12,16 +13,20 @@ import com.uptc.queenscorner.repositories.IClienteRepository;
 import com.uptc.queenscorner.repositories.ICotizacionRepository;
 import com.uptc.queenscorner.repositories.IItemCotizacionRepository;
 import com.uptc.queenscorner.services.ICotizacionService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService.Entidad;
+import com.uptc.queenscorner.services.cache.MantenimientoCacheService;
+import com.uptc.queenscorner.services.cache.RecomposicionCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
-public class CotizacionServiceImpl implements ICotizacionService {
+public class CotizacionServiceImpl implements ICotizacionService, RecomposicionCache, RecargaCache {
 
     @Autowired
     private ICotizacionRepository cotizacionRepository;
@@ -38,6 +43,12 @@ public class CotizacionServiceImpl implements ICotizacionService {
     @Autowired
     private ItemCotizacionMapper itemCotizacionMapper;
 
+    @Autowired
+    private MantenimientoCacheService mantenimientoCache;
+
+    @Autowired
+    private FragmentosCacheService fragmentos;
+
     /**
      * Obtiene todas las cotizaciones del sistema.
      * 
@@ -45,12 +56,14 @@ public class CotizacionServiceImpl implements ICotizacionService {
      * 
      * Caché:
      * - Clave: 'all' (estática para esta operación)
-     * - Se invalida en cualquier modificación
+     * - Cada modificación corrige solo la cotización afectada dentro de la lista
+     * - Se recarga en segundo plano antes de expirar y se precarga al arrancar (recargar)
+     * - sync: con la caché vacía, las peticiones simultáneas esperan una sola consulta
      * 
      * @return Lista de DTOs de todas las cotizaciones
      */
     @Override
-    @Cacheable(value = "cotizaciones", key = "'all'")
+    @Cacheable(value = "cotizaciones", key = "'all'", sync = true)
     public List<CotizacionResponse> findAll() {
         return cotizacionRepository.findAll().stream()
                 .map(cotizacionMapper::toResponse)
@@ -58,7 +71,7 @@ public class CotizacionServiceImpl implements ICotizacionService {
     }
 
     @Override
-    @Cacheable(value = "cotizaciones", key = "#id")
+    @Cacheable(value = "cotizaciones", key = "#id", sync = true)
     public CotizacionResponse findById(Long id) {
         CotizacionEntity cotizacion = cotizacionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cotización no encontrada"));
@@ -92,7 +105,8 @@ public class CotizacionServiceImpl implements ICotizacionService {
      * 5. Calcula totales: subtotal, IVA (19%), total
      * 6. Guarda cotización
      * 7. Crea y persiste items
-     * 8. Retorna DTO con datos completos
+     * 8. Deja la cotización en caché (por ID y al final de 'all')
+     * 9. Retorna DTO con datos completos
      * 
      * Defaults Inteligentes:
      * - Si no hay descripción: usa "Servicio personalizado"
@@ -108,7 +122,6 @@ public class CotizacionServiceImpl implements ICotizacionService {
      * @throws ResourceNotFoundException si cliente no existe
      */
     @Override
-    @CacheEvict(value = "cotizaciones", allEntries = true)
     public CotizacionResponse create(CotizacionRequest request) {
         ClienteEntity cliente = clienteRepository.findById(request.getClienteId())
                 .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado"));
@@ -126,7 +139,7 @@ public class CotizacionServiceImpl implements ICotizacionService {
         CotizacionEntity saved = cotizacionRepository.save(cotizacion);
 
         guardarItemsCotizacion(request, saved);
-        return cotizacionMapper.toResponse(saved);
+        return actualizarCache(cotizacionMapper.toResponse(saved));
     }
 
     private void aplicarDefaultsInteligentes(CotizacionRequest request) {
@@ -197,7 +210,8 @@ public class CotizacionServiceImpl implements ICotizacionService {
      * 5. Persiste cotización y items
      * 6. Flush BD para sincronización
      * 7. Recarga desde BD para garantizar items frescos
-     * 8. Retorna DTO
+     * 8. Reemplaza la cotización en caché (por ID y dentro de 'all')
+     * 9. Retorna DTO
      * 
      * Sincronización de Items (paso 3):
      * - Recorre items del request
@@ -217,7 +231,6 @@ public class CotizacionServiceImpl implements ICotizacionService {
      * @throws ResourceNotFoundException si item mencionado en request no existe
      */
     @Override
-    @CacheEvict(value = "cotizaciones", allEntries = true)
     public CotizacionResponse update(Long id, CotizacionRequest request) {
         CotizacionEntity cotizacion = cotizacionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Cotización no encontrada"));
@@ -241,7 +254,9 @@ public class CotizacionServiceImpl implements ICotizacionService {
         CotizacionEntity refreshed = cotizacionRepository.findById(updated.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Error al refrescar cotización"));
         
-        return cotizacionMapper.toResponse(refreshed);
+        CotizacionResponse response = actualizarCache(cotizacionMapper.toResponse(refreshed));
+        fragmentos.cambio(Entidad.COTIZACION, id);
+        return response;
     }
 
     private void sincronizarItems(Long cotizacionId, CotizacionRequest request, CotizacionEntity cotizacion) {
@@ -299,7 +314,6 @@ public class CotizacionServiceImpl implements ICotizacionService {
      * @throws RuntimeException si estado no es válido
      */
     @Override
-    @CacheEvict(value = "cotizaciones", allEntries = true)
     public CotizacionResponse cambiarEstado(Long id, String estado) {
         CotizacionEntity cotizacion = cotizacionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cotización no encontrada"));
@@ -311,7 +325,9 @@ public class CotizacionServiceImpl implements ICotizacionService {
 
         cotizacion.setEstado(CotizacionEntity.EstadoCotizacion.valueOf(estado));
         CotizacionEntity updated = cotizacionRepository.save(cotizacion);
-        return cotizacionMapper.toResponse(updated);
+        CotizacionResponse response = actualizarCache(cotizacionMapper.toResponse(updated));
+        fragmentos.cambio(Entidad.COTIZACION, id);
+        return response;
     }
 
     /**
@@ -320,16 +336,78 @@ public class CotizacionServiceImpl implements ICotizacionService {
      * Estrategia: ELIMINACIÓN FÍSICA (a diferencia de clientes que usa lógica)
      * - Elimina registros de BD completamente
      * - Por tanto, solo se permite en cotizaciones BORRADOR
-     * - Limpia caché
+     * - Quita la cotización de la caché (por ID y de 'all')
      * 
      * @param id ID de la cotización a eliminar
      * @throws ResourceNotFoundException si cotización no existe
      */
     @Override
-    @CacheEvict(value = "cotizaciones", allEntries = true)
     public void delete(Long id) {
         CotizacionEntity cotizacion = cotizacionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cotización no encontrada"));
         cotizacionRepository.delete(cotizacion);
+        mantenimientoCache.invalidar("cotizaciones", id);
+        mantenimientoCache.removerDeLista("cotizaciones", "all", id, CotizacionResponse::getId);
+        fragmentos.eliminado(Entidad.COTIZACION, id);
+    }
+
+    @Override
+    public Entidad getEntidad() {
+        return Entidad.COTIZACION;
+    }
+
+    /**
+     * Vuelve a armar la cotización cacheada cuando cambia un fragmento que embebe (su cliente)
+     * @param id ID de la cotización
+     */
+    @Override
+    public void recomponer(Long id) {
+        if (!mantenimientoCache.contieneAlguna("cotizaciones", id, "all")) {
+            return;
+        }
+        cotizacionRepository.findById(id).ifPresentOrElse(
+                cotizacion -> actualizarCache(cotizacionMapper.toResponse(cotizacion)),
+                () -> {
+                    mantenimientoCache.invalidar("cotizaciones", id);
+                    mantenimientoCache.removerDeLista("cotizaciones", "all", id, CotizacionResponse::getId);
+                });
+    }
+
+    /**
+     * Deja una cotización al día en caché: su entrada por ID y su posición en 'all'
+     */
+    private CotizacionResponse actualizarCache(CotizacionResponse cotizacion) {
+        mantenimientoCache.guardar("cotizaciones", cotizacion.getId(), cotizacion);
+        mantenimientoCache.reemplazarEnLista("cotizaciones", "all", cotizacion, CotizacionResponse::getId);
+        return cotizacion;
+    }
+
+    @Override
+    public String getNombreCache() {
+        return "cotizaciones";
+    }
+
+    @Override
+    public List<Object> getClavesPrecarga() {
+        return List.of("all");
+    }
+
+    /**
+     * Recalcula una entrada en segundo plano (refreshAfterWrite) o al arrancar
+     * - 'all': la lista; la llamada interna a findAll() no pasa por @Cacheable
+     * - ID: la entrada de findById, consultada de nuevo en la base de datos
+     * @param clave Clave de la entrada
+     * @return Valor actualizado, o null si ya no existe la cotización
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Object recargar(Object clave) {
+        if ("all".equals(clave)) {
+            return findAll();
+        }
+        if (clave instanceof Long id) {
+            return cotizacionRepository.findById(id).map(cotizacionMapper::toResponse).orElse(null);
+        }
+        return null;
     }
-} 
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.uptc.queenscorner.services.impl;
 
+import com.uptc.queenscorner.config.RecargaCache;
 import com.uptc.queenscorner.models.dtos.requests.AgregarLineaRequest;
 import com.uptc.queenscorner.models.dtos.requests.CrearFacturaRequest;
 import com.uptc.queenscorner.models.dtos.responses.FacturaResponse;
@@ -8,9 +9,11 @@ import com.uptc.queenscorner.models.entities.*;
 import com.uptc.queenscorner.repositories.*;
 import com.uptc.queenscorner.services.IFacturaService;
 import com.uptc.queenscorner.services.async.PdfAsyncService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService.Entidad;
+import com.uptc.queenscorner.services.cache.MantenimientoCacheService;
+import com.uptc.queenscorner.services.cache.RecomposicionCache;
 import com.uptc.queenscorner.services.validation.FacturaValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -47,7 +50,7 @@ import java.util.stream.Collectors;
  */
 @Service
 @Transactional
-public class FacturaServiceImpl implements IFacturaService {
+public class FacturaServiceImpl implements IFacturaService, RecomposicionCache, RecargaCache {
 
     @Autowired
     private IFacturaRepository facturaRepository;
@@ -64,6 +67,9 @@ public class FacturaServiceImpl implements IFacturaService {
     @Autowired
     private FacturaValidationService validationService;
 
+    @Autowired
+    private MantenimientoCacheService mantenimientoCache;
+
     /**
      * Crea una nueva factura para un negocio.
      * 
@@ -80,7 +86,7 @@ public class FacturaServiceImpl implements IFacturaService {
      * 5. Agrega líneas desde request
      * 6. Calcula totales (subtotal, IVA, total)
      * 7. Persiste factura completa
-     * 8. Invalida caché
+     * 8. Agrega la factura a la lista cacheada (tras el commit)
      * 
      * Líneas de Factura:
      * - Se crean con numeroLinea secuencial
@@ -93,7 +99,6 @@ public class FacturaServiceImpl implements IFacturaService {
      * @throws RuntimeException si negocio no existe o no puede facturarse
      */
     @Override
-    @CacheEvict(value = "facturas", allEntries = true)
     public FacturaResponse crearFactura(CrearFacturaRequest request, String usuario) {
         NegocioEntity negocio = negocioRepository.findById(request.getNegocioId())
                 .orElseThrow(() -> new RuntimeException("Negocio no encontrado"));
@@ -134,7 +139,7 @@ public class FacturaServiceImpl implements IFacturaService {
         guardada.calcularTotales();
         FacturaEntity actualizada = facturaRepository.save(guardada);
         
-        return facturaMapper.toResponse(actualizada);
+        return actualizarCache(facturaMapper.toResponse(actualizada));
     }
 
     /**
@@ -167,7 +172,6 @@ public class FacturaServiceImpl implements IFacturaService {
      * @throws RuntimeException si factura no existe o no está en EN_REVISION
      */
     @Override
-    @CacheEvict(value = "facturas", allEntries = true)
     public FacturaResponse agregarLinea(Long facturaId, AgregarLineaRequest request) {
         FacturaEntity factura = facturaRepository.findById(facturaId)
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada"));
@@ -186,7 +190,7 @@ public class FacturaServiceImpl implements IFacturaService {
         factura.calcularTotales();
         
         FacturaEntity actualizada = facturaRepository.save(factura);
-        return facturaMapper.toResponse(actualizada);
+        return actualizarCache(facturaMapper.toResponse(actualizada));
     }
 
     /**
@@ -210,7 +214,6 @@ public class FacturaServiceImpl implements IFacturaService {
      * @throws RuntimeException si factura no existe o no está en EN_REVISION
      */
     @Override
-    @CacheEvict(value = "facturas", allEntries = true)
     public FacturaResponse removerLinea(Long facturaId, Long lineaId) {
         FacturaEntity factura = facturaRepository.findById(facturaId)
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada"));
@@ -221,7 +224,7 @@ public class FacturaServiceImpl implements IFacturaService {
         factura.calcularTotales();
         
         FacturaEntity actualizada = facturaRepository.save(factura);
-        return facturaMapper.toResponse(actualizada);
+        return actualizarCache(facturaMapper.toResponse(actualizada));
     }
 
     /**
@@ -254,7 +257,6 @@ public class FacturaServiceImpl implements IFacturaService {
      * @throws RuntimeException si factura no existe, no está en EN_REVISION, o no tiene líneas
      */
     @Override
-    @CacheEvict(value = "facturas", allEntries = true)
     public FacturaResponse enviarFactura(Long facturaId, String usuario) {
         FacturaEntity factura = facturaRepository.findById(facturaId)
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada"));
@@ -266,7 +268,7 @@ public class FacturaServiceImpl implements IFacturaService {
         
         pdfAsyncService.generarPdfFacturaAsync(actualizada);
         
-        return facturaMapper.toResponse(actualizada);
+        return actualizarCache(facturaMapper.toResponse(actualizada));
     }
 
     /**
@@ -298,8 +300,10 @@ public class FacturaServiceImpl implements IFacturaService {
      * Retorna facturas en TODOS los estados (EN_REVISION, ENVIADA).
      * 
      * Caché:
-     * - Clave: 'facturas' (genérica para todas las listas)
-     * - Se invalida en cualquier modificación
+     * - Clave: 'all'
+     * - Cada modificación reemplaza solo la factura afectada dentro de la lista
+     * - Se recarga en segundo plano antes de expirar y se precarga al arrancar (recargar)
+     * - sync: con la caché vacía, las peticiones simultáneas esperan una sola consulta
      * 
      * Transacción: readOnly=true
      * 
@@ -307,7 +311,7 @@ public class FacturaServiceImpl implements IFacturaService {
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "facturas")
+    @Cacheable(value = "facturas", key = "'all'", sync = true)
     public List<FacturaResponse> listarFacturas() {
         return facturaRepository.findAll().stream()
                 .map(facturaMapper::toResponse)
@@ -344,4 +348,77 @@ public class FacturaServiceImpl implements IFacturaService {
     public FacturaResponse obtenerResumen(Long facturaId) {
         return obtenerFactura(facturaId);
     }
+
+    @Override
+    public Entidad getEntidad() {
+        return Entidad.FACTURA;
+    }
+
+    /**
+     * Vuelve a armar la factura dentro de la lista cacheada cuando cambia un
+     * fragmento que embebe (el resumen de su negocio y su cliente)
+     * @param id ID de la factura
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void recomponer(Long id) {
+        if (!mantenimientoCache.contieneAlguna("facturas", "all")) {
+            return;
+        }
+        facturaRepository.findById(id).ifPresentOrElse(
+                factura -> actualizarCache(facturaMapper.toResponse(factura)),
+                () -> mantenimientoCache.removerDeLista("facturas", "all", id, FacturaResponse::getId));
+    }
+
+    /**
+     * Registra la clave del PDF a través de la entidad administrada
+     * Solo se escribe path_pdf (@DynamicUpdate) y, al no ser un UPDATE en bloque,
+     * Hibernate no vacía regiones de caché completas. La factura se corrige en la
+     * lista cacheada 'all' tras el commit, para que pathPdf no quede desactualizado
+     * @param facturaId ID de la factura
+     * @param pathPdf Clave del PDF en el almacén de documentos
+     */
+    @Override
+    @Transactional
+    public void registrarPdf(Long facturaId, String pathPdf) {
+        FacturaEntity factura = facturaRepository.findById(facturaId).orElse(null);
+        if (factura == null || pathPdf.equals(factura.getPathPdf())) {
+            return;
+        }
+        factura.setPathPdf(pathPdf);
+        if (mantenimientoCache.contieneAlguna("facturas", "all")) {
+            actualizarCache(facturaMapper.toResponse(factura));
+        }
+    }
+
+    /**
+     * Reemplaza (o agrega) una factura en la lista cacheada 'all'
+     * Se aplica tras el commit de la transacción
+     */
+    private FacturaResponse actualizarCache(FacturaResponse factura) {
+        mantenimientoCache.reemplazarEnLista("facturas", "all", factura, FacturaResponse::getId);
+        return factura;
+    }
+
+    @Override
+    public String getNombreCache() {
+        return "facturas";
+    }
+
+    @Override
+    public List<Object> getClavesPrecarga() {
+        return List.of("all");
+    }
+
+    /**
+     * Recalcula la lista 'all' en segundo plano (refreshAfterWrite) o al arrancar
+     * La llamada interna a listarFacturas() no pasa por @Cacheable: consulta la base de datos
+     * @param clave Clave de la entrada
+     * @return Lista actualizada, o null si la clave no es 'all'
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Object recargar(Object clave) {
+        return "all".equals(clave) ? listarFacturas() : null;
+    }
 }
@@ -1,5 +1,6 @@
 package com.uptc.queenscorner.services.impl;
 
+import com.uptc.queenscorner.config.RecargaCache;
 import com.uptc.queenscorner.models.dtos.requests.NegocioRequest;
 import com.uptc.queenscorner.models.dtos.responses.NegocioResponse;
 import com.uptc.queenscorner.models.entities.CotizacionEntity;
@@ -8,17 +9,21 @@ import com.uptc.queenscorner.models.mappers.NegocioMapper;
 import com.uptc.queenscorner.repositories.ICotizacionRepository;
 import com.uptc.queenscorner.repositories.INegocioRepository;
 import com.uptc.queenscorner.services.INegocioService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService;
+import com.uptc.queenscorner.services.cache.FragmentosCacheService.Entidad;
+import com.uptc.queenscorner.services.cache.MantenimientoCacheService;
+import com.uptc.queenscorner.services.cache.RecomposicionCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
-public class NegocioServiceImpl implements INegocioService {
+public class NegocioServiceImpl implements INegocioService, RecomposicionCache, RecargaCache {
 
     @Autowired
     private INegocioRepository negocioRepository;
@@ -29,17 +34,25 @@ public class NegocioServiceImpl implements INegocioService {
     @Autowired
     private NegocioMapper negocioMapper;
 
+    @Autowired
+    private MantenimientoCacheService mantenimientoCache;
+
+    @Autowired
+    private FragmentosCacheService fragmentos;
+
     /**
      * Obtiene todos los negocios del sistema.
      * 
      * Caché:
      * - Clave: 'all' (estática para esta operación)
-     * - Se invalida en cualquier modificación
+     * - Cada modificación corrige solo el negocio afectado dentro de la lista
+     * - Se recarga en segundo plano antes de expirar y se precarga al arrancar (recargar)
+     * - sync: con la caché vacía, las peticiones simultáneas esperan una sola consulta
      * 
      * @return Lista de DTOs de todos los negocios
      */
     @Override
-    @Cacheable(value = "negocios", key = "'all'")
+    @Cacheable(value = "negocios", key = "'all'", sync = true)
     public List<NegocioResponse> findAll() {
         return negocioRepository.findAll().stream()
                 .map(negocioMapper::toResponse)
@@ -54,7 +67,7 @@ public class NegocioServiceImpl implements INegocioService {
      * @throws RuntimeException si no existe
      */
     @Override
-    @Cacheable(value = "negocios", key = "#id")
+    @Cacheable(value = "negocios", key = "#id", sync = true)
     public NegocioResponse findById(Long id) {
         NegocioEntity negocio = negocioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Negocio no encontrado"));
@@ -89,14 +102,13 @@ public class NegocioServiceImpl implements INegocioService {
      * 3. Desnormaliza campos desde cotización
      * 4. Mapea datos adicionales del request
      * 5. Actualiza fechaActualizacion
-     * 6. Persiste y retorna DTO
+     * 6. Persiste, deja el negocio en caché (por ID y al final de 'all') y retorna DTO
      * 
      * @param request DTO con datos del negocio (cotizacionId, descripción, anticipo, etc)
      * @return DTO del negocio creado
      * @throws RuntimeException si cotización no existe
      */
     @Override
-    @CacheEvict(value = "negocios", allEntries = true)
     public NegocioResponse create(NegocioRequest request) {
         CotizacionEntity cotizacion = cotizacionRepository.findById(request.getCotizacionId())
                 .orElseThrow(() -> new RuntimeException("Cotización no encontrada"));
@@ -115,7 +127,7 @@ public class NegocioServiceImpl implements INegocioService {
         negocio.setFechaActualizacion(LocalDateTime.now());
 
         NegocioEntity saved = negocioRepository.save(negocio);
-        return negocioMapper.toResponse(saved);
+        return actualizarCache(negocioMapper.toResponse(saved));
     }
 
     /**
@@ -142,7 +154,6 @@ public class NegocioServiceImpl implements INegocioService {
      * @throws RuntimeException si cotización no existe, no está aprobada, o ya tiene negocio
      */
     @Override
-    @CacheEvict(value = "negocios", allEntries = true)
     public NegocioResponse crearDesdeAprobada(Long cotizacionId, NegocioRequest request) {
         CotizacionEntity cotizacion = cotizacionRepository.findById(cotizacionId)
                 .orElseThrow(() -> new RuntimeException("Cotización no encontrada"));
@@ -177,7 +188,7 @@ public class NegocioServiceImpl implements INegocioService {
      * 1. Busca negocio por ID
      * 2. Mapea datos del request (campos opcionales)
      * 3. Actualiza fechaActualizacion con timestamp actual
-     * 4. Persiste y retorna DTO actualizado
+     * 4. Persiste, reemplaza el negocio en caché (por ID y dentro de 'all') y retorna DTO actualizado
      * 
      * @param id ID del negocio a actualizar
      * @param request DTO con nuevos datos (campos opcionales)
@@ -185,7 +196,6 @@ public class NegocioServiceImpl implements INegocioService {
      * @throws RuntimeException si negocio no existe
      */
     @Override
-    @CacheEvict(value = "negocios", allEntries = true)
     public NegocioResponse update(Long id, NegocioRequest request) {
         NegocioEntity negocio = negocioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Negocio no encontrado"));
@@ -193,7 +203,9 @@ public class NegocioServiceImpl implements INegocioService {
         negocioMapper.updateEntityFromRequest(request, negocio);
         negocio.setFechaActualizacion(LocalDateTime.now());
         NegocioEntity updated = negocioRepository.save(negocio);
-        return negocioMapper.toResponse(updated);
+        NegocioResponse response = actualizarCache(negocioMapper.toResponse(updated));
+        fragmentos.cambio(Entidad.NEGOCIO, id);
+        return response;
     }
 
     /**
@@ -217,7 +229,6 @@ public class NegocioServiceImpl implements INegocioService {
      * @throws RuntimeException si negocio no existe o transición no válida
      */
     @Override
-    @CacheEvict(value = "negocios", allEntries = true)
     public NegocioResponse cambiarEstado(Long id, String estado) {
         NegocioEntity negocio = negocioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Negocio no encontrado"));
@@ -245,7 +256,9 @@ public class NegocioServiceImpl implements INegocioService {
         negocio.setEstado(nuevoEstado);
         negocio.setFechaActualizacion(java.time.LocalDateTime.now());
         NegocioEntity updated = negocioRepository.save(negocio);
-        return negocioMapper.toResponse(updated);
+        NegocioResponse response = actualizarCache(negocioMapper.toResponse(updated));
+        fragmentos.cambio(Entidad.NEGOCIO, id);
+        return response;
     }
 
     /**
@@ -267,4 +280,84 @@ public class NegocioServiceImpl implements INegocioService {
                 .map(negocioMapper::toResponse)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Registra el dossier a través de la entidad administrada
+     * Solo se escriben sus dos columnas (@DynamicUpdate) y la caché de segundo nivel
+     * actualiza únicamente este negocio; un UPDATE en bloque vaciaría la región
+     * completa. NegocioResponse no expone el dossier, así que las cachés de
+     * servicio y los fragmentos no cambian
+     * @param id ID del negocio
+     * @param pathDossier Clave del dossier en el almacén de documentos
+     * @param huellaDossier Huella combinada de los PDFs que lo forman
+     */
+    @Override
+    @Transactional
+    public void registrarDossier(Long id, String pathDossier, String huellaDossier) {
+        negocioRepository.findById(id).ifPresent(negocio -> {
+            negocio.setPathDossier(pathDossier);
+            negocio.setHuellaDossier(huellaDossier);
+        });
+    }
+
+    @Override
+    public Entidad getEntidad() {
+        return Entidad.NEGOCIO;
+    }
+
+    /**
+     * Vuelve a armar el negocio cacheado cuando cambia un fragmento que embebe
+     * (su cotización o su cliente)
+     * @param id ID del negocio
+     */
+    @Override
+    public void recomponer(Long id) {
+        if (!mantenimientoCache.contieneAlguna("negocios", id, "all")) {
+            return;
+        }
+        negocioRepository.findById(id).ifPresentOrElse(
+                negocio -> actualizarCache(negocioMapper.toResponse(negocio)),
+                () -> {
+                    mantenimientoCache.invalidar("negocios", id);
+                    mantenimientoCache.removerDeLista("negocios", "all", id, NegocioResponse::getId);
+                });
+    }
+
+    /**
+     * Deja un negocio al día en caché: su entrada por ID y su posición en 'all'
+     */
+    private NegocioResponse actualizarCache(NegocioResponse negocio) {
+        mantenimientoCache.guardar("negocios", negocio.getId(), negocio);
+        mantenimientoCache.reemplazarEnLista("negocios", "all", negocio, NegocioResponse::getId);
+        return negocio;
+    }
+
+    @Override
+    public String getNombreCache() {
+        return "negocios";
+    }
+
+    @Override
+    public List<Object> getClavesPrecarga() {
+        return List.of("all");
+    }
+
+    /**
+     * Recalcula una entrada en segundo plano (refreshAfterWrite) o al arrancar
+     * - 'all': la lista; la llamada interna a findAll() no pasa por @Cacheable
+     * - ID: la entrada de findById, consultada de nuevo en la base de datos
+     * @param clave Clave de la entrada
+     * @return Valor actualizado, o null si ya no existe el negocio
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Object recargar(Object clave) {
+        if ("all".equals(clave)) {
+            return findAll();
+        }
+        if (clave instanceof Long id) {
+            return negocioRepository.findById(id).map(negocioMapper::toResponse).orElse(null);
+        }
+        return null;
+    }
+}
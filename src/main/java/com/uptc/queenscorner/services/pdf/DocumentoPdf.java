@@ -0,0 +1,167 @@
+package com.uptc.queenscorner.services.pdf;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modelo de un documento a renderizar en PDF (cotización, factura, ...)
+ *
+ * Contiene solo datos ya formateados: el renderizador no conoce entidades
+ * ni reglas de negocio. Cada tipo de documento llena los mismos bloques
+ * (datos, secciones, líneas, totales, observaciones y pie) y la plantilla
+ * decide el orden y el estilo.
+ *
+ * Es serializable para poder enviarse a un proceso de render externo.
+ */
+public class DocumentoPdf implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Título del documento (ej: COTIZACIÓN, FACTURA DE VENTA) */
+    private final String titulo;
+    /** Nombre del archivo a generar (ej: FAC-2025-000001.pdf) */
+    private String nombreArchivo;
+    /** Fecha de creación del documento; ubica el PDF en el almacén (año/mes), no se imprime */
+    private LocalDate fechaDocumento;
+    /** Datos de identificación del documento (código, fecha, estado...) */
+    private final List<Campo> datos = new ArrayList<>();
+    /** Bloques de partes y descripción (cliente, negocio...) */
+    private final List<Seccion> secciones = new ArrayList<>();
+    /** Título de la tabla de líneas */
+    private String tituloLineas = "DETALLE";
+    /** Líneas de la tabla de detalle */
+    private final List<Linea> lineas = new ArrayList<>();
+    /** Totales, en el orden en que se muestran */
+    private final List<Campo> totales = new ArrayList<>();
+    /** Observaciones libres (opcional) */
+    private String observaciones;
+    /** Líneas del pie (creado por, enviado por...) */
+    private final List<String> pie = new ArrayList<>();
+
+    public DocumentoPdf(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public DocumentoPdf agregarDato(String etiqueta, Object valor) {
+        datos.add(new Campo(etiqueta, valor, false));
+        return this;
+    }
+
+    public DocumentoPdf agregarSeccion(Seccion seccion) {
+        secciones.add(seccion);
+        return this;
+    }
+
+    public DocumentoPdf agregarLinea(Integer numero, String descripcion, Integer cantidad,
+                                     BigDecimal valorUnitario, BigDecimal subtotal) {
+        lineas.add(new Linea(numero, descripcion, cantidad, valorUnitario, subtotal));
+        return this;
+    }
+
+    public DocumentoPdf agregarTotal(String etiqueta, BigDecimal valor, boolean destacado) {
+        totales.add(new Campo(etiqueta, FormatoPdf.moneda(valor), destacado));
+        return this;
+    }
+
+    public DocumentoPdf agregarPie(String linea) {
+        pie.add(linea);
+        return this;
+    }
+
+    public String getTitulo() { return titulo; }
+    public String getNombreArchivo() { return nombreArchivo; }
+    public void setNombreArchivo(String nombreArchivo) { this.nombreArchivo = nombreArchivo; }
+    public LocalDate getFechaDocumento() { return fechaDocumento; }
+    public void setFechaDocumento(LocalDate fechaDocumento) { this.fechaDocumento = fechaDocumento; }
+    public List<Campo> getDatos() { return datos; }
+    public List<Seccion> getSecciones() { return secciones; }
+    public String getTituloLineas() { return tituloLineas; }
+    public void setTituloLineas(String tituloLineas) { this.tituloLineas = tituloLineas; }
+    public List<Linea> getLineas() { return lineas; }
+    public List<Campo> getTotales() { return totales; }
+    public String getObservaciones() { return observaciones; }
+    public void setObservaciones(String observaciones) { this.observaciones = observaciones; }
+    public List<String> getPie() { return pie; }
+
+    /**
+     * Par etiqueta / valor ya formateado
+     */
+    public static class Campo implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String etiqueta;
+        private final String valor;
+        /** true para resaltar el campo (ej: TOTAL) */
+        private final boolean destacado;
+
+        public Campo(String etiqueta, Object valor, boolean destacado) {
+            this.etiqueta = etiqueta;
+            this.valor = FormatoPdf.texto(valor);
+            this.destacado = destacado;
+        }
+
+        public String getEtiqueta() { return etiqueta; }
+        public String getValor() { return valor; }
+        public boolean isDestacado() { return destacado; }
+    }
+
+    /**
+     * Bloque con título y campos o texto libre (ej: CLIENTE, DESCRIPCIÓN)
+     */
+    public static class Seccion implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String titulo;
+        private final List<Campo> campos = new ArrayList<>();
+        private String texto;
+
+        public Seccion(String titulo) {
+            this.titulo = titulo;
+        }
+
+        public Seccion agregarCampo(String etiqueta, Object valor) {
+            campos.add(new Campo(etiqueta, valor, false));
+            return this;
+        }
+
+        public Seccion conTexto(String texto) {
+            this.texto = texto;
+            return this;
+        }
+
+        public String getTitulo() { return titulo; }
+        public List<Campo> getCampos() { return campos; }
+        public String getTexto() { return texto; }
+    }
+
+    /**
+     * Fila de la tabla de detalle
+     */
+    public static class Linea implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Integer numero;
+        private final String descripcion;
+        private final Integer cantidad;
+        private final BigDecimal valorUnitario;
+        private final BigDecimal subtotal;
+
+        public Linea(Integer numero, String descripcion, Integer cantidad,
+                     BigDecimal valorUnitario, BigDecimal subtotal) {
+            this.numero = numero;
+            this.descripcion = descripcion;
+            this.cantidad = cantidad;
+            this.valorUnitario = valorUnitario;
+            this.subtotal = subtotal;
+        }
+
+        public Integer getNumero() { return numero; }
+        public String getDescripcion() { return descripcion; }
+        public Integer getCantidad() { return cantidad; }
+        public BigDecimal getValorUnitario() { return valorUnitario; }
+        public BigDecimal getSubtotal() { return subtotal; }
+    }
+}
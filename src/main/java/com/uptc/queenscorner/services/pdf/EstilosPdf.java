@@ -0,0 +1,50 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceGray;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.properties.TextAlignment;
+
+/**
+ * Estilos predefinidos de los documentos PDF
+ *
+ * Se construyen una vez por documento a partir de las fuentes compartidas
+ * (las PdfFont quedan ligadas al PdfDocument y no pueden reutilizarse en otro).
+ * Los elementos reciben el estilo con addStyle en lugar de configurarse uno por uno.
+ *
+ * Excepción: las celdas de la tabla de líneas no usan Style. iText recorre los
+ * estilos de un elemento en cada consulta de propiedad durante el layout, y en
+ * tablas de cientos de filas eso domina el costo; la fuente y el tamaño se
+ * fijan una vez en la tabla (se heredan) y cada celda solo define borde y alineación.
+ */
+final class EstilosPdf {
+
+    /** Fondo del encabezado de la tabla de líneas */
+    static final DeviceGray GRIS_ENCABEZADO = new DeviceGray(0.9f);
+    /** Tamaño de letra de la tabla de líneas */
+    static final float TAMANO_TABLA = 9;
+
+    /** Fuentes y tamaño base del documento */
+    final PdfFont regular;
+    final PdfFont negrita;
+    final float tamanoBase = 10;
+
+    final Style empresa;
+    final Style titulo;
+    final Style tituloSeccion;
+    final Style etiqueta;
+    final Style totalDestacado;
+    final Style pie;
+
+    EstilosPdf(PdfFont regular, PdfFont negrita) {
+        this.regular = regular;
+        this.negrita = negrita;
+        empresa = new Style().setFont(negrita).setFontSize(14);
+        titulo = new Style().setFont(negrita).setFontSize(16).setTextAlignment(TextAlignment.CENTER);
+        tituloSeccion = new Style().setFont(negrita).setFontSize(11).setMarginTop(8).setMarginBottom(2);
+        etiqueta = new Style().setFont(negrita);
+        totalDestacado = new Style().setFont(negrita).setFontSize(12);
+        pie = new Style().setFont(regular).setFontSize(8).setFontColor(ColorConstants.DARK_GRAY);
+    }
+}
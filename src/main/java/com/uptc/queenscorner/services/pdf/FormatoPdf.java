@@ -0,0 +1,38 @@
+package com.uptc.queenscorner.services.pdf;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Formatos de texto compartidos por los documentos PDF
+ */
+public final class FormatoPdf {
+
+    /** Formato de fecha y hora usado en todos los documentos */
+    public static final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private FormatoPdf() {
+    }
+
+    /**
+     * Convierte un valor a texto; null se muestra vacío
+     */
+    public static String texto(Object valor) {
+        return valor == null ? "" : valor.toString();
+    }
+
+    /**
+     * Formatea un valor monetario como $valor
+     */
+    public static String moneda(BigDecimal valor) {
+        return "$" + (valor == null ? "0" : valor.toPlainString());
+    }
+
+    /**
+     * Formatea una fecha con hora; null se muestra vacío
+     */
+    public static String fechaHora(TemporalAccessor fecha) {
+        return fecha == null ? "" : FECHA_HORA.format(fecha);
+    }
+}
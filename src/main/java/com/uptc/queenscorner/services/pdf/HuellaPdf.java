@@ -0,0 +1,106 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.uptc.queenscorner.services.pdf.DocumentoPdf.Campo;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf.Linea;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf.Seccion;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Huella de contenido de un documento PDF (SHA-256 en hexadecimal)
+ *
+ * Se calcula sobre el modelo DocumentoPdf, es decir, sobre los mismos textos
+ * que se imprimen: datos del encabezado, secciones (cliente, negocio...),
+ * líneas, totales, observaciones y pie. Si dos modelos tienen la misma huella
+ * producen el mismo PDF, así que no hace falta volver a renderizar.
+ *
+ * Cada valor se escribe con su longitud delante para que ("ab", "c") y
+ * ("a", "bc") no colisionen. El nombre del archivo no forma parte de la huella.
+ */
+public final class HuellaPdf {
+
+    /**
+     * Versión del diseño (plantilla, estilos y recursos de marca)
+     * Incrementarla al cambiar el diseño invalida todas las huellas guardadas
+     */
+    static final int VERSION_DISENO = 1;
+
+    private HuellaPdf() {
+    }
+
+    /**
+     * Calcula la huella de un documento
+     * @param documento Modelo del documento
+     * @return SHA-256 en hexadecimal (64 caracteres)
+     */
+    public static String calcular(DocumentoPdf documento) {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new DigestOutputStream(OutputStream.nullOutputStream(), sha))) {
+            out.writeInt(VERSION_DISENO);
+            texto(out, documento.getTitulo());
+            campos(out, documento.getDatos());
+
+            out.writeInt(documento.getSecciones().size());
+            for (Seccion seccion : documento.getSecciones()) {
+                texto(out, seccion.getTitulo());
+                campos(out, seccion.getCampos());
+                texto(out, seccion.getTexto());
+            }
+
+            texto(out, documento.getTituloLineas());
+            out.writeInt(documento.getLineas().size());
+            for (Linea linea : documento.getLineas()) {
+                texto(out, FormatoPdf.texto(linea.getNumero()));
+                texto(out, linea.getDescripcion());
+                texto(out, FormatoPdf.texto(linea.getCantidad()));
+                texto(out, FormatoPdf.moneda(linea.getValorUnitario()));
+                texto(out, FormatoPdf.moneda(linea.getSubtotal()));
+            }
+
+            campos(out, documento.getTotales());
+            texto(out, documento.getObservaciones());
+            out.writeInt(documento.getPie().size());
+            for (String linea : documento.getPie()) {
+                texto(out, linea);
+            }
+        } catch (IOException e) {
+            // El destino es un digest en memoria; no debería ocurrir
+            throw new UncheckedIOException(e);
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    private static void campos(DataOutputStream out, List<Campo> campos) throws IOException {
+        out.writeInt(campos.size());
+        for (Campo campo : campos) {
+            texto(out, campo.getEtiqueta());
+            texto(out, campo.getValor());
+            out.writeBoolean(campo.isDestacado());
+        }
+    }
+
+    private static void texto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
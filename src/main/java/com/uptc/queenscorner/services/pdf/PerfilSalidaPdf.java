@@ -0,0 +1,63 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.WriterProperties;
+
+/**
+ * Perfil de salida de los PDFs generados
+ *
+ * Solo cambia cómo se escribe el archivo, no lo que se ve: el mismo
+ * DocumentoPdf produce las mismas páginas con cualquier perfil.
+ *
+ * - ESTANDAR: configuración por defecto de PdfWriter
+ * - COMPACTO: pensado para el archivo de documentos
+ *   - Compresión completa: tabla xref y objetos en object streams comprimidos
+ *   - Nivel de compresión máximo en los content streams
+ *   - Logo reducido a la resolución con la que se imprime
+ *   - Subconjunto de fuentes activado; hoy no cambia nada, porque Helvetica es
+ *     una de las 14 fuentes estándar y no se embebe (solo aplicaría a una fuente embebida)
+ *
+ * ESTANDAR es el perfil por defecto y COMPACTO se activa con pdf.salida.perfil:
+ * la compresión máxima cuesta CPU en cada render y el logo pierde resolución
+ * en pantalla, así que conviene donde pesa más el tamaño del archivo que el
+ * tiempo de render. Un cambio de perfil no regenera los PDFs ya almacenados.
+ */
+public enum PerfilSalidaPdf {
+
+    ESTANDAR(false, CompressionConstants.DEFAULT_COMPRESSION, false, 0),
+
+    /** 160 px para un logo de 80 pt: unos 150 ppp, suficiente para imprimir */
+    COMPACTO(true, CompressionConstants.BEST_COMPRESSION, true, 160);
+
+    private final boolean compresionCompleta;
+    private final int nivelCompresion;
+    private final boolean subconjuntoFuentes;
+    private final int ladoMaximoLogo;
+
+    PerfilSalidaPdf(boolean compresionCompleta, int nivelCompresion, boolean subconjuntoFuentes, int ladoMaximoLogo) {
+        this.compresionCompleta = compresionCompleta;
+        this.nivelCompresion = nivelCompresion;
+        this.subconjuntoFuentes = subconjuntoFuentes;
+        this.ladoMaximoLogo = ladoMaximoLogo;
+    }
+
+    /**
+     * Crea las propiedades del PdfWriter para un documento
+     * @return Propiedades nuevas (WriterProperties no es inmutable)
+     */
+    public WriterProperties crearPropiedadesEscritura() {
+        WriterProperties propiedades = new WriterProperties().setCompressionLevel(nivelCompresion);
+        if (compresionCompleta) {
+            propiedades.setFullCompressionMode(true);
+        }
+        return propiedades;
+    }
+
+    public boolean isSubconjuntoFuentes() { return subconjuntoFuentes; }
+
+    /**
+     * Lado máximo del logo embebido en píxeles
+     * @return Píxeles del lado mayor, o 0 para embeber el logo original
+     */
+    public int getLadoMaximoLogo() { return ladoMaximoLogo; }
+}
@@ -0,0 +1,90 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.itextpdf.layout.properties.TextAlignment;
+import java.util.List;
+
+/**
+ * Plantilla declarativa de un documento PDF
+ *
+ * Define qué bloques se dibujan, en qué orden, y las columnas de la tabla
+ * de líneas. Es inmutable: una misma plantilla se comparte entre renders.
+ *
+ * Para un tipo de documento nuevo basta con llenar un DocumentoPdf y,
+ * si necesita otra disposición, declarar otra plantilla.
+ */
+public final class PlantillaPdf {
+
+    /**
+     * Bloques disponibles en un documento
+     */
+    public enum Bloque {
+        /** Logo, datos de la empresa y título del documento */
+        ENCABEZADO,
+        /** Datos de identificación del documento */
+        DATOS,
+        /** Bloques de partes (cliente, negocio) y descripción */
+        SECCIONES,
+        /** Tabla de líneas de detalle */
+        LINEAS,
+        /** Subtotal, impuestos, total... */
+        TOTALES,
+        /** Observaciones libres */
+        OBSERVACIONES,
+        /** Pie del documento */
+        PIE
+    }
+
+    /**
+     * Columna de la tabla de líneas
+     */
+    public static final class Columna {
+        private final String titulo;
+        private final float ancho;
+        private final TextAlignment alineacion;
+
+        public Columna(String titulo, float ancho, TextAlignment alineacion) {
+            this.titulo = titulo;
+            this.ancho = ancho;
+            this.alineacion = alineacion;
+        }
+
+        public String getTitulo() { return titulo; }
+        public float getAncho() { return ancho; }
+        public TextAlignment getAlineacion() { return alineacion; }
+    }
+
+    /**
+     * Plantilla estándar de cotizaciones y facturas
+     * Columnas: #, Descripción, Cantidad, Valor unitario, Subtotal
+     */
+    public static final PlantillaPdf ESTANDAR = new PlantillaPdf(
+            List.of(Bloque.ENCABEZADO, Bloque.DATOS, Bloque.SECCIONES, Bloque.LINEAS,
+                    Bloque.TOTALES, Bloque.OBSERVACIONES, Bloque.PIE),
+            List.of(new Columna("#", 1, TextAlignment.CENTER),
+                    new Columna("Descripción", 8, TextAlignment.LEFT),
+                    new Columna("Cantidad", 2, TextAlignment.RIGHT),
+                    new Columna("Valor unitario", 3, TextAlignment.RIGHT),
+                    new Columna("Subtotal", 3, TextAlignment.RIGHT)));
+
+    private final List<Bloque> bloques;
+    private final List<Columna> columnas;
+    private final float[] anchos;
+
+    public PlantillaPdf(List<Bloque> bloques, List<Columna> columnas) {
+        if (columnas.size() != 5) {
+            throw new IllegalArgumentException("La tabla de líneas requiere 5 columnas: #, descripción, cantidad, valor y subtotal");
+        }
+        this.bloques = List.copyOf(bloques);
+        this.columnas = List.copyOf(columnas);
+        this.anchos = new float[columnas.size()];
+        for (int i = 0; i < columnas.size(); i++) {
+            anchos[i] = columnas.get(i).getAncho();
+        }
+    }
+
+    public List<Bloque> getBloques() { return bloques; }
+    public List<Columna> getColumnas() { return columnas; }
+
+    /** Anchos relativos de las columnas (copia, iText puede modificar el arreglo) */
+    public float[] getAnchos() { return anchos.clone(); }
+}
@@ -0,0 +1,232 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.element.Image;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Recursos de marca compartidos por todos los PDFs (logo, fuentes y encabezado)
+ *
+ * Se cargan una sola vez desde el classpath al arrancar y se reutilizan en cada render:
+ * - El logo se decodifica una vez (ImageData) en lugar de leerse del disco por documento,
+ *   y funciona igual dentro del jar empaquetado
+ * - Los programas de fuente (FontProgram) se parsean una vez
+ * - Las líneas fijas del encabezado de la empresa se definen aquí
+ *
+ * Es inmutable y seguro entre threads. Los objetos ligados a un PdfDocument
+ * (Image, PdfFont) no pueden compartirse, así que se crean por documento
+ * a partir de los recursos ya decodificados.
+ *
+ * Cada perfil de salida (PerfilSalidaPdf) puede pedir su propia variante
+ * con paraPerfil(): logo reducido y, si las fuentes se embebieran, en subconjunto.
+ *
+ * No depende de Spring para poder usarse fuera del contexto de la aplicación.
+ */
+public final class RecursosMarcaPdf {
+
+    /** Ubicación del logo dentro del classpath */
+    public static final String RUTA_LOGO = "imagenes/logo.png";
+
+    /** Tamaño del logo en puntos */
+    private static final float TAMANO_LOGO = 80;
+
+    /** Líneas fijas del encabezado de la empresa */
+    private static final List<String> ENCABEZADO_EMPRESA = List.of(
+            "QUEEN'S CORNER GALLERY",
+            "Carrera 10 # 16 - 95, Sogamoso",
+            "NIT: 56789056-6",
+            "\"Diseño y confort a su servicio\"");
+
+    /** Bytes del logo tal como se embeben (null si no está en el classpath) */
+    private final byte[] bytesLogo;
+    /** Logo decodificado (null si no está en el classpath) */
+    private final ImageData logo;
+    private final FontProgram fuenteRegular;
+    private final FontProgram fuenteNegrita;
+    private final boolean subconjuntoFuentes;
+
+    private RecursosMarcaPdf(byte[] bytesLogo, FontProgram fuenteRegular, FontProgram fuenteNegrita,
+                             boolean subconjuntoFuentes) {
+        this.bytesLogo = bytesLogo;
+        this.logo = bytesLogo != null ? ImageDataFactory.create(bytesLogo) : null;
+        this.fuenteRegular = fuenteRegular;
+        this.fuenteNegrita = fuenteNegrita;
+        this.subconjuntoFuentes = subconjuntoFuentes;
+    }
+
+    /**
+     * Carga logo y fuentes desde el classpath
+     * Si el logo no existe, los PDFs se generan sin él
+     * @return Recursos listos para compartir entre renders
+     */
+    public static RecursosMarcaPdf cargarDesdeClasspath() {
+        return cargarDesdeClasspath(RecursosMarcaPdf.class.getClassLoader());
+    }
+
+    /**
+     * Carga logo y fuentes usando un ClassLoader específico
+     * @param classLoader ClassLoader donde buscar RUTA_LOGO
+     * @return Recursos listos para compartir entre renders
+     */
+    public static RecursosMarcaPdf cargarDesdeClasspath(ClassLoader classLoader) {
+        byte[] logo = null;
+        try (InputStream in = classLoader.getResourceAsStream(RUTA_LOGO)) {
+            if (in != null) {
+                logo = in.readAllBytes();
+            } else {
+                System.out.println("⚠️ Logo no encontrado en el classpath (" + RUTA_LOGO + "), los PDFs se generarán sin él");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al cargar el logo " + RUTA_LOGO, e);
+        }
+
+        try {
+            return new RecursosMarcaPdf(logo,
+                    FontProgramFactory.createFont(StandardFonts.HELVETICA),
+                    FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD),
+                    false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al cargar las fuentes de los PDFs", e);
+        }
+    }
+
+    /**
+     * Obtiene la variante de estos recursos para un perfil de salida
+     * El logo se reduce una sola vez aquí, no en cada render
+     * @param perfil Perfil de salida de los PDFs
+     * @return Estos mismos recursos si el perfil no cambia nada, o una copia ajustada
+     */
+    public RecursosMarcaPdf paraPerfil(PerfilSalidaPdf perfil) {
+        byte[] logoPerfil = bytesLogo;
+        if (bytesLogo != null && perfil.getLadoMaximoLogo() > 0) {
+            logoPerfil = reducirLogo(bytesLogo, perfil.getLadoMaximoLogo());
+        }
+        if (logoPerfil == bytesLogo && perfil.isSubconjuntoFuentes() == subconjuntoFuentes) {
+            return this;
+        }
+        return new RecursosMarcaPdf(logoPerfil, fuenteRegular, fuenteNegrita, perfil.isSubconjuntoFuentes());
+    }
+
+    /**
+     * Reduce el logo para que su lado mayor no supere ladoMaximo píxeles
+     * Una imagen con paleta conserva la paleta (PNG indexado, el más liviano);
+     * si el resultado no ocupa menos que el original, se conserva el original
+     * @return Bytes PNG del logo reducido, o los originales
+     */
+    private static byte[] reducirLogo(byte[] original, int ladoMaximo) {
+        try {
+            BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(original));
+            if (imagen == null || Math.max(imagen.getWidth(), imagen.getHeight()) <= ladoMaximo) {
+                return original;
+            }
+            double escala = (double) ladoMaximo / Math.max(imagen.getWidth(), imagen.getHeight());
+            int ancho = Math.max(1, (int) Math.round(imagen.getWidth() * escala));
+            int alto = Math.max(1, (int) Math.round(imagen.getHeight() * escala));
+
+            BufferedImage reducida = imagen.getColorModel() instanceof IndexColorModel paleta
+                    ? new BufferedImage(ancho, alto, BufferedImage.TYPE_BYTE_INDEXED, paleta)
+                    : new BufferedImage(ancho, alto, imagen.getColorModel().hasAlpha()
+                            ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = reducida.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(imagen, 0, 0, ancho, alto, null);
+            } finally {
+                g.dispose();
+            }
+
+            if (reducida.getColorModel() instanceof IndexColorModel paleta) {
+                reducida = recortarPaleta(reducida, paleta);
+            }
+
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(reducida, "png", png);
+            return png.size() < original.length ? png.toByteArray() : original;
+        } catch (IOException e) {
+            System.out.println("⚠️ No se pudo reducir el logo, se usa el original: " + e.getMessage());
+            return original;
+        }
+    }
+
+    /**
+     * Deja en la paleta solo los colores hasta el último índice usado
+     * ImageIO completa las paletas a 256 colores al leer; sin recortarla,
+     * la paleta del PDF crece más de lo que se ahorra al reducir el logo
+     */
+    private static BufferedImage recortarPaleta(BufferedImage imagen, IndexColorModel paleta) {
+        int[] indices = imagen.getRaster().getPixels(0, 0, imagen.getWidth(), imagen.getHeight(), (int[]) null);
+        int colores = 1;
+        for (int indice : indices) {
+            colores = Math.max(colores, indice + 1);
+        }
+        if (colores >= paleta.getMapSize()) {
+            return imagen;
+        }
+        byte[] rojos = new byte[paleta.getMapSize()];
+        byte[] verdes = new byte[paleta.getMapSize()];
+        byte[] azules = new byte[paleta.getMapSize()];
+        paleta.getReds(rojos);
+        paleta.getGreens(verdes);
+        paleta.getBlues(azules);
+        return new BufferedImage(new IndexColorModel(8, colores, rojos, verdes, azules),
+                imagen.getRaster(), false, null);
+    }
+
+    /**
+     * Crea el elemento de logo para un documento
+     * @return Image de 80x80 o null si no hay logo
+     */
+    public Image crearLogo() {
+        if (logo == null) {
+            return null;
+        }
+        Image imagen = new Image(logo);
+        imagen.setWidth(TAMANO_LOGO);
+        imagen.setHeight(TAMANO_LOGO);
+        return imagen;
+    }
+
+    /**
+     * Crea la fuente regular para un documento
+     * PdfFont se liga al primer PdfDocument donde se usa, por eso es una instancia por documento
+     */
+    public PdfFont crearFuenteRegular() {
+        return crearFuente(fuenteRegular);
+    }
+
+    /**
+     * Crea la fuente negrita para un documento
+     */
+    public PdfFont crearFuenteNegrita() {
+        return crearFuente(fuenteNegrita);
+    }
+
+    private PdfFont crearFuente(FontProgram programa) {
+        PdfFont fuente = PdfFontFactory.createFont(programa, PdfEncodings.WINANSI);
+        // Solo aplica a fuentes embebidas; las 14 estándar (Helvetica) no se embeben
+        fuente.setSubset(subconjuntoFuentes);
+        return fuente;
+    }
+
+    public boolean tieneLogo() { return logo != null; }
+
+    public List<String> getEncabezadoEmpresa() { return ENCABEZADO_EMPRESA; }
+}
@@ -0,0 +1,236 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.LineSeparator;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Text;
+import com.itextpdf.layout.properties.BorderCollapsePropertyValue;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf.Campo;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf.Linea;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf.Seccion;
+import com.uptc.queenscorner.services.pdf.PlantillaPdf.Columna;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Motor único de renderizado de documentos PDF
+ *
+ * Dibuja cualquier DocumentoPdf siguiendo una PlantillaPdf:
+ * encabezado de marca, datos, secciones, tabla de líneas, totales,
+ * observaciones y pie. Cotizaciones y facturas (y cualquier documento
+ * futuro) solo difieren en cómo llenan el modelo.
+ *
+ * La tabla de líneas se renderiza de forma incremental (tabla "grande" de
+ * iText): facturas con miles de líneas no acumulan el documento completo en
+ * memoria.
+ *
+ * El perfil de salida (PerfilSalidaPdf) decide cómo se escribe el archivo:
+ * compresión, object streams, fuentes y resolución del logo.
+ *
+ * Es seguro entre threads: no guarda estado por documento.
+ * No depende de Spring para poder ejecutarse fuera de la aplicación.
+ */
+public class RenderizadorPdf {
+
+    /**
+     * Filas de la tabla de líneas que se acumulan antes de maquetarlas y
+     * escribirlas (Table.flush). Con esto la memoria del render no depende del
+     * número de líneas: las páginas completas se escriben y se liberan a medida
+     * que avanza la tabla.
+     */
+    static final int FILAS_POR_BLOQUE = 100;
+
+    private final RecursosMarcaPdf recursos;
+    private final PerfilSalidaPdf perfil;
+
+    public RenderizadorPdf(RecursosMarcaPdf recursos) {
+        this(recursos, PerfilSalidaPdf.ESTANDAR);
+    }
+
+    public RenderizadorPdf(RecursosMarcaPdf recursos, PerfilSalidaPdf perfil) {
+        this.recursos = recursos.paraPerfil(perfil);
+        this.perfil = perfil;
+    }
+
+    public PerfilSalidaPdf getPerfil() { return perfil; }
+
+    /**
+     * Renderiza un documento con la plantilla estándar
+     * @param documento Modelo del documento
+     * @param destino Stream de salida (no se cierra)
+     * @throws IOException si falla la escritura
+     */
+    public void renderizar(DocumentoPdf documento, OutputStream destino) throws IOException {
+        renderizar(documento, PlantillaPdf.ESTANDAR, destino);
+    }
+
+    /**
+     * Renderiza un documento con una plantilla específica
+     * @param documento Modelo del documento
+     * @param plantilla Bloques y columnas a dibujar
+     * @param destino Stream de salida (no se cierra)
+     * @throws IOException si falla la escritura
+     */
+    public void renderizar(DocumentoPdf documento, PlantillaPdf plantilla, OutputStream destino) throws IOException {
+        PdfWriter writer = new PdfWriter(destino, perfil.crearPropiedadesEscritura());
+        writer.setCloseStream(false);
+
+        try (Document doc = new Document(new PdfDocument(writer))) {
+            EstilosPdf estilos = new EstilosPdf(recursos.crearFuenteRegular(), recursos.crearFuenteNegrita());
+            doc.setFont(estilos.regular).setFontSize(estilos.tamanoBase);
+
+            for (PlantillaPdf.Bloque bloque : plantilla.getBloques()) {
+                switch (bloque) {
+                    case ENCABEZADO -> agregarEncabezado(doc, documento, estilos);
+                    case DATOS -> agregarCampos(doc, documento.getDatos(), estilos);
+                    case SECCIONES -> agregarSecciones(doc, documento.getSecciones(), estilos);
+                    case LINEAS -> agregarLineas(doc, documento, plantilla, estilos);
+                    case TOTALES -> agregarTotales(doc, documento.getTotales(), estilos);
+                    case OBSERVACIONES -> agregarObservaciones(doc, documento.getObservaciones(), estilos);
+                    case PIE -> agregarPie(doc, documento.getPie(), estilos);
+                }
+            }
+        }
+        destino.flush();
+    }
+
+    private void agregarEncabezado(Document doc, DocumentoPdf documento, EstilosPdf estilos) {
+        Image logo = recursos.crearLogo();
+        if (logo != null) {
+            doc.add(logo);
+        }
+        List<String> encabezado = recursos.getEncabezadoEmpresa();
+        for (int i = 0; i < encabezado.size(); i++) {
+            Paragraph linea = new Paragraph(encabezado.get(i)).setMargin(0);
+            if (i == 0) {
+                linea.addStyle(estilos.empresa);
+            }
+            doc.add(linea);
+        }
+        doc.add(separador());
+        doc.add(new Paragraph(documento.getTitulo()).addStyle(estilos.titulo));
+        doc.add(separador());
+    }
+
+    private void agregarCampos(Document doc, List<Campo> campos, EstilosPdf estilos) {
+        for (Campo campo : campos) {
+            doc.add(new Paragraph()
+                    .setMargin(0)
+                    .add(new Text(campo.getEtiqueta() + ": ").addStyle(estilos.etiqueta))
+                    .add(new Text(campo.getValor())));
+        }
+    }
+
+    private void agregarSecciones(Document doc, List<Seccion> secciones, EstilosPdf estilos) {
+        for (Seccion seccion : secciones) {
+            doc.add(new Paragraph(seccion.getTitulo()).addStyle(estilos.tituloSeccion));
+            agregarCampos(doc, seccion.getCampos(), estilos);
+            if (seccion.getTexto() != null) {
+                doc.add(new Paragraph(seccion.getTexto()));
+            }
+        }
+    }
+
+    private void agregarLineas(Document doc, DocumentoPdf documento, PlantillaPdf plantilla, EstilosPdf estilos) {
+        doc.add(new Paragraph(documento.getTituloLineas()).addStyle(estilos.tituloSeccion));
+        if (documento.getLineas().isEmpty()) {
+            doc.add(new Paragraph("Sin líneas registradas"));
+            return;
+        }
+
+        List<Columna> columnas = plantilla.getColumnas();
+        // Anchos fijos (sin medir el contenido de cada celda), bordes separados y
+        // fuente definida en la tabla para que las celdas la hereden
+        // Tabla "grande" (incremental): se agrega al documento antes de llenarla y
+        // cada FILAS_POR_BLOQUE filas se maqueta y se descarta lo ya escrito
+        Table tabla = new Table(UnitValue.createPercentArray(plantilla.getAnchos()), true)
+                .useAllAvailableWidth()
+                .setFixedLayout()
+                .setBorderCollapse(BorderCollapsePropertyValue.SEPARATE)
+                .setFont(estilos.regular)
+                .setFontSize(EstilosPdf.TAMANO_TABLA);
+        for (Columna columna : columnas) {
+            tabla.addHeaderCell(celda(columna.getTitulo(), columna)
+                    .setFont(estilos.negrita)
+                    .setBackgroundColor(EstilosPdf.GRIS_ENCABEZADO));
+        }
+        doc.add(tabla);
+
+        int filas = 0;
+        for (Linea linea : documento.getLineas()) {
+            tabla.addCell(celda(FormatoPdf.texto(linea.getNumero()), columnas.get(0)));
+            tabla.addCell(celda(FormatoPdf.texto(linea.getDescripcion()), columnas.get(1)));
+            tabla.addCell(celda(FormatoPdf.texto(linea.getCantidad()), columnas.get(2)));
+            tabla.addCell(celda(FormatoPdf.moneda(linea.getValorUnitario()), columnas.get(3)));
+            tabla.addCell(celda(FormatoPdf.moneda(linea.getSubtotal()), columnas.get(4)));
+            if (++filas % FILAS_POR_BLOQUE == 0) {
+                tabla.flush();
+            }
+        }
+        tabla.complete();
+    }
+
+    private Cell celda(String texto, Columna columna) {
+        return new Cell()
+                .add(new Paragraph(texto))
+                .setBorder(Border.NO_BORDER)
+                .setTextAlignment(columna.getAlineacion());
+    }
+
+    private void agregarTotales(Document doc, List<Campo> totales, EstilosPdf estilos) {
+        if (totales.isEmpty()) {
+            return;
+        }
+        Table tabla = new Table(UnitValue.createPercentArray(new float[]{3, 2}))
+                .setWidth(UnitValue.createPercentValue(45))
+                .setFixedLayout()
+                .setBorderCollapse(BorderCollapsePropertyValue.SEPARATE)
+                .setHorizontalAlignment(HorizontalAlignment.RIGHT)
+                .setMarginTop(8);
+        for (Campo total : totales) {
+            Cell etiqueta = new Cell().add(new Paragraph(total.getEtiqueta())).setBorder(Border.NO_BORDER);
+            Cell valor = new Cell().add(new Paragraph(total.getValor())).setBorder(Border.NO_BORDER)
+                    .setTextAlignment(TextAlignment.RIGHT);
+            if (total.isDestacado()) {
+                etiqueta.addStyle(estilos.totalDestacado);
+                valor.addStyle(estilos.totalDestacado);
+            }
+            tabla.addCell(etiqueta);
+            tabla.addCell(valor);
+        }
+        doc.add(tabla);
+    }
+
+    private void agregarObservaciones(Document doc, String observaciones, EstilosPdf estilos) {
+        if (observaciones == null || observaciones.isEmpty()) {
+            return;
+        }
+        doc.add(new Paragraph("OBSERVACIONES").addStyle(estilos.tituloSeccion));
+        doc.add(new Paragraph(observaciones));
+    }
+
+    private void agregarPie(Document doc, List<String> pie, EstilosPdf estilos) {
+        if (pie.isEmpty()) {
+            return;
+        }
+        doc.add(separador());
+        for (String linea : pie) {
+            doc.add(new Paragraph(linea).addStyle(estilos.pie).setMargin(0));
+        }
+    }
+
+    private LineSeparator separador() {
+        return new LineSeparator(new SolidLine(0.5f)).setMarginTop(4).setMarginBottom(4);
+    }
+}
@@ -0,0 +1,128 @@
+package com.uptc.queenscorner.services.pdf.externo;
+
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Protocolo entre la aplicación y un proceso renderizador (stdin/stdout del proceso)
+ *
+ * Todos los mensajes son binarios (DataOutputStream, big-endian):
+ *
+ * Aplicación → renderizador, una solicitud por documento:
+ *   int longitud + DocumentoPdf serializado
+ *
+ * Renderizador → aplicación, una secuencia de tramas que empiezan con un byte de tipo:
+ *   'L' + UTF versión   listo para recibir solicitudes (solo al arrancar)
+ *   'D' + int n + bytes  fragmento del PDF (como máximo TAMANO_FRAGMENTO)
+ *   'F' + long total     fin del documento
+ *   'E' + UTF mensaje    el render falló; el proceso sigue aceptando solicitudes
+ *
+ * El PDF viaja por fragmentos mientras se genera: ninguno de los dos procesos
+ * necesita tenerlo completo en memoria.
+ */
+final class ProtocoloRenderizado {
+
+    /** Versión del protocolo; la aplicación rechaza renderizadores de otra versión */
+    static final String VERSION = "1";
+
+    static final byte LISTO = 'L';
+    static final byte DATOS = 'D';
+    static final byte FIN = 'F';
+    static final byte ERROR = 'E';
+
+    /** Tamaño máximo de un fragmento 'D' */
+    static final int TAMANO_FRAGMENTO = 64 * 1024;
+
+    /** Tamaño máximo de una solicitud serializada (un DocumentoPdf de 20.000 líneas ocupa ~2 MB) */
+    static final int MAXIMO_SOLICITUD = 256 * 1024 * 1024;
+
+    /** Solo se deserializa el modelo de documento y los tipos de java.* que usa */
+    private static final ObjectInputFilter FILTRO = ObjectInputFilter.Config.createFilter(
+            "com.uptc.queenscorner.services.pdf.DocumentoPdf;com.uptc.queenscorner.services.pdf.DocumentoPdf$*;"
+                    + "java.lang.*;java.math.*;java.time.*;java.util.*;!*");
+
+    private ProtocoloRenderizado() {
+    }
+
+    /**
+     * Envía una solicitud de render
+     */
+    static void escribirSolicitud(DataOutputStream salida, DocumentoPdf documento) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8 * 1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(documento);
+        }
+        salida.writeInt(buffer.size());
+        buffer.writeTo(salida);
+        salida.flush();
+    }
+
+    /**
+     * Lee una solicitud de render
+     * @return Documento a renderizar, o null si la aplicación cerró el canal
+     */
+    static DocumentoPdf leerSolicitud(DataInputStream entrada) throws IOException {
+        int longitud;
+        try {
+            longitud = entrada.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (longitud <= 0 || longitud > MAXIMO_SOLICITUD) {
+            throw new IOException("Longitud de solicitud inválida: " + longitud);
+        }
+        byte[] datos = new byte[longitud];
+        entrada.readFully(datos);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(datos))) {
+            in.setObjectInputFilter(FILTRO);
+            return (DocumentoPdf) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new InvalidObjectException("Solicitud no es un DocumentoPdf: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stream que envía lo escrito como tramas 'D'
+     * Se usa detrás de un BufferedOutputStream de TAMANO_FRAGMENTO; close() no cierra el canal
+     */
+    static final class SalidaFragmentos extends OutputStream {
+        private final DataOutputStream canal;
+        private long total;
+
+        SalidaFragmentos(DataOutputStream canal) {
+            this.canal = canal;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, TAMANO_FRAGMENTO);
+                canal.writeByte(DATOS);
+                canal.writeInt(n);
+                canal.write(b, off, n);
+                total += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        long getTotal() {
+            return total;
+        }
+    }
+}
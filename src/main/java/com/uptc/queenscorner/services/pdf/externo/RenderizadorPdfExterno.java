@@ -0,0 +1,306 @@
+package com.uptc.queenscorner.services.pdf.externo;
+
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import com.uptc.queenscorner.services.pdf.PerfilSalidaPdf;
+import com.uptc.queenscorner.services.pdf.PlantillaPdf;
+import com.uptc.queenscorner.services.pdf.RecursosMarcaPdf;
+import com.uptc.queenscorner.services.pdf.RenderizadorPdf;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renderizador que delega el render en un pool de procesos JVM aparte
+ *
+ * iText genera mucha basura por documento; con el render fuera del proceso de
+ * la API, sus pausas de GC no afectan la latencia de los demás endpoints. La
+ * aplicación solo serializa el modelo (DocumentoPdf), lo envía por el stdin de
+ * un proceso libre y copia al destino los fragmentos del PDF que llegan por su
+ * stdout (ver ProtocoloRenderizado y RenderizadorWorkerMain).
+ *
+ * - Cada proceso atiende un documento a la vez; un render espera a que haya
+ *   uno libre (como mucho timeoutMs)
+ * - Un render que supera timeoutMs mata su proceso y falla con IOException
+ *   (el trabajo se reintenta como cualquier otro error de render)
+ * - Un proceso que muere (ej: OutOfMemoryError) se reemplaza al tomarlo
+ * - Plantillas distintas de la estándar se renderizan en el proceso de la API
+ *
+ * Es intercambiable con RenderizadorPdf: PdfAsyncService y el resto de
+ * servicios no saben dónde se renderiza.
+ */
+public class RenderizadorPdfExterno extends RenderizadorPdf implements AutoCloseable {
+
+    private static final String CLASE_PRINCIPAL = RenderizadorWorkerMain.class.getName();
+
+    private final List<String> comando;
+    private final long timeoutMs;
+    private final BlockingQueue<Proceso> libres;
+    private final ScheduledExecutorService vigilante;
+    private final AtomicInteger secuencia = new AtomicInteger();
+    private volatile boolean cerrado;
+
+    /**
+     * Lanza los procesos renderizadores y espera a que estén listos
+     * @param recursos Recursos de marca (solo para plantillas no estándar, en proceso)
+     * @param perfil Perfil de salida que usarán los procesos
+     * @param procesos Número de procesos del pool
+     * @param classpath Classpath de los procesos (ej: el jar renderizador)
+     * @param opcionesJvm Opciones de la JVM de cada proceso (ej: -Xmx256m)
+     * @param timeoutMs Tiempo máximo para obtener un proceso y para cada render
+     * @throws IllegalStateException si algún proceso no arranca
+     */
+    public RenderizadorPdfExterno(RecursosMarcaPdf recursos, PerfilSalidaPdf perfil, int procesos,
+                                  String classpath, List<String> opcionesJvm, long timeoutMs) {
+        super(recursos, perfil);
+        if (procesos <= 0) {
+            throw new IllegalArgumentException("El pool de renderizadores necesita al menos un proceso");
+        }
+        this.timeoutMs = timeoutMs;
+        this.comando = new ArrayList<>();
+        comando.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(opcionesJvm);
+        comando.add("-cp");
+        comando.add(classpath);
+        comando.add(CLASE_PRINCIPAL);
+        comando.add(perfil.name());
+
+        this.vigilante = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "queens-pdf-vigilante");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.libres = new ArrayBlockingQueue<>(procesos);
+        try {
+            for (int i = 0; i < procesos; i++) {
+                libres.add(lanzar());
+            }
+        } catch (IOException e) {
+            close();
+            throw new IllegalStateException("No se pudo iniciar el renderizador externo: " + e.getMessage(), e);
+        }
+        System.out.println("🧩 Renderizador de PDFs externo: " + procesos + " procesos " + opcionesJvm);
+    }
+
+    /**
+     * Renderiza en un proceso del pool, copiando el PDF al destino mientras llega
+     * @param destino Stream de salida (no se cierra)
+     * @throws IOException si el render falla, el proceso muere o se agota el tiempo
+     */
+    @Override
+    public void renderizar(DocumentoPdf documento, PlantillaPdf plantilla, OutputStream destino) throws IOException {
+        if (plantilla != PlantillaPdf.ESTANDAR) {
+            super.renderizar(documento, plantilla, destino);
+            return;
+        }
+
+        Proceso proceso = tomar();
+        ScheduledFuture<?> limite = vigilante.schedule(proceso::destruir, timeoutMs, TimeUnit.MILLISECONDS);
+        boolean sano = false;
+        try {
+            sano = proceso.renderizar(documento, destino);
+        } catch (RenderExternoException e) {
+            // El renderizador informó el error y quedó listo para el siguiente documento
+            sano = true;
+            throw e;
+        } catch (IOException e) {
+            if (limite.isDone()) {
+                throw new IOException("El renderizador externo superó " + timeoutMs + " ms con "
+                        + documento.getNombreArchivo(), e);
+            }
+            throw e;
+        } finally {
+            // cancel() falla solo si el límite ya se cumplió (el proceso fue destruido)
+            boolean vencido = !limite.cancel(false);
+            devolver(proceso, sano && !vencido);
+        }
+        destino.flush();
+    }
+
+    /**
+     * Número de procesos lanzados desde la creación del pool (iniciales y reemplazos)
+     */
+    public int getProcesosLanzados() {
+        return secuencia.get();
+    }
+
+    /**
+     * Número de procesos libres en este momento
+     */
+    public int getProcesosLibres() {
+        return libres.size();
+    }
+
+    /**
+     * Termina los procesos del pool (cerrar stdin los hace salir)
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        Proceso proceso;
+        while ((proceso = libres.poll()) != null) {
+            proceso.cerrar();
+        }
+        vigilante.shutdownNow();
+    }
+
+    /**
+     * Toma un proceso libre; si murió, lanza uno nuevo en su lugar
+     */
+    private Proceso tomar() throws IOException {
+        if (cerrado) {
+            throw new IOException("El renderizador externo está cerrado");
+        }
+        Proceso proceso;
+        try {
+            proceso = libres.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Espera de renderizador interrumpida", e);
+        }
+        if (proceso == null) {
+            throw new IOException("No hay renderizador externo libre después de " + timeoutMs + " ms");
+        }
+        if (!proceso.vivo()) {
+            System.err.println("⚠️ Renderizador externo " + proceso.nombre + " terminado; se reemplaza");
+            proceso.destruir();
+            try {
+                proceso = lanzar();
+            } catch (IOException e) {
+                // El cupo no se pierde: el próximo render vuelve a intentarlo
+                libres.add(proceso);
+                throw e;
+            }
+        }
+        return proceso;
+    }
+
+    /**
+     * Devuelve un proceso al pool
+     * Si quedó a mitad de una respuesta (error de E/S, timeout) se destruye:
+     * el próximo tomar() lo reemplaza
+     */
+    private void devolver(Proceso proceso, boolean sano) {
+        if (!sano) {
+            proceso.destruir();
+        }
+        if (cerrado) {
+            proceso.cerrar();
+            return;
+        }
+        libres.add(proceso);
+    }
+
+    private Proceso lanzar() throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(comando)
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        Proceso proceso = new Proceso("renderizador-" + secuencia.incrementAndGet(), builder.start());
+        proceso.esperarListo();
+        return proceso;
+    }
+
+    /**
+     * Proceso renderizador y sus canales
+     */
+    private static final class Proceso {
+        private final String nombre;
+        private final Process proceso;
+        private final DataOutputStream entrada;
+        private final DataInputStream salida;
+        private final byte[] buffer = new byte[ProtocoloRenderizado.TAMANO_FRAGMENTO];
+        private volatile boolean descartado;
+
+        private Proceso(String nombre, Process proceso) {
+            this.nombre = nombre;
+            this.proceso = proceso;
+            this.entrada = new DataOutputStream(new BufferedOutputStream(proceso.getOutputStream()));
+            this.salida = new DataInputStream(new BufferedInputStream(proceso.getInputStream()));
+        }
+
+        private void esperarListo() throws IOException {
+            try {
+                byte tipo = salida.readByte();
+                String version = salida.readUTF();
+                if (tipo != ProtocoloRenderizado.LISTO || !ProtocoloRenderizado.VERSION.equals(version)) {
+                    throw new IOException("Respuesta inesperada del renderizador (versión " + version + ")");
+                }
+            } catch (IOException e) {
+                destruir();
+                throw e instanceof EOFException
+                        ? new IOException("El renderizador terminó al arrancar (revisar classpath y opciones)", e)
+                        : e;
+            }
+        }
+
+        /**
+         * Envía un documento y copia la respuesta al destino
+         * @return true si el render terminó bien
+         * @throws IOException si el render falla (el proceso sigue en sincronía
+         *         cuando el error lo informó el renderizador)
+         */
+        private boolean renderizar(DocumentoPdf documento, OutputStream destino) throws IOException {
+            ProtocoloRenderizado.escribirSolicitud(entrada, documento);
+            long recibidos = 0;
+            while (true) {
+                byte tipo = salida.readByte();
+                switch (tipo) {
+                    case ProtocoloRenderizado.DATOS -> {
+                        int n = salida.readInt();
+                        salida.readFully(buffer, 0, n);
+                        destino.write(buffer, 0, n);
+                        recibidos += n;
+                    }
+                    case ProtocoloRenderizado.FIN -> {
+                        long total = salida.readLong();
+                        if (total != recibidos) {
+                            throw new IOException("PDF incompleto del renderizador: " + recibidos + " de " + total + " bytes");
+                        }
+                        return true;
+                    }
+                    case ProtocoloRenderizado.ERROR -> throw new RenderExternoException(salida.readUTF());
+                    default -> throw new IOException("Trama desconocida del renderizador: " + tipo);
+                }
+            }
+        }
+
+        private boolean vivo() {
+            return !descartado && proceso.isAlive();
+        }
+
+        /** Cierra stdin: el proceso termina al leer fin de entrada */
+        private void cerrar() {
+            try {
+                entrada.close();
+            } catch (IOException e) {
+                proceso.destroy();
+            }
+        }
+
+        private void destruir() {
+            descartado = true;
+            proceso.destroyForcibly();
+        }
+    }
+
+    /**
+     * Error informado por el renderizador (trama 'E'); el proceso sigue utilizable
+     */
+    private static final class RenderExternoException extends IOException {
+        private RenderExternoException(String mensaje) {
+            super("Error en el renderizador externo: " + mensaje);
+        }
+    }
+}
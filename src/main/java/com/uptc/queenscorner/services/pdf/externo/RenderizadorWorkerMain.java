@@ -0,0 +1,112 @@
+package com.uptc.queenscorner.services.pdf.externo;
+
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import com.uptc.queenscorner.services.pdf.PerfilSalidaPdf;
+import com.uptc.queenscorner.services.pdf.RecursosMarcaPdf;
+import com.uptc.queenscorner.services.pdf.RenderizadorPdf;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+/**
+ * Punto de entrada del proceso renderizador de PDFs (JVM aparte, sin Spring)
+ *
+ * Lo lanza RenderizadorPdfExterno con el perfil de salida como argumento:
+ *
+ *   java -cp queenscorner-renderizador.jar \
+ *        com.uptc.queenscorner.services.pdf.externo.RenderizadorWorkerMain COMPACTO
+ *
+ * Lee solicitudes por stdin y responde por stdout (ver ProtocoloRenderizado),
+ * una a la vez, hasta que la aplicación cierra stdin. Los mensajes de log van
+ * a stderr: stdout es exclusivo del protocolo.
+ *
+ * Solo depende de las clases de services.pdf, iText y los recursos de marca
+ * del classpath; se empaqueta aparte como queenscorner-<versión>-renderizador.jar.
+ */
+public final class RenderizadorWorkerMain {
+
+    private RenderizadorWorkerMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        PerfilSalidaPdf perfil = args.length > 0 ? PerfilSalidaPdf.valueOf(args[0]) : PerfilSalidaPdf.ESTANDAR;
+
+        // stdout queda reservado al protocolo; cualquier println termina en stderr
+        DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), ProtocoloRenderizado.TAMANO_FRAGMENTO + 16));
+        System.setOut(System.err);
+        DataInputStream entrada = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+
+        RenderizadorPdf renderizador = new RenderizadorPdf(RecursosMarcaPdf.cargarDesdeClasspath(), perfil);
+        calentar(renderizador);
+        salida.writeByte(ProtocoloRenderizado.LISTO);
+        salida.writeUTF(ProtocoloRenderizado.VERSION);
+        salida.flush();
+
+        DocumentoPdf documento;
+        while ((documento = ProtocoloRenderizado.leerSolicitud(entrada)) != null) {
+            atender(renderizador, documento, salida);
+        }
+    }
+
+    /**
+     * Renderiza un documento enviándolo por fragmentos
+     * Un error del render se informa con una trama 'E' y el proceso sigue;
+     * un Error de la JVM (ej: OutOfMemoryError) termina el proceso y la
+     * aplicación lanza uno nuevo
+     */
+    private static void atender(RenderizadorPdf renderizador, DocumentoPdf documento, DataOutputStream salida)
+            throws IOException {
+        ProtocoloRenderizado.SalidaFragmentos fragmentos = new ProtocoloRenderizado.SalidaFragmentos(salida);
+        try {
+            OutputStream pdf = new BufferedOutputStream(fragmentos, ProtocoloRenderizado.TAMANO_FRAGMENTO);
+            renderizador.renderizar(documento, pdf);
+            pdf.flush();
+            salida.writeByte(ProtocoloRenderizado.FIN);
+            salida.writeLong(fragmentos.getTotal());
+        } catch (Exception e) {
+            salida.writeByte(ProtocoloRenderizado.ERROR);
+            salida.writeUTF(mensaje(e));
+        } catch (Error e) {
+            System.err.println("❌ Renderizador externo: " + e);
+            salida.writeByte(ProtocoloRenderizado.ERROR);
+            salida.writeUTF("Renderizador terminado: " + mensaje(e));
+            salida.flush();
+            System.exit(1);
+        }
+        salida.flush();
+    }
+
+    /**
+     * Renderiza unos documentos de prueba antes de anunciarse listo, para que
+     * el primer documento real no pague la carga de clases y fuentes de iText
+     */
+    private static void calentar(RenderizadorPdf renderizador) throws IOException {
+        DocumentoPdf prueba = new DocumentoPdf("CALENTAMIENTO")
+                .agregarDato("Número", "0")
+                .agregarSeccion(new DocumentoPdf.Seccion("SECCIÓN").agregarCampo("Campo", "valor"))
+                .agregarTotal("TOTAL", BigDecimal.ZERO, true)
+                .agregarPie("pie");
+        for (int i = 1; i <= 50; i++) {
+            prueba.agregarLinea(i, "Línea " + i, 1, BigDecimal.ONE, BigDecimal.ONE);
+        }
+        for (int i = 0; i < 5; i++) {
+            renderizador.renderizar(prueba, OutputStream.nullOutputStream());
+        }
+    }
+
+    /**
+     * Mensaje de error acotado (writeUTF admite hasta 64 KB)
+     */
+    private static String mensaje(Throwable e) {
+        String mensaje = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        return mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje;
+    }
+}
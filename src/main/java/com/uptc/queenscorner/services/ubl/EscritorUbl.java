@@ -0,0 +1,305 @@
+package com.uptc.queenscorner.services.ubl;
+
+import com.uptc.queenscorner.services.ubl.FacturaUbl.Linea;
+import com.uptc.queenscorner.services.ubl.FacturaUbl.Participante;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Escritor del XML UBL 2.1 de una factura electrónica de venta (anexo técnico DIAN)
+ *
+ * Escribe con StAX directo en el stream de salida, elemento por elemento:
+ * no se arma un árbol DOM, así que la memoria no depende del número de líneas.
+ *
+ * Estructura (en el orden que exige el esquema UBL):
+ * - Encabezado: versión, perfil DIAN, ambiente, número, fecha/hora, tipo 01, moneda COP
+ * - AccountingSupplierParty: emisor (NIT y dígito de verificación)
+ * - AccountingCustomerParty: adquiriente (NIT o cédula)
+ * - TaxTotal: IVA 19% sobre el subtotal
+ * - LegalMonetaryTotal: subtotal, total con IVA, anticipo y valor a pagar
+ * - InvoiceLine: una por línea, con su IVA
+ *
+ * El XML sale sin firma ni CUFE: la firma digital y el envío a la DIAN los
+ * hace el proveedor tecnológico con el certificado de la empresa.
+ * La salida es determinista (mismo modelo → mismos bytes), por eso su
+ * SHA-256 sirve como huella para omitir regeneraciones sin cambios.
+ */
+public final class EscritorUbl {
+
+    static final String NS_INVOICE = "urn:oasis:names:specification:ubl:schema:xsd:Invoice-2";
+    static final String NS_CAC = "urn:oasis:names:specification:ubl:schema:xsd:CommonAggregateComponents-2";
+    static final String NS_CBC = "urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2";
+
+    /** Tarifa general de IVA */
+    private static final BigDecimal PORCENTAJE_IVA = new BigDecimal("19.00");
+    private static final String MONEDA = "COP";
+    /** Código DIAN del tributo IVA */
+    private static final String TRIBUTO_IVA = "01";
+    /** Unidad de medida: unidad (UN/ECE rec 20) */
+    private static final String UNIDAD = "94";
+
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm:ss");
+    /** Las fechas se guardan en hora de Colombia */
+    private static final String ZONA_COLOMBIA = "-05:00";
+
+    private static final XMLOutputFactory FABRICA = XMLOutputFactory.newFactory();
+
+    private EscritorUbl() {
+    }
+
+    /**
+     * Escribe el XML de una factura
+     * @param factura Modelo de la factura
+     * @param destino Stream de salida (no se cierra)
+     * @throws IOException si falla la escritura
+     */
+    public static void escribir(FacturaUbl factura, OutputStream destino) throws IOException {
+        try {
+            XMLStreamWriter xml = FABRICA.createXMLStreamWriter(destino, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.setDefaultNamespace(NS_INVOICE);
+            xml.setPrefix("cac", NS_CAC);
+            xml.setPrefix("cbc", NS_CBC);
+            xml.writeStartElement(NS_INVOICE, "Invoice");
+            xml.writeDefaultNamespace(NS_INVOICE);
+            xml.writeNamespace("cac", NS_CAC);
+            xml.writeNamespace("cbc", NS_CBC);
+
+            escribirEncabezado(xml, factura);
+            escribirParte(xml, "AccountingSupplierParty", factura.getEmisor(), true);
+            escribirParte(xml, "AccountingCustomerParty", factura.getAdquiriente(), false);
+
+            xml.writeStartElement(NS_CAC, "TaxTotal");
+            escribirImpuesto(xml, factura.getSubtotal(), factura.getIva());
+            xml.writeEndElement();
+
+            BigDecimal anticipo = valor(factura.getAnticipo());
+            xml.writeStartElement(NS_CAC, "LegalMonetaryTotal");
+            monto(xml, "LineExtensionAmount", factura.getSubtotal());
+            monto(xml, "TaxExclusiveAmount", factura.getSubtotal());
+            monto(xml, "TaxInclusiveAmount", factura.getTotal());
+            monto(xml, "PrepaidAmount", anticipo);
+            monto(xml, "PayableAmount", valor(factura.getTotal()).subtract(anticipo));
+            xml.writeEndElement();
+
+            for (Linea linea : factura.getLineas()) {
+                escribirLinea(xml, linea);
+            }
+
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close();
+        } catch (XMLStreamException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Error escribiendo el XML de " + factura.getNumero() + ": " + e.getMessage(), e);
+        }
+        destino.flush();
+    }
+
+    /**
+     * Huella del XML de una factura (SHA-256 en hexadecimal de los bytes que se escribirían)
+     * @param factura Modelo de la factura
+     * @return Huella de 64 caracteres
+     */
+    public static String huella(FacturaUbl factura) {
+        MessageDigest sha = nuevoSha256();
+        try (DigestOutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), sha)) {
+            escribir(factura, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error calculando la huella de " + factura.getNumero(), e);
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    /**
+     * Nuevo digest SHA-256, para calcular la huella mientras se escribe
+     */
+    public static MessageDigest nuevoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static void escribirEncabezado(XMLStreamWriter xml, FacturaUbl factura) throws XMLStreamException {
+        texto(xml, "UBLVersionID", "UBL 2.1");
+        texto(xml, "CustomizationID", "10");
+        texto(xml, "ProfileID", "DIAN 2.1: Factura Electrónica de Venta");
+        texto(xml, "ProfileExecutionID", factura.getAmbiente());
+        texto(xml, "ID", factura.getNumero());
+        if (factura.getFechaEmision() != null) {
+            texto(xml, "IssueDate", factura.getFechaEmision().format(FECHA));
+            texto(xml, "IssueTime", factura.getFechaEmision().format(HORA) + ZONA_COLOMBIA);
+        }
+        texto(xml, "InvoiceTypeCode", "01");
+        if (factura.getObservaciones() != null && !factura.getObservaciones().isBlank()) {
+            texto(xml, "Note", factura.getObservaciones());
+        }
+        texto(xml, "DocumentCurrencyCode", MONEDA);
+        texto(xml, "LineCountNumeric", String.valueOf(factura.getLineas().size()));
+    }
+
+    /**
+     * Emisor o adquiriente
+     * @param emisor true para el emisor (persona jurídica obligada a facturar)
+     */
+    private static void escribirParte(XMLStreamWriter xml, String elemento, Participante parte, boolean emisor)
+            throws XMLStreamException {
+        xml.writeStartElement(NS_CAC, elemento);
+        // 1 = persona jurídica, 2 = persona natural
+        texto(xml, "AdditionalAccountID", emisor || "31".equals(parte.getTipoDocumento()) ? "1" : "2");
+        xml.writeStartElement(NS_CAC, "Party");
+
+        xml.writeStartElement(NS_CAC, "PartyName");
+        texto(xml, "Name", parte.getNombre());
+        xml.writeEndElement();
+
+        if (parte.getDireccion() != null || parte.getCiudad() != null) {
+            xml.writeStartElement(NS_CAC, "PhysicalLocation");
+            xml.writeStartElement(NS_CAC, "Address");
+            if (parte.getCiudad() != null) {
+                texto(xml, "CityName", parte.getCiudad());
+            }
+            // AddressType de UBL 2.1: AddressLine va antes de Country
+            if (parte.getDireccion() != null) {
+                xml.writeStartElement(NS_CAC, "AddressLine");
+                texto(xml, "Line", parte.getDireccion());
+                xml.writeEndElement();
+            }
+            texto(xml, "IdentificationCode", "CO", NS_CAC, "Country");
+            xml.writeEndElement();
+            xml.writeEndElement();
+        }
+
+        xml.writeStartElement(NS_CAC, "PartyTaxScheme");
+        texto(xml, "RegistrationName", parte.getNombre());
+        xml.writeStartElement(NS_CBC, "CompanyID");
+        xml.writeAttribute("schemeAgencyID", "195");
+        xml.writeAttribute("schemeAgencyName", "CO, DIAN (Dirección de Impuestos y Aduanas Nacionales)");
+        if (parte.getDigitoVerificacion() != null) {
+            xml.writeAttribute("schemeID", parte.getDigitoVerificacion());
+        }
+        xml.writeAttribute("schemeName", parte.getTipoDocumento());
+        xml.writeCharacters(valorTexto(parte.getNumeroDocumento()));
+        xml.writeEndElement();
+        escribirTributoIva(xml);
+        xml.writeEndElement();
+
+        if (parte.getTelefono() != null || parte.getEmail() != null) {
+            xml.writeStartElement(NS_CAC, "Contact");
+            if (parte.getTelefono() != null) {
+                texto(xml, "Telephone", parte.getTelefono());
+            }
+            if (parte.getEmail() != null) {
+                texto(xml, "ElectronicMail", parte.getEmail());
+            }
+            xml.writeEndElement();
+        }
+
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    /**
+     * TaxAmount + TaxSubtotal del IVA (dentro de un cac:TaxTotal ya abierto)
+     */
+    private static void escribirImpuesto(XMLStreamWriter xml, BigDecimal base, BigDecimal impuesto)
+            throws XMLStreamException {
+        monto(xml, "TaxAmount", impuesto);
+        xml.writeStartElement(NS_CAC, "TaxSubtotal");
+        monto(xml, "TaxableAmount", base);
+        monto(xml, "TaxAmount", impuesto);
+        xml.writeStartElement(NS_CAC, "TaxCategory");
+        texto(xml, "Percent", PORCENTAJE_IVA.toPlainString());
+        escribirTributoIva(xml);
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private static void escribirTributoIva(XMLStreamWriter xml) throws XMLStreamException {
+        xml.writeStartElement(NS_CAC, "TaxScheme");
+        texto(xml, "ID", TRIBUTO_IVA);
+        texto(xml, "Name", "IVA");
+        xml.writeEndElement();
+    }
+
+    private static void escribirLinea(XMLStreamWriter xml, Linea linea) throws XMLStreamException {
+        BigDecimal subtotal = valor(linea.getSubtotal());
+        BigDecimal iva = subtotal.multiply(PORCENTAJE_IVA).movePointLeft(2).setScale(2, RoundingMode.HALF_UP);
+
+        xml.writeStartElement(NS_CAC, "InvoiceLine");
+        texto(xml, "ID", linea.getNumero() != null ? linea.getNumero().toString() : "");
+        xml.writeStartElement(NS_CBC, "InvoicedQuantity");
+        xml.writeAttribute("unitCode", UNIDAD);
+        xml.writeCharacters(linea.getCantidad() != null ? linea.getCantidad().toString() : "0");
+        xml.writeEndElement();
+        monto(xml, "LineExtensionAmount", subtotal);
+
+        xml.writeStartElement(NS_CAC, "TaxTotal");
+        escribirImpuesto(xml, subtotal, iva);
+        xml.writeEndElement();
+
+        xml.writeStartElement(NS_CAC, "Item");
+        texto(xml, "Description", valorTexto(linea.getDescripcion()));
+        xml.writeEndElement();
+
+        xml.writeStartElement(NS_CAC, "Price");
+        monto(xml, "PriceAmount", linea.getValorUnitario());
+        xml.writeStartElement(NS_CBC, "BaseQuantity");
+        xml.writeAttribute("unitCode", UNIDAD);
+        xml.writeCharacters("1");
+        xml.writeEndElement();
+        xml.writeEndElement();
+
+        xml.writeEndElement();
+    }
+
+    private static void texto(XMLStreamWriter xml, String elemento, String valor) throws XMLStreamException {
+        xml.writeStartElement(NS_CBC, elemento);
+        xml.writeCharacters(valorTexto(valor));
+        xml.writeEndElement();
+    }
+
+    /**
+     * Elemento cbc envuelto en un elemento cac (ej: cac:Country/cbc:IdentificationCode)
+     */
+    private static void texto(XMLStreamWriter xml, String elemento, String valor, String nsContenedor,
+                              String contenedor) throws XMLStreamException {
+        xml.writeStartElement(nsContenedor, contenedor);
+        texto(xml, elemento, valor);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Monto en pesos con dos decimales y currencyID
+     */
+    private static void monto(XMLStreamWriter xml, String elemento, BigDecimal valor) throws XMLStreamException {
+        xml.writeStartElement(NS_CBC, elemento);
+        xml.writeAttribute("currencyID", MONEDA);
+        xml.writeCharacters(valor(valor).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        xml.writeEndElement();
+    }
+
+    private static BigDecimal valor(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
+    }
+
+    private static String valorTexto(String valor) {
+        return valor != null ? valor : "";
+    }
+}
@@ -0,0 +1,141 @@
+package com.uptc.queenscorner.services.ubl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modelo de una factura electrónica de venta para el XML UBL 2.1
+ *
+ * Contiene solo los datos que exige el documento (emisor, adquiriente,
+ * líneas, IVA y totales), ya resueltos desde las entidades por
+ * FacturaUblMapper. EscritorUbl lo escribe en streaming.
+ */
+public class FacturaUbl {
+
+    /** Número de la factura (FAC-AAAA-CCCCCC) */
+    private String numero;
+    /** Fecha y hora de emisión (hora de Colombia) */
+    private LocalDateTime fechaEmision;
+    /** Nombre del archivo XML (ej: FAC-2025-000001.xml) */
+    private String nombreArchivo;
+    /** Fecha del documento (carpeta año/mes en el almacén) */
+    private LocalDate fechaDocumento;
+    /** Ambiente DIAN: 1 producción, 2 pruebas */
+    private String ambiente = "2";
+    private Participante emisor;
+    private Participante adquiriente;
+    private final List<Linea> lineas = new ArrayList<>();
+    /** Base gravable: suma de las líneas antes de IVA */
+    private BigDecimal subtotal = BigDecimal.ZERO;
+    private BigDecimal iva = BigDecimal.ZERO;
+    /** Subtotal + IVA */
+    private BigDecimal total = BigDecimal.ZERO;
+    /** Anticipo recibido (PrepaidAmount) */
+    private BigDecimal anticipo = BigDecimal.ZERO;
+    private String observaciones;
+
+    public FacturaUbl agregarLinea(Integer numero, String descripcion, Integer cantidad,
+                                   BigDecimal valorUnitario, BigDecimal subtotal) {
+        lineas.add(new Linea(numero, descripcion, cantidad, valorUnitario, subtotal));
+        return this;
+    }
+
+    public String getNumero() { return numero; }
+    public void setNumero(String numero) { this.numero = numero; }
+    public LocalDateTime getFechaEmision() { return fechaEmision; }
+    public void setFechaEmision(LocalDateTime fechaEmision) { this.fechaEmision = fechaEmision; }
+    public String getNombreArchivo() { return nombreArchivo; }
+    public void setNombreArchivo(String nombreArchivo) { this.nombreArchivo = nombreArchivo; }
+    public LocalDate getFechaDocumento() { return fechaDocumento; }
+    public void setFechaDocumento(LocalDate fechaDocumento) { this.fechaDocumento = fechaDocumento; }
+    public String getAmbiente() { return ambiente; }
+    public void setAmbiente(String ambiente) { this.ambiente = ambiente; }
+    public Participante getEmisor() { return emisor; }
+    public void setEmisor(Participante emisor) { this.emisor = emisor; }
+    public Participante getAdquiriente() { return adquiriente; }
+    public void setAdquiriente(Participante adquiriente) { this.adquiriente = adquiriente; }
+    public List<Linea> getLineas() { return lineas; }
+    public BigDecimal getSubtotal() { return subtotal; }
+    public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+    public BigDecimal getIva() { return iva; }
+    public void setIva(BigDecimal iva) { this.iva = iva; }
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+    public BigDecimal getAnticipo() { return anticipo; }
+    public void setAnticipo(BigDecimal anticipo) { this.anticipo = anticipo; }
+    public String getObservaciones() { return observaciones; }
+    public void setObservaciones(String observaciones) { this.observaciones = observaciones; }
+
+    /**
+     * Emisor o adquiriente de la factura
+     * tipoDocumento sigue la tabla de la DIAN: 31 = NIT, 13 = cédula de ciudadanía
+     */
+    public static class Participante {
+        private final String nombre;
+        private final String tipoDocumento;
+        private final String numeroDocumento;
+        /** Dígito de verificación (solo NIT; null si no aplica) */
+        private final String digitoVerificacion;
+        private String direccion;
+        private String ciudad;
+        private String telefono;
+        private String email;
+
+        public Participante(String nombre, String tipoDocumento, String numeroDocumento, String digitoVerificacion) {
+            this.nombre = nombre;
+            this.tipoDocumento = tipoDocumento;
+            this.numeroDocumento = numeroDocumento;
+            this.digitoVerificacion = digitoVerificacion;
+        }
+
+        public Participante conUbicacion(String direccion, String ciudad) {
+            this.direccion = direccion;
+            this.ciudad = ciudad;
+            return this;
+        }
+
+        public Participante conContacto(String telefono, String email) {
+            this.telefono = telefono;
+            this.email = email;
+            return this;
+        }
+
+        public String getNombre() { return nombre; }
+        public String getTipoDocumento() { return tipoDocumento; }
+        public String getNumeroDocumento() { return numeroDocumento; }
+        public String getDigitoVerificacion() { return digitoVerificacion; }
+        public String getDireccion() { return direccion; }
+        public String getCiudad() { return ciudad; }
+        public String getTelefono() { return telefono; }
+        public String getEmail() { return email; }
+    }
+
+    /**
+     * Línea de la factura (producto o servicio)
+     */
+    public static class Linea {
+        private final Integer numero;
+        private final String descripcion;
+        private final Integer cantidad;
+        private final BigDecimal valorUnitario;
+        private final BigDecimal subtotal;
+
+        public Linea(Integer numero, String descripcion, Integer cantidad,
+                     BigDecimal valorUnitario, BigDecimal subtotal) {
+            this.numero = numero;
+            this.descripcion = descripcion;
+            this.cantidad = cantidad;
+            this.valorUnitario = valorUnitario;
+            this.subtotal = subtotal;
+        }
+
+        public Integer getNumero() { return numero; }
+        public String getDescripcion() { return descripcion; }
+        public Integer getCantidad() { return cantidad; }
+        public BigDecimal getValorUnitario() { return valorUnitario; }
+        public BigDecimal getSubtotal() { return subtotal; }
+    }
+}
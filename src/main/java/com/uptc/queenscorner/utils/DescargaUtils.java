@@ -0,0 +1,157 @@
+package com.uptc.queenscorner.utils;
+
+import com.uptc.queenscorner.services.almacen.DocumentoAlmacenado;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Utilidad para construir respuestas de descarga de archivos almacenados
+ *
+ * El archivo se devuelve como Resource en lugar de byte[]:
+ * - Spring lo copia al response por bloques, sin cargarlo completo en el heap
+ * - Las peticiones con cabecera Range reciben 206 con solo el fragmento pedido
+ *   (descargas parciales y reanudables)
+ * - ETag y Last-Modified permiten responder 304 a If-None-Match /
+ *   If-Modified-Since. Con un Resource del almacén Spring lo resuelve antes de
+ *   abrir el archivo; cuando el contenido sale de la cache de PDFs en memoria,
+ *   el controlador debe consultar noModificado() antes de cargarlo
+ */
+public class DescargaUtils {
+
+    /**
+     * Construye la respuesta de descarga de un PDF almacenado
+     * El ETag se deriva del tamaño y la fecha de modificación del documento,
+     * así cambia cada vez que el PDF se regenera
+     * @param documento PDF en el almacén
+     * @return Respuesta 200 con el documento como Resource (206/304 según cabeceras)
+     */
+    public static ResponseEntity<Resource> respuestaPdf(DocumentoAlmacenado documento) {
+        return respuestaPdf(documento, null);
+    }
+
+    /**
+     * Igual que respuestaPdf(DocumentoAlmacenado), pero sirviendo el contenido ya
+     * cargado en memoria (cache de PDFs) en lugar de leer el almacén
+     * Las cabeceras (ETag, Last-Modified, Range) son las mismas en ambos casos
+     * @param documento PDF en el almacén
+     * @param contenido Bytes del documento, o null para transmitirlo desde el almacén
+     * @return Respuesta 200 con el PDF como Resource (206/304 según cabeceras)
+     */
+    public static ResponseEntity<Resource> respuestaPdf(DocumentoAlmacenado documento, byte[] contenido) {
+        return respuesta(documento, contenido, MediaType.APPLICATION_PDF);
+    }
+
+    /**
+     * Construye la respuesta de descarga de un XML almacenado (factura electrónica)
+     * Mismas cabeceras que un PDF (ETag, Last-Modified, Range)
+     * @param documento XML en el almacén
+     * @return Respuesta 200 con el documento como Resource (206/304 según cabeceras)
+     */
+    public static ResponseEntity<Resource> respuestaXml(DocumentoAlmacenado documento) {
+        return respuesta(documento, null, MediaType.APPLICATION_XML);
+    }
+
+    /**
+     * Responde 304 si el cliente ya tiene la versión actual del documento
+     * (If-None-Match / If-Modified-Since), con las mismas cabeceras que respuestaPdf()
+     * Se consulta antes de leer el contenido: un 304 no abre el documento ni lo carga en memoria
+     * @param documento Documento en el almacén
+     * @param request Petición HTTP
+     * @param response Respuesta HTTP sin contenido escrito aún
+     * @return true si ya se respondió 304 (el controlador devuelve null)
+     */
+    public static boolean noModificado(DocumentoAlmacenado documento, HttpServletRequest request,
+                                       HttpServletResponse response) {
+        if (!new ServletWebRequest(request, response).checkNotModified(etag(documento), documento.getModificado())) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        return true;
+    }
+
+    private static ResponseEntity<Resource> respuesta(DocumentoAlmacenado documento, byte[] contenido,
+                                                      MediaType tipo) {
+        long modificado = documento.getModificado();
+        String etag = etag(documento);
+        Resource cuerpo = contenido != null ? new ByteArrayResource(contenido) : recurso(documento);
+
+        return ResponseEntity.ok()
+                .contentType(tipo)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(documento.getNombreArchivo())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .lastModified(modificado)
+                .body(cuerpo);
+    }
+
+    /**
+     * ETag de un documento: tamaño y fecha de modificación (cambia al regenerarlo)
+     */
+    private static String etag(DocumentoAlmacenado documento) {
+        return "\"" + Long.toHexString(documento.getTamano()) + "-" + Long.toHexString(documento.getModificado()) + "\"";
+    }
+
+    /**
+     * Resource que lee un documento del almacén
+     * Si está en disco se usa FileSystemResource (transferencia directa del archivo);
+     * si no, cada lectura abre el documento de nuevo, lo que también permite Range
+     */
+    private static Resource recurso(DocumentoAlmacenado documento) {
+        if (documento.getArchivoLocal() != null) {
+            return new FileSystemResource(documento.getArchivoLocal());
+        }
+        return new AbstractResource() {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return documento.abrir();
+            }
+
+            @Override
+            public long contentLength() {
+                return documento.getTamano();
+            }
+
+            @Override
+            public String getFilename() {
+                return documento.getNombreArchivo();
+            }
+
+            @Override
+            public String getDescription() {
+                return "Documento almacenado [" + documento.getClave() + "]";
+            }
+        };
+    }
+
+    /**
+     * Prepara las cabeceras de un PDF que se renderiza directo en la respuesta
+     * Sin Content-Length, ETag ni Range: el tamaño no se conoce hasta terminar
+     * el render; el cuerpo se envía por bloques (chunked)
+     * @param response Respuesta HTTP sin contenido escrito aún
+     * @param nombreArchivo Nombre sugerido para la descarga
+     */
+    public static void prepararPdfDirecto(HttpServletResponse response, String nombreArchivo) {
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(nombreArchivo)
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+    }
+}
@@ -0,0 +1,154 @@
+package com.uptc.queenscorner.utils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimación del tamaño en memoria de un objeto y lo que referencia
+ *
+ * La usan las caches de servicios como peso de cada entrada (maximumWeight):
+ * una lista con todas las cotizaciones pesa lo que ocupan sus DTOs, no lo mismo
+ * que un cliente suelto.
+ *
+ * Es una aproximación para una JVM de 64 bits con oops comprimidos:
+ * - Cabecera de objeto 12 B, referencias y campos redondeados a 8 B
+ * - String: 40 B + 1 B por carácter (2 B si no es Latin-1)
+ * - BigDecimal, fechas y wrappers: tamaño fijo
+ * - Colecciones y mapas: contenedor + 8 B por referencia + elementos
+ * - DTOs de la aplicación: se recorren sus campos por reflexión (la lista de
+ *   campos se calcula una vez por clase)
+ *
+ * Los objetos compartidos se cuentan una sola vez. Clases del JDK que no están
+ * en la lista se cuentan con un tamaño fijo, sin recorrerlas.
+ */
+public final class EstimadorTamano {
+
+    private static final long CABECERA = 16;
+    private static final long REFERENCIA = 8;
+    private static final long OTRO_JDK = 32;
+
+    /** Campos de instancia de cada clase (incluye los heredados) */
+    private static final ClassValue<Field[]> CAMPOS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> tipo) {
+            List<Field> campos = new ArrayList<>();
+            for (Class<?> actual = tipo; actual != null && actual != Object.class; actual = actual.getSuperclass()) {
+                for (Field campo : actual.getDeclaredFields()) {
+                    if (!Modifier.isStatic(campo.getModifiers())) {
+                        campo.setAccessible(true);
+                        campos.add(campo);
+                    }
+                }
+            }
+            return campos.toArray(new Field[0]);
+        }
+    };
+
+    private EstimadorTamano() {
+    }
+
+    /**
+     * Estima los bytes que ocupa un objeto y todo lo que referencia
+     * @param objeto Objeto a medir (null pesa 0)
+     * @return Bytes estimados
+     */
+    public static long estimar(Object objeto) {
+        return estimar(objeto, new IdentityHashMap<>());
+    }
+
+    /**
+     * Peso para un weigher de Caffeine: bytes estimados de clave y valor, acotados a int
+     */
+    public static int peso(Object clave, Object valor) {
+        return (int) Math.min(Integer.MAX_VALUE, estimar(clave) + estimar(valor));
+    }
+
+    private static long estimar(Object objeto, Map<Object, Boolean> visitados) {
+        if (objeto == null) {
+            return 0;
+        }
+        if (objeto instanceof String texto) {
+            boolean latin1 = texto.chars().allMatch(c -> c < 256);
+            return alinear(40 + (long) texto.length() * (latin1 ? 1 : 2));
+        }
+        if (objeto instanceof Number || objeto instanceof Boolean || objeto instanceof Character
+                || objeto instanceof Enum<?>) {
+            return objeto instanceof BigDecimal || objeto instanceof BigInteger ? 40 : CABECERA;
+        }
+        if (objeto instanceof Temporal) {
+            // LocalDateTime = LocalDate + LocalTime
+            return 48;
+        }
+        if (visitados.put(objeto, Boolean.TRUE) != null) {
+            return 0;
+        }
+
+        if (objeto instanceof Collection<?> coleccion) {
+            long total = 40 + alinear(CABECERA + REFERENCIA * coleccion.size());
+            for (Object elemento : coleccion) {
+                total += estimar(elemento, visitados);
+            }
+            return total;
+        }
+        if (objeto instanceof Map<?, ?> mapa) {
+            long total = 48 + alinear(CABECERA + REFERENCIA * mapa.size()) + 32L * mapa.size();
+            for (Map.Entry<?, ?> entrada : mapa.entrySet()) {
+                total += estimar(entrada.getKey(), visitados) + estimar(entrada.getValue(), visitados);
+            }
+            return total;
+        }
+        Class<?> tipo = objeto.getClass();
+        if (tipo.isArray()) {
+            int largo = Array.getLength(objeto);
+            if (tipo.getComponentType().isPrimitive()) {
+                return alinear(CABECERA + (long) largo * tamanoPrimitivo(tipo.getComponentType()));
+            }
+            long total = alinear(CABECERA + REFERENCIA * largo);
+            for (int i = 0; i < largo; i++) {
+                total += estimar(Array.get(objeto, i), visitados);
+            }
+            return total;
+        }
+        if (tipo.getName().startsWith("java.") || tipo.getName().startsWith("javax.")) {
+            return OTRO_JDK;
+        }
+
+        long total = CABECERA;
+        for (Field campo : CAMPOS.get(tipo)) {
+            if (campo.getType().isPrimitive()) {
+                total += 8;
+                continue;
+            }
+            total += REFERENCIA;
+            try {
+                total += estimar(campo.get(objeto), visitados);
+            } catch (IllegalAccessException e) {
+                // Campo inaccesible: solo cuenta la referencia
+            }
+        }
+        return total;
+    }
+
+    private static long tamanoPrimitivo(Class<?> tipo) {
+        if (tipo == byte.class || tipo == boolean.class) {
+            return 1;
+        }
+        if (tipo == char.class || tipo == short.class) {
+            return 2;
+        }
+        return tipo == int.class || tipo == float.class ? 4 : 8;
+    }
+
+    private static long alinear(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
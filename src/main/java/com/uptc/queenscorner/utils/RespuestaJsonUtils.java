@@ -0,0 +1,56 @@
+package com.uptc.queenscorner.utils;
+
+import com.uptc.queenscorner.services.cache.RespuestaSerializada;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Utilidad para devolver una respuesta JSON ya serializada (RespuestasCacheService)
+ *
+ * Los bytes se escriben tal cual, sin pasar por Jackson:
+ * - Si el cliente acepta gzip y hay versión comprimida, se envía esa con
+ *   Content-Encoding: gzip (su ETag lleva el sufijo -gz)
+ * - El ETag permite que Spring responda 304 a If-None-Match sin cuerpo
+ */
+public class RespuestaJsonUtils {
+
+    /**
+     * Construye la respuesta 200 con los bytes del JSON (304 según If-None-Match)
+     * @param respuesta Respuesta serializada
+     * @param request Petición (Accept-Encoding)
+     * @return Respuesta con el JSON, comprimido si corresponde
+     */
+    public static ResponseEntity<byte[]> respuesta(RespuestaSerializada respuesta, HttpServletRequest request) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (respuesta.getGzip() != null && aceptaGzip(request)) {
+            String etag = respuesta.getEtag();
+            return builder
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .eTag(etag.substring(0, etag.length() - 1) + "-gz\"")
+                    .body(respuesta.getGzip());
+        }
+        return builder.eTag(respuesta.getEtag()).body(respuesta.getJson());
+    }
+
+    private static boolean aceptaGzip(HttpServletRequest request) {
+        String aceptadas = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (aceptadas == null) {
+            return false;
+        }
+        for (String codificacion : aceptadas.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")
+                    && !(partes.length > 1 && partes[1].trim().replace(" ", "").matches("q=0(\\.0*)?"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package com.uptc.queenscorner.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * OutputStream que escribe los mismos bytes en dos destinos
+ *
+ * - Principal: copia durable (archivo); un error aquí se propaga
+ * - Secundario: cliente HTTP; si se desconecta, el error se registra y se
+ *   deja de escribir en él, pero el principal se completa igual
+ *
+ * Así un render bajo demanda no se desperdicia cuando el cliente cancela la descarga.
+ * No cierra ninguno de los dos destinos: cada uno lo cierra su dueño.
+ */
+public class TeeOutputStream extends OutputStream {
+
+    private final OutputStream principal;
+    private final OutputStream secundario;
+    private IOException errorSecundario;
+
+    public TeeOutputStream(OutputStream principal, OutputStream secundario) {
+        this.principal = principal;
+        this.secundario = secundario;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        principal.write(b);
+        if (errorSecundario == null) {
+            try {
+                secundario.write(b);
+            } catch (IOException e) {
+                errorSecundario = e;
+            }
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        principal.write(b, off, len);
+        if (errorSecundario == null) {
+            try {
+                secundario.write(b, off, len);
+            } catch (IOException e) {
+                errorSecundario = e;
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        principal.flush();
+        if (errorSecundario == null) {
+            try {
+                secundario.flush();
+            } catch (IOException e) {
+                errorSecundario = e;
+            }
+        }
+    }
+
+    /**
+     * @return Error del destino secundario (ej: cliente desconectado), o null si no hubo
+     */
+    public IOException getErrorSecundario() {
+        return errorSecundario;
+    }
+}
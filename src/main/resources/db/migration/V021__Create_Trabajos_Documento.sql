@@ -0,0 +1,27 @@
+-- ============================================
+-- V021__Create_Trabajos_Documento.sql
+-- ============================================
+-- Cola persistente de generación de PDFs (cotizaciones y facturas)
+-- Un registro por documento; el worker reclama trabajos EN_COLA por lotes
+-- y reintenta con backoff hasta marcarlos COMPLETADO o FALLIDO
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS trabajos_documento (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tipo_documento VARCHAR(30) NOT NULL,
+    documento_id BIGINT NOT NULL,
+
+    estado VARCHAR(20) NOT NULL DEFAULT 'EN_COLA',
+    intentos INT NOT NULL DEFAULT 0,
+    proximo_intento DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ultimo_error VARCHAR(1000),
+    ruta_archivo VARCHAR(500),
+
+    fecha_creacion DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    fecha_actualizacion DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT uk_trabajos_documento UNIQUE (tipo_documento, documento_id),
+    INDEX idx_trabajos_documento_estado (estado, proximo_intento)
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
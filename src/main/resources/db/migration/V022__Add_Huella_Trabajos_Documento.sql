@@ -0,0 +1,10 @@
+-- ============================================
+-- V022__Add_Huella_Trabajos_Documento.sql
+-- ============================================
+-- Huella de contenido (SHA-256) del último PDF generado por documento
+-- Si los datos del documento no cambiaron, la nueva solicitud de PDF
+-- se omite y se conserva el archivo existente
+-- ============================================
+
+ALTER TABLE trabajos_documento
+    ADD COLUMN huella VARCHAR(64) NULL AFTER ruta_archivo;
@@ -0,0 +1,11 @@
+-- ============================================
+-- V023__Add_Dossier_Negocios.sql
+-- ============================================
+-- Dossier PDF del negocio (cotización + facturas en un solo archivo)
+-- Se guarda la clave del último dossier y la huella combinada de sus
+-- partes: mientras ninguna parte cambie, se reutiliza sin volver a unir
+-- ============================================
+
+ALTER TABLE negocios
+    ADD COLUMN path_dossier VARCHAR(500) NULL,
+    ADD COLUMN huella_dossier VARCHAR(64) NULL;
@@ -0,0 +1,70 @@
+package com.uptc.queenscorner.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica la carga única por clave y la cuenta de cargas coalescidas
+ */
+class CacheCargaUnicaTest {
+
+    private static final int PETICIONES = 16;
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final CacheCargaUnica cache = new CacheCargaUnica("prueba",
+            Caffeine.newBuilder().maximumSize(100).build(), true, registro);
+
+    @Test
+    void peticionesSimultaneasEsperanUnaSolaCarga() throws Exception {
+        AtomicInteger cargas = new AtomicInteger();
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < PETICIONES; i++) {
+            hilos.add(new Thread(() -> cache.get("all", () -> {
+                cargas.incrementAndGet();
+                esperarBloqueados(hilos);
+                return "lista";
+            })));
+        }
+        hilos.forEach(Thread::start);
+        for (Thread hilo : hilos) {
+            hilo.join(10_000);
+        }
+
+        assertEquals(1, cargas.get(), "Solo una petición debe consultar");
+        assertEquals(PETICIONES - 1, coalescidas());
+    }
+
+    @Test
+    void aciertosYFallosSecuencialesNoSeCuentan() {
+        cache.get("a", () -> "1");
+        cache.get("a", () -> "2");
+        cache.get("b", () -> "3");
+
+        assertEquals(0, coalescidas());
+    }
+
+    /** Espera (con límite) a que las demás peticiones estén detenidas esperando la carga */
+    private static void esperarBloqueados(List<Thread> hilos) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        for (Thread hilo : hilos) {
+            if (hilo == Thread.currentThread()) {
+                continue;
+            }
+            while (hilo.getState() == Thread.State.RUNNABLE || hilo.getState() == Thread.State.NEW) {
+                assertTrue(System.currentTimeMillis() < limite, "Las peticiones no llegaron a esperar la carga");
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    private double coalescidas() {
+        return registro.get("queenscorner.cache.cargas.coalescidas").tag("cache", "prueba").counter().count();
+    }
+}
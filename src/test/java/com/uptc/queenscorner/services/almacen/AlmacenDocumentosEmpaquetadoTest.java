@@ -0,0 +1,208 @@
+package com.uptc.queenscorner.services.almacen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica el empaquetado de documentos en segmentos
+ *
+ * Cada prueba usa un directorio temporal como raíz; "reiniciar" es crear otra
+ * instancia sobre la misma raíz, que vuelve a cargar los índices de disco.
+ */
+class AlmacenDocumentosEmpaquetadoTest {
+
+    private static final long TAMANO_SEGMENTO = 1024 * 1024;
+
+    @TempDir
+    Path raiz;
+
+    @Test
+    void documentoSeLeeIgualAntesYDespuesDeEmpaquetar() throws IOException {
+        AlmacenDocumentosEmpaquetado almacen = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        String clave = "facturas/2025/01/3f/FAC-2025-000001.pdf";
+        byte[] contenido = contenido("factura 1", 10_000);
+        escribir(almacen, clave, contenido);
+
+        assertNotNull(almacen.buscar(clave).orElseThrow().getArchivoLocal(), "Recién escrito debe estar suelto");
+        assertEquals(1, almacen.compactar(enUnMinuto(), 100));
+
+        assertFalse(Files.exists(raiz.resolve(clave)), "El archivo suelto debe retirarse tras empaquetarlo");
+        DocumentoAlmacenado empaquetado = almacen.buscar(clave).orElseThrow();
+        assertNull(empaquetado.getArchivoLocal(), "Empaquetado no tiene archivo propio");
+        assertEquals(contenido.length, empaquetado.getTamano());
+        assertArrayEquals(contenido, leer(almacen, clave));
+        assertTrue(almacen.existe(clave));
+
+        AlmacenDocumentosEmpaquetado reiniciado = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        assertArrayEquals(contenido, leer(reiniciado, clave), "El índice debe recargarse al reiniciar");
+        assertEquals(1, reiniciado.getDocumentosEmpaquetados());
+    }
+
+    @Test
+    void versionRegeneradaTienePrioridadSobreLaEmpaquetada() throws IOException {
+        AlmacenDocumentosEmpaquetado almacen = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        String clave = "cotizaciones/2025/02/0a/COT-1.pdf";
+        escribir(almacen, clave, contenido("version 1", 500));
+        almacen.compactar(enUnMinuto(), 100);
+
+        byte[] nueva = contenido("version 2", 700);
+        escribir(almacen, clave, nueva);
+        assertArrayEquals(nueva, leer(almacen, clave));
+    }
+
+    @Test
+    void eliminadoNoReapareceTrasCompactarNiReiniciar() throws IOException {
+        AlmacenDocumentosEmpaquetado almacen = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        String eliminada = "facturas/2025/03/11/FAC-2025-000010.pdf";
+        String conservada = "facturas/2025/03/12/FAC-2025-000011.pdf";
+        escribir(almacen, eliminada, contenido("eliminada", 2_000));
+        escribir(almacen, conservada, contenido("conservada", 2_000));
+        assertEquals(2, almacen.compactar(enUnMinuto(), 100));
+
+        assertTrue(almacen.eliminar(eliminada));
+        assertFalse(almacen.eliminar(eliminada), "La segunda eliminación no encuentra nada");
+        assertTrue(almacen.buscar(eliminada).isEmpty());
+        assertEquals(0, almacen.compactar(enUnMinuto(), 100), "No quedan sueltos por empaquetar");
+
+        AlmacenDocumentosEmpaquetado reiniciado = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        assertFalse(reiniciado.existe(eliminada), "La marca de eliminado debe sobrevivir al reinicio");
+        assertArrayEquals(contenido("conservada", 2_000), leer(reiniciado, conservada));
+    }
+
+    @Test
+    void compactarAbreSegmentosNuevosAlLlenarse() throws IOException {
+        AlmacenDocumentosEmpaquetado almacen = new AlmacenDocumentosEmpaquetado(raiz, 4_096);
+        for (int i = 0; i < 5; i++) {
+            escribir(almacen, "facturas/2025/04/00/FAC-" + i + ".pdf", contenido("doc " + i, 3_000));
+        }
+        assertEquals(5, almacen.compactar(enUnMinuto(), 100));
+        // Dos registros de 3 KB no caben en 4 KB: uno por segmento, ninguno pasa del tamaño
+        assertEquals(5, almacen.getSegmentos());
+        try (Stream<Path> segmentos = Files.list(raiz.resolve("segmentos"))) {
+            for (Path segmento : segmentos.filter(s -> s.toString().endsWith(".dat")).toList()) {
+                assertTrue(Files.size(segmento) <= 4_096, segmento + " supera el tamaño de segmento");
+            }
+        }
+
+        AlmacenDocumentosEmpaquetado reiniciado = new AlmacenDocumentosEmpaquetado(raiz, 4_096);
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(contenido("doc " + i, 3_000), leer(reiniciado, "facturas/2025/04/00/FAC-" + i + ".pdf"));
+        }
+    }
+
+    @Test
+    void documentoQueNoCabeEnUnSegmentoSigueSuelto() throws IOException {
+        AlmacenDocumentosEmpaquetado almacen = new AlmacenDocumentosEmpaquetado(raiz, 4_096);
+        // El contenido cabe, pero no con la cabecera del registro
+        escribir(almacen, "facturas/2025/04/00/FAC-GRANDE.pdf", contenido("grande", 4_090));
+        escribir(almacen, "facturas/2025/04/00/FAC-1.pdf", contenido("doc 1", 1_000));
+
+        assertEquals(1, almacen.compactar(enUnMinuto(), 100));
+        assertTrue(Files.exists(raiz.resolve("facturas/2025/04/00/FAC-GRANDE.pdf")));
+        assertArrayEquals(contenido("grande", 4_090), leer(almacen, "facturas/2025/04/00/FAC-GRANDE.pdf"));
+    }
+
+    @Test
+    void reinicioDescartaLaColaNoIndexadaDelSegmento() throws IOException {
+        AlmacenDocumentosEmpaquetado almacen = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        String clave = "facturas/2025/05/aa/FAC-2025-000020.pdf";
+        byte[] contenido = contenido("indexado", 1_500);
+        escribir(almacen, clave, contenido);
+        almacen.compactar(enUnMinuto(), 100);
+
+        // Caída a mitad de un empaquetado: registro copiado al segmento sin su
+        // entrada de índice, y una entrada de índice escrita a medias
+        Path segmento = raiz.resolve("segmentos/segmento-000001.dat");
+        Path indice = raiz.resolve("segmentos/segmento-000001.idx");
+        long tamanoSegmento = Files.size(segmento);
+        long tamanoIndice = Files.size(indice);
+        Files.write(segmento, contenido("cola sin indexar", 800), StandardOpenOption.APPEND);
+        Files.write(indice, new byte[] {0, 0, 0, 40, 'f', 'a'}, StandardOpenOption.APPEND);
+
+        AlmacenDocumentosEmpaquetado reiniciado = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        assertEquals(tamanoSegmento, Files.size(segmento), "La cola del segmento debe recortarse");
+        assertEquals(tamanoIndice, Files.size(indice), "La entrada incompleta del índice debe recortarse");
+        assertArrayEquals(contenido, leer(reiniciado, clave));
+
+        // El segmento sigue aceptando documentos después del recorte
+        String otra = "facturas/2025/05/ab/FAC-2025-000021.pdf";
+        escribir(reiniciado, otra, contenido("despues", 900));
+        assertEquals(1, reiniciado.compactar(enUnMinuto(), 100));
+        AlmacenDocumentosEmpaquetado otraVez = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        assertArrayEquals(contenido, leer(otraVez, clave));
+        assertArrayEquals(contenido("despues", 900), leer(otraVez, otra));
+    }
+
+    @Test
+    void leeYEmpaquetaArchivosSueltosHeredados() throws IOException {
+        // PDFs que ya estaban en disco antes del almacén (directorio plano por tipo)
+        String heredada = "cotizaciones/COT-1700000000000.pdf";
+        byte[] contenido = contenido("heredada", 1_200);
+        Files.createDirectories(raiz.resolve("cotizaciones"));
+        Files.write(raiz.resolve(heredada), contenido);
+
+        AlmacenDocumentosEmpaquetado almacen = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        assertEquals(heredada, almacen.claveHeredadaCotizacion("COT-1700000000000"));
+        assertArrayEquals(contenido, leer(almacen, heredada));
+
+        assertEquals(1, almacen.compactar(enUnMinuto(), 100));
+        assertArrayEquals(contenido, leer(almacen, heredada), "La clave no cambia al empaquetar");
+    }
+
+    @Test
+    void escrituraSinConfirmarNoSeEmpaqueta() throws IOException {
+        AlmacenDocumentosEmpaquetado almacen = new AlmacenDocumentosEmpaquetado(raiz, TAMANO_SEGMENTO);
+        String clave = "facturas/2025/06/01/FAC-2025-000030.pdf";
+        EscrituraDocumento escritura = almacen.crear(clave);
+        escritura.getSalida().write(contenido("en curso", 400));
+        escritura.getSalida().flush();
+
+        assertEquals(0, almacen.compactar(enUnMinuto(), 100), "Los temporales .tmp no se empaquetan");
+        escritura.descartar();
+        assertTrue(almacen.buscar(clave).isEmpty());
+    }
+
+    private static void escribir(IAlmacenDocumentos almacen, String clave, byte[] contenido) throws IOException {
+        EscrituraDocumento escritura = almacen.crear(clave);
+        escritura.getSalida().write(contenido);
+        escritura.confirmar();
+    }
+
+    private static byte[] leer(IAlmacenDocumentos almacen, String clave) throws IOException {
+        Optional<DocumentoAlmacenado> documento = almacen.buscar(clave);
+        assertTrue(documento.isPresent(), "No se encontró " + clave);
+        try (InputStream in = documento.get().abrir()) {
+            return in.readAllBytes();
+        }
+    }
+
+    /** Contenido reconocible de un tamaño dado */
+    private static byte[] contenido(String texto, int tamano) {
+        byte[] patron = (texto + "|").getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[tamano];
+        for (int i = 0; i < tamano; i++) {
+            bytes[i] = patron[i % patron.length];
+        }
+        return bytes;
+    }
+
+    private static Instant enUnMinuto() {
+        return Instant.now().plusSeconds(60);
+    }
+}
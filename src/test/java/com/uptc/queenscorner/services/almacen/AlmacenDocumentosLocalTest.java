@@ -0,0 +1,119 @@
+package com.uptc.queenscorner.services.almacen;
+
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica el almacén en el sistema de archivos: ubicación de las claves bajo
+ * la raíz, publicación con rename atómico y rechazo de claves que escapan
+ */
+class AlmacenDocumentosLocalTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void claveSeGuardaComoRutaRelativaALaRaiz() throws IOException {
+        AlmacenDocumentosLocal almacen = new AlmacenDocumentosLocal(directorio.resolve("documentos"));
+        String clave = almacen.generarClave(TipoDocumento.COTIZACION, "COT-1.pdf", LocalDate.of(2025, 2, 7));
+        escribir(almacen, clave, "cotizacion");
+
+        Path archivo = almacen.getRaiz().resolve(clave);
+        assertTrue(Files.isRegularFile(archivo), "Debe existir " + archivo);
+        assertEquals(archivo, almacen.buscar(clave).orElseThrow().getArchivoLocal());
+        assertArrayEquals(bytes("cotizacion"), leer(almacen, clave));
+    }
+
+    @Test
+    void escrituraSePublicaConRenameSinDejarTemporales() throws IOException {
+        AlmacenDocumentosLocal almacen = new AlmacenDocumentosLocal(directorio);
+        String clave = "facturas/2025/03/1a/FAC-2025-000001.pdf";
+        escribir(almacen, clave, "version 1");
+
+        EscrituraDocumento escritura = almacen.crear(clave);
+        escritura.getSalida().write(bytes("version 2"));
+        escritura.getSalida().flush();
+        assertArrayEquals(bytes("version 1"), leer(almacen, clave), "Hasta confirmar se lee la versión anterior");
+        assertEquals(1, temporales(almacen.getRaiz().resolve(clave).getParent()).size(),
+                "La versión en curso se escribe en un .tmp junto al destino");
+
+        escritura.confirmar();
+        assertArrayEquals(bytes("version 2"), leer(almacen, clave));
+        assertTrue(temporales(almacen.getRaiz().resolve(clave).getParent()).isEmpty());
+    }
+
+    @Test
+    void descartarEliminaElTemporalYConservaLaVersionAnterior() throws IOException {
+        AlmacenDocumentosLocal almacen = new AlmacenDocumentosLocal(directorio);
+        String clave = "facturas/2025/03/1b/FAC-2025-000002.pdf";
+        escribir(almacen, clave, "version 1");
+
+        EscrituraDocumento escritura = almacen.crear(clave);
+        escritura.getSalida().write(bytes("a medias"));
+        escritura.descartar();
+
+        assertArrayEquals(bytes("version 1"), leer(almacen, clave));
+        assertTrue(temporales(almacen.getRaiz().resolve(clave).getParent()).isEmpty());
+    }
+
+    @Test
+    void claveRelativaNoPuedeSalirDeLaRaiz() throws IOException {
+        Path raiz = directorio.resolve("documentos");
+        AlmacenDocumentosLocal almacen = new AlmacenDocumentosLocal(raiz);
+        Files.write(directorio.resolve("secreto.txt"), bytes("fuera del almacén"));
+
+        assertThrows(IllegalArgumentException.class, () -> almacen.buscar("../secreto.txt"));
+        assertThrows(IllegalArgumentException.class, () -> almacen.crear("facturas/../../secreto.txt"));
+        assertThrows(IllegalArgumentException.class, () -> almacen.eliminar("../secreto.txt"));
+        assertThrows(IllegalArgumentException.class, () -> almacen.existe("../secreto.txt"));
+        assertTrue(Files.exists(directorio.resolve("secreto.txt")));
+    }
+
+    @Test
+    void claveAbsolutaHeredadaSeLeeTalCual() throws IOException {
+        AlmacenDocumentosLocal almacen = new AlmacenDocumentosLocal(directorio.resolve("documentos"));
+        Path anterior = directorio.resolve("pdfs/FAC-2024-000099.pdf");
+        Files.createDirectories(anterior.getParent());
+        Files.write(anterior, bytes("pdf anterior al almacén"));
+
+        assertArrayEquals(bytes("pdf anterior al almacén"), leer(almacen, anterior.toString()));
+        assertFalse(almacen.existe(directorio.resolve("pdfs/no-existe.pdf").toString()));
+    }
+
+    private static void escribir(IAlmacenDocumentos almacen, String clave, String texto) throws IOException {
+        EscrituraDocumento escritura = almacen.crear(clave);
+        escritura.getSalida().write(bytes(texto));
+        escritura.confirmar();
+    }
+
+    private static byte[] leer(IAlmacenDocumentos almacen, String clave) throws IOException {
+        try (InputStream in = almacen.buscar(clave).orElseThrow().abrir()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static List<Path> temporales(Path carpeta) throws IOException {
+        try (Stream<Path> archivos = Files.list(carpeta)) {
+            return archivos.filter(p -> p.getFileName().toString().endsWith(".tmp")).toList();
+        }
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package com.uptc.queenscorner.services.almacen;
+
+import com.uptc.queenscorner.models.entities.TrabajoDocumentoEntity.TipoDocumento;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica el contrato de IAlmacenDocumentos sobre el almacén en memoria:
+ * formato de las claves y escrituras que solo se ven al confirmar
+ */
+class AlmacenDocumentosMemoriaTest {
+
+    private final AlmacenDocumentosMemoria almacen = new AlmacenDocumentosMemoria();
+
+    @Test
+    void claveSeparaPorTipoMesYPrefijoDeHash() {
+        String clave = almacen.generarClave(TipoDocumento.FACTURA, "FAC-2025-000001.pdf", LocalDate.of(2025, 11, 3));
+
+        assertTrue(clave.matches("facturas/2025/11/[0-9a-f]{2}/FAC-2025-000001\\.pdf"), clave);
+        assertEquals(clave, almacen.generarClave(TipoDocumento.FACTURA, "FAC-2025-000001.pdf", LocalDate.of(2025, 11, 20)),
+                "Mismo nombre y mes: misma clave (regenerar reemplaza)");
+        assertTrue(almacen.generarClave(TipoDocumento.FACTURA_UBL, "FAC-2025-000001.xml", LocalDate.of(2025, 1, 5))
+                .startsWith("facturas-ubl/2025/01/"));
+    }
+
+    @Test
+    void nombreDeArchivoNoPuedeSalirDeSuCarpeta() {
+        String clave = almacen.generarClave("dossiers", "../../etc/passwd", LocalDate.of(2025, 1, 1));
+
+        String nombre = clave.substring(clave.lastIndexOf('/') + 1);
+        assertFalse(nombre.contains(".."), clave);
+        assertEquals(5, clave.split("/").length, "carpeta/año/mes/prefijo/nombre: " + clave);
+    }
+
+    @Test
+    void escrituraSoloEsVisibleAlConfirmar() throws IOException {
+        String clave = "cotizaciones/2025/01/00/COT-1.pdf";
+        EscrituraDocumento escritura = almacen.crear(clave);
+        escritura.getSalida().write(bytes("borrador"));
+
+        assertTrue(almacen.buscar(clave).isEmpty(), "Sin confirmar no debe verse");
+        escritura.confirmar();
+        assertArrayEquals(bytes("borrador"), leer(clave));
+        assertEquals(1, almacen.tamano());
+    }
+
+    @Test
+    void descartarConservaLaVersionAnterior() throws IOException {
+        String clave = "facturas/2025/01/00/FAC-1.pdf";
+        escribir(clave, "version 1");
+
+        EscrituraDocumento fallida = almacen.crear(clave);
+        fallida.getSalida().write(bytes("version 2 a medias"));
+        fallida.descartar();
+
+        assertArrayEquals(bytes("version 1"), leer(clave));
+    }
+
+    @Test
+    void cadaVersionTieneOtraFechaDeModificacion() throws IOException {
+        String clave = "facturas/2025/01/00/FAC-2.pdf";
+        escribir(clave, "version 1");
+        long primera = almacen.buscar(clave).orElseThrow().getModificado();
+        escribir(clave, "version 2");
+        DocumentoAlmacenado segunda = almacen.buscar(clave).orElseThrow();
+
+        assertTrue(segunda.getModificado() > primera, "La fecha debe crecer aunque se publique en el mismo milisegundo");
+        assertEquals(bytes("version 2").length, segunda.getTamano());
+        assertEquals("FAC-2.pdf", segunda.getNombreArchivo());
+        assertNull(segunda.getArchivoLocal());
+    }
+
+    @Test
+    void eliminarYBuscarClavesInexistentes() throws IOException {
+        String clave = "facturas/2025/01/00/FAC-3.pdf";
+        escribir(clave, "contenido");
+
+        assertTrue(almacen.eliminar(clave));
+        assertFalse(almacen.eliminar(clave));
+        assertFalse(almacen.existe(clave));
+        assertTrue(almacen.buscar(null).isEmpty());
+    }
+
+    private void escribir(String clave, String texto) throws IOException {
+        EscrituraDocumento escritura = almacen.crear(clave);
+        escritura.getSalida().write(bytes(texto));
+        escritura.confirmar();
+    }
+
+    private byte[] leer(String clave) throws IOException {
+        try (InputStream in = almacen.buscar(clave).orElseThrow().abrir()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.uptc.queenscorner.models.entities.ClienteEntity;
+import com.uptc.queenscorner.models.entities.CotizacionEntity;
+import com.uptc.queenscorner.models.entities.FacturaEntity;
+import com.uptc.queenscorner.models.entities.ItemCotizacionEntity;
+import com.uptc.queenscorner.models.entities.LineaFacturaEntity;
+import com.uptc.queenscorner.models.entities.NegocioEntity;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos sintéticos para pruebas y benchmarks de renderizado (sin base de datos)
+ */
+public final class DocumentosDePrueba {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 11, 20, 10, 30);
+
+    private DocumentosDePrueba() {
+    }
+
+    public static ClienteEntity cliente() {
+        ClienteEntity cliente = new ClienteEntity();
+        cliente.setId(1L);
+        cliente.setNombre("María Fernanda Rojas");
+        cliente.setDocumento("1052345678");
+        cliente.setEmail("mfrojas@correo.com");
+        cliente.setTelefono("3104567890");
+        cliente.setDireccion("Calle 12 # 9 - 40, Sogamoso");
+        return cliente;
+    }
+
+    public static CotizacionEntity cotizacion(int items) {
+        CotizacionEntity cotizacion = new CotizacionEntity();
+        cotizacion.setId(1L);
+        cotizacion.setCodigo("COT-2025-000123");
+        cotizacion.setNumeroCotizacion("000123");
+        cotizacion.setCliente(cliente());
+        cotizacion.setFechaCreacion(FECHA);
+        cotizacion.setFechaValidez(LocalDate.of(2025, 12, 20));
+        cotizacion.setEstado(CotizacionEntity.EstadoCotizacion.ENVIADA);
+        cotizacion.setDescripcion("Amoblamiento de sala y comedor en madera de cedro");
+        cotizacion.setObservaciones("Incluye transporte e instalación");
+
+        List<ItemCotizacionEntity> lista = new ArrayList<>(items);
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 1; i <= items; i++) {
+            ItemCotizacionEntity item = new ItemCotizacionEntity();
+            item.setDescripcion("Mueble referencia " + i + " con acabado lacado");
+            item.setCantidad(1 + i % 5);
+            item.setPrecioUnitario(BigDecimal.valueOf(150000 + i * 10L));
+            item.setSubtotal(item.getPrecioUnitario().multiply(BigDecimal.valueOf(item.getCantidad())));
+            subtotal = subtotal.add(item.getSubtotal());
+            lista.add(item);
+        }
+        cotizacion.setItems(lista);
+        cotizacion.setSubtotal(subtotal);
+        cotizacion.setImpuestos(subtotal.multiply(BigDecimal.valueOf(0.19)));
+        cotizacion.setTotal(subtotal.add(cotizacion.getImpuestos()));
+        return cotizacion;
+    }
+
+    public static FacturaEntity factura(int lineas) {
+        NegocioEntity negocio = new NegocioEntity();
+        negocio.setId(1L);
+        negocio.setCodigo("NEG-2025-000045");
+        negocio.setDescripcion("Proyecto de amoblamiento residencial");
+        negocio.setCotizacion(cotizacion(0));
+
+        FacturaEntity factura = new FacturaEntity();
+        factura.setId(1L);
+        factura.setNumeroFactura("FAC-2025-000078");
+        factura.setFechaCreacion(FECHA);
+        factura.setNegocio(negocio);
+        factura.setUsuarioCreacion("admin");
+        factura.setObservaciones("Pago a 30 días");
+        factura.setAnticipo(BigDecimal.valueOf(500000));
+
+        List<LineaFacturaEntity> lista = new ArrayList<>(lineas);
+        for (int i = 1; i <= lineas; i++) {
+            LineaFacturaEntity linea = new LineaFacturaEntity();
+            linea.setFactura(factura);
+            linea.setNumeroLinea(i);
+            linea.setDescripcion("Mueble referencia " + i + " con acabado lacado");
+            linea.setCantidad(1 + i % 5);
+            linea.setValorUnitario(BigDecimal.valueOf(150000 + i * 10L));
+            lista.add(linea);
+        }
+        factura.setLineas(lista);
+        factura.calcularTotales();
+        return factura;
+    }
+}
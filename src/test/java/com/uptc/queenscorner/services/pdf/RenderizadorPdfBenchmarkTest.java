@@ -0,0 +1,284 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.uptc.queenscorner.models.entities.CotizacionEntity;
+import com.uptc.queenscorner.models.entities.FacturaEntity;
+import com.uptc.queenscorner.models.mappers.DocumentoPdfMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark del renderizador único frente al generador anterior
+ * (párrafo por párrafo, logo leído del disco en cada documento).
+ *
+ * Mide por documento: latencia media y p95, y bytes asignados en el heap
+ * (ThreadMXBean) para cotizaciones y facturas de 10 y 200 líneas.
+ *
+ * No corre en el build normal:
+ *   mvn test -Dtest=RenderizadorPdfBenchmarkTest -Dpdf.benchmark=true
+ */
+@EnabledIfSystemProperty(named = "pdf.benchmark", matches = "true")
+class RenderizadorPdfBenchmarkTest {
+
+    private static final int CALENTAMIENTO = 200;
+    private static final int MEDICIONES = 500;
+    private static final DateTimeFormatter FECHA_FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private final RenderizadorPdf renderizador = new RenderizadorPdf(RecursosMarcaPdf.cargarDesdeClasspath());
+    private final DocumentoPdfMapper mapper = new DocumentoPdfMapper();
+
+    @Test
+    void compararCotizaciones() throws IOException {
+        for (int items : new int[]{10, 200}) {
+            CotizacionEntity cotizacion = DocumentosDePrueba.cotizacion(items);
+            Resultado anterior = medir(destino -> cotizacionAnterior(cotizacion, destino));
+            Resultado actual = medir(destino -> renderizador.renderizar(mapper.toDocumentoPdf(cotizacion), destino));
+            reportar("cotización", items, anterior, actual);
+        }
+    }
+
+    @Test
+    void compararFacturas() throws IOException {
+        for (int lineas : new int[]{10, 200}) {
+            FacturaEntity factura = DocumentosDePrueba.factura(lineas);
+            Resultado anterior = medir(destino -> facturaAnterior(factura, destino));
+            Resultado actual = medir(destino -> renderizador.renderizar(mapper.toDocumentoPdf(factura), destino));
+            reportar("factura", lineas, anterior, actual);
+        }
+    }
+
+    // ===== MEDICIÓN =====
+
+    @FunctionalInterface
+    private interface Render {
+        void ejecutar(OutputStream destino) throws IOException;
+    }
+
+    private record Resultado(double mediaMs, double p95Ms, long bytesPorDocumento, int tamanoPdf) { }
+
+    private Resultado medir(Render render) throws IOException {
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long idHilo = Thread.currentThread().getId();
+        ByteArrayOutputStream destino = new ByteArrayOutputStream(64 * 1024);
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            destino.reset();
+            render.ejecutar(destino);
+        }
+
+        long[] tiempos = new long[MEDICIONES];
+        long asignadosInicio = hilos.getThreadAllocatedBytes(idHilo);
+        for (int i = 0; i < MEDICIONES; i++) {
+            destino.reset();
+            long inicio = System.nanoTime();
+            render.ejecutar(destino);
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        long asignados = hilos.getThreadAllocatedBytes(idHilo) - asignadosInicio;
+
+        Arrays.sort(tiempos);
+        double media = Arrays.stream(tiempos).average().orElse(0) / 1_000_000.0;
+        double p95 = tiempos[(int) (MEDICIONES * 0.95) - 1] / 1_000_000.0;
+        assertTrue(destino.size() > 0, "El PDF no debe estar vacío");
+        return new Resultado(media, p95, asignados / MEDICIONES, destino.size());
+    }
+
+    private void reportar(String tipo, int lineas, Resultado anterior, Resultado actual) {
+        System.out.printf("📊 %s (%d líneas)%n", tipo, lineas);
+        System.out.printf("   anterior: media %.3f ms | p95 %.3f ms | %,d B asignados/doc | PDF %,d B%n",
+                anterior.mediaMs(), anterior.p95Ms(), anterior.bytesPorDocumento(), anterior.tamanoPdf());
+        System.out.printf("   actual:   media %.3f ms | p95 %.3f ms | %,d B asignados/doc | PDF %,d B%n",
+                actual.mediaMs(), actual.p95Ms(), actual.bytesPorDocumento(), actual.tamanoPdf());
+    }
+
+    // ===== GENERADOR ANTERIOR (copia fiel, solo cambia el destino) =====
+
+    private void cotizacionAnterior(CotizacionEntity cotizacion, OutputStream destino) throws IOException {
+        try (PdfWriter writer = new PdfWriter(destino)) {
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            Document doc = new Document(pdfDoc);
+            
+            // LOGO
+            try {
+                String logoPath = "src/main/resources/imagenes/logo.png";
+                Image logo = new Image(com.itextpdf.io.image.ImageDataFactory.create(logoPath));
+                logo.setWidth(80);
+                logo.setHeight(80);
+                doc.add(logo);
+            } catch (Exception e) {
+                System.out.println("⚠️ Logo no encontrado, continuando sin él");
+            }
+            
+            // ENCABEZADO EMPRESA
+            doc.add(new Paragraph("QUEEN'S CORNER GALLERY"));
+            doc.add(new Paragraph("Carrera 10 # 16 - 95, Sogamoso"));
+            doc.add(new Paragraph("NIT: 56789056-6"));
+            doc.add(new Paragraph("\"Diseño y confort a su servicio\""));
+            doc.add(new Paragraph(""));
+            doc.add(new Paragraph("═══════════════════════════════════════════════════════"));
+            doc.add(new Paragraph("COTIZACIÓN"));
+            doc.add(new Paragraph("═══════════════════════════════════════════════════════"));
+            doc.add(new Paragraph(""));
+            
+            // INFORMACIÓN COTIZACIÓN
+            doc.add(new Paragraph("Código: " + cotizacion.getCodigo()));
+            doc.add(new Paragraph("Número: " + cotizacion.getNumeroCotizacion()));
+            doc.add(new Paragraph("Fecha: " + cotizacion.getFechaCreacion().format(FECHA_FORMATO)));
+            doc.add(new Paragraph("Estado: " + cotizacion.getEstado()));
+            doc.add(new Paragraph("Válida hasta: " + cotizacion.getFechaValidez()));
+            doc.add(new Paragraph(""));
+            
+            // CLIENTE
+            doc.add(new Paragraph("CLIENTE:"));
+            doc.add(new Paragraph("Nombre: " + cotizacion.getCliente().getNombre()));
+            doc.add(new Paragraph("Documento: " + cotizacion.getCliente().getDocumento()));
+            doc.add(new Paragraph("Email: " + cotizacion.getCliente().getEmail()));
+            doc.add(new Paragraph("Teléfono: " + cotizacion.getCliente().getTelefono()));
+            doc.add(new Paragraph("Dirección: " + cotizacion.getCliente().getDireccion()));
+            doc.add(new Paragraph(""));
+            
+            // DESCRIPCIÓN
+            doc.add(new Paragraph("DESCRIPCIÓN:"));
+            doc.add(new Paragraph(cotizacion.getDescripcion()));
+            doc.add(new Paragraph(""));
+            
+            // ITEMS
+            doc.add(new Paragraph("ITEMS:"));
+            if (cotizacion.getItems() != null && !cotizacion.getItems().isEmpty()) {
+                int num = 1;
+                for (var item : cotizacion.getItems()) {
+                    doc.add(new Paragraph(num + ". " + item.getDescripcion()));
+                    doc.add(new Paragraph("   Cantidad: " + item.getCantidad() + " | Valor: $" + item.getPrecioUnitario() + " | Subtotal: $" + item.getSubtotal()));
+                    num++;
+                }
+            }
+            doc.add(new Paragraph(""));
+            
+            // TOTALES
+            doc.add(new Paragraph("───────────────────────────────────────────────────────"));
+            doc.add(new Paragraph("Subtotal: $" + cotizacion.getSubtotal()));
+            doc.add(new Paragraph("Impuestos (19%): $" + cotizacion.getImpuestos()));
+            doc.add(new Paragraph("TOTAL: $" + cotizacion.getTotal()));
+            doc.add(new Paragraph("───────────────────────────────────────────────────────"));
+            doc.add(new Paragraph(""));
+            
+            if (cotizacion.getObservaciones() != null && !cotizacion.getObservaciones().isEmpty()) {
+                doc.add(new Paragraph("OBSERVACIONES:"));
+                doc.add(new Paragraph(cotizacion.getObservaciones()));
+            }
+            
+            doc.close();
+        }
+    }
+
+    private void facturaAnterior(FacturaEntity factura, OutputStream destino) throws IOException {
+        try (PdfWriter writer = new PdfWriter(destino)) {
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            Document doc = new Document(pdfDoc);
+            
+            // LOGO
+            try {
+                String logoPath = "src/main/resources/imagenes/logo.png";
+                Image logo = new Image(com.itextpdf.io.image.ImageDataFactory.create(logoPath));
+                logo.setWidth(80);
+                logo.setHeight(80);
+                doc.add(logo);
+            } catch (Exception e) {
+                System.out.println("⚠️ Logo no encontrado, continuando sin él");
+            }
+            
+            // ENCABEZADO EMPRESA
+            doc.add(new Paragraph("QUEEN'S CORNER GALLERY"));
+            doc.add(new Paragraph("Carrera 10 # 16 - 95, Sogamoso"));
+            doc.add(new Paragraph("NIT: 56789056-6"));
+            doc.add(new Paragraph("\"Diseño y confort a su servicio\""));
+            doc.add(new Paragraph(""));
+            doc.add(new Paragraph("═══════════════════════════════════════════════════════"));
+            doc.add(new Paragraph("FACTURA DE VENTA"));
+            doc.add(new Paragraph("═══════════════════════════════════════════════════════"));
+            doc.add(new Paragraph(""));
+            
+            // INFORMACIÓN FACTURA
+            doc.add(new Paragraph("Número: " + factura.getNumeroFactura()));
+            doc.add(new Paragraph("Fecha Emisión: " + factura.getFechaCreacion().format(FECHA_FORMATO)));
+            if (factura.getFechaEnvio() != null) {
+                doc.add(new Paragraph("Fecha Envío: " + factura.getFechaEnvio().format(FECHA_FORMATO)));
+            }
+            doc.add(new Paragraph("Estado: " + factura.getEstado()));
+            doc.add(new Paragraph(""));
+            
+            // CLIENTE
+            if (factura.getNegocio() != null && factura.getNegocio().getCotizacion() != null && 
+                factura.getNegocio().getCotizacion().getCliente() != null) {
+                doc.add(new Paragraph("CLIENTE:"));
+                doc.add(new Paragraph("Nombre: " + factura.getNegocio().getCotizacion().getCliente().getNombre()));
+                doc.add(new Paragraph("Documento: " + factura.getNegocio().getCotizacion().getCliente().getDocumento()));
+                doc.add(new Paragraph("Email: " + factura.getNegocio().getCotizacion().getCliente().getEmail()));
+                doc.add(new Paragraph("Teléfono: " + factura.getNegocio().getCotizacion().getCliente().getTelefono()));
+                doc.add(new Paragraph("Dirección: " + factura.getNegocio().getCotizacion().getCliente().getDireccion()));
+                doc.add(new Paragraph(""));
+            }
+            
+            // NEGOCIO
+            if (factura.getNegocio() != null) {
+                doc.add(new Paragraph("NEGOCIO:"));
+                doc.add(new Paragraph("Código: " + factura.getNegocio().getCodigo()));
+                doc.add(new Paragraph("Descripción: " + factura.getNegocio().getDescripcion()));
+                doc.add(new Paragraph(""));
+            }
+            
+            // DETALLE DE LÍNEAS
+            doc.add(new Paragraph("DETALLE DE LÍNEAS:"));
+            if (factura.getLineas() != null && !factura.getLineas().isEmpty()) {
+                for (var linea : factura.getLineas()) {
+                    doc.add(new Paragraph(linea.getNumeroLinea() + ". " + linea.getDescripcion()));
+                    doc.add(new Paragraph("   Cantidad: " + linea.getCantidad() + " | Valor: $" + linea.getValorUnitario() + " | Subtotal: $" + linea.getTotal()));
+                }
+            }
+            doc.add(new Paragraph(""));
+            
+            // TOTALES
+            doc.add(new Paragraph("───────────────────────────────────────────────────────"));
+            doc.add(new Paragraph("Subtotal: $" + factura.getSubtotal()));
+            doc.add(new Paragraph("IVA (19%): $" + factura.getIva()));
+            doc.add(new Paragraph("TOTAL A PAGAR: $" + factura.getTotal()));
+            if (factura.getAnticipo() != null && factura.getAnticipo().compareTo(java.math.BigDecimal.ZERO) > 0) {
+                doc.add(new Paragraph("Anticipo: $" + factura.getAnticipo()));
+            }
+            
+            // Calcular saldo pendiente
+            java.math.BigDecimal saldoPendiente = factura.getTotal();
+            if (factura.getAnticipo() != null) {
+                saldoPendiente = saldoPendiente.subtract(factura.getAnticipo());
+            }
+            doc.add(new Paragraph("Saldo Pendiente: $" + saldoPendiente));
+            doc.add(new Paragraph("───────────────────────────────────────────────────────"));
+            doc.add(new Paragraph(""));
+            
+            if (factura.getObservaciones() != null && !factura.getObservaciones().isEmpty()) {
+                doc.add(new Paragraph("OBSERVACIONES:"));
+                doc.add(new Paragraph(factura.getObservaciones()));
+                doc.add(new Paragraph(""));
+            }
+            
+            doc.add(new Paragraph("Creado por: " + factura.getUsuarioCreacion()));
+            if (factura.getUsuarioEnvio() != null) {
+                doc.add(new Paragraph("Enviado por: " + factura.getUsuarioEnvio()));
+            }
+            
+            doc.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.uptc.queenscorner.models.mappers.DocumentoPdfMapper;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que una factura de 50.000 líneas se renderiza con el heap acotado
+ *
+ * El límite de heap no puede cambiarse dentro de la JVM de las pruebas, así que
+ * el render se ejecuta en una JVM hija con -Xmx64m. Con la tabla de líneas
+ * maquetada de una sola vez, el mismo documento necesita del orden de 1 GB.
+ */
+class RenderizadorPdfFacturaGrandeTest {
+
+    private static final int LINEAS = 50_000;
+    private static final String HEAP_MAXIMO = "-Xmx64m";
+
+    @Test
+    void renderizaFacturaDe50MilLineasConHeapAcotado() throws Exception {
+        Path salida = Files.createTempFile("render-grande", ".log");
+        try {
+            Process proceso = new ProcessBuilder(
+                    Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    HEAP_MAXIMO,
+                    "-XX:+ExitOnOutOfMemoryError",
+                    "-cp", System.getProperty("java.class.path"),
+                    Render.class.getName(),
+                    String.valueOf(LINEAS))
+                    .redirectErrorStream(true)
+                    .redirectOutput(salida.toFile())
+                    .start();
+
+            boolean termino = proceso.waitFor(5, TimeUnit.MINUTES);
+            if (!termino) {
+                proceso.destroyForcibly();
+            }
+            String log = Files.readString(salida, StandardCharsets.UTF_8);
+            System.out.println(log.strip());
+
+            assertTrue(termino, "El render de " + LINEAS + " líneas no terminó en 5 minutos");
+            assertEquals(0, proceso.exitValue(), "El render falló con " + HEAP_MAXIMO + ":\n" + log);
+            assertTrue(log.contains("totales=ok"), "El PDF no termina con los totales:\n" + log);
+        } finally {
+            Files.deleteIfExists(salida);
+        }
+    }
+
+    /**
+     * Punto de entrada de la JVM hija: renderiza la factura a un archivo
+     * temporal y comprueba que el PDF está completo
+     */
+    public static final class Render {
+
+        public static void main(String[] args) throws Exception {
+            int lineas = Integer.parseInt(args[0]);
+            DocumentoPdf documento = new DocumentoPdfMapper().toDocumentoPdf(DocumentosDePrueba.factura(lineas));
+            RenderizadorPdf renderizador = new RenderizadorPdf(RecursosMarcaPdf.cargarDesdeClasspath());
+
+            Path archivo = Files.createTempFile("factura-grande", ".pdf");
+            try {
+                long inicio = System.nanoTime();
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(archivo))) {
+                    renderizador.renderizar(documento, out);
+                }
+                long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+                try (PdfDocument pdf = new PdfDocument(new PdfReader(archivo.toString()))) {
+                    int paginas = pdf.getNumberOfPages();
+                    // Los totales quedan en la última o penúltima página
+                    String ultimasPaginas = PdfTextExtractor.getTextFromPage(pdf.getPage(Math.max(1, paginas - 1)))
+                            + PdfTextExtractor.getTextFromPage(pdf.getPage(paginas));
+                    System.out.println("lineas=" + lineas + " paginas=" + paginas
+                            + " bytes=" + Files.size(archivo) + " ms=" + ms
+                            + " totales=" + (ultimasPaginas.contains("Saldo Pendiente") ? "ok" : "faltan"));
+                }
+            } finally {
+                Files.deleteIfExists(archivo);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.uptc.queenscorner.services.pdf;
+
+import com.uptc.queenscorner.models.entities.CotizacionEntity;
+import com.uptc.queenscorner.models.entities.FacturaEntity;
+import com.uptc.queenscorner.models.mappers.DocumentoPdfMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Benchmark JMH del camino de render de PdfAsyncService: DocumentoPdfMapper +
+ * RenderizadorPdf, para cotizaciones y facturas de 1, 50, 1.000 y 20.000 líneas.
+ *
+ * Usa entidades sintéticas (DocumentosDePrueba) y escribe en un stream nulo:
+ * no necesita base de datos, Spring ni red.
+ *
+ * Reporta por documento:
+ * - Throughput (documentos/s)
+ * - Latencia p99 (modo SampleTime)
+ * - Bytes asignados por operación (GCProfiler, gc.alloc.rate.norm)
+ *
+ * No corre en el build normal:
+ *   mvn test -Dtest=RenderizadorPdfJmhBenchmarkTest -Dpdf.jmh=true
+ * Opcionales: -Dpdf.jmh.lineas=1,50 -Dpdf.jmh.perfil=COMPACTO -Dpdf.jmh.iteraciones=5
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RenderizadorPdfJmhBenchmarkTest {
+
+    @Param({"1", "50", "1000", "20000"})
+    public int lineas;
+
+    @Param({"ESTANDAR"})
+    public String perfil;
+
+    private RenderizadorPdf renderizador;
+    private DocumentoPdfMapper mapper;
+    private CotizacionEntity cotizacion;
+    private FacturaEntity factura;
+
+    @Setup
+    public void preparar() {
+        renderizador = new RenderizadorPdf(RecursosMarcaPdf.cargarDesdeClasspath(), PerfilSalidaPdf.valueOf(perfil));
+        mapper = new DocumentoPdfMapper();
+        cotizacion = DocumentosDePrueba.cotizacion(lineas);
+        factura = DocumentosDePrueba.factura(lineas);
+    }
+
+    @Benchmark
+    public void cotizacion() throws IOException {
+        renderizador.renderizar(mapper.toDocumentoPdf(cotizacion), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void factura() throws IOException {
+        renderizador.renderizar(mapper.toDocumentoPdf(factura), OutputStream.nullOutputStream());
+    }
+
+    // ===== EJECUCIÓN =====
+
+    @Test
+    @EnabledIfSystemProperty(named = "pdf.jmh", matches = "true")
+    void ejecutar() throws RunnerException {
+        // Throughput y asignación en una pasada; la latencia (p99) en otra, en ms
+        Collection<RunResult> throughput = new Runner(opciones()
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+        Collection<RunResult> latencia = new Runner(opciones()
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .build()).run();
+        assertFalse(throughput.isEmpty(), "El benchmark no produjo resultados");
+        reportar(throughput, latencia);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new RenderizadorPdfJmhBenchmarkTest().ejecutar();
+    }
+
+    private ChainedOptionsBuilder opciones() {
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+                .include(RenderizadorPdfJmhBenchmarkTest.class.getName() + "\\.");
+        String lineasSolicitadas = System.getProperty("pdf.jmh.lineas");
+        if (lineasSolicitadas != null) {
+            opciones.param("lineas", lineasSolicitadas.split(","));
+        }
+        String perfilSolicitado = System.getProperty("pdf.jmh.perfil");
+        if (perfilSolicitado != null) {
+            opciones.param("perfil", perfilSolicitado);
+        }
+        String iteraciones = System.getProperty("pdf.jmh.iteraciones");
+        if (iteraciones != null) {
+            opciones.measurementIterations(Integer.parseInt(iteraciones));
+        }
+        return opciones;
+    }
+
+    /**
+     * Tabla resumen: una fila por documento y número de líneas
+     */
+    private void reportar(Collection<RunResult> throughput, Collection<RunResult> latencia) {
+        Map<String, double[]> filas = new TreeMap<>();
+        for (RunResult resultado : throughput) {
+            double[] fila = filas.computeIfAbsent(clave(resultado.getParams()), k -> new double[3]);
+            fila[0] = resultado.getPrimaryResult().getScore();
+            Result<?> asignado = resultado.getSecondaryResults().get("gc.alloc.rate.norm");
+            fila[2] = asignado != null ? asignado.getScore() : Double.NaN;
+        }
+        for (RunResult resultado : latencia) {
+            filas.computeIfAbsent(clave(resultado.getParams()), k -> new double[3])[1] =
+                    resultado.getPrimaryResult().getStatistics().getPercentile(99);
+        }
+
+        System.out.printf("📊 Render de PDFs (perfil %s)%n", System.getProperty("pdf.jmh.perfil", "ESTANDAR"));
+        System.out.printf("   %-24s %14s %12s %18s%n", "documento", "docs/s", "p99 ms", "B asignados/doc");
+        filas.forEach((clave, fila) -> System.out.printf("   %-24s %,14.2f %,12.3f %,18.0f%n",
+                clave, fila[0], fila[1], fila[2]));
+    }
+
+    /**
+     * Clave ordenable "factura / 00050 líneas"
+     */
+    private String clave(BenchmarkParams params) {
+        String metodo = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+        return String.format("%s / %05d líneas", metodo, Integer.parseInt(params.getParam("lineas")));
+    }
+}
@@ -0,0 +1,41 @@
+package com.uptc.queenscorner.services.pdf.externo;
+
+import com.uptc.queenscorner.models.mappers.DocumentoPdfMapper;
+import com.uptc.queenscorner.services.pdf.DocumentoPdf;
+import com.uptc.queenscorner.services.pdf.DocumentosDePrueba;
+import com.uptc.queenscorner.services.pdf.PerfilSalidaPdf;
+import com.uptc.queenscorner.services.pdf.RecursosMarcaPdf;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica que el pool de renderizadores externos reutiliza sus procesos
+ *
+ * Lanza un pool de un proceso con el classpath de las pruebas: un render que
+ * termina bien debe devolver el proceso sano al pool, no reemplazarlo.
+ */
+class RenderizadorPdfExternoTest {
+
+    @Test
+    void rendersConsecutivosReutilizanElMismoProceso() throws Exception {
+        DocumentoPdf documento = new DocumentoPdfMapper().toDocumentoPdf(DocumentosDePrueba.cotizacion(3));
+        try (RenderizadorPdfExterno renderizador = new RenderizadorPdfExterno(
+                RecursosMarcaPdf.cargarDesdeClasspath(), PerfilSalidaPdf.ESTANDAR, 1,
+                System.getProperty("java.class.path"), List.of("-Xmx256m"), 60_000)) {
+            for (int i = 0; i < 2; i++) {
+                ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+                renderizador.renderizar(documento, pdf);
+                byte[] cabecera = Arrays.copyOf(pdf.toByteArray(), 5);
+                assertEquals("%PDF-", new String(cabecera, StandardCharsets.ISO_8859_1), "Render " + i + " no es un PDF");
+            }
+
+            assertEquals(1, renderizador.getProcesosLanzados(), "El proceso se reemplazó después de un render correcto");
+            assertEquals(1, renderizador.getProcesosLibres());
+        }
+    }
+}
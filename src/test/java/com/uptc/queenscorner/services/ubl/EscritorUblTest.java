@@ -0,0 +1,76 @@
+package com.uptc.queenscorner.services.ubl;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica el orden de los elementos del XML UBL 2.1
+ *
+ * El esquema de UBL define AddressType como una secuencia: CityName,
+ * AddressLine y Country deben aparecer en ese orden o el documento no valida.
+ */
+class EscritorUblTest {
+
+    @Test
+    void direccionSigueLaSecuenciaDeAddressType() throws Exception {
+        Document documento = leer(factura());
+
+        NodeList direcciones = documento.getElementsByTagNameNS(EscritorUbl.NS_CAC, "Address");
+        assertEquals(2, direcciones.getLength(), "Emisor y adquiriente deben tener dirección");
+        for (int i = 0; i < direcciones.getLength(); i++) {
+            assertEquals(List.of("CityName", "AddressLine", "Country"),
+                    hijos((Element) direcciones.item(i)),
+                    "Orden de los elementos de cac:Address");
+        }
+    }
+
+    private static FacturaUbl factura() {
+        FacturaUbl factura = new FacturaUbl();
+        factura.setNumero("FAC-2025-000001");
+        factura.setFechaEmision(LocalDateTime.of(2025, 3, 14, 10, 30));
+        factura.setFechaDocumento(LocalDate.of(2025, 3, 14));
+        factura.setNombreArchivo("FAC-2025-000001.xml");
+        factura.setEmisor(new FacturaUbl.Participante("Queen's Corner", "31", "900123456", "7")
+                .conUbicacion("Calle 10 # 5-20", "Tunja")
+                .conContacto("6087400000", "ventas@queenscorner.co"));
+        factura.setAdquiriente(new FacturaUbl.Participante("Cliente de prueba", "13", "1049600000", null)
+                .conUbicacion("Carrera 11 # 18-40", "Tunja"));
+        factura.agregarLinea(1, "Impresión de pendón", 2, new BigDecimal("50000"), new BigDecimal("100000"));
+        factura.setSubtotal(new BigDecimal("100000"));
+        factura.setIva(new BigDecimal("19000"));
+        factura.setTotal(new BigDecimal("119000"));
+        return factura;
+    }
+
+    private static Document leer(FacturaUbl factura) throws Exception {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        EscritorUbl.escribir(factura, xml);
+        DocumentBuilderFactory fabrica = DocumentBuilderFactory.newInstance();
+        fabrica.setNamespaceAware(true);
+        return fabrica.newDocumentBuilder().parse(new ByteArrayInputStream(xml.toByteArray()));
+    }
+
+    private static List<String> hijos(Element elemento) {
+        List<String> nombres = new ArrayList<>();
+        for (Node hijo = elemento.getFirstChild(); hijo != null; hijo = hijo.getNextSibling()) {
+            if (hijo.getNodeType() == Node.ELEMENT_NODE) {
+                nombres.add(hijo.getLocalName());
+            }
+        }
+        return nombres;
+    }
+}